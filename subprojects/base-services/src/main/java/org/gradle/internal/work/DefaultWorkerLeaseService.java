@@ -41,6 +41,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.gradle.internal.resources.DefaultResourceLockCoordinationService.*;
 import static org.gradle.internal.resources.ResourceLockState.Disposition.FINISHED;
@@ -100,6 +101,19 @@ public class DefaultWorkerLeaseService implements WorkerLeaseService, Parallelis
         return getWorkerLease(parent);
     }
 
+    @Override
+    public int getAvailableWorkerLeaseCount() {
+        final AtomicInteger available = new AtomicInteger();
+        coordinationService.withStateLock(new Transformer<ResourceLockState.Disposition, ResourceLockState>() {
+            @Override
+            public ResourceLockState.Disposition transform(ResourceLockState resourceLockState) {
+                available.set(Math.max(0, maxWorkerCount - root.leasesInUse));
+                return FINISHED;
+            }
+        });
+        return available.get();
+    }
+
     @Override
     public void withSharedLease(WorkerLease sharedLease, Runnable action) {
         workerLeaseLockRegistry.associateResourceLock(sharedLease);
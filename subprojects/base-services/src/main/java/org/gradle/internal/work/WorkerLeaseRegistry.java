@@ -38,6 +38,11 @@ public interface WorkerLeaseRegistry {
      */
     WorkerLease getWorkerLease();
 
+    /**
+     * Returns the number of worker leases that could be granted right now without blocking. The value is a snapshot, other threads may acquire or release leases at any time.
+     */
+    int getAvailableWorkerLeaseCount();
+
     /**
      * For the given action, update the worker lease registry to associate the current thread with the worker lease.
      * Note that this does not actually reserve the worker lease.
@@ -326,6 +326,38 @@ class DefaultWorkerLeaseServiceWorkerLeaseTest extends ConcurrentSpec {
         registry?.stop()
     }
 
+    def "reports the number of leases that can be granted without blocking"() {
+        def registry = workerLeaseService(3)
+
+        expect:
+        registry.availableWorkerLeaseCount == 3
+
+        when:
+        def outer = registry.getWorkerLease().start()
+        def op = registry.currentWorkerLease
+        def borrowed = op.startChild()
+
+        then:
+        registry.availableWorkerLeaseCount == 2
+
+        when:
+        def child = op.startChild()
+
+        then:
+        registry.availableWorkerLeaseCount == 1
+
+        when:
+        child.leaseFinish()
+        borrowed.leaseFinish()
+        outer.leaseFinish()
+
+        then:
+        registry.availableWorkerLeaseCount == 3
+
+        cleanup:
+        registry?.stop()
+    }
+
     def "can use worker lease as resource lock"() {
         def registry = workerLeaseService(1)
 
@@ -31,8 +31,14 @@ import org.gradle.cache.internal.CrossBuildInMemoryCache;
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
 import org.gradle.cache.internal.CrossProcessSynchronizingCache;
 import org.gradle.cache.internal.HeapProportionalCacheSizer;
+import org.gradle.cache.internal.HeapUsageReportingCache;
+import org.gradle.cache.internal.InMemoryCacheUsageRegistry;
 import org.gradle.cache.internal.MultiProcessSafeAsyncPersistentIndexedCache;
+import org.gradle.internal.util.NumberUtil;
+import org.gradle.process.internal.health.memory.MemoryHolder;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -40,18 +46,50 @@ import java.util.concurrent.atomic.AtomicReference;
  * The in-memory cache is invalidated when the backing cache is changed by another process.
  *
  * Also decorates each cache so that updates to the backing cache are made asynchronously.
+ *
+ * When the heap is running low, entries are discarded from the in-memory caches. They are reloaded from the backing cache when next required.
  */
-public class InMemoryCacheDecoratorFactory {
+public class InMemoryCacheDecoratorFactory implements MemoryHolder {
+    /**
+     * The in-memory caches are cheap to repopulate from the backing caches, so they are released before other heap memory holders.
+     */
+    public static final int HEAP_RELEASE_PRIORITY = 0;
+
     private final static Logger LOG = Logging.getLogger(InMemoryCacheDecoratorFactory.class);
     private final boolean longLivingProcess;
     private final HeapProportionalCacheSizer cacheSizer = new HeapProportionalCacheSizer();
     private final CrossBuildInMemoryCache<String, CacheDetails> caches;
+    private final InMemoryCacheUsageRegistry cacheUsageRegistry;
 
-    public InMemoryCacheDecoratorFactory(boolean longLivingProcess, CrossBuildInMemoryCacheFactory cacheFactory) {
+    public InMemoryCacheDecoratorFactory(boolean longLivingProcess, CrossBuildInMemoryCacheFactory cacheFactory, InMemoryCacheUsageRegistry cacheUsageRegistry) {
         this.longLivingProcess = longLivingProcess;
+        this.cacheUsageRegistry = cacheUsageRegistry;
         caches = cacheFactory.newCache();
     }
 
+    /**
+     * Discards a fixed fraction of the entries of each in-memory store. The entries are discarded by count rather than by size, as this is called when the heap
+     * is running low and walking the entries to estimate their size would only add to the pressure. The heap released is estimated from the entry sizes
+     * calculated when the usage of the caches was last reported.
+     */
+    @Override
+    public long attemptToRelease(long memoryAmountBytes) throws IllegalArgumentException {
+        if (memoryAmountBytes < 0) {
+            throw new IllegalArgumentException("Negative memory amount");
+        }
+        long released = 0;
+        for (CacheDetails cacheDetails : caches.values()) {
+            if (released >= memoryAmountBytes) {
+                break;
+            }
+            released += cacheDetails.discardEntries() * cacheUsageRegistry.getLastEstimatedEntrySize(cacheDetails);
+        }
+        if (released > 0) {
+            LOG.debug("Released approximately {} of heap from in-memory caches", NumberUtil.formatBytes(released));
+        }
+        return released;
+    }
+
     public CacheDecorator decorator(final int maxEntriesToKeepInMemory, final boolean cacheInMemoryForShortLivedProcesses) {
         return new InMemoryCacheDecorator(maxEntriesToKeepInMemory, cacheInMemoryForShortLivedProcesses);
     }
@@ -73,6 +111,7 @@ public class InMemoryCacheDecoratorFactory {
             public CacheDetails transform(String cacheId) {
                 Cache<Object, Object> entries = createInMemoryCache(cacheId, maxSize);
                 CacheDetails cacheDetails = new CacheDetails(cacheId, maxSize, entries, new AtomicReference<FileLock.State>(null));
+                cacheUsageRegistry.register(cacheDetails);
                 LOG.debug("Creating in-memory store for cache {} (max size: {})", cacheId, maxSize);
                 return cacheDetails;
             }
@@ -125,7 +164,7 @@ public class InMemoryCacheDecoratorFactory {
         }
     }
 
-    private static class CacheDetails {
+    private static class CacheDetails implements HeapUsageReportingCache {
         private final String cacheId;
         private final int maxEntries;
         private final Cache<Object, Object> entries;
@@ -137,5 +176,39 @@ public class InMemoryCacheDecoratorFactory {
             this.entries = entries;
             this.lockState = lockState;
         }
+
+        @Override
+        public String getDisplayName() {
+            return "in-memory store for cache " + cacheId;
+        }
+
+        @Override
+        public long getEntryCount() {
+            return entries.size();
+        }
+
+        @Override
+        public Collection<?> sampleEntries(int maxEntries) {
+            return InMemoryCacheUsageRegistry.sample(entries.asMap().entrySet(), maxEntries);
+        }
+
+        /**
+         * Discards half of the entries, and returns the number of entries discarded.
+         */
+        long discardEntries() {
+            long toDiscard = (entries.size() + 1) / 2;
+            if (toDiscard == 0) {
+                return 0;
+            }
+            LOG.debug("Discarding {} entries from in-memory cache of {}", toDiscard, cacheId);
+            long discarded = 0;
+            Iterator<Object> keys = entries.asMap().keySet().iterator();
+            while (discarded < toDiscard && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+                discarded++;
+            }
+            return discarded;
+        }
     }
 }
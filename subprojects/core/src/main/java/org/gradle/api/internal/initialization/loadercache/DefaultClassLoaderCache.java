@@ -24,6 +24,8 @@ import com.google.common.collect.Multiset;
 import com.google.common.hash.HashCode;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.cache.internal.HeapUsageReportingCache;
+import org.gradle.cache.internal.InMemoryCacheUsageRegistry;
 import org.gradle.internal.classloader.ClassLoaderUtils;
 import org.gradle.internal.classloader.ClasspathHasher;
 import org.gradle.internal.classloader.FilteringClassLoader;
@@ -32,9 +34,10 @@ import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.concurrent.Stoppable;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
 import java.util.Map;
 
-public class DefaultClassLoaderCache implements ClassLoaderCache, Stoppable {
+public class DefaultClassLoaderCache implements ClassLoaderCache, Stoppable, HeapUsageReportingCache {
     private static final Logger LOGGER = Logging.getLogger(DefaultClassLoaderCache.class);
 
     private final Object lock = new Object();
@@ -126,6 +129,26 @@ public class DefaultClassLoaderCache implements ClassLoaderCache, Stoppable {
         }
     }
 
+    @Override
+    public String getDisplayName() {
+        return "class loaders";
+    }
+
+    @Override
+    public long getEntryCount() {
+        return size();
+    }
+
+    /**
+     * Samples the cached specs, which reference the class paths of the class loaders. The heap used by the class loaders themselves, and the classes they have loaded, is not included.
+     */
+    @Override
+    public Collection<?> sampleEntries(int maxEntries) {
+        synchronized (lock) {
+            return InMemoryCacheUsageRegistry.sample(bySpec.keySet(), maxEntries);
+        }
+    }
+
     @Override
     public void stop() {
         synchronized (lock) {
@@ -20,6 +20,7 @@ import net.jcip.annotations.ThreadSafe;
 import org.gradle.api.Transformer;
 
 import javax.annotation.Nullable;
+import java.util.Collection;
 
 /**
  * An in-memory cache of calculated values that are used across builds. The implementation takes care of cleaning up state that is no longer required.
@@ -45,4 +46,9 @@ public interface CrossBuildInMemoryCache<K, V> {
      * Removes all entries from this cache.
      */
     void clear();
+
+    /**
+     * Returns a snapshot of the values currently held by this cache, including those retained from previous builds that have not yet been discarded.
+     */
+    Collection<V> values();
 }
@@ -23,6 +23,8 @@ import org.gradle.internal.event.ListenerManager;
 
 import javax.annotation.Nullable;
 import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -101,6 +103,20 @@ public class CrossBuildInMemoryCacheFactory {
             }
         }
 
+        @Override
+        public Collection<V> values() {
+            synchronized (lock) {
+                Collection<V> values = new ArrayList<V>(allValues.size());
+                for (SoftReference<V> reference : allValues.values()) {
+                    V value = reference.get();
+                    if (value != null) {
+                        values.add(value);
+                    }
+                }
+                return values;
+            }
+        }
+
         @Nullable
         @Override
         public V get(K key) {
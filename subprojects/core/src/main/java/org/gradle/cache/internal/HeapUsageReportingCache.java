@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.cache.internal;
+
+import java.util.Collection;
+
+/**
+ * An in-memory cache that can report how much of the heap it holds on to. Such caches are registered with {@link InMemoryCacheUsageRegistry}.
+ */
+public interface HeapUsageReportingCache {
+    /**
+     * A description of this cache, for diagnostics.
+     */
+    String getDisplayName();
+
+    /**
+     * The number of entries currently held by this cache.
+     */
+    long getEntryCount();
+
+    /**
+     * Returns up to the given number of entries currently held by this cache. The heap used by the cache is estimated from the objects reachable from these entries.
+     */
+    Collection<?> sampleEntries(int maxEntries);
+}
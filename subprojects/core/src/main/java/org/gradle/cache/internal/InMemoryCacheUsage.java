@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.cache.internal;
+
+import org.gradle.internal.util.NumberUtil;
+
+import java.io.Serializable;
+
+/**
+ * The heap usage of an in-memory cache, as reported by {@link InMemoryCacheUsageRegistry}.
+ */
+public class InMemoryCacheUsage implements Serializable {
+    private final String displayName;
+    private final long entryCount;
+    private final long estimatedSize;
+
+    public InMemoryCacheUsage(String displayName, long entryCount, long estimatedSize) {
+        this.displayName = displayName;
+        this.entryCount = entryCount;
+        this.estimatedSize = estimatedSize;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * The estimated number of bytes of heap retained by the entries of the cache.
+     */
+    public long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    @Override
+    public String toString() {
+        return displayName + ": " + entryCount + " entries, ~" + NumberUtil.formatBytes(estimatedSize);
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.cache.internal;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.collect.Sets;
+import net.jcip.annotations.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps track of the in-memory caches of the process, so that their heap usage can be reported.
+ *
+ * <p>Caches are referenced weakly, so a cache does not need to be removed from the registry when it is discarded.</p>
+ *
+ * <p>The heap used by a cache is estimated by walking the objects reachable from a sample of its entries, and scaling the result by the number of entries.
+ * The result is only an estimate, and the caches may be modified while they are walked, so the usage is only calculated on request.
+ * The estimated size of an entry is kept, so that the heap freed by discarding entries can be estimated without walking any objects.</p>
+ */
+@ThreadSafe
+public class InMemoryCacheUsageRegistry {
+    private static final int MAX_SAMPLED_ENTRIES = 32;
+    private static final int MAX_OBJECTS_PER_ENTRY = 10000;
+
+    // The estimated size of an entry of each cache, as of the last time the usage was calculated
+    private final ConcurrentMap<HeapUsageReportingCache, Long> caches = new MapMaker().weakKeys().makeMap();
+
+    public void register(HeapUsageReportingCache cache) {
+        caches.putIfAbsent(cache, 0L);
+    }
+
+    /**
+     * Returns the usage of each registered cache that holds some entries, largest first.
+     */
+    public List<InMemoryCacheUsage> getUsage() {
+        ObjectGraphSizeEstimator estimator = new ObjectGraphSizeEstimator(MAX_OBJECTS_PER_ENTRY);
+        List<InMemoryCacheUsage> usages = new ArrayList<InMemoryCacheUsage>();
+        for (HeapUsageReportingCache cache : caches.keySet()) {
+            long entryCount = cache.getEntryCount();
+            if (entryCount == 0) {
+                continue;
+            }
+            long estimatedSize = estimateSize(cache, entryCount, estimator);
+            caches.put(cache, estimatedSize / entryCount);
+            usages.add(new InMemoryCacheUsage(cache.getDisplayName(), entryCount, estimatedSize));
+        }
+        Collections.sort(usages, new Comparator<InMemoryCacheUsage>() {
+            @Override
+            public int compare(InMemoryCacheUsage o1, InMemoryCacheUsage o2) {
+                return o1.getEstimatedSize() < o2.getEstimatedSize() ? 1 : o1.getEstimatedSize() == o2.getEstimatedSize() ? 0 : -1;
+            }
+        });
+        return usages;
+    }
+
+    /**
+     * Returns the estimated heap usage of an entry of the given cache, in bytes, as of the last time the usage was calculated. Returns 0 when the usage has not been calculated yet.
+     *
+     * <p>Does not walk any objects, so can be used when the heap is running low.</p>
+     */
+    public long getLastEstimatedEntrySize(HeapUsageReportingCache cache) {
+        Long entrySize = caches.get(cache);
+        return entrySize == null ? 0 : entrySize;
+    }
+
+    private static long estimateSize(HeapUsageReportingCache cache, long entryCount, ObjectGraphSizeEstimator estimator) {
+        Collection<?> sample = cache.sampleEntries(MAX_SAMPLED_ENTRIES);
+        if (sample.isEmpty()) {
+            return 0;
+        }
+        // Objects shared between entries are counted once
+        Set<Object> visited = Sets.newIdentityHashSet();
+        long sampleSize = 0;
+        for (Object entry : sample) {
+            sampleSize += estimator.estimate(entry, visited);
+        }
+        return sampleSize * entryCount / sample.size();
+    }
+
+    /**
+     * Collects up to the given number of elements of the given collection, for use as a sample.
+     */
+    public static List<Object> sample(Iterable<?> entries, int maxEntries) {
+        List<Object> sample = new ArrayList<Object>(Math.min(maxEntries, 16));
+        for (Object entry : entries) {
+            if (sample.size() >= maxEntries) {
+                break;
+            }
+            sample.add(entry);
+        }
+        return sample;
+    }
+}
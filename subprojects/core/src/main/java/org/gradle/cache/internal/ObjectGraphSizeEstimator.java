@@ -0,0 +1,218 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.cache.internal;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Estimates the heap used by the objects reachable from some root object, assuming a 64 bit JVM with compressed references.
+ *
+ * <p>Class loaders, classes, threads and references are not traversed, as they are shared with the rest of the process, and neither are enum constants.
+ * The walk stops after visiting a maximum number of objects from each root.</p>
+ *
+ * <p>The private state of JDK classes is not traversed reflectively. Instances of these classes are counted using their shallow size, except that
+ * strings include their characters, and collections and maps include their elements, which are visited using the public API along with an estimate of
+ * the space used to hold them. Instances of other classes, including subclasses of JDK classes, are always traversed using their fields, so that
+ * no code of these classes is run. Fields they inherit from JDK classes are traversed only where the JVM allows access to them.</p>
+ *
+ * <p>This implementation is not thread-safe.</p>
+ */
+class ObjectGraphSizeEstimator {
+    private static final int OBJECT_HEADER_SIZE = 12;
+    private static final int ARRAY_HEADER_SIZE = 16;
+    private static final int REFERENCE_SIZE = 4;
+    private static final int ALIGNMENT = 8;
+    // Roughly the size of a hash map entry: a header, a hash and three references
+    private static final int MAP_ENTRY_SIZE = 32;
+
+    private final int maxObjectsPerRoot;
+    private final Map<Class<?>, ClassLayout> layouts = new HashMap<Class<?>, ClassLayout>();
+
+    ObjectGraphSizeEstimator(int maxObjectsPerRoot) {
+        this.maxObjectsPerRoot = maxObjectsPerRoot;
+    }
+
+    /**
+     * Returns the estimated size of the objects reachable from the given root that have not already been visited.
+     */
+    long estimate(Object root, Set<Object> visited) {
+        long size = 0;
+        int objects = 0;
+        Deque<Object> queue = new ArrayDeque<Object>();
+        queue.add(root);
+        while (!queue.isEmpty() && objects < maxObjectsPerRoot) {
+            Object current = queue.removeFirst();
+            if (isShared(current) || !visited.add(current)) {
+                continue;
+            }
+            objects++;
+            Class<?> type = current.getClass();
+            if (type.isArray()) {
+                size += visitArray(current, type.getComponentType(), queue);
+            } else {
+                ClassLayout layout = layoutOf(type);
+                size += layout.size;
+                for (Field field : layout.referenceFields) {
+                    Object value = getValue(field, current);
+                    if (value != null) {
+                        queue.add(value);
+                    }
+                }
+                if (layout.hasJdkState) {
+                    size += visitJdkState(current, queue);
+                }
+            }
+        }
+        return size;
+    }
+
+    private static boolean isShared(Object object) {
+        return object instanceof Class || object instanceof ClassLoader || object instanceof Thread || object instanceof Reference || object instanceof Enum;
+    }
+
+    private static long visitJdkState(Object object, Deque<Object> queue) {
+        if (object instanceof String) {
+            return align(ARRAY_HEADER_SIZE + (long) ((String) object).length() * 2);
+        }
+        try {
+            if (object instanceof Collection) {
+                Collection<?> collection = (Collection<?>) object;
+                for (Object element : collection) {
+                    if (element != null) {
+                        queue.add(element);
+                    }
+                }
+                return align(ARRAY_HEADER_SIZE + (long) collection.size() * REFERENCE_SIZE);
+            }
+            if (object instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) object;
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    if (entry.getKey() != null) {
+                        queue.add(entry.getKey());
+                    }
+                    if (entry.getValue() != null) {
+                        queue.add(entry.getValue());
+                    }
+                }
+                return align(ARRAY_HEADER_SIZE + (long) map.size() * REFERENCE_SIZE) + (long) map.size() * MAP_ENTRY_SIZE;
+            }
+        } catch (RuntimeException e) {
+            // Modified concurrently, count what has been visited so far
+        }
+        return 0;
+    }
+
+    private static boolean isJdkClass(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("sun.") || name.startsWith("com.sun.") || name.startsWith("jdk.");
+    }
+
+    private static long visitArray(Object array, Class<?> componentType, Deque<Object> queue) {
+        int length = Array.getLength(array);
+        if (componentType.isPrimitive()) {
+            return align(ARRAY_HEADER_SIZE + (long) length * sizeOf(componentType));
+        }
+        Object[] elements = (Object[]) array;
+        for (Object element : elements) {
+            if (element != null) {
+                queue.add(element);
+            }
+        }
+        return align(ARRAY_HEADER_SIZE + (long) length * REFERENCE_SIZE);
+    }
+
+    private ClassLayout layoutOf(Class<?> type) {
+        ClassLayout layout = layouts.get(type);
+        if (layout == null) {
+            layout = new ClassLayout(type);
+            layouts.put(type, layout);
+        }
+        return layout;
+    }
+
+    private static Object getValue(Field field, Object target) {
+        try {
+            return field.get(target);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static int sizeOf(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return REFERENCE_SIZE;
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static class ClassLayout {
+        private final long size;
+        private final List<Field> referenceFields = new ArrayList<Field>();
+        private final boolean hasJdkState;
+
+        ClassLayout(Class<?> type) {
+            long fieldsSize = 0;
+            boolean jdkClass = isJdkClass(type);
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    fieldsSize += sizeOf(field.getType());
+                    if (!jdkClass && !field.getType().isPrimitive() && makeAccessible(field)) {
+                        referenceFields.add(field);
+                    }
+                }
+            }
+            size = align(OBJECT_HEADER_SIZE + fieldsSize);
+            hasJdkState = jdkClass;
+        }
+
+        private static boolean makeAccessible(Field field) {
+            try {
+                field.setAccessible(true);
+                return true;
+            } catch (RuntimeException e) {
+                // Not accessible, for example because of a security manager. Count the field but do not traverse it
+                return false;
+            }
+        }
+    }
+}
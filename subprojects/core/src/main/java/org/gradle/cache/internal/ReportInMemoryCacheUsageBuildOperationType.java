@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.cache.internal;
+
+import org.gradle.internal.operations.BuildOperationType;
+
+import java.util.List;
+
+/**
+ * Reports the heap usage of the in-memory caches of the process once all projects are configured and again at the end of a build, so that the caches
+ * held by a long lived daemon can be tuned. The caches are shared by the builds of a process, so each report covers their whole content at that point.
+ * This operation only runs when the {@code org.gradle.cache.reportusage} system property is set to true.
+ *
+ * See {@link InMemoryCacheUsageRegistry}.
+ *
+ * @since 4.2
+ */
+public final class ReportInMemoryCacheUsageBuildOperationType implements BuildOperationType<ReportInMemoryCacheUsageBuildOperationType.Details, ReportInMemoryCacheUsageBuildOperationType.Result> {
+
+    public interface Details {
+
+        /**
+         * The phase of the build that has just completed: {@code configuration} once all projects are configured, or {@code build} at the end of the build.
+         */
+        String getPhase();
+
+    }
+
+    public interface Result {
+
+        /**
+         * The usage of each cache, largest first.
+         */
+        List<InMemoryCacheUsage> getCaches();
+
+    }
+
+    private ReportInMemoryCacheUsageBuildOperationType() {
+    }
+
+}
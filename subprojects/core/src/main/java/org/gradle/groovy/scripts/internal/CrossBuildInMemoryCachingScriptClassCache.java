@@ -22,16 +22,34 @@ import org.gradle.api.Action;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderId;
 import org.gradle.cache.internal.CrossBuildInMemoryCache;
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.cache.internal.HeapUsageReportingCache;
+import org.gradle.cache.internal.InMemoryCacheUsageRegistry;
 import org.gradle.groovy.scripts.ScriptSource;
 import org.gradle.internal.Cast;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.process.internal.health.memory.MemoryHolder;
+import org.gradle.process.internal.health.memory.MemoryManager;
+
+import java.util.Collection;
+
+/**
+ * Caches compiled scripts in memory across builds. The cached scripts are discarded when the heap is running low, though this reports no heap as released.
+ */
+public class CrossBuildInMemoryCachingScriptClassCache implements HeapUsageReportingCache, MemoryHolder, Stoppable {
+    /**
+     * Compiled scripts need to be loaded again from the persistent cache once discarded, so are released after the in-memory caches of persistent caches.
+     */
+    public static final int HEAP_RELEASE_PRIORITY = 10;
 
-public class CrossBuildInMemoryCachingScriptClassCache {
     private final CrossBuildInMemoryCache<ScriptCacheKey, CachedCompiledScript> cachedCompiledScripts;
     private final ScriptSourceHasher hasher;
+    private final MemoryManager memoryManager;
 
-    public CrossBuildInMemoryCachingScriptClassCache(ScriptSourceHasher hasher, CrossBuildInMemoryCacheFactory cacheFactory) {
+    public CrossBuildInMemoryCachingScriptClassCache(ScriptSourceHasher hasher, CrossBuildInMemoryCacheFactory cacheFactory, MemoryManager memoryManager) {
         this.hasher = hasher;
+        this.memoryManager = memoryManager;
         cachedCompiledScripts = cacheFactory.newCache();
+        memoryManager.addHeapMemoryHolder(this, HEAP_RELEASE_PRIORITY);
     }
 
     public <T extends Script, M> CompiledScript<T, M> getOrCompile(ScriptSource source, ClassLoader classLoader,
@@ -53,6 +71,37 @@ public class CrossBuildInMemoryCachingScriptClassCache {
         return compiledScript;
     }
 
+    @Override
+    public String getDisplayName() {
+        return "compiled scripts";
+    }
+
+    @Override
+    public long getEntryCount() {
+        return cachedCompiledScripts.values().size();
+    }
+
+    @Override
+    public Collection<?> sampleEntries(int maxEntries) {
+        return InMemoryCacheUsageRegistry.sample(cachedCompiledScripts.values(), maxEntries);
+    }
+
+    @Override
+    public long attemptToRelease(long memoryAmountBytes) throws IllegalArgumentException {
+        if (memoryAmountBytes < 0) {
+            throw new IllegalArgumentException("Negative memory amount");
+        }
+        // The script classes remain reachable through the class loaders that loaded them, which are cached elsewhere, so clearing the cache frees next to nothing
+        // by itself. It does allow the class loaders to be collected once they are discarded from their own cache.
+        cachedCompiledScripts.clear();
+        return 0;
+    }
+
+    @Override
+    public void stop() {
+        memoryManager.removeHeapMemoryHolder(this);
+    }
+
     private static class CachedCompiledScript {
         private final HashCode hash;
         private final CompiledScript<?, ?> compiledScript;
@@ -17,6 +17,7 @@
 package org.gradle.initialization;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
 import org.gradle.BuildAdapter;
 import org.gradle.BuildResult;
 import org.gradle.StartParameter;
@@ -63,21 +64,22 @@ import org.gradle.profile.ReportGeneratingProfileListener;
 import org.gradle.util.DeprecationLogger;
 
 import javax.annotation.Nullable;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Creates the launchers for the builds of the process. A daemon may run several root builds at the same time, each in its own build tree,
+ * so the state of a root build, such as its progress loggers, is kept per build tree.
+ */
 public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
+    private final ProgressLoggerFactory progressLoggerFactory;
     private final GradleUserHomeScopeServiceRegistry userHomeDirServiceRegistry;
-    private final BuildProgressLogger buildProgressLogger;
-    private DefaultGradleLauncher rootBuild;
+    private final Set<BuildTreeScopeServices> buildTreesWithRootBuild = Collections.synchronizedSet(Sets.<BuildTreeScopeServices>newIdentityHashSet());
 
-    public DefaultGradleLauncherFactory(
-        ListenerManager listenerManager, ProgressLoggerFactory progressLoggerFactory, GradleUserHomeScopeServiceRegistry userHomeDirServiceRegistry) {
+    public DefaultGradleLauncherFactory(ProgressLoggerFactory progressLoggerFactory, GradleUserHomeScopeServiceRegistry userHomeDirServiceRegistry) {
+        this.progressLoggerFactory = progressLoggerFactory;
         this.userHomeDirServiceRegistry = userHomeDirServiceRegistry;
-
-        // Register default loggers
-        buildProgressLogger = new BuildProgressLogger(progressLoggerFactory);
-        listenerManager.addListener(new BuildProgressFilter(buildProgressLogger));
-        listenerManager.useLogger(new ProjectEvaluationLogger(progressLoggerFactory));
     }
 
     private GradleLauncher createChildInstance(StartParameter startParameter, GradleLauncher parent, BuildTreeScopeServices buildTreeScopeServices, List<?> servicesToStop) {
@@ -85,31 +87,40 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
         BuildRequestMetaData requestMetaData = new DefaultBuildRequestMetaData(services.get(BuildClientMetaData.class));
         BuildCancellationToken cancellationToken = services.get(BuildCancellationToken.class);
         BuildEventConsumer buildEventConsumer = services.get(BuildEventConsumer.class);
-        return doNewInstance(startParameter, parent, cancellationToken, requestMetaData, buildEventConsumer, buildTreeScopeServices, servicesToStop);
+        return doNewInstance(startParameter, parent, cancellationToken, requestMetaData, buildEventConsumer, buildTreeScopeServices, LoggerProvider.NO_OP, servicesToStop);
     }
 
     @Override
     public GradleLauncher newInstance(StartParameter startParameter, BuildRequestContext requestContext, ServiceRegistry parentRegistry) {
+        if (!(parentRegistry instanceof BuildTreeScopeServices)) {
+            throw new IllegalArgumentException("Service registry must be of build-tree scope");
+        }
+        final BuildTreeScopeServices buildTreeScopeServices = (BuildTreeScopeServices) parentRegistry;
+
         // This should only be used for top-level builds
-        if (rootBuild != null) {
+        if (!buildTreesWithRootBuild.add(buildTreeScopeServices)) {
             throw new IllegalStateException("Cannot have a current build");
         }
 
-        if (!(parentRegistry instanceof BuildTreeScopeServices)) {
-            throw new IllegalArgumentException("Service registry must be of build-tree scope");
-        }
-        BuildTreeScopeServices buildTreeScopeServices = (BuildTreeScopeServices) parentRegistry;
+        // Register the loggers of this build tree, which receive the events of the root build and its nested builds
+        final ListenerManager buildTreeListenerManager = buildTreeScopeServices.get(ListenerManager.class);
+        BuildProgressLogger buildProgressLogger = new BuildProgressLogger(progressLoggerFactory);
+        final BuildProgressFilter buildProgressFilter = new BuildProgressFilter(buildProgressLogger);
+        final ProjectEvaluationLogger projectEvaluationLogger = new ProjectEvaluationLogger(progressLoggerFactory);
+        buildTreeListenerManager.addListener(buildProgressFilter);
+        buildTreeListenerManager.addListener(projectEvaluationLogger);
 
         DefaultGradleLauncher launcher = doNewInstance(startParameter, null,
             requestContext.getCancellationToken(),
-            requestContext, requestContext.getEventConsumer(), buildTreeScopeServices,
+            requestContext, requestContext.getEventConsumer(), buildTreeScopeServices, buildProgressLogger,
             ImmutableList.of(new Stoppable() {
             @Override
             public void stop() {
-                rootBuild = null;
+                buildTreeListenerManager.removeListener(buildProgressFilter);
+                buildTreeListenerManager.removeListener(projectEvaluationLogger);
+                buildTreesWithRootBuild.remove(buildTreeScopeServices);
             }
         }));
-        rootBuild = launcher;
 
         final DefaultDeploymentRegistry deploymentRegistry = parentRegistry.get(DefaultDeploymentRegistry.class);
         launcher.getGradle().addBuildListener(new BuildAdapter() {
@@ -128,7 +139,7 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
     private DefaultGradleLauncher doNewInstance(StartParameter startParameter, GradleLauncher parent,
                                                 BuildCancellationToken cancellationToken,
                                                 BuildRequestMetaData requestMetaData, BuildEventConsumer buildEventConsumer,
-                                                final BuildTreeScopeServices buildTreeScopeServices, List<?> servicesToStop) {
+                                                final BuildTreeScopeServices buildTreeScopeServices, LoggerProvider loggerProvider, List<?> servicesToStop) {
         BuildScopeServices serviceRegistry = new BuildScopeServices(buildTreeScopeServices);
         serviceRegistry.add(BuildRequestMetaData.class, requestMetaData);
         serviceRegistry.add(BuildClientMetaData.class, requestMetaData.getClient());
@@ -139,7 +150,6 @@ public class DefaultGradleLauncherFactory implements GradleLauncherFactory {
 
         ListenerManager listenerManager = serviceRegistry.get(ListenerManager.class);
 
-        LoggerProvider loggerProvider = (parent == null) ? buildProgressLogger : LoggerProvider.NO_OP;
         listenerManager.useLogger(new TaskExecutionLogger(serviceRegistry.get(ProgressLoggerFactory.class), loggerProvider));
         if (parent == null) {
             listenerManager.useLogger(new BuildLogger(Logging.getLogger(BuildLogger.class), serviceRegistry.get(StyledTextOutputFactory.class), startParameter, requestMetaData));
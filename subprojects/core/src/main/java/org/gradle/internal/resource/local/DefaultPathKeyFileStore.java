@@ -24,6 +24,7 @@ import org.gradle.api.internal.file.collections.MinimalFileTree;
 import org.gradle.api.internal.file.collections.SingleIncludePatternFileTree;
 import org.gradle.api.internal.file.delete.Deleter;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashValue;
 import org.gradle.util.GFileUtils;
 import org.gradle.util.RelativePathUtil;
 
@@ -74,6 +75,11 @@ public class DefaultPathKeyFileStore implements PathKeyFileStore {
         return saveIntoFileStore(source, getFile(path), true);
     }
 
+    @Override
+    public LocallyAvailableResource move(String path, File source, HashValue sha1) {
+        return new DefaultLocallyAvailableResource(move(path, source).getFile(), sha1);
+    }
+
     @Override
     public LocallyAvailableResource copy(String path, File source) {
         return saveIntoFileStore(source, getFile(path), false);
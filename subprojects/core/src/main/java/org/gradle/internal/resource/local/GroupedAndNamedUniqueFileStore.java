@@ -19,6 +19,7 @@ import org.gradle.api.Action;
 import org.gradle.api.Transformer;
 import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.hash.HashValue;
 
 import java.io.File;
 import java.util.Set;
@@ -45,6 +46,11 @@ public class GroupedAndNamedUniqueFileStore<K> implements FileStore<K>, FileStor
         return delegate.move(toPath(key, getChecksum(source)), source);
     }
 
+    public LocallyAvailableResource move(K key, File source, HashValue sha1) {
+        LocallyAvailableResource resource = delegate.move(toPath(key, sha1.asHexString()), source);
+        return new DefaultLocallyAvailableResource(resource.getFile(), sha1);
+    }
+
     public LocallyAvailableResource copy(K key, File source) {
         return delegate.copy(toPath(key, getChecksum(source)), source);
     }
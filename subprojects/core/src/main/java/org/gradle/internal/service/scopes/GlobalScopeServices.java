@@ -52,6 +52,7 @@ import org.gradle.cache.FileLockManager;
 import org.gradle.cache.internal.CacheFactory;
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
 import org.gradle.cache.internal.DefaultCacheFactory;
+import org.gradle.cache.internal.InMemoryCacheUsageRegistry;
 import org.gradle.cli.CommandLineConverter;
 import org.gradle.configuration.DefaultImportsReader;
 import org.gradle.configuration.ImportsReader;
@@ -153,8 +154,8 @@ public class GlobalScopeServices extends BasicGlobalScopeServices {
         }
     }
 
-    GradleLauncherFactory createGradleLauncherFactory(ListenerManager listenerManager, ProgressLoggerFactory progressLoggerFactory, GradleUserHomeScopeServiceRegistry userHomeScopeServiceRegistry) {
-        return new DefaultGradleLauncherFactory(listenerManager, progressLoggerFactory, userHomeScopeServiceRegistry);
+    GradleLauncherFactory createGradleLauncherFactory(ProgressLoggerFactory progressLoggerFactory, GradleUserHomeScopeServiceRegistry userHomeScopeServiceRegistry) {
+        return new DefaultGradleLauncherFactory(progressLoggerFactory, userHomeScopeServiceRegistry);
     }
 
     BuildOperationListenerManager createBuildOperationService(ListenerManager listenerManager) {
@@ -235,8 +236,14 @@ public class GlobalScopeServices extends BasicGlobalScopeServices {
         return new CrossBuildInMemoryCacheFactory(listenerManager);
     }
 
-    InMemoryCacheDecoratorFactory createInMemoryTaskArtifactCache(CrossBuildInMemoryCacheFactory cacheFactory) {
-        return new InMemoryCacheDecoratorFactory(environment.isLongLivingProcess(), cacheFactory);
+    InMemoryCacheUsageRegistry createInMemoryCacheUsageRegistry() {
+        return new InMemoryCacheUsageRegistry();
+    }
+
+    InMemoryCacheDecoratorFactory createInMemoryTaskArtifactCache(CrossBuildInMemoryCacheFactory cacheFactory, InMemoryCacheUsageRegistry cacheUsageRegistry, MemoryManager memoryManager) {
+        InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory = new InMemoryCacheDecoratorFactory(environment.isLongLivingProcess(), cacheFactory, cacheUsageRegistry);
+        memoryManager.addHeapMemoryHolder(inMemoryCacheDecoratorFactory, InMemoryCacheDecoratorFactory.HEAP_RELEASE_PRIORITY);
+        return inMemoryCacheDecoratorFactory;
     }
 
 
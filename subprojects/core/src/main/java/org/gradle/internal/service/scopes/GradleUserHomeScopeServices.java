@@ -47,6 +47,7 @@ import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.internal.CacheRepositoryServices;
 import org.gradle.cache.internal.CacheScopeMapping;
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory;
+import org.gradle.cache.internal.InMemoryCacheUsageRegistry;
 import org.gradle.groovy.scripts.internal.CrossBuildInMemoryCachingScriptClassCache;
 import org.gradle.groovy.scripts.internal.DefaultScriptSourceHasher;
 import org.gradle.groovy.scripts.internal.RegistryAwareClassLoaderHierarchyHasher;
@@ -124,8 +125,10 @@ public class GradleUserHomeScopeServices {
         return new DefaultScriptSourceHasher(fileHasher, contentHasherFactory);
     }
 
-    CrossBuildInMemoryCachingScriptClassCache createCachingScriptCompiler(ScriptSourceHasher hasher, CrossBuildInMemoryCacheFactory cacheFactory) {
-        return new CrossBuildInMemoryCachingScriptClassCache(hasher, cacheFactory);
+    CrossBuildInMemoryCachingScriptClassCache createCachingScriptCompiler(ScriptSourceHasher hasher, CrossBuildInMemoryCacheFactory cacheFactory, InMemoryCacheUsageRegistry cacheUsageRegistry, MemoryManager memoryManager) {
+        CrossBuildInMemoryCachingScriptClassCache scriptClassCache = new CrossBuildInMemoryCachingScriptClassCache(hasher, cacheFactory, memoryManager);
+        cacheUsageRegistry.register(scriptClassCache);
+        return scriptClassCache;
     }
 
     ValueSnapshotter createValueSnapshotter(ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
@@ -160,8 +163,10 @@ public class GradleUserHomeScopeServices {
         return new DefaultHashingClassLoaderFactory(classpathHasher);
     }
 
-    ClassLoaderCache createClassLoaderCache(HashingClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher) {
-        return new DefaultClassLoaderCache(classLoaderFactory, classpathHasher);
+    ClassLoaderCache createClassLoaderCache(HashingClassLoaderFactory classLoaderFactory, ClasspathHasher classpathHasher, InMemoryCacheUsageRegistry cacheUsageRegistry) {
+        DefaultClassLoaderCache classLoaderCache = new DefaultClassLoaderCache(classLoaderFactory, classpathHasher);
+        cacheUsageRegistry.register(classLoaderCache);
+        return classLoaderCache;
     }
 
     CachedClasspathTransformer createCachedClasspathTransformer(CacheRepository cacheRepository, FileHasher fileHasher, List<CachedJarFileStore> fileStores) {
@@ -293,6 +293,11 @@ class DependencyInjectingInstantiatorTest extends Specification {
         @Override
         void clear() {
         }
+
+        @Override
+        Collection<DependencyInjectingInstantiator.CachedConstructor> values() {
+            return []
+        }
     }
 
     public static class HasDefaultConstructor {
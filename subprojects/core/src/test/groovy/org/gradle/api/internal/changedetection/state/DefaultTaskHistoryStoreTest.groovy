@@ -21,6 +21,7 @@ import org.gradle.cache.CacheRepository
 import org.gradle.cache.FileLockManager
 import org.gradle.cache.PersistentCache
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
+import org.gradle.cache.internal.InMemoryCacheUsageRegistry
 import org.gradle.cache.internal.filelock.LockOptionsBuilder
 import org.gradle.internal.event.DefaultListenerManager
 import spock.lang.Specification
@@ -34,7 +35,7 @@ class DefaultTaskHistoryStoreTest extends Specification {
         PersistentCache backingCache = Mock()
 
         when:
-        new DefaultTaskHistoryStore(gradle, cacheRepository, new InMemoryCacheDecoratorFactory(false, new CrossBuildInMemoryCacheFactory(new DefaultListenerManager())))
+        new DefaultTaskHistoryStore(gradle, cacheRepository, new InMemoryCacheDecoratorFactory(false, new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()), new InMemoryCacheUsageRegistry()))
 
         then:
         1 * cacheRepository.cache(gradle, "taskHistory") >> cacheBuilder
@@ -20,12 +20,14 @@ import org.gradle.cache.AsyncCacheAccess
 import org.gradle.cache.CrossProcessCacheAccess
 import org.gradle.cache.MultiProcessSafePersistentIndexedCache
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
+import org.gradle.cache.internal.InMemoryCacheUsageRegistry
 import org.gradle.internal.Factory
 import org.gradle.internal.event.DefaultListenerManager
 import spock.lang.Specification
 
 class InMemoryCacheDecoratorFactoryTest extends Specification {
-    def cacheFactory = new InMemoryCacheDecoratorFactory(false, new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()))
+    def cacheUsageRegistry = new InMemoryCacheUsageRegistry()
+    def cacheFactory = new InMemoryCacheDecoratorFactory(false, new CrossBuildInMemoryCacheFactory(new DefaultListenerManager()), cacheUsageRegistry)
     def target = Mock(MultiProcessSafePersistentIndexedCache)
     def asyncCacheAccess = Mock(AsyncCacheAccess)
     def crossProcessCacheAccess = Mock(CrossProcessCacheAccess)
@@ -202,4 +204,50 @@ class InMemoryCacheDecoratorFactoryTest extends Specification {
         0 * target._
     }
 
+    def "discards entries from in-memory caches when asked to release memory"() {
+        given:
+        def cache = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", target, crossProcessCacheAccess, asyncCacheAccess)
+        crossProcessCacheAccess.withFileLock(_) >> { Factory task -> task.create() }
+        asyncCacheAccess.read(_) >> { Factory task -> task.create() }
+
+        when:
+        cache.get("key")
+
+        then:
+        1 * target.get("key") >> "result"
+
+        when:
+        cacheUsageRegistry.getUsage()
+        def released = cacheFactory.attemptToRelease(Long.MAX_VALUE)
+
+        then:
+        released > 0
+
+        when:
+        def result = cache.get("key")
+
+        then:
+        result == "result"
+        1 * target.get("key") >> "result"
+    }
+
+    def "discards half of the entries by count when asked to release memory"() {
+        given:
+        def cache = cacheFactory.decorator(100, true).decorate("path/fileSnapshots.bin", "fileSnapshots", target, crossProcessCacheAccess, asyncCacheAccess)
+        crossProcessCacheAccess.withFileLock(_) >> { Factory task -> task.create() }
+        asyncCacheAccess.read(_) >> { Factory task -> task.create() }
+        target.get(_) >> "result"
+        4.times { cache.get("key" + it) }
+
+        when:
+        cacheFactory.attemptToRelease(1)
+
+        then:
+        cacheUsageRegistry.getUsage()[0].entryCount == 2
+    }
+
+    def "releases nothing when in-memory caches are empty"() {
+        expect:
+        cacheFactory.attemptToRelease(1000) == 0
+    }
 }
@@ -169,4 +169,23 @@ class CrossBuildInMemoryCacheFactoryTest extends ConcurrentSpec {
         cache.get(String) == c
     }
 
+    def "can query the values held by the cache"() {
+        def a = new Object()
+        def b = new Object()
+
+        given:
+        def cache = factory.newCache()
+        cache.put("a", a)
+        cache.put("b", b)
+
+        expect:
+        cache.values() as Set == [a, b] as Set
+
+        when:
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+
+        then:
+        cache.values() as Set == [a, b] as Set
+    }
+
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.cache.internal
+
+import spock.lang.Specification
+
+class InMemoryCacheUsageRegistryTest extends Specification {
+    def registry = new InMemoryCacheUsageRegistry()
+
+    def "reports nothing when no caches are registered"() {
+        expect:
+        registry.usage.empty
+    }
+
+    def "reports the entry count and estimated size of each cache that holds entries, largest first"() {
+        def small = cache("small", (1..10).collect { "entry $it".toString() })
+        def large = cache("large", (1..10).collect { new byte[1000] })
+        def empty = cache("empty", [])
+
+        given:
+        registry.register(small)
+        registry.register(large)
+        registry.register(empty)
+
+        when:
+        def usage = registry.usage
+
+        then:
+        usage.size() == 2
+        usage[0].displayName == "large"
+        usage[0].entryCount == 10
+        usage[0].estimatedSize >= 10 * 1000
+        usage[1].displayName == "small"
+        usage[1].entryCount == 10
+        usage[1].estimatedSize > 0
+        usage[1].estimatedSize < usage[0].estimatedSize
+    }
+
+    def "extrapolates the size of the cache from a sample of its entries"() {
+        def entries = (1..1000).collect { new byte[100] }
+        def sampled = cache("sampled", entries)
+
+        given:
+        registry.register(sampled)
+
+        when:
+        def usage = registry.usage
+
+        then:
+        usage.size() == 1
+        usage[0].entryCount == 1000
+        usage[0].estimatedSize >= 1000 * 100
+    }
+
+    def "counts objects shared between entries once"() {
+        def shared = new byte[10000]
+        def entries = (1..10).collect { [shared] }
+        def sharing = cache("sharing", entries)
+
+        given:
+        registry.register(sharing)
+
+        when:
+        def usage = registry.usage
+
+        then:
+        usage[0].estimatedSize >= 10000
+        usage[0].estimatedSize < 2 * 10000
+    }
+
+    def "counts the elements of JDK collections and maps without accessing their private state"() {
+        def entries = (1..10).collect { [key: new byte[1000], values: new HashSet([new byte[1000]])] }
+        def jdk = cache("jdk", entries)
+
+        given:
+        registry.register(jdk)
+
+        when:
+        def usage = registry.usage
+
+        then:
+        usage[0].estimatedSize >= 10 * 2000
+    }
+
+    def "traverses subclasses of JDK collections using their fields rather than their methods"() {
+        def entries = (1..10).collect { new CustomList() }
+        def custom = cache("custom", entries)
+
+        given:
+        registry.register(custom)
+
+        when:
+        def usage = registry.usage
+
+        then:
+        usage[0].estimatedSize >= 10 * 1000
+        entries.every { !it.isIterated() }
+    }
+
+    def "samples up to the given number of elements"() {
+        expect:
+        InMemoryCacheUsageRegistry.sample([1, 2, 3], 5) == [1, 2, 3]
+        InMemoryCacheUsageRegistry.sample([1, 2, 3], 2) == [1, 2]
+        InMemoryCacheUsageRegistry.sample([], 2) == []
+    }
+
+    static class CustomList extends ArrayList<Object> {
+        final byte[] payload = new byte[1000]
+        boolean iterated
+
+        @Override
+        Iterator<Object> iterator() {
+            iterated = true
+            return super.iterator()
+        }
+    }
+
+    def cache(String displayName, List<?> entries) {
+        return Stub(HeapUsageReportingCache) {
+            getDisplayName() >> displayName
+            getEntryCount() >> entries.size()
+            sampleEntries(_) >> { int max -> InMemoryCacheUsageRegistry.sample(entries, max) }
+        }
+    }
+}
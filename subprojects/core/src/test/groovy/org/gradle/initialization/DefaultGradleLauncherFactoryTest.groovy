@@ -17,7 +17,6 @@ package org.gradle.initialization
 
 import org.gradle.StartParameter
 import org.gradle.internal.classpath.ClassPath
-import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.logging.progress.ProgressLoggerFactory
 import org.gradle.internal.logging.services.LoggingServiceRegistry
 import org.gradle.internal.scan.config.BuildScanConfig
@@ -41,10 +40,9 @@ class DefaultGradleLauncherFactoryTest extends Specification {
     final def userHomeServices = globalServices.get(GradleUserHomeScopeServiceRegistry).getServicesFor(tmpDir.createDir("user-home"))
     final def sessionServices = new BuildSessionScopeServices(userHomeServices, startParameter, ClassPath.EMPTY)
     final def buildTreeServices = new BuildTreeScopeServices(sessionServices)
-    final def listenerManager = globalServices.get(ListenerManager)
     final def progressLoggerFactory = globalServices.get(ProgressLoggerFactory)
     final def userHomeScopeServiceRegistry = globalServices.get(GradleUserHomeScopeServiceRegistry)
-    final def factory = new DefaultGradleLauncherFactory(listenerManager, progressLoggerFactory, userHomeScopeServiceRegistry)
+    final def factory = new DefaultGradleLauncherFactory(progressLoggerFactory, userHomeScopeServiceRegistry)
 
     def cleanup() {
         buildTreeServices.close()
@@ -95,6 +93,40 @@ class DefaultGradleLauncherFactoryTest extends Specification {
         launcher.gradle.services.get(BuildEventConsumer) == eventConsumer
     }
 
+    def "can run root builds in separate build trees at the same time"() {
+        def otherBuildTreeServices = new BuildTreeScopeServices(sessionServices)
+
+        when:
+        def launcher = factory.newInstance(startParameter, Stub(BuildRequestContext), buildTreeServices)
+        def otherLauncher = factory.newInstance(startParameter, Stub(BuildRequestContext), otherBuildTreeServices)
+
+        then:
+        launcher.gradle != otherLauncher.gradle
+
+        cleanup:
+        otherLauncher?.stop()
+        launcher?.stop()
+        otherBuildTreeServices.close()
+    }
+
+    def "cannot run a second root build in the same build tree"() {
+        def launcher = factory.newInstance(startParameter, Stub(BuildRequestContext), buildTreeServices)
+
+        when:
+        factory.newInstance(startParameter, Stub(BuildRequestContext), buildTreeServices)
+
+        then:
+        def e = thrown(IllegalStateException)
+        e.message == "Cannot have a current build"
+
+        when:
+        launcher.stop()
+        def nextLauncher = factory.newInstance(startParameter, Stub(BuildRequestContext), buildTreeServices)
+
+        then:
+        nextLauncher != null
+    }
+
     def "initializes build scan config"() {
         given:
         startParameter.setBuildScan(true)
@@ -33,6 +33,7 @@ import org.gradle.cache.CacheDecorator
 import org.gradle.cache.PersistentCache
 import org.gradle.cache.internal.CacheFactory
 import org.gradle.cache.internal.CrossBuildInMemoryCacheFactory
+import org.gradle.cache.internal.InMemoryCacheUsageRegistry
 import org.gradle.concurrent.ParallelismConfiguration
 import org.gradle.groovy.scripts.internal.CrossBuildInMemoryCachingScriptClassCache
 import org.gradle.initialization.ClassLoaderRegistry
@@ -114,6 +115,7 @@ class GradleUserHomeScopeServicesTest extends Specification {
         expectParentServiceLocated(StringInterner)
         expectParentServiceLocated(FileSystem)
         expectParentServiceLocated(CrossBuildInMemoryCacheFactory)
+        expectParentServiceLocated(InMemoryCacheUsageRegistry)
         expectParentServiceLocated(ClassLoaderRegistry)
         expectParentServiceLocated(DirectoryFileTreeFactory)
         expectParentServiceLocated(FileContentHasherFactory)
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes;
+
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
+import org.gradle.internal.component.external.descriptor.DefaultExclude;
+import org.gradle.internal.component.model.Exclude;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Combines exclusions the way {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphBuilder} does for a synthetic,
+ * exclude-heavy dependency graph: every edge intersects the exclusions of its path with its own excludes, and every node takes the union of the
+ * exclusions of its incoming paths.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class ModuleExclusionBenchmark {
+    private static final String[] CONFIGURATIONS = new String[]{"default"};
+
+    @Param({"20", "200"})
+    int distinctRules;
+
+    @Param({"2000"})
+    int edges;
+
+    ImmutableModuleIdentifierFactory moduleIdentifierFactory;
+    List<List<Exclude>> edgeExcludes;
+    int[] parents;
+    ModuleExclusions warmExclusions;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        moduleIdentifierFactory = new DefaultImmutableModuleIdentifierFactory();
+        Random random = new Random(42);
+        List<Exclude> rules = new ArrayList<Exclude>(distinctRules);
+        for (int i = 0; i < distinctRules; i++) {
+            switch (i % 3) {
+                case 0:
+                    rules.add(exclude("org" + i % 7, "module" + i));
+                    break;
+                case 1:
+                    rules.add(exclude("*", "module" + i));
+                    break;
+                default:
+                    rules.add(exclude("org" + i % 5, "*"));
+            }
+        }
+        // A handful of distinct exclude lists, shared by many edges as happens with common parent POMs
+        List<List<Exclude>> excludeLists = new ArrayList<List<Exclude>>();
+        for (int i = 0; i < Math.max(4, distinctRules / 4); i++) {
+            List<Exclude> excludes = new ArrayList<Exclude>();
+            int count = 1 + random.nextInt(4);
+            for (int j = 0; j < count; j++) {
+                excludes.add(rules.get(random.nextInt(rules.size())));
+            }
+            excludeLists.add(excludes);
+        }
+        edgeExcludes = new ArrayList<List<Exclude>>(edges);
+        parents = new int[edges];
+        for (int i = 0; i < edges; i++) {
+            edgeExcludes.add(random.nextInt(3) == 0 ? excludeLists.get(random.nextInt(excludeLists.size())) : new ArrayList<Exclude>());
+            parents[i] = i == 0 ? -1 : random.nextInt(i);
+        }
+        warmExclusions = new ModuleExclusions(moduleIdentifierFactory);
+    }
+
+    @Benchmark
+    public void resolveWithFreshExclusions(Blackhole blackhole) {
+        traverse(new ModuleExclusions(moduleIdentifierFactory), blackhole);
+    }
+
+    @Benchmark
+    public void resolveWithSharedExclusions(Blackhole blackhole) {
+        traverse(warmExclusions, blackhole);
+    }
+
+    private void traverse(ModuleExclusions moduleExclusions, Blackhole blackhole) {
+        ModuleExclusion[] pathExclusions = new ModuleExclusion[edges];
+        ModuleExclusion[] nodeExclusions = new ModuleExclusion[edges];
+        for (int i = 0; i < edges; i++) {
+            ModuleExclusion inherited = parents[i] < 0 ? ModuleExclusions.excludeNone() : pathExclusions[parents[i]];
+            ModuleExclusion path = moduleExclusions.intersect(inherited, moduleExclusions.excludeAny(edgeExcludes.get(i)));
+            pathExclusions[i] = path;
+            // Nodes are reached through several edges: fold each path into the node it targets
+            int target = i % Math.max(1, edges / 4);
+            nodeExclusions[target] = nodeExclusions[target] == null ? path : moduleExclusions.union(nodeExclusions[target], path);
+        }
+        blackhole.consume(nodeExclusions);
+    }
+
+    private Exclude exclude(String group, String module) {
+        return new DefaultExclude(moduleIdentifierFactory.module(group, module), CONFIGURATIONS, PatternMatchers.EXACT);
+    }
+}
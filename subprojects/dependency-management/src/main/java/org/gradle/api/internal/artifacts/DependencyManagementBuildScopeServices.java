@@ -25,8 +25,10 @@ import org.gradle.api.internal.artifacts.component.DefaultComponentIdentifierFac
 import org.gradle.api.internal.artifacts.dsl.dependencies.DependencyFactory;
 import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheMetaData;
 import org.gradle.api.internal.artifacts.ivyservice.CacheLockingManager;
+import org.gradle.api.internal.artifacts.ivyservice.ReadOnlyArtifactCache;
 import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.ModuleVersionsCache;
 import org.gradle.api.internal.artifacts.ivyservice.dynamicversions.SingleFileBackedModuleVersionsCache;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ArtifactDownloadScheduler;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ComponentResolvers;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ConnectionInterruptionRepositoryBlacklister;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.RepositoryBlacklister;
@@ -42,6 +44,8 @@ import org.gradle.api.internal.artifacts.ivyservice.modulecache.DefaultModuleArt
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.DefaultModuleMetaDataCache;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.ModuleArtifactsCache;
 import org.gradle.api.internal.artifacts.ivyservice.modulecache.ModuleMetaDataCache;
+import org.gradle.api.internal.artifacts.ivyservice.modulecache.TwoStageModuleArtifactsCache;
+import org.gradle.api.internal.artifacts.ivyservice.modulecache.TwoStageModuleMetaDataCache;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.ConfigurationComponentMetaDataBuilder;
 import org.gradle.api.internal.artifacts.ivyservice.moduleconverter.dependencies.DependencyDescriptorFactory;
 import org.gradle.api.internal.artifacts.ivyservice.projectmodule.DefaultLocalComponentRegistry;
@@ -78,12 +82,14 @@ import org.gradle.api.internal.runtimeshaded.RuntimeShadedJarFactory;
 import org.gradle.authentication.Authentication;
 import org.gradle.cache.internal.CacheScopeMapping;
 import org.gradle.cache.internal.GeneratedGradleJarCache;
+import org.gradle.cache.internal.InMemoryCacheUsageRegistry;
 import org.gradle.cache.internal.ProducerGuard;
 import org.gradle.cache.internal.VersionStrategy;
 import org.gradle.initialization.BuildIdentity;
 import org.gradle.initialization.DefaultBuildIdentity;
 import org.gradle.initialization.ProjectAccessListener;
 import org.gradle.internal.component.external.model.ModuleComponentArtifactMetadata;
+import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.installation.CurrentGradleInstallation;
 import org.gradle.internal.logging.progress.ProgressLoggerFactory;
 import org.gradle.internal.operations.BuildOperationExecutor;
@@ -91,7 +97,9 @@ import org.gradle.internal.reflect.Instantiator;
 import org.gradle.internal.resource.ExternalResourceName;
 import org.gradle.internal.resource.TextResourceLoader;
 import org.gradle.internal.resource.cached.ByUrlCachedExternalResourceIndex;
+import org.gradle.internal.resource.cached.CachedArtifactIndex;
 import org.gradle.internal.resource.cached.ExternalResourceFileStore;
+import org.gradle.internal.resource.cached.TwoStageCachedArtifactIndex;
 import org.gradle.internal.resource.cached.ivy.ArtifactAtRepositoryCachedArtifactIndex;
 import org.gradle.internal.resource.connector.ResourceConnectorFactory;
 import org.gradle.internal.resource.local.FileResourceRepository;
@@ -110,8 +118,10 @@ import java.util.List;
  * The set of dependency management services that are created per build.
  */
 class DependencyManagementBuildScopeServices {
-    InMemoryCachedRepositoryFactory createInMemoryDependencyMetadataCache() {
-        return new InMemoryCachedRepositoryFactory();
+    InMemoryCachedRepositoryFactory createInMemoryDependencyMetadataCache(InMemoryCacheUsageRegistry cacheUsageRegistry) {
+        InMemoryCachedRepositoryFactory inMemoryCachedRepositoryFactory = new InMemoryCachedRepositoryFactory();
+        cacheUsageRegistry.register(inMemoryCachedRepositoryFactory);
+        return inMemoryCachedRepositoryFactory;
     }
 
     DependencyManagementServices createDependencyManagementServices(ServiceRegistry parent) {
@@ -172,27 +182,46 @@ class DependencyManagementBuildScopeServices {
             moduleIdentifierFactory);
     }
 
-    ModuleArtifactsCache createModuleArtifactsCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager) {
-        return new DefaultModuleArtifactsCache(
+    ModuleArtifactsCache createModuleArtifactsCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ReadOnlyArtifactCache readOnlyArtifactCache) {
+        ModuleArtifactsCache writableCache = new DefaultModuleArtifactsCache(
             timeProvider,
             cacheLockingManager
         );
+        if (!readOnlyArtifactCache.isEnabled()) {
+            return writableCache;
+        }
+        return new TwoStageModuleArtifactsCache(
+            new DefaultModuleArtifactsCache(timeProvider, readOnlyArtifactCache.getCacheLockingManager()),
+            writableCache);
     }
 
-    ModuleMetaDataCache createModuleDescriptorCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ArtifactCacheMetaData artifactCacheMetaData, ImmutableModuleIdentifierFactory moduleIdentifierFactory, ModuleExclusions moduleExclusions) {
-        return new DefaultModuleMetaDataCache(
+    ModuleMetaDataCache createModuleDescriptorCache(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ArtifactCacheMetaData artifactCacheMetaData, ImmutableModuleIdentifierFactory moduleIdentifierFactory, ModuleExclusions moduleExclusions,
+                                                    ReadOnlyArtifactCache readOnlyArtifactCache) {
+        ModuleMetaDataCache writableCache = new DefaultModuleMetaDataCache(
             timeProvider,
             cacheLockingManager,
             artifactCacheMetaData,
             moduleIdentifierFactory, moduleExclusions);
+        if (!readOnlyArtifactCache.isEnabled()) {
+            return writableCache;
+        }
+        return new TwoStageModuleMetaDataCache(
+            new DefaultModuleMetaDataCache(timeProvider, readOnlyArtifactCache.getCacheLockingManager(), readOnlyArtifactCache.getCacheMetaData(), moduleIdentifierFactory, moduleExclusions),
+            writableCache);
     }
 
-    ArtifactAtRepositoryCachedArtifactIndex createArtifactAtRepositoryCachedResolutionIndex(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager) {
-        return new ArtifactAtRepositoryCachedArtifactIndex(
+    CachedArtifactIndex createArtifactAtRepositoryCachedResolutionIndex(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager, ReadOnlyArtifactCache readOnlyArtifactCache) {
+        CachedArtifactIndex writableIndex = new ArtifactAtRepositoryCachedArtifactIndex(
             "artifact-at-repository",
             timeProvider,
             cacheLockingManager
         );
+        if (!readOnlyArtifactCache.isEnabled()) {
+            return writableIndex;
+        }
+        return new TwoStageCachedArtifactIndex(
+            new ArtifactAtRepositoryCachedArtifactIndex("artifact-at-repository", timeProvider, readOnlyArtifactCache.getCacheLockingManager()),
+            writableIndex);
     }
 
     ByUrlCachedExternalResourceIndex createArtifactUrlCachedResolutionIndex(BuildCommencedTimeProvider timeProvider, CacheLockingManager cacheLockingManager) {
@@ -270,11 +299,17 @@ class DependencyManagementBuildScopeServices {
             fileResourceRepository);
     }
 
+    ArtifactDownloadScheduler createArtifactDownloadScheduler(InMemoryCachedRepositoryFactory inMemoryCachedRepositoryFactory, BuildOperationExecutor buildOperationExecutor, ListenerManager listenerManager) {
+        ArtifactDownloadScheduler artifactDownloadScheduler = new ArtifactDownloadScheduler(inMemoryCachedRepositoryFactory, buildOperationExecutor);
+        listenerManager.addListener(artifactDownloadScheduler);
+        return artifactDownloadScheduler;
+    }
+
     ResolveIvyFactory createResolveIvyFactory(StartParameter startParameter, ModuleVersionsCache moduleVersionsCache, ModuleMetaDataCache moduleMetaDataCache, ModuleArtifactsCache moduleArtifactsCache,
-                                              ArtifactAtRepositoryCachedArtifactIndex artifactAtRepositoryCachedArtifactIndex,
+                                              CachedArtifactIndex artifactAtRepositoryCachedArtifactIndex,
                                               BuildCommencedTimeProvider buildCommencedTimeProvider, InMemoryCachedRepositoryFactory inMemoryCachedRepositoryFactory,
                                               VersionSelectorScheme versionSelectorScheme, VersionComparator versionComparator, ImmutableModuleIdentifierFactory moduleIdentifierFactory,
-                                              RepositoryBlacklister repositoryBlacklister) {
+                                              RepositoryBlacklister repositoryBlacklister, ArtifactDownloadScheduler artifactDownloadScheduler) {
         StartParameterResolutionOverride startParameterResolutionOverride = new StartParameterResolutionOverride(startParameter);
         return new ResolveIvyFactory(
             moduleVersionsCache,
@@ -286,7 +321,8 @@ class DependencyManagementBuildScopeServices {
             inMemoryCachedRepositoryFactory,
             versionSelectorScheme,
             versionComparator, moduleIdentifierFactory,
-            repositoryBlacklister);
+            repositoryBlacklister,
+            artifactDownloadScheduler);
     }
 
     ArtifactDependencyResolver createArtifactDependencyResolver(ResolveIvyFactory resolveIvyFactory,
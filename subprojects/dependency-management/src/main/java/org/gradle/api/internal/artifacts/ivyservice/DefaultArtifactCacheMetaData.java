@@ -35,6 +35,14 @@ public class DefaultArtifactCacheMetaData implements ArtifactCacheMetaData, Cach
         transformsDir = cacheScopeMapping.getBaseDirectory(null, CacheLayout.TRANSFORMS.getKey(), VersionStrategy.SharedCache);
     }
 
+    /**
+     * Creates the meta-data for an artifact cache laid out under the given {@code caches} directory, for example a copy of some {@code GRADLE_USER_HOME/caches}.
+     */
+    public DefaultArtifactCacheMetaData(File cachesDir) {
+        cacheDir = CacheLayout.ROOT.getPath(cachesDir);
+        transformsDir = CacheLayout.TRANSFORMS.getPath(cachesDir);
+    }
+
     @Override
     public File getCacheDir() {
         return cacheDir;
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+
+/**
+ * An optional, pre-seeded artifact cache that is consulted before the writable artifact cache of the current user.
+ *
+ * <p>The cache is located using the {@value #READ_ONLY_CACHE_ENV_VAR} environment variable, which points to a directory with the same layout as
+ * {@code GRADLE_USER_HOME/caches}. The indexes of the cache refer to files using absolute paths, so the cache must be made available at the location it was seeded at.</p>
+ */
+public class ReadOnlyArtifactCache implements Closeable {
+    public static final String READ_ONLY_CACHE_ENV_VAR = "GRADLE_RO_DEP_CACHE";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadOnlyArtifactCache.class);
+
+    private final ArtifactCacheMetaData cacheMetaData;
+    private final ReadOnlyArtifactCacheLockingManager cacheLockingManager;
+
+    public ReadOnlyArtifactCache(@Nullable File cachesDir) {
+        ArtifactCacheMetaData metaData = cachesDir == null ? null : new DefaultArtifactCacheMetaData(cachesDir);
+        if (metaData != null && !metaData.getCacheDir().isDirectory()) {
+            LOGGER.warn("The read-only dependency cache is disabled because {} does not exist.", metaData.getCacheDir());
+            metaData = null;
+        }
+        this.cacheMetaData = metaData;
+        this.cacheLockingManager = metaData == null ? null : new ReadOnlyArtifactCacheLockingManager(metaData);
+    }
+
+    public static ReadOnlyArtifactCache fromEnvironment() {
+        String location = System.getenv(READ_ONLY_CACHE_ENV_VAR);
+        return new ReadOnlyArtifactCache(location == null || location.trim().isEmpty() ? null : new File(location.trim()).getAbsoluteFile());
+    }
+
+    public boolean isEnabled() {
+        return cacheMetaData != null;
+    }
+
+    /**
+     * Returns the layout of the read-only cache. Only available when the cache is enabled.
+     */
+    public ArtifactCacheMetaData getCacheMetaData() {
+        assertEnabled();
+        return cacheMetaData;
+    }
+
+    /**
+     * Returns lock-free access to the indexes of the read-only cache. Only available when the cache is enabled.
+     */
+    public CacheLockingManager getCacheLockingManager() {
+        assertEnabled();
+        return cacheLockingManager;
+    }
+
+    private void assertEnabled() {
+        if (!isEnabled()) {
+            throw new IllegalStateException("The read-only dependency cache is not enabled.");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (cacheLockingManager != null) {
+            cacheLockingManager.close();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import org.gradle.api.Transformer;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.serialize.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides access to the indexes of a pre-seeded artifact cache that this process may not modify, for example one on a read-only volume shared by several machines.
+ *
+ * <p>No locks are taken: the cache is assumed not to change while it is in use. Caches created by this manager ignore all modifications.</p>
+ */
+public class ReadOnlyArtifactCacheLockingManager implements CacheLockingManager, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReadOnlyArtifactCacheLockingManager.class);
+
+    private final File metaDataDir;
+    private final List<ReadOnlyIndexedCache<?, ?>> caches = new ArrayList<ReadOnlyIndexedCache<?, ?>>();
+
+    public ReadOnlyArtifactCacheLockingManager(ArtifactCacheMetaData cacheMetaData) {
+        this.metaDataDir = CacheLayout.META_DATA.getPath(cacheMetaData.getCacheDir());
+    }
+
+    @Override
+    public <T> T useCache(Factory<? extends T> action) {
+        return action.create();
+    }
+
+    @Override
+    public void useCache(Runnable action) {
+        action.run();
+    }
+
+    @Override
+    public <T> T withFileLock(Factory<? extends T> action) {
+        return action.create();
+    }
+
+    @Override
+    public <K, V> PersistentIndexedCache<K, V> createCache(String cacheName, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        ReadOnlyIndexedCache<K, V> cache = new ReadOnlyIndexedCache<K, V>(new File(metaDataDir, cacheName + ".bin"), keySerializer, valueSerializer);
+        synchronized (caches) {
+            caches.add(cache);
+        }
+        return cache;
+    }
+
+    @Override
+    public void close() {
+        synchronized (caches) {
+            CompositeStoppable.stoppable(caches).stop();
+            caches.clear();
+        }
+    }
+
+    private static class ReadOnlyIndexedCache<K, V> implements PersistentIndexedCache<K, V>, Closeable {
+        private final File cacheFile;
+        private final Serializer<K> keySerializer;
+        private final Serializer<V> valueSerializer;
+        private BTreePersistentIndexedCache<K, V> delegate;
+        private boolean opened;
+
+        ReadOnlyIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+            this.cacheFile = cacheFile;
+            this.keySerializer = keySerializer;
+            this.valueSerializer = valueSerializer;
+        }
+
+        @Nullable
+        @Override
+        public synchronized V get(K key) {
+            BTreePersistentIndexedCache<K, V> cache = getDelegate();
+            if (cache == null) {
+                return null;
+            }
+            try {
+                return cache.get(key);
+            } catch (RuntimeException e) {
+                LOGGER.debug("Could not read entry from read-only cache {}.", cacheFile, e);
+                return null;
+            }
+        }
+
+        @Override
+        public V get(K key, Transformer<? extends V, ? super K> producer) {
+            V value = get(key);
+            return value != null ? value : producer.transform(key);
+        }
+
+        @Override
+        public void put(K key, V value) {
+        }
+
+        @Override
+        public void remove(K key) {
+        }
+
+        @Override
+        public synchronized void close() {
+            if (delegate != null) {
+                delegate.close();
+                delegate = null;
+            }
+            opened = false;
+        }
+
+        @Nullable
+        private BTreePersistentIndexedCache<K, V> getDelegate() {
+            if (!opened) {
+                opened = true;
+                if (cacheFile.isFile()) {
+                    try {
+                        delegate = BTreePersistentIndexedCache.openReadOnly(cacheFile, keySerializer, valueSerializer);
+                    } catch (RuntimeException e) {
+                        LOGGER.warn("Could not open read-only cache {}. It will be ignored.", cacheFile, e);
+                    }
+                }
+            }
+            return delegate;
+        }
+    }
+}
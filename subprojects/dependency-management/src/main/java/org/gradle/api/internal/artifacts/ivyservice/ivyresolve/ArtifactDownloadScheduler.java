@@ -0,0 +1,258 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve;
+
+import org.gradle.api.Action;
+import org.gradle.api.artifacts.component.ComponentArtifactIdentifier;
+import org.gradle.api.execution.TaskExecutionGraph;
+import org.gradle.api.execution.TaskExecutionGraphListener;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache.InMemoryCachedRepositoryFactory;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvableArtifact;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.component.model.ComponentArtifactMetadata;
+import org.gradle.internal.component.model.ModuleSource;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.progress.BuildOperationDescriptor;
+import org.gradle.internal.resolve.result.BuildableArtifactResolveResult;
+import org.gradle.internal.resolve.result.DefaultBuildableArtifactResolveResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Coordinates the download of module artifacts across all dependency resolutions of a build.
+ *
+ * <ul>
+ *     <li>Concurrent requests for the same artifact from the same repository share a single download.</li>
+ *     <li>The number of concurrent downloads from a single repository can be limited using the {@value #MAX_CONCURRENT_DOWNLOADS_PROPERTY} system property. There is no limit by default.</li>
+ *     <li>When the task graph is ready, the artifacts of all dependency graphs resolved so far can be downloaded in parallel, so that the tasks using them
+ *     find them already available. The downloads run as build operations on the build's workers, and the tasks start once they have finished.
+ *     This is enabled by setting the {@value #PREFETCH_PROPERTY} system property to {@code true}.</li>
+ * </ul>
+ */
+public class ArtifactDownloadScheduler implements TaskExecutionGraphListener {
+    public static final String MAX_CONCURRENT_DOWNLOADS_PROPERTY = "org.gradle.internal.repository.max.concurrent.downloads";
+    public static final String PREFETCH_PROPERTY = "org.gradle.internal.artifacts.prefetch";
+
+    private static final Logger LOGGER = Logging.getLogger(ArtifactDownloadScheduler.class);
+
+    private final InMemoryCachedRepositoryFactory inMemoryCache;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final int maxConcurrentDownloads;
+    private final boolean prefetch;
+    private final ConcurrentMap<DownloadKey, Download> inFlight = new ConcurrentHashMap<DownloadKey, Download>();
+    private final ConcurrentMap<String, Semaphore> repositoryPermits = new ConcurrentHashMap<String, Semaphore>();
+
+    public ArtifactDownloadScheduler(InMemoryCachedRepositoryFactory inMemoryCache, BuildOperationExecutor buildOperationExecutor) {
+        this(inMemoryCache, buildOperationExecutor, Integer.getInteger(MAX_CONCURRENT_DOWNLOADS_PROPERTY, 0), "true".equals(System.getProperty(PREFETCH_PROPERTY)));
+    }
+
+    ArtifactDownloadScheduler(InMemoryCachedRepositoryFactory inMemoryCache, BuildOperationExecutor buildOperationExecutor, int maxConcurrentDownloads, boolean prefetch) {
+        this.inMemoryCache = inMemoryCache;
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.maxConcurrentDownloads = maxConcurrentDownloads;
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Routes the artifact downloads of the given repository through this scheduler.
+     */
+    public ModuleComponentRepository schedule(ModuleComponentRepository repository) {
+        return new SchedulingModuleComponentRepository(repository);
+    }
+
+    @Override
+    public void graphPopulated(TaskExecutionGraph graph) {
+        if (!prefetch) {
+            return;
+        }
+        final List<ResolvableArtifact> artifacts = inMemoryCache.getUnresolvedArtifacts();
+        if (artifacts.isEmpty()) {
+            return;
+        }
+        LOGGER.debug("Prefetching {} artifacts.", artifacts.size());
+        // Runs the downloads on the build's workers, under the worker lease of the thread that populated the graph
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<PrefetchArtifact>>() {
+            @Override
+            public void execute(BuildOperationQueue<PrefetchArtifact> queue) {
+                for (ResolvableArtifact artifact : artifacts) {
+                    queue.add(new PrefetchArtifact(artifact));
+                }
+            }
+        });
+    }
+
+    private void download(String repositoryId, ComponentArtifactMetadata artifact, ModuleSource moduleSource, ModuleComponentRepositoryAccess access, BuildableArtifactResolveResult result) {
+        DownloadKey key = new DownloadKey(repositoryId, artifact.getId());
+        Download download = new Download();
+        Download existing = inFlight.putIfAbsent(key, download);
+        if (existing != null) {
+            existing.await();
+            existing.applyTo(result);
+            return;
+        }
+        try {
+            Semaphore permits = permitsFor(repositoryId);
+            acquire(permits);
+            try {
+                access.resolveArtifact(artifact, moduleSource, download.result);
+            } finally {
+                if (permits != null) {
+                    permits.release();
+                }
+            }
+        } catch (Throwable t) {
+            download.failure = t;
+        } finally {
+            inFlight.remove(key, download);
+            download.done.countDown();
+        }
+        download.applyTo(result);
+    }
+
+    private Semaphore permitsFor(String repositoryId) {
+        if (maxConcurrentDownloads <= 0) {
+            return null;
+        }
+        Semaphore permits = repositoryPermits.get(repositoryId);
+        if (permits == null) {
+            repositoryPermits.putIfAbsent(repositoryId, new Semaphore(maxConcurrentDownloads));
+            permits = repositoryPermits.get(repositoryId);
+        }
+        return permits;
+    }
+
+    private static void acquire(Semaphore permits) throws InterruptedException {
+        if (permits != null) {
+            permits.acquire();
+        }
+    }
+
+    private static class PrefetchArtifact implements RunnableBuildOperation {
+        private final ResolvableArtifact artifact;
+
+        PrefetchArtifact(ResolvableArtifact artifact) {
+            this.artifact = artifact;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            if (artifact.isResolved()) {
+                return;
+            }
+            try {
+                artifact.getFile();
+            } catch (Throwable t) {
+                // The failure is kept by the artifact and reported to whoever uses it
+                LOGGER.debug("Could not prefetch {}.", artifact, t);
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Prefetch " + artifact);
+        }
+    }
+
+    private static class Download {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final DefaultBuildableArtifactResolveResult result = new DefaultBuildableArtifactResolveResult();
+        private volatile Throwable failure;
+
+        void await() {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        void applyTo(BuildableArtifactResolveResult target) {
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+            result.applyTo(target);
+            if (result.hasResult()) {
+                if (result.getFailure() != null) {
+                    target.failed(result.getFailure());
+                } else {
+                    target.resolved(result.getResult());
+                }
+            }
+        }
+    }
+
+    private static class DownloadKey {
+        private final String repositoryId;
+        private final ComponentArtifactIdentifier artifactId;
+
+        DownloadKey(String repositoryId, ComponentArtifactIdentifier artifactId) {
+            this.repositoryId = repositoryId;
+            this.artifactId = artifactId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            DownloadKey that = (DownloadKey) o;
+            return repositoryId.equals(that.repositoryId) && artifactId.equals(that.artifactId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * repositoryId.hashCode() + artifactId.hashCode();
+        }
+    }
+
+    private class SchedulingModuleComponentRepository extends BaseModuleComponentRepository {
+        SchedulingModuleComponentRepository(ModuleComponentRepository delegate) {
+            super(delegate, delegate.getLocalAccess(), new SchedulingRepositoryAccess(delegate.getId(), delegate.getRemoteAccess()));
+        }
+
+        @Override
+        public Map<ComponentArtifactIdentifier, ResolvableArtifact> getArtifactCache() {
+            return delegate.getArtifactCache();
+        }
+    }
+
+    private class SchedulingRepositoryAccess extends BaseModuleComponentRepositoryAccess {
+        private final String repositoryId;
+
+        SchedulingRepositoryAccess(String repositoryId, ModuleComponentRepositoryAccess delegate) {
+            super(delegate);
+            this.repositoryId = repositoryId;
+        }
+
+        @Override
+        public void resolveArtifact(ComponentArtifactMetadata artifact, ModuleSource moduleSource, BuildableArtifactResolveResult result) {
+            download(repositoryId, artifact, moduleSource, getDelegate(), result);
+        }
+    }
+}
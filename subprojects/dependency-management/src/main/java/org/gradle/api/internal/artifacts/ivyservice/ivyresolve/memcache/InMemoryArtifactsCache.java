@@ -28,6 +28,7 @@ import org.gradle.internal.resolve.result.BuildableArtifactSetResolveResult;
 import org.gradle.internal.resolve.result.BuildableComponentArtifactsResolveResult;
 
 import java.io.File;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -82,6 +83,16 @@ class InMemoryArtifactsCache {
         }
     }
 
+    int size() {
+        return artifacts.size() + componentArtifacts.size() + typedArtifacts.size();
+    }
+
+    void collectEntries(Collection<Object> entries) {
+        entries.addAll(artifacts.entrySet());
+        entries.addAll(componentArtifacts.entrySet());
+        entries.addAll(typedArtifacts.entrySet());
+    }
+
     private static class TypedArtifactsKey {
         private final ComponentIdentifier componentId;
         private final ArtifactType type;
@@ -18,16 +18,22 @@ package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache;
 
 import com.google.common.collect.MapMaker;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvableArtifact;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.cache.internal.HeapUsageReportingCache;
+import org.gradle.cache.internal.InMemoryCacheUsageRegistry;
 import org.gradle.internal.concurrent.Stoppable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Caches the dependency metadata (descriptors, artifact files) in memory.
  */
-public class InMemoryCachedRepositoryFactory implements Stoppable {
+public class InMemoryCachedRepositoryFactory implements Stoppable, HeapUsageReportingCache {
 
     public final static String TOGGLE_PROPERTY = "org.gradle.resolution.memorycache";
 
@@ -51,6 +57,44 @@ public class InMemoryCachedRepositoryFactory implements Stoppable {
         return new InMemoryCachedModuleComponentRepository(caches, input);
     }
 
+    /**
+     * Returns the artifacts of the components resolved so far whose files have not been resolved yet.
+     */
+    public List<ResolvableArtifact> getUnresolvedArtifacts() {
+        List<ResolvableArtifact> artifacts = new ArrayList<ResolvableArtifact>();
+        for (InMemoryModuleComponentRepositoryCaches caches : cachePerRepo.values()) {
+            for (ResolvableArtifact artifact : caches.resolvedArtifactsCache.values()) {
+                if (!artifact.isResolved()) {
+                    artifacts.add(artifact);
+                }
+            }
+        }
+        return artifacts;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return "dependency resolution results";
+    }
+
+    @Override
+    public long getEntryCount() {
+        long count = 0;
+        for (InMemoryModuleComponentRepositoryCaches caches : cachePerRepo.values()) {
+            count += caches.size();
+        }
+        return count;
+    }
+
+    @Override
+    public Collection<?> sampleEntries(int maxEntries) {
+        List<Object> entries = new ArrayList<Object>();
+        for (InMemoryModuleComponentRepositoryCaches caches : cachePerRepo.values()) {
+            caches.collectEntries(entries);
+        }
+        return InMemoryCacheUsageRegistry.sample(entries, maxEntries);
+    }
+
     public void stop() {
         cachePerRepo.clear();
     }
@@ -24,6 +24,7 @@ import org.gradle.internal.Factory;
 import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult;
 import org.gradle.internal.resolve.result.BuildableModuleVersionListingResolveResult;
 
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
@@ -77,4 +78,14 @@ class InMemoryMetaDataCache {
     void cacheFetchingCost(ModuleComponentIdentifier id, MetadataFetchingCost cost) {
         fetchingCosts.put(id, cost);
     }
+
+    int size() {
+        return moduleVersionListing.size() + metaData.size() + fetchingCosts.size();
+    }
+
+    void collectEntries(Collection<Object> entries) {
+        entries.addAll(moduleVersionListing.entrySet());
+        entries.addAll(metaData.entrySet());
+        entries.addAll(fetchingCosts.entrySet());
+    }
 }
@@ -19,6 +19,7 @@ import com.google.common.collect.Maps;
 import org.gradle.api.artifacts.component.ComponentArtifactIdentifier;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvableArtifact;
 
+import java.util.Collection;
 import java.util.Map;
 
 class InMemoryModuleComponentRepositoryCaches {
@@ -39,4 +40,16 @@ class InMemoryModuleComponentRepositoryCaches {
         this.localMetaDataCache = localMetaDataCache;
         this.remoteMetaDataCache = remoteMetaDataCache;
     }
+
+    int size() {
+        return localMetaDataCache.size() + remoteMetaDataCache.size() + localArtifactsCache.size() + remoteArtifactsCache.size() + resolvedArtifactsCache.size();
+    }
+
+    void collectEntries(Collection<Object> entries) {
+        localMetaDataCache.collectEntries(entries);
+        remoteMetaDataCache.collectEntries(entries);
+        localArtifactsCache.collectEntries(entries);
+        remoteArtifactsCache.collectEntries(entries);
+        entries.addAll(resolvedArtifactsCache.entrySet());
+    }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository;
+import org.gradle.internal.component.model.ComponentArtifactMetadata;
+
+import java.math.BigInteger;
+import java.util.Set;
+
+/**
+ * Looks up module artifacts in a read-only cache first, falling back to a writable cache. All new entries go to the writable cache.
+ */
+public class TwoStageModuleArtifactsCache implements ModuleArtifactsCache {
+    private final ModuleArtifactsCache readOnlyCache;
+    private final ModuleArtifactsCache writableCache;
+
+    public TwoStageModuleArtifactsCache(ModuleArtifactsCache readOnlyCache, ModuleArtifactsCache writableCache) {
+        this.readOnlyCache = readOnlyCache;
+        this.writableCache = writableCache;
+    }
+
+    @Override
+    public CachedArtifacts cacheArtifacts(ModuleComponentRepository repository, ComponentIdentifier componentId, String context, BigInteger descriptorHash, Set<? extends ComponentArtifactMetadata> artifacts) {
+        return writableCache.cacheArtifacts(repository, componentId, context, descriptorHash, artifacts);
+    }
+
+    @Override
+    public CachedArtifacts getCachedArtifacts(ModuleComponentRepository repository, ComponentIdentifier componentId, String context) {
+        CachedArtifacts cachedArtifacts = readOnlyCache.getCachedArtifacts(repository, componentId, context);
+        if (cachedArtifacts != null) {
+            return cachedArtifacts;
+        }
+        return writableCache.getCachedArtifacts(repository, componentId, context);
+    }
+}
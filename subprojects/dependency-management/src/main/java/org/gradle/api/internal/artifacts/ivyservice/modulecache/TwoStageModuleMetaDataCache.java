@@ -0,0 +1,54 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.modulecache;
+
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository;
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
+
+/**
+ * Looks up module meta-data in a read-only cache first, falling back to a writable cache. All new entries go to the writable cache.
+ *
+ * <p>Entries that record a missing module are not taken from the read-only cache, as the module may have been published since the cache was seeded.</p>
+ */
+public class TwoStageModuleMetaDataCache implements ModuleMetaDataCache {
+    private final ModuleMetaDataCache readOnlyCache;
+    private final ModuleMetaDataCache writableCache;
+
+    public TwoStageModuleMetaDataCache(ModuleMetaDataCache readOnlyCache, ModuleMetaDataCache writableCache) {
+        this.readOnlyCache = readOnlyCache;
+        this.writableCache = writableCache;
+    }
+
+    @Override
+    public CachedMetaData cacheMissing(ModuleComponentRepository repository, ModuleComponentIdentifier id) {
+        return writableCache.cacheMissing(repository, id);
+    }
+
+    @Override
+    public CachedMetaData cacheMetaData(ModuleComponentRepository repository, ModuleComponentResolveMetadata metaData) {
+        return writableCache.cacheMetaData(repository, metaData);
+    }
+
+    @Override
+    public CachedMetaData getCachedModuleDescriptor(ModuleComponentRepository repository, ModuleComponentIdentifier id) {
+        CachedMetaData cachedMetaData = readOnlyCache.getCachedModuleDescriptor(repository, id);
+        if (cachedMetaData != null && !cachedMetaData.isMissing()) {
+            return cachedMetaData;
+        }
+        return writableCache.getCachedModuleDescriptor(repository, id);
+    }
+}
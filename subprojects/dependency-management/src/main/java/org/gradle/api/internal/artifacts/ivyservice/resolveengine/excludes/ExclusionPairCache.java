@@ -0,0 +1,125 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes;
+
+/**
+ * Memoizes the result of combining 2 interned exclusions, keyed by the pair of their interned ids.
+ *
+ * <p>The ids are packed into a single {@code long} and stored in open-addressed primitive tables, so a lookup neither
+ * allocates a key object nor compares the exclusions element by element. The table is split into independently locked
+ * segments, as the owning {@link ModuleExclusions} is shared by all resolutions of a build.</p>
+ */
+final class ExclusionPairCache {
+    private static final int SEGMENTS = 16;
+    private static final int INITIAL_SEGMENT_CAPACITY = 64;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    ExclusionPairCache() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Returns the memoized result for the given pair of ids, or null when none.
+     */
+    AbstractModuleExclusion get(int one, int two) {
+        long key = key(one, two);
+        int hash = hash(key);
+        return segments[hash >>> 28].get(key, hash);
+    }
+
+    void put(int one, int two, AbstractModuleExclusion result) {
+        long key = key(one, two);
+        int hash = hash(key);
+        segments[hash >>> 28].put(key, hash, result);
+    }
+
+    /**
+     * Interned ids start at 1, so a packed key is never 0 and 0 can be used to mark a free slot.
+     */
+    private static long key(int one, int two) {
+        return ((long) one << 32) | (two & 0xFFFFFFFFL);
+    }
+
+    private static int hash(long key) {
+        // Finalizer of MurmurHash3, spreads the bits of both ids across the whole hash
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private static final class Segment {
+        private long[] keys = new long[INITIAL_SEGMENT_CAPACITY];
+        private AbstractModuleExclusion[] values = new AbstractModuleExclusion[INITIAL_SEGMENT_CAPACITY];
+        private int size;
+
+        synchronized AbstractModuleExclusion get(long key, int hash) {
+            int mask = keys.length - 1;
+            for (int i = hash & mask;; i = (i + 1) & mask) {
+                long candidate = keys[i];
+                if (candidate == key) {
+                    return values[i];
+                }
+                if (candidate == 0) {
+                    return null;
+                }
+            }
+        }
+
+        synchronized void put(long key, int hash, AbstractModuleExclusion value) {
+            if (insert(keys, values, key, hash, value)) {
+                size++;
+                if (size * 2 > keys.length) {
+                    grow();
+                }
+            }
+        }
+
+        private void grow() {
+            long[] newKeys = new long[keys.length * 2];
+            AbstractModuleExclusion[] newValues = new AbstractModuleExclusion[newKeys.length];
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    insert(newKeys, newValues, keys[i], hash(keys[i]), values[i]);
+                }
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+
+        private static boolean insert(long[] keys, AbstractModuleExclusion[] values, long key, int hash, AbstractModuleExclusion value) {
+            int mask = keys.length - 1;
+            for (int i = hash & mask;; i = (i + 1) & mask) {
+                long candidate = keys[i];
+                if (candidate == key) {
+                    values[i] = value;
+                    return false;
+                }
+                if (candidate == 0) {
+                    keys[i] = key;
+                    values[i] = value;
+                    return true;
+                }
+            }
+        }
+    }
+}
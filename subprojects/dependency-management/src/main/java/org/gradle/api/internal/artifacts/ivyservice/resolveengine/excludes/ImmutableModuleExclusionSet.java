@@ -26,10 +26,15 @@ final class ImmutableModuleExclusionSet implements Set<AbstractModuleExclusion>
     private final Set<AbstractModuleExclusion> delegate;
 
     final AbstractModuleExclusion[] elements;
+    /**
+     * The id assigned to this set when interned by {@link ModuleExclusions}, always greater than 0.
+     */
+    final int id;
     private final int hashCode;
 
-    ImmutableModuleExclusionSet(Set<AbstractModuleExclusion> delegate) {
+    ImmutableModuleExclusionSet(Set<AbstractModuleExclusion> delegate, int id) {
         this.delegate = delegate;
+        this.id = id;
         this.elements = delegate.toArray(new AbstractModuleExclusion[0]);
         this.hashCode = delegate.hashCode();
     }
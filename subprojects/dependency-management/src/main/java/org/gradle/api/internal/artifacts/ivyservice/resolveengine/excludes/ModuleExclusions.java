@@ -31,6 +31,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.AbstractModuleExclusion.isWildcard;
 
@@ -48,6 +50,9 @@ import static org.gradle.api.internal.artifacts.ivyservice.resolveengine.exclude
  * <ul> <li>When a module dependency has multiple exclusions, then the resulting exclusion is the _intersection_ of those exclusions (module is excluded if excluded by _any_).</li> <li>When a module
  * is depended on via a transitive path, then the resulting exclusion is the _intersection_ of the exclusions on each leg of the path (module is excluded if excluded by _any_).</li> <li>When a module
  * is depended on via multiple paths in the graph, then the resulting exclusion is the _union_ of the exclusions on each of those paths (module is excluded if excluded by _all_).</li> </ul>
+ *
+ * <p>Every intersection created by this class is interned and given an integer id, so that the results of combining 2 intersections can be memoized in tables keyed by the pair of ids.
+ * Large graphs combine the same few exclusions over and over, and these lookups avoid both recomputing the result and comparing the exclusions element by element.</p>
  */
 public class ModuleExclusions {
     private static final ExcludeNone EXCLUDE_NONE = new ExcludeNone();
@@ -56,11 +61,12 @@ public class ModuleExclusions {
     private final ImmutableModuleIdentifierFactory moduleIdentifierFactory;
 
     private final Map<List<Exclude>, Map<Set<String>, ModuleExclusion>> cachedExcludes = Maps.newConcurrentMap();
-    private final Map<MergeOperation, AbstractModuleExclusion> mergeCache = Maps.newConcurrentMap();
     private final Map<List<Exclude>, AbstractModuleExclusion> excludeAnyCache = Maps.newConcurrentMap();
-    private final Map<Set<AbstractModuleExclusion>, ImmutableModuleExclusionSet> exclusionSetCache = Maps.newConcurrentMap();
-    private final Map<AbstractModuleExclusion[], Map<AbstractModuleExclusion[], MergeOperation>> mergeOperationCache = Maps.newIdentityHashMap();
-    private final Object mergeOperationLock = new Object();
+    private final ConcurrentMap<Set<AbstractModuleExclusion>, IntersectionExclusion> intersectionCache = Maps.newConcurrentMap();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final ExclusionPairCache intersectCache = new ExclusionPairCache();
+    private final ExclusionPairCache unionCache = new ExclusionPairCache();
+    private final ExclusionPairCache mergeCache = new ExclusionPairCache();
 
     public ModuleExclusions(ImmutableModuleIdentifierFactory moduleIdentifierFactory) {
         this.moduleIdentifierFactory = moduleIdentifierFactory;
@@ -89,11 +95,14 @@ public class ModuleExclusions {
         return moduleExclusion;
     }
 
-    private ImmutableModuleExclusionSet asImmutable(Set<AbstractModuleExclusion> excludes) {
-        ImmutableModuleExclusionSet cached = exclusionSetCache.get(excludes);
+    private IntersectionExclusion asIntersection(Set<AbstractModuleExclusion> excludes) {
+        IntersectionExclusion cached = intersectionCache.get(excludes);
         if (cached == null) {
-            cached = new ImmutableModuleExclusionSet(excludes);
-            exclusionSetCache.put(excludes, cached);
+            cached = new IntersectionExclusion(new ImmutableModuleExclusionSet(excludes, nextId.incrementAndGet()));
+            IntersectionExclusion existing = intersectionCache.putIfAbsent(excludes, cached);
+            if (existing != null) {
+                cached = existing;
+            }
         }
         return cached;
     }
@@ -130,7 +139,7 @@ public class ModuleExclusions {
         for (Exclude exclude : excludes) {
             exclusions.add(forExclude(exclude));
         }
-        exclusion = new IntersectionExclusion(asImmutable(exclusions));
+        exclusion = asIntersection(exclusions);
         excludeAnyCache.put(excludes, exclusion);
         return exclusion;
     }
@@ -186,12 +195,29 @@ public class ModuleExclusions {
             return two;
         }
 
+        if (one instanceof IntersectionExclusion && two instanceof IntersectionExclusion) {
+            // Intersection is commutative, so use the same entry for both orders
+            int oneId = ((IntersectionExclusion) one).getFilters().id;
+            int twoId = ((IntersectionExclusion) two).getFilters().id;
+            int lowId = Math.min(oneId, twoId);
+            int highId = Math.max(oneId, twoId);
+            AbstractModuleExclusion exclusion = intersectCache.get(lowId, highId);
+            if (exclusion == null) {
+                exclusion = doIntersect((AbstractModuleExclusion) one, (AbstractModuleExclusion) two);
+                intersectCache.put(lowId, highId, exclusion);
+            }
+            return exclusion;
+        }
+        return doIntersect((AbstractModuleExclusion) one, (AbstractModuleExclusion) two);
+    }
+
+    private AbstractModuleExclusion doIntersect(AbstractModuleExclusion one, AbstractModuleExclusion two) {
         Set<AbstractModuleExclusion> builder = Sets.newHashSet();
 
-        ((AbstractModuleExclusion) one).unpackIntersection(builder);
-        ((AbstractModuleExclusion) two).unpackIntersection(builder);
+        one.unpackIntersection(builder);
+        two.unpackIntersection(builder);
 
-        return new IntersectionExclusion(asImmutable(builder));
+        return asIntersection(builder);
     }
 
     /**
@@ -208,9 +234,23 @@ public class ModuleExclusions {
             return one;
         }
 
+        if (one instanceof IntersectionExclusion && two instanceof IntersectionExclusion) {
+            int oneId = ((IntersectionExclusion) one).getFilters().id;
+            int twoId = ((IntersectionExclusion) two).getFilters().id;
+            AbstractModuleExclusion exclusion = unionCache.get(oneId, twoId);
+            if (exclusion == null) {
+                exclusion = doUnion((AbstractModuleExclusion) one, (AbstractModuleExclusion) two);
+                unionCache.put(oneId, twoId, exclusion);
+            }
+            return exclusion;
+        }
+        return doUnion((AbstractModuleExclusion) one, (AbstractModuleExclusion) two);
+    }
+
+    private AbstractModuleExclusion doUnion(AbstractModuleExclusion one, AbstractModuleExclusion two) {
         List<AbstractModuleExclusion> specs = new ArrayList<AbstractModuleExclusion>();
-        ((AbstractModuleExclusion) one).unpackUnion(specs);
-        ((AbstractModuleExclusion) two).unpackUnion(specs);
+        one.unpackUnion(specs);
+        two.unpackUnion(specs);
         for (int i = 0; i < specs.size();) {
             AbstractModuleExclusion spec = specs.get(i);
             AbstractModuleExclusion merged = null;
@@ -254,42 +294,25 @@ public class ModuleExclusions {
             return one;
         }
         if (one.canMerge() && other.canMerge()) {
-            AbstractModuleExclusion[] oneFilters = one.getFilters().elements;
-            AbstractModuleExclusion[] otherFilters = other.getFilters().elements;
-            if (Arrays.equals(oneFilters, otherFilters)) {
+            ImmutableModuleExclusionSet oneFilters = one.getFilters();
+            ImmutableModuleExclusionSet otherFilters = other.getFilters();
+            if (oneFilters == otherFilters) {
                 return one;
             }
 
-            MergeOperation merge = mergeOperation(oneFilters, otherFilters);
-            AbstractModuleExclusion exclusion = mergeCache.get(merge);
+            AbstractModuleExclusion exclusion = mergeCache.get(oneFilters.id, otherFilters.id);
             if (exclusion != null) {
                 return exclusion;
             }
-            return mergeAndCacheResult(merge, oneFilters, otherFilters);
+            exclusion = merge(oneFilters.elements, otherFilters.elements);
+            mergeCache.put(oneFilters.id, otherFilters.id, exclusion);
+            return exclusion;
         }
         return null;
     }
 
-    private MergeOperation mergeOperation(AbstractModuleExclusion[] one, AbstractModuleExclusion[] two) {
-        synchronized (mergeOperationLock) {
-            Map<AbstractModuleExclusion[], MergeOperation> oneMap = mergeOperationCache.get(one);
-            if (oneMap == null) {
-                oneMap = Maps.newIdentityHashMap();
-                mergeOperationCache.put(one, oneMap);
-
-            }
-            MergeOperation mergeOperation = oneMap.get(two);
-            if (mergeOperation != null) {
-                return mergeOperation;
-            }
-            mergeOperation = new MergeOperation(one, two);
-            oneMap.put(two, mergeOperation);
-            return mergeOperation;
-        }
-    }
-
-    private AbstractModuleExclusion mergeAndCacheResult(MergeOperation merge, AbstractModuleExclusion[] oneFilters, AbstractModuleExclusion[] otherFilters) {
-        AbstractModuleExclusion exclusion; // Merge the exclude rules from both specs into a single union spec.
+    private AbstractModuleExclusion merge(AbstractModuleExclusion[] oneFilters, AbstractModuleExclusion[] otherFilters) {
+        // Merge the exclude rules from both specs into a single union spec.
         final BitSet remaining = new BitSet(otherFilters.length);
         remaining.set(0, otherFilters.length, true);
         MergeSet merged = new MergeSet(remaining, oneFilters.length + otherFilters.length);
@@ -304,12 +327,9 @@ public class ModuleExclusions {
             }
         }
         if (merged.isEmpty()) {
-            exclusion = ModuleExclusions.EXCLUDE_NONE;
-        } else {
-            exclusion = new IntersectionExclusion(asImmutable(merged));
+            return ModuleExclusions.EXCLUDE_NONE;
         }
-        mergeCache.put(merge, exclusion);
-        return exclusion;
+        return asIntersection(merged);
     }
 
     // Add exclusions to the list that will exclude modules/artifacts that are excluded by _both_ of the candidate rules.
@@ -395,41 +415,6 @@ public class ModuleExclusions {
         }
     }
 
-    private static final class MergeOperation {
-        private final AbstractModuleExclusion[] one;
-        private final AbstractModuleExclusion[] two;
-        private final int hashCode;
-
-
-        private MergeOperation(AbstractModuleExclusion[] one, AbstractModuleExclusion[] two) {
-            this.one = one;
-            this.two = two;
-            this.hashCode = 31 * Arrays.hashCode(one) + Arrays.hashCode(two);
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
-            }
-            if (o == null || getClass() != o.getClass()) {
-                return false;
-            }
-
-            MergeOperation that = (MergeOperation) o;
-
-            if (!Arrays.equals(one, that.one)) {
-                return false;
-            }
-            return Arrays.equals(two, that.two);
-        }
-
-        @Override
-        public int hashCode() {
-            return hashCode;
-        }
-    }
-
     private static final class MergeSet extends HashSet<AbstractModuleExclusion> {
         private final BitSet remaining;
         private int idx;
@@ -18,6 +18,7 @@ package org.gradle.api.internal.artifacts.repositories.resolver;
 
 import com.google.common.base.Charsets;
 import com.google.common.hash.Hashing;
+import org.gradle.internal.hash.HashValue;
 import org.gradle.internal.resource.ExternalResourceName;
 import org.gradle.internal.resource.ResourceExceptions;
 import org.gradle.internal.resource.local.FileStore;
@@ -61,8 +62,8 @@ public class DefaultExternalResourceAccessor implements ExternalResourceAccessor
         try {
             final String key = Hashing.sha1().hashString(uri.toASCIIString(), Charsets.UTF_8).toString();
             return resourceAccessor.getResource(resource, new CacheAwareExternalResourceAccessor.ResourceFileStore() {
-                public LocallyAvailableResource moveIntoCache(File downloadedResource) {
-                    return fileStore.move(key, downloadedResource);
+                public LocallyAvailableResource moveIntoCache(File downloadedResource, HashValue sha1) {
+                    return fileStore.move(key, downloadedResource, sha1);
                 }
             }, null);
         } catch (Exception e) {
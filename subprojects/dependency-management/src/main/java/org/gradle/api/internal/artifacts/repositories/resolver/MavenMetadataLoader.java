@@ -23,6 +23,7 @@ import org.apache.ivy.util.XMLHelper;
 import org.gradle.api.resources.MissingResourceException;
 import org.gradle.api.resources.ResourceException;
 import org.gradle.internal.ErroringAction;
+import org.gradle.internal.hash.HashValue;
 import org.gradle.internal.resource.ExternalResource;
 import org.gradle.internal.resource.ExternalResourceName;
 import org.gradle.internal.resource.local.FileStore;
@@ -62,9 +63,9 @@ class MavenMetadataLoader {
     private void parseMavenMetadataInfo(final ExternalResourceName metadataLocation, final MavenMetadata metadata) throws IOException {
         ExternalResource resource = cacheAwareExternalResourceAccessor.getResource(metadataLocation, new CacheAwareExternalResourceAccessor.ResourceFileStore() {
             @Override
-            public LocallyAvailableResource moveIntoCache(File downloadedResource) {
+            public LocallyAvailableResource moveIntoCache(File downloadedResource, HashValue sha1) {
                 String key = Hashing.sha1().hashString(metadataLocation.toString(), Charsets.UTF_8).toString();
-                return resourcesFileStore.move(key, downloadedResource);
+                return resourcesFileStore.move(key, downloadedResource, sha1);
             }
         }, null);
         if (resource == null) {
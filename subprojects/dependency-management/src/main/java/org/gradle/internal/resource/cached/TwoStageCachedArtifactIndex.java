@@ -0,0 +1,63 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.resource.cached;
+
+import org.gradle.internal.resource.cached.ivy.ArtifactAtRepositoryKey;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Looks up artifacts in a read-only index first, falling back to a writable index. All modifications go to the writable index.
+ *
+ * <p>Entries that record a missing artifact are not taken from the read-only index, as the artifact may have been published since the index was seeded.</p>
+ */
+public class TwoStageCachedArtifactIndex implements CachedArtifactIndex {
+    private final CachedArtifactIndex readOnlyIndex;
+    private final CachedArtifactIndex writableIndex;
+
+    public TwoStageCachedArtifactIndex(CachedArtifactIndex readOnlyIndex, CachedArtifactIndex writableIndex) {
+        this.readOnlyIndex = readOnlyIndex;
+        this.writableIndex = writableIndex;
+    }
+
+    @Override
+    public void store(ArtifactAtRepositoryKey key, File artifactFile, BigInteger moduleDescriptorHash) {
+        writableIndex.store(key, artifactFile, moduleDescriptorHash);
+    }
+
+    @Override
+    public void storeMissing(ArtifactAtRepositoryKey key, List<String> attemptedLocations, BigInteger descriptorHash) {
+        writableIndex.storeMissing(key, attemptedLocations, descriptorHash);
+    }
+
+    @Nullable
+    @Override
+    public CachedArtifact lookup(ArtifactAtRepositoryKey key) {
+        CachedArtifact cachedArtifact = readOnlyIndex.lookup(key);
+        if (cachedArtifact != null && !cachedArtifact.isMissing()) {
+            return cachedArtifact;
+        }
+        return writableIndex.lookup(key);
+    }
+
+    @Override
+    public void clear(ArtifactAtRepositoryKey key) {
+        writableIndex.clear(key);
+    }
+}
@@ -16,7 +16,8 @@
 
 package org.gradle.internal.resource.transfer;
 
-import com.google.common.io.Files;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingOutputStream;
 import org.apache.commons.io.IOUtils;
 import org.gradle.api.Transformer;
 import org.gradle.api.UncheckedIOException;
@@ -26,7 +27,6 @@ import org.gradle.api.internal.file.TemporaryFileProvider;
 import org.gradle.api.resources.ResourceException;
 import org.gradle.cache.internal.ProducerGuard;
 import org.gradle.internal.Factory;
-import org.gradle.internal.hash.HashUtil;
 import org.gradle.internal.hash.HashValue;
 import org.gradle.internal.resource.ExternalResource;
 import org.gradle.internal.resource.ExternalResourceName;
@@ -48,6 +48,7 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -179,12 +180,17 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
     private LocallyAvailableExternalResource copyCandidateToCache(ExternalResourceName source, ResourceFileStore fileStore, ExternalResourceMetaData remoteMetaData, HashValue remoteChecksum, LocallyAvailableResource local) throws IOException {
         final File destination = temporaryFileProvider.createTemporaryFile("gradle_download", "bin");
         try {
-            Files.copy(local.getFile(), destination);
-            HashValue localChecksum = HashUtil.createHash(destination, "SHA1");
+            InputStream inputStream = new FileInputStream(local.getFile());
+            HashValue localChecksum;
+            try {
+                localChecksum = copyAndHash(inputStream, destination);
+            } finally {
+                inputStream.close();
+            }
             if (!localChecksum.equals(remoteChecksum)) {
                 return null;
             }
-            return moveIntoCache(source, destination, fileStore, remoteMetaData);
+            return moveIntoCache(source, destination, localChecksum, fileStore, remoteMetaData);
         } finally {
             destination.delete();
         }
@@ -204,16 +210,16 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
 
         // Move into cache
         try {
-            return moveIntoCache(source, downloadAction.destination, fileStore, downloadAction.metaData);
+            return moveIntoCache(source, downloadAction.destination, downloadAction.sha1, fileStore, downloadAction.metaData);
         } finally {
             downloadAction.destination.delete();
         }
     }
 
-    private LocallyAvailableExternalResource moveIntoCache(final ExternalResourceName source, final File destination, final ResourceFileStore fileStore, final ExternalResourceMetaData metaData) {
+    private LocallyAvailableExternalResource moveIntoCache(final ExternalResourceName source, final File destination, final HashValue sha1, final ResourceFileStore fileStore, final ExternalResourceMetaData metaData) {
         return cacheLockingManager.useCache(new Factory<LocallyAvailableExternalResource>() {
             public LocallyAvailableExternalResource create() {
-                LocallyAvailableResource cachedResource = fileStore.moveIntoCache(destination);
+                LocallyAvailableResource cachedResource = fileStore.moveIntoCache(destination, sha1);
                 File fileInFileStore = cachedResource.getFile();
                 cachedExternalResourceIndex.store(source.toString(), fileInFileStore, metaData);
                 return fileResourceRepository.resource(fileInFileStore, source.getUri(), metaData);
@@ -221,6 +227,22 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
         });
     }
 
+    /**
+     * Copies the given content to the destination file, calculating the SHA-1 of the content on the way so that the file does not need to be read again.
+     */
+    private static HashValue copyAndHash(InputStream inputStream, File destination) throws IOException {
+        if (destination.getParentFile() != null) {
+            GFileUtils.mkdirs(destination.getParentFile());
+        }
+        HashingOutputStream outputStream = new HashingOutputStream(Hashing.sha1(), new FileOutputStream(destination));
+        try {
+            IOUtils.copyLarge(inputStream, outputStream);
+        } finally {
+            outputStream.close();
+        }
+        return new HashValue(outputStream.hash().asBytes());
+    }
+
     public long getAgeMillis(BuildCommencedTimeProvider timeProvider, CachedExternalResource cached) {
         return timeProvider.getCurrentTime() - cached.getCachedAt();
     }
@@ -228,6 +250,7 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
     private class DownloadAction implements ExternalResource.ContentAction<Object> {
         private final ExternalResourceName source;
         File destination;
+        HashValue sha1;
         ExternalResourceMetaData metaData;
 
         DownloadAction(ExternalResourceName source) {
@@ -239,15 +262,7 @@ public class DefaultCacheAwareExternalResourceAccessor implements CacheAwareExte
             destination = temporaryFileProvider.createTemporaryFile("gradle_download", "bin");
             this.metaData = metaData;
             LOGGER.debug("Downloading {} to {}", source, destination);
-            if (destination.getParentFile() != null) {
-                GFileUtils.mkdirs(destination.getParentFile());
-            }
-            FileOutputStream outputStream = new FileOutputStream(destination);
-            try {
-                IOUtils.copyLarge(inputStream, outputStream);
-            } finally {
-                outputStream.close();
-            }
+            sha1 = copyAndHash(inputStream, destination);
             return null;
         }
     }
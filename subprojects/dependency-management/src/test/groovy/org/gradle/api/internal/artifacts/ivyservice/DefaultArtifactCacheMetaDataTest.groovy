@@ -51,4 +51,17 @@ class DefaultArtifactCacheMetaDataTest extends Specification {
         then:
         metadataStore == new File(testCacheDir, CacheLayout.META_DATA.key + '/descriptors')
     }
+
+    def "calculates directories relative to a caches directory"() {
+        given:
+        TestFile cachesDir = temporaryFolder.file("test/caches")
+
+        when:
+        def metaData = new DefaultArtifactCacheMetaData(cachesDir)
+
+        then:
+        metaData.cacheDir == new File(cachesDir, CacheLayout.ROOT.key)
+        metaData.fileStoreDirectory == new File(cachesDir, CacheLayout.ROOT.key + '/' + CacheLayout.FILE_STORE.key)
+        metaData.transformsStoreDirectory == new File(cachesDir, CacheLayout.TRANSFORMS.key)
+    }
 }
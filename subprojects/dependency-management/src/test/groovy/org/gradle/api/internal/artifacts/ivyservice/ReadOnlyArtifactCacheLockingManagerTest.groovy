@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.api.Transformer
+import org.gradle.cache.internal.btree.BTreePersistentIndexedCache
+import org.gradle.internal.Factory
+import org.gradle.internal.serialize.BaseSerializerFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ReadOnlyArtifactCacheLockingManagerTest extends Specification {
+    @Rule TestNameTestDirectoryProvider temporaryFolder
+    def cachesDir = temporaryFolder.createDir("caches")
+    def metaData = new DefaultArtifactCacheMetaData(cachesDir)
+    def lockingManager = new ReadOnlyArtifactCacheLockingManager(metaData)
+
+    def cleanup() {
+        lockingManager.close()
+    }
+
+    def "reads entries from a seeded cache without modifying it"() {
+        given:
+        def cacheFile = seed("some-cache", [a: "1", b: "2"])
+        def lastModified = cacheFile.lastModified()
+        def length = cacheFile.length()
+
+        when:
+        def cache = lockingManager.createCache("some-cache", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+        cache.put("c", "3")
+        cache.remove("a")
+
+        then:
+        cache.get("a") == "1"
+        cache.get("b") == "2"
+        cache.get("c") == null
+        cacheFile.lastModified() == lastModified
+        cacheFile.length() == length
+    }
+
+    def "uses producer without storing its result"() {
+        given:
+        seed("some-cache", [a: "1"])
+        def producer = Mock(Transformer)
+
+        when:
+        def cache = lockingManager.createCache("some-cache", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+
+        then:
+        cache.get("a", producer) == "1"
+        0 * producer._
+
+        when:
+        def result = cache.get("b", producer)
+
+        then:
+        result == "produced"
+        1 * producer.transform("b") >> "produced"
+        cache.get("b") == null
+    }
+
+    def "missing cache file has no entries and is not created"() {
+        when:
+        def cache = lockingManager.createCache("missing", BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+
+        then:
+        cache.get("a") == null
+        !cacheFile("missing").exists()
+        !CacheLayout.META_DATA.getPath(metaData.cacheDir).exists()
+    }
+
+    def "runs actions without locking"() {
+        expect:
+        lockingManager.useCache({ "result" } as Factory) == "result"
+        lockingManager.withFileLock({ "result" } as Factory) == "result"
+    }
+
+    private File seed(String cacheName, Map<String, String> entries) {
+        def file = cacheFile(cacheName)
+        def cache = new BTreePersistentIndexedCache<String, String>(file, BaseSerializerFactory.STRING_SERIALIZER, BaseSerializerFactory.STRING_SERIALIZER)
+        entries.each { key, value -> cache.put(key, value) }
+        cache.close()
+        return file
+    }
+
+    private File cacheFile(String cacheName) {
+        return new File(CacheLayout.META_DATA.getPath(metaData.cacheDir), cacheName + ".bin")
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve
+
+import org.gradle.api.artifacts.component.ComponentArtifactIdentifier
+import org.gradle.api.execution.TaskExecutionGraph
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.memcache.InMemoryCachedRepositoryFactory
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.ResolvableArtifact
+import org.gradle.internal.component.model.ComponentArtifactMetadata
+import org.gradle.internal.component.model.ModuleSource
+import org.gradle.internal.operations.TestBuildOperationExecutor
+import org.gradle.internal.resolve.ArtifactResolveException
+import org.gradle.internal.resolve.result.BuildableArtifactResolveResult
+import org.gradle.internal.resolve.result.DefaultBuildableArtifactResolveResult
+import org.gradle.test.fixtures.concurrent.ConcurrentSpec
+
+class ArtifactDownloadSchedulerTest extends ConcurrentSpec {
+    def inMemoryCache = Mock(InMemoryCachedRepositoryFactory)
+    def buildOperationExecutor = new TestBuildOperationExecutor()
+    def remoteAccess = Mock(ModuleComponentRepositoryAccess)
+    def repository = Stub(ModuleComponentRepository) {
+        getId() >> "repo"
+        getRemoteAccess() >> remoteAccess
+    }
+    def moduleSource = Stub(ModuleSource)
+    def file = new File("artifact.jar")
+
+    def "concurrent requests for the same artifact share a single download"() {
+        def scheduler = new ArtifactDownloadScheduler(inMemoryCache, buildOperationExecutor, 0, false)
+        def remote = scheduler.schedule(repository).remoteAccess
+        def artifact = artifact()
+        def result1 = new DefaultBuildableArtifactResolveResult()
+        def result2 = new DefaultBuildableArtifactResolveResult()
+
+        when:
+        async {
+            start {
+                remote.resolveArtifact(artifact, moduleSource, result1)
+            }
+            start {
+                thread.blockUntil.downloading
+                remote.resolveArtifact(artifact, moduleSource, result2)
+            }
+        }
+
+        then:
+        1 * remoteAccess.resolveArtifact(artifact, moduleSource, _) >> { a, s, BuildableArtifactResolveResult result ->
+            instant.downloading
+            thread.block()
+            result.attempted("somewhere")
+            result.resolved(file)
+        }
+        result1.result == file
+        result2.result == file
+        result2.attempted == ["somewhere"]
+    }
+
+    def "download failure is reported to all concurrent requests"() {
+        def scheduler = new ArtifactDownloadScheduler(inMemoryCache, buildOperationExecutor, 0, false)
+        def remote = scheduler.schedule(repository).remoteAccess
+        def artifact = artifact()
+        def failure = new ArtifactResolveException("broken")
+        def result1 = new DefaultBuildableArtifactResolveResult()
+        def result2 = new DefaultBuildableArtifactResolveResult()
+
+        when:
+        async {
+            start {
+                remote.resolveArtifact(artifact, moduleSource, result1)
+            }
+            start {
+                thread.blockUntil.downloading
+                remote.resolveArtifact(artifact, moduleSource, result2)
+            }
+        }
+
+        then:
+        1 * remoteAccess.resolveArtifact(artifact, moduleSource, _) >> { a, s, BuildableArtifactResolveResult result ->
+            instant.downloading
+            thread.block()
+            result.failed(failure)
+        }
+        result1.failure == failure
+        result2.failure == failure
+    }
+
+    def "downloads the same artifact again once the previous download has completed"() {
+        def scheduler = new ArtifactDownloadScheduler(inMemoryCache, buildOperationExecutor, 0, false)
+        def remote = scheduler.schedule(repository).remoteAccess
+        def artifact = artifact()
+
+        when:
+        remote.resolveArtifact(artifact, moduleSource, new DefaultBuildableArtifactResolveResult())
+        remote.resolveArtifact(artifact, moduleSource, new DefaultBuildableArtifactResolveResult())
+
+        then:
+        2 * remoteAccess.resolveArtifact(artifact, moduleSource, _) >> { a, s, BuildableArtifactResolveResult result -> result.resolved(file) }
+    }
+
+    def "limits the number of concurrent downloads from a repository"() {
+        def scheduler = new ArtifactDownloadScheduler(inMemoryCache, buildOperationExecutor, 1, false)
+        def remote = scheduler.schedule(repository).remoteAccess
+        def artifact1 = artifact()
+        def artifact2 = artifact()
+
+        when:
+        async {
+            start {
+                remote.resolveArtifact(artifact1, moduleSource, new DefaultBuildableArtifactResolveResult())
+            }
+            start {
+                thread.blockUntil.download1
+                remote.resolveArtifact(artifact2, moduleSource, new DefaultBuildableArtifactResolveResult())
+            }
+        }
+
+        then:
+        1 * remoteAccess.resolveArtifact(artifact1, moduleSource, _) >> { a, s, BuildableArtifactResolveResult result ->
+            instant.download1
+            thread.block()
+            instant.download1_done
+            result.resolved(file)
+        }
+        1 * remoteAccess.resolveArtifact(artifact2, moduleSource, _) >> { a, s, BuildableArtifactResolveResult result ->
+            instant.download2
+            result.resolved(file)
+        }
+
+        and:
+        instant.download2 > instant.download1_done
+    }
+
+    def "prefetches unresolved artifacts as build operations when the task graph is ready"() {
+        def scheduler = new ArtifactDownloadScheduler(inMemoryCache, buildOperationExecutor, 0, true)
+        def artifact1 = Mock(ResolvableArtifact)
+        def artifact2 = Mock(ResolvableArtifact)
+
+        when:
+        scheduler.graphPopulated(Stub(TaskExecutionGraph))
+
+        then:
+        1 * inMemoryCache.getUnresolvedArtifacts() >> [artifact1, artifact2]
+        1 * artifact1.isResolved() >> false
+        1 * artifact1.getFile() >> file
+        1 * artifact2.isResolved() >> false
+        1 * artifact2.getFile() >> { throw new ArtifactResolveException("broken") }
+
+        and:
+        buildOperationExecutor.operations.size() == 2
+    }
+
+    def "does not prefetch artifacts unless enabled"() {
+        def scheduler = new ArtifactDownloadScheduler(inMemoryCache, buildOperationExecutor, 0, false)
+
+        when:
+        scheduler.graphPopulated(Stub(TaskExecutionGraph))
+
+        then:
+        0 * inMemoryCache._
+        buildOperationExecutor.operations.empty
+    }
+
+    def artifact() {
+        def id = Stub(ComponentArtifactIdentifier)
+        return Stub(ComponentArtifactMetadata) {
+            getId() >> id
+        }
+    }
+}
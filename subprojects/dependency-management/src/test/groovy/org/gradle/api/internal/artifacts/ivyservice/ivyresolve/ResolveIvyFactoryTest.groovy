@@ -54,6 +54,7 @@ class ResolveIvyFactoryTest extends Specification {
     VersionComparator versionComparator
     ImmutableModuleIdentifierFactory moduleIdentifierFactory
     RepositoryBlacklister repositoryBlacklister
+    ArtifactDownloadScheduler artifactDownloadScheduler
 
     def setup() {
         moduleVersionsCache = Mock(ModuleVersionsCache)
@@ -71,10 +72,13 @@ class ResolveIvyFactoryTest extends Specification {
         versionSelectorScheme = Mock(VersionSelectorScheme)
         versionComparator = Mock(VersionComparator)
         repositoryBlacklister = Mock(RepositoryBlacklister)
+        artifactDownloadScheduler = Mock(ArtifactDownloadScheduler) {
+            _ * schedule(_) >> { ModuleComponentRepository repository -> repository }
+        }
 
         resolveIvyFactory = new ResolveIvyFactory(moduleVersionsCache, moduleMetaDataCache, moduleArtifactsCache,
             cachedArtifactIndex, startParameterResolutionOverride, buildCommencedTimeProvider,
-            inMemoryCachedRepositoryFactory, versionSelectorScheme, versionComparator, moduleIdentifierFactory, repositoryBlacklister)
+            inMemoryCachedRepositoryFactory, versionSelectorScheme, versionComparator, moduleIdentifierFactory, repositoryBlacklister, artifactDownloadScheduler)
     }
 
     def "returns an empty resolver when no repositories are configured" () {
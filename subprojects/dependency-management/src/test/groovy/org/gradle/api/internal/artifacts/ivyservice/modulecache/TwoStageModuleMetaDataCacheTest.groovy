@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.api.internal.artifacts.ivyservice.modulecache
+
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ModuleComponentRepository
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata
+import spock.lang.Specification
+
+class TwoStageModuleMetaDataCacheTest extends Specification {
+    def readOnlyCache = Mock(ModuleMetaDataCache)
+    def writableCache = Mock(ModuleMetaDataCache)
+    def repository = Stub(ModuleComponentRepository)
+    def id = Stub(ModuleComponentIdentifier)
+    def cache = new TwoStageModuleMetaDataCache(readOnlyCache, writableCache)
+
+    def "uses entry from read-only cache when present"() {
+        def cached = Stub(ModuleMetaDataCache.CachedMetaData)
+
+        when:
+        def result = cache.getCachedModuleDescriptor(repository, id)
+
+        then:
+        result == cached
+        1 * readOnlyCache.getCachedModuleDescriptor(repository, id) >> cached
+        0 * writableCache._
+    }
+
+    def "falls back to writable cache when read-only cache has no entry"() {
+        def cached = Stub(ModuleMetaDataCache.CachedMetaData)
+
+        when:
+        def result = cache.getCachedModuleDescriptor(repository, id)
+
+        then:
+        result == cached
+        1 * readOnlyCache.getCachedModuleDescriptor(repository, id) >> null
+        1 * writableCache.getCachedModuleDescriptor(repository, id) >> cached
+    }
+
+    def "ignores missing module entries from read-only cache"() {
+        def missing = Stub(ModuleMetaDataCache.CachedMetaData) {
+            isMissing() >> true
+        }
+
+        when:
+        def result = cache.getCachedModuleDescriptor(repository, id)
+
+        then:
+        result == null
+        1 * readOnlyCache.getCachedModuleDescriptor(repository, id) >> missing
+        1 * writableCache.getCachedModuleDescriptor(repository, id) >> null
+    }
+
+    def "stores entries in writable cache only"() {
+        def metaData = Stub(ModuleComponentResolveMetadata)
+
+        when:
+        cache.cacheMetaData(repository, metaData)
+        cache.cacheMissing(repository, id)
+
+        then:
+        1 * writableCache.cacheMetaData(repository, metaData)
+        1 * writableCache.cacheMissing(repository, id)
+        0 * readOnlyCache._
+    }
+}
@@ -703,6 +703,22 @@ class DefaultModuleExclusionTest extends Specification {
         intersection == excludeAny(rule1, rule2)
     }
 
+    def "interns equal intersections and reuses the result of combining them"() {
+        def rule1 = excludeRule("org", "module")
+        def rule2 = excludeRule("org", "module2")
+        def rule3 = excludeModuleRule("module3")
+        def spec1 = excludeAny(rule1, rule2)
+        def spec2 = excludeAny(rule3)
+
+        expect:
+        excludeAny(rule2, rule1).is(spec1)
+        intersect(spec1, spec2).is(intersect(spec1, spec2))
+        intersect(spec2, spec1).is(intersect(spec1, spec2))
+        intersect(spec1, spec2).is(excludeAny(rule1, rule2, rule3))
+        union(spec1, spec2).is(union(spec1, spec2))
+        union(spec1, spec2) == union(spec2, spec1)
+    }
+
     def "intersections accepts same modules when original specs accept same modules"() {
         def rule1 = regexpExcludeRule("org", "module")
         def rule2 = regexpExcludeRule("org", "module2")
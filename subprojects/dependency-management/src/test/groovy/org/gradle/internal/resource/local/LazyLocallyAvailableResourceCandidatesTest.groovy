@@ -51,6 +51,27 @@ class LazyLocallyAvailableResourceCandidatesTest extends Specification {
         0 * factory.create()
     }
     
+    def "hashes each unchanged candidate at most once"() {
+        given:
+        def factory = Mock(Factory)
+        def abc = file("abc")
+        def candidates = new LazyLocallyAvailableResourceCandidates(factory)
+        factory.create() >> [abc, file("def")]
+
+        when:
+        def candidate = candidates.findByHashValue(HashUtil.sha1("def".bytes))
+
+        then:
+        candidate.file.name == "def"
+
+        when:
+        abc.text = "changed"
+
+        then:
+        candidates.findByHashValue(HashUtil.sha1("abc".bytes)) == null
+        candidates.findByHashValue(HashUtil.sha1("changed".bytes)).file == abc
+    }
+
     File file(path) {
         tmp.createFile(path) << path
     }
@@ -124,14 +124,14 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         1 * progressLoggingRepo.resource(location) >> remoteResource
         _ * remoteResource.name >> "remoteResource"
         1 * remoteResource.withContentIfPresent(_) >> { ExternalResource.ContentAction a ->
-            a.execute(new ByteArrayInputStream(), metaData)
+            a.execute(new ByteArrayInputStream("content".bytes), metaData)
         }
 
         and:
         1 * cacheLockingManager.useCache(_) >> { org.gradle.internal.Factory factory ->
             return factory.create()
         }
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, HashUtil.sha1("content".bytes)) >> localResource
         1 * index.store("thing", cachedFile, metaData)
         1 * fileRepository.resource(cachedFile, location.uri, metaData) >> cachedResource
         0 * _._
@@ -204,7 +204,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         1 * cacheLockingManager.useCache(_) >> { org.gradle.internal.Factory factory ->
             return factory.create()
         }
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, sha1) >> localResource
         1 * index.store("thing", cachedFile, remoteMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
         0 * _._
@@ -253,7 +253,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         1 * cacheLockingManager.useCache(_) >> { org.gradle.internal.Factory factory ->
             return factory.create()
         }
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, sha1) >> localResource
         1 * index.store("thing", cachedFile, remoteMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
         0 * _._
@@ -292,7 +292,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         1 * repository.withProgressLogging() >> progressLoggingRepo
         1 * progressLoggingRepo.resource(location, true) >> remoteResource
         1 * remoteResource.withContentIfPresent(_) >> { ExternalResource.ContentAction a ->
-            a.execute(new ByteArrayInputStream(), remoteMetaData)
+            a.execute(new ByteArrayInputStream("content".bytes), remoteMetaData)
         }
         0 * _._
 
@@ -300,7 +300,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         1 * cacheLockingManager.useCache(_) >> { org.gradle.internal.Factory factory ->
             return factory.create()
         }
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, HashUtil.sha1("content".bytes)) >> localResource
         1 * index.store("thing", cachedFile, remoteMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
         0 * _._
@@ -347,7 +347,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         1 * repository.withProgressLogging() >> progressLoggingRepo
         1 * progressLoggingRepo.resource(location, true) >> remoteResource
         1 * remoteResource.withContentIfPresent(_) >> { ExternalResource.ContentAction a ->
-            a.execute(new ByteArrayInputStream(), remoteMetaData)
+            a.execute(new ByteArrayInputStream("content".bytes), remoteMetaData)
         }
         0 * _._
 
@@ -355,7 +355,7 @@ class DefaultCacheAwareExternalResourceAccessorTest extends Specification {
         1 * cacheLockingManager.useCache(_) >> { org.gradle.internal.Factory factory ->
             return factory.create()
         }
-        1 * fileStore.moveIntoCache(tempFile) >> localResource
+        1 * fileStore.moveIntoCache(tempFile, HashUtil.sha1("content".bytes)) >> localResource
         1 * index.store("thing", cachedFile, remoteMetaData)
         1 * fileRepository.resource(cachedFile, location.uri, remoteMetaData) >> resultResource
         0 * _._
@@ -43,6 +43,11 @@ class TestWorkerLeaseService implements WorkerLeaseService {
         return workerLease()
     }
 
+    @Override
+    int getAvailableWorkerLeaseCount() {
+        return 0
+    }
+
     @Override
     void withSharedLease(WorkerLeaseRegistry.WorkerLease sharedLease, Runnable action) {
         throw new UnsupportedOperationException("not implemented yet")
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.groovy
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class GroovyCompileAvoidanceIntegrationTest extends AbstractIntegrationSpec {
+    def setup() {
+        settingsFile << "include 'lib', 'app'"
+        buildFile << """
+            subprojects {
+                apply plugin: 'groovy'
+                dependencies {
+                    compile localGroovy()
+                }
+            }
+            project(':app') {
+                dependencies {
+                    compile project(':lib')
+                }
+            }
+        """
+        file("lib/src/main/groovy/Library.groovy") << """
+            class Library {
+                String greeting() { "hello" }
+            }
+        """
+        file("app/src/main/groovy/App.groovy") << """
+            class App {
+                String run() { new Library().greeting() }
+            }
+        """
+    }
+
+    def "does not recompile when only the implementation of a dependency changes"() {
+        given:
+        succeeds ":app:compileGroovy"
+
+        when:
+        file("lib/src/main/groovy/Library.groovy").text = """
+            class Library {
+                String greeting() { "hi" }
+            }
+        """
+        succeeds ":app:compileGroovy"
+
+        then:
+        executedAndNotSkipped ":lib:compileGroovy"
+        skipped ":app:compileGroovy"
+    }
+
+    def "recompiles when the ABI of a dependency changes"() {
+        given:
+        succeeds ":app:compileGroovy"
+
+        when:
+        file("lib/src/main/groovy/Library.groovy").text = """
+            class Library {
+                String greeting() { "hello" }
+                String farewell() { "bye" }
+            }
+        """
+        succeeds ":app:compileGroovy"
+
+        then:
+        executedAndNotSkipped ":lib:compileGroovy", ":app:compileGroovy"
+    }
+
+    def "recompiles when the implementation of a global AST transformation in a dependency changes"() {
+        given:
+        file("lib/src/main/groovy/NoOpTransformation.groovy") << transformation("")
+        file("lib/src/main/resources/META-INF/services/org.codehaus.groovy.transform.ASTTransformation") << "NoOpTransformation"
+        succeeds ":app:compileGroovy"
+
+        when:
+        file("lib/src/main/groovy/NoOpTransformation.groovy").text = transformation("println 'transforming'")
+        succeeds ":app:compileGroovy"
+
+        then:
+        executedAndNotSkipped ":lib:compileGroovy", ":app:compileGroovy"
+    }
+
+    private static String transformation(String body) {
+        """
+            import org.codehaus.groovy.ast.ASTNode
+            import org.codehaus.groovy.control.CompilePhase
+            import org.codehaus.groovy.control.SourceUnit
+            import org.codehaus.groovy.transform.ASTTransformation
+            import org.codehaus.groovy.transform.GroovyASTTransformation
+
+            @GroovyASTTransformation(phase = CompilePhase.CONVERSION)
+            class NoOpTransformation implements ASTTransformation {
+                void visit(ASTNode[] nodes, SourceUnit source) {
+                    ${body}
+                }
+            }
+        """
+    }
+}
@@ -29,6 +29,7 @@ import org.gradle.api.internal.tasks.JavaToolChainFactory;
 import org.gradle.api.internal.tasks.compile.AnnotationProcessorDetector;
 import org.gradle.api.internal.tasks.compile.CleaningGroovyCompiler;
 import org.gradle.api.internal.tasks.compile.CompilerForkUtils;
+import org.gradle.api.internal.tasks.compile.CompilerPluginClasspathDetector;
 import org.gradle.api.internal.tasks.compile.DefaultGroovyJavaJointCompileSpec;
 import org.gradle.api.internal.tasks.compile.DefaultGroovyJavaJointCompileSpecFactory;
 import org.gradle.api.internal.tasks.compile.GroovyCompilerFactory;
@@ -36,6 +37,7 @@ import org.gradle.api.internal.tasks.compile.GroovyJavaJointCompileSpec;
 import org.gradle.api.internal.tasks.compile.JavaCompilerFactory;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.CompileClasspath;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Nested;
@@ -112,9 +114,7 @@ public class GroovyCompile extends AbstractCompile {
     }
 
     private List<File> calculateAnnotationProcessorClasspath() {
-        AnnotationProcessorDetector annotationProcessorDetector = getServices().get(AnnotationProcessorDetector.class);
-        FileCollection processorClasspath = annotationProcessorDetector.getEffectiveAnnotationProcessorClasspath(compileOptions, getClasspath());
-        return Lists.newArrayList(processorClasspath);
+        return Lists.newArrayList(getEffectiveAnnotationProcessorPath());
     }
 
     private void checkGroovyClasspathIsNonEmpty() {
@@ -148,6 +148,44 @@ public class GroovyCompile extends AbstractCompile {
         return getJavaToolChainFactory().forCompileOptions(getOptions());
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Only the ABI of the classes on the compile classpath is tracked. Entries that contain AST transformations or extension modules are also tracked in full, see {@link #getAstTransformationClasspath()}.</p>
+     */
+    @Override
+    @CompileClasspath
+    public FileCollection getClasspath() {
+        return super.getClasspath();
+    }
+
+    /**
+     * Returns the entries of the compile classpath that contain global or local AST transformations or extension modules. These run inside the Groovy compiler, so a change to their implementation can change the compiled classes even when their ABI stays the same.
+     *
+     * @since 4.2
+     */
+    @Incubating
+    @Classpath
+    protected FileCollection getAstTransformationClasspath() {
+        return getServices().get(CompilerPluginClasspathDetector.class).getCompilerPluginClasspath(getClasspath());
+    }
+
+    /**
+     * Returns the path to use for annotation processor discovery during joint Java compilation. Returns an empty collection when no processing should be performed, for example when no annotation processors are present in the compile classpath or annotation processing has been disabled.
+     *
+     * <p>You can specify this path using {@link CompileOptions#setAnnotationProcessorPath(FileCollection)} or {@link CompileOptions#setCompilerArgs(java.util.List)}. When not explicitly set using one of the methods on {@link CompileOptions}, the compile classpath will be used when there are annotation processors present in the compile classpath. Otherwise this path will be empty.
+     *
+     * <p>This path is always empty when annotation processing is disabled.</p>
+     *
+     * @since 4.2
+     */
+    @Incubating
+    @Classpath
+    public FileCollection getEffectiveAnnotationProcessorPath() {
+        AnnotationProcessorDetector annotationProcessorDetector = getServices().get(AnnotationProcessorDetector.class);
+        return annotationProcessorDetector.getEffectiveAnnotationProcessorClasspath(compileOptions, getClasspath());
+    }
+
     /**
      * {@inheritDoc}
      */
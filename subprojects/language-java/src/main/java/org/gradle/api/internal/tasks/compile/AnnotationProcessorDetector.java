@@ -18,6 +18,9 @@ package org.gradle.api.internal.tasks.compile;
 
 import com.google.common.base.Joiner;
 import com.google.common.base.Splitter;
+import com.google.common.io.CharStreams;
+import com.google.common.io.Files;
+import org.apache.tools.zip.ZipEntry;
 import org.apache.tools.zip.ZipFile;
 import org.gradle.api.InvalidUserDataException;
 import org.gradle.api.file.FileCollection;
@@ -25,28 +28,47 @@ import org.gradle.api.internal.file.FileCollectionFactory;
 import org.gradle.api.internal.file.collections.MinimalFileSet;
 import org.gradle.api.internal.tasks.AbstractTaskDependency;
 import org.gradle.api.internal.tasks.TaskDependencyResolveContext;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
+import org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType;
 import org.gradle.api.tasks.compile.CompileOptions;
 import org.gradle.cache.internal.FileContentCache;
 import org.gradle.cache.internal.FileContentCacheFactory;
 import org.gradle.internal.FileUtils;
 import org.gradle.internal.file.FileType;
 import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.ListSerializer;
 import org.gradle.util.DeprecationLogger;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 public class AnnotationProcessorDetector {
+    public static final String INCREMENTAL_PROCESSORS_RESOURCE = "META-INF/gradle/incremental.annotation.processors";
+    private static final String PROCESSOR_SERVICES_RESOURCE = "META-INF/services/javax.annotation.processing.Processor";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
     private final FileCollectionFactory fileCollectionFactory;
     private final FileContentCache<Boolean> cache;
+    private final FileContentCache<List<String>> processorNamesCache;
+    private final FileContentCache<List<String>> incrementalProcessorsCache;
 
     public AnnotationProcessorDetector(FileCollectionFactory fileCollectionFactory, FileContentCacheFactory cacheFactory) {
         this.fileCollectionFactory = fileCollectionFactory;
         cache = cacheFactory.newCache("annotation-processors", 20000, new AnnotationServiceLocator(), BaseSerializerFactory.BOOLEAN_SERIALIZER);
+        ListSerializer<String> linesSerializer = new ListSerializer<String>(BaseSerializerFactory.STRING_SERIALIZER);
+        processorNamesCache = cacheFactory.newCache("annotation-processor-names", 20000, new ResourceLinesReader(PROCESSOR_SERVICES_RESOURCE), linesSerializer);
+        incrementalProcessorsCache = cacheFactory.newCache("incremental-annotation-processors", 20000, new ResourceLinesReader(INCREMENTAL_PROCESSORS_RESOURCE), linesSerializer);
     }
 
     /**
@@ -102,6 +124,88 @@ public class AnnotationProcessorDetector {
         });
     }
 
+    /**
+     * Lists the annotation processors javac will run with the given processor path, along with the kind of incremental processing each of them declares.
+     * Processors declare this with a {@code <processor class name>,<isolating|aggregating>} line in {@value #INCREMENTAL_PROCESSORS_RESOURCE}.
+     * The resources read from each processor path entry are cached until the content of the entry changes.
+     */
+    public List<AnnotationProcessorDeclaration> getAnnotationProcessors(CompileOptions compileOptions, Iterable<File> processorPath) {
+        Set<String> processorNames = new LinkedHashSet<String>();
+        Map<String, IncrementalAnnotationProcessorType> types = new HashMap<String, IncrementalAnnotationProcessorType>();
+        for (File file : processorPath) {
+            processorNames.addAll(processorNamesCache.get(file));
+            for (String line : incrementalProcessorsCache.get(file)) {
+                List<String> parts = Splitter.on(',').trimResults().splitToList(line);
+                if (parts.size() == 2 && !types.containsKey(parts.get(0))) {
+                    types.put(parts.get(0), parseType(parts.get(1)));
+                }
+            }
+        }
+        if (checkExplicitProcessorOption(compileOptions)) {
+            // Only the named processors are used, regardless of what the service resources declare
+            List<String> compilerArgs = compileOptions.getCompilerArgs();
+            processorNames = new LinkedHashSet<String>(Splitter.on(',').trimResults().omitEmptyStrings().splitToList(compilerArgs.get(compilerArgs.indexOf("-processor") + 1)));
+        }
+
+        List<AnnotationProcessorDeclaration> processors = new ArrayList<AnnotationProcessorDeclaration>(processorNames.size());
+        for (String processorName : processorNames) {
+            IncrementalAnnotationProcessorType type = types.get(processorName);
+            processors.add(new AnnotationProcessorDeclaration(processorName, type == null ? IncrementalAnnotationProcessorType.UNKNOWN : type));
+        }
+        return processors;
+    }
+
+    private static IncrementalAnnotationProcessorType parseType(String type) {
+        try {
+            return IncrementalAnnotationProcessorType.valueOf(type.toUpperCase(Locale.US));
+        } catch (IllegalArgumentException e) {
+            return IncrementalAnnotationProcessorType.UNKNOWN;
+        }
+    }
+
+    private static List<String> readLines(File file, FileType fileType, String resource) {
+        try {
+            List<String> lines;
+            if (fileType == FileType.Directory) {
+                File resourceFile = new File(file, resource);
+                if (!resourceFile.isFile()) {
+                    return Collections.emptyList();
+                }
+                lines = Files.readLines(resourceFile, UTF_8);
+            } else if (fileType == FileType.RegularFile && FileUtils.hasExtensionIgnoresCase(file.getName(), ".jar")) {
+                ZipFile zipFile = new ZipFile(file);
+                try {
+                    ZipEntry entry = zipFile.getEntry(resource);
+                    if (entry == null) {
+                        return Collections.emptyList();
+                    }
+                    InputStream inputStream = zipFile.getInputStream(entry);
+                    try {
+                        lines = CharStreams.readLines(new InputStreamReader(inputStream, UTF_8));
+                    } finally {
+                        inputStream.close();
+                    }
+                } finally {
+                    zipFile.close();
+                }
+            } else {
+                return Collections.emptyList();
+            }
+            List<String> result = new ArrayList<String>(lines.size());
+            for (String line : lines) {
+                int comment = line.indexOf('#');
+                String value = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                if (!value.isEmpty()) {
+                    result.add(value);
+                }
+            }
+            return result;
+        } catch (IOException e) {
+            // A malformed processor path entry is reported by the compiler
+            return Collections.emptyList();
+        }
+    }
+
     private static boolean checkExplicitProcessorOption(CompileOptions compileOptions) {
         boolean hasExplicitProcessor = false;
         int pos = compileOptions.getCompilerArgs().indexOf("-processor");
@@ -137,4 +241,17 @@ public class AnnotationProcessorDetector {
             return false;
         }
     }
+
+    private static class ResourceLinesReader implements FileContentCacheFactory.Calculator<List<String>> {
+        private final String resource;
+
+        ResourceLinesReader(String resource) {
+            this.resource = resource;
+        }
+
+        @Override
+        public List<String> calculate(File file, FileType fileType) {
+            return readLines(file, fileType, resource);
+        }
+    }
 }
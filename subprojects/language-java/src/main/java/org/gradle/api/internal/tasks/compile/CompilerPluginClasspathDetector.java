@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import org.apache.tools.zip.ZipEntry;
+import org.apache.tools.zip.ZipFile;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.file.FileCollectionFactory;
+import org.gradle.api.internal.file.collections.MinimalFileSet;
+import org.gradle.api.internal.tasks.AbstractTaskDependency;
+import org.gradle.api.internal.tasks.TaskDependencyResolveContext;
+import org.gradle.cache.internal.FileContentCache;
+import org.gradle.cache.internal.FileContentCacheFactory;
+import org.gradle.internal.FileUtils;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the entries of a compile classpath that can change what the compiler does, rather than only the API that the sources are compiled against.
+ * The Groovy compiler runs the AST transformations and extension modules it finds on the classpath, and the Scala compiler expands macros using implementations from the classpath.
+ *
+ * <p>A compile task that snapshots its classpath by ABI also needs to track the full contents of these entries, so that a change to the implementation of a transformation or macro still recompiles its users.</p>
+ */
+public class CompilerPluginClasspathDetector {
+    private static final List<String> PLUGIN_RESOURCES = ImmutableList.of(
+        "META-INF/services/org.codehaus.groovy.transform.ASTTransformation",
+        "META-INF/services/org.codehaus.groovy.runtime.ExtensionModule",
+        "META-INF/groovy/org.codehaus.groovy.runtime.ExtensionModule"
+    );
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    // Internal names that only appear in the constant pool of local AST transformations and of macro implementations
+    private static final List<byte[]> PLUGIN_CLASS_MARKERS = ImmutableList.of(
+        "org/codehaus/groovy/transform/GroovyASTTransformation".getBytes(UTF_8),
+        "scala/reflect/macros/".getBytes(UTF_8)
+    );
+
+    private final FileCollectionFactory fileCollectionFactory;
+    private final FileContentCache<Boolean> cache;
+
+    public CompilerPluginClasspathDetector(FileCollectionFactory fileCollectionFactory, FileContentCacheFactory cacheFactory) {
+        this.fileCollectionFactory = fileCollectionFactory;
+        this.cache = cacheFactory.newCache("compiler-plugins", 20000, new CompilerPluginLocator(), BaseSerializerFactory.BOOLEAN_SERIALIZER);
+    }
+
+    /**
+     * Returns the entries of the given classpath that contain compiler plugins, in classpath order.
+     */
+    public FileCollection getCompilerPluginClasspath(final FileCollection compileClasspath) {
+        return fileCollectionFactory.create(new AbstractTaskDependency() {
+            @Override
+            public void visitDependencies(TaskDependencyResolveContext context) {
+                context.add(compileClasspath);
+            }
+        }, new MinimalFileSet() {
+            @Override
+            public Set<File> getFiles() {
+                Set<File> files = new LinkedHashSet<File>();
+                for (File file : compileClasspath) {
+                    if (cache.get(file)) {
+                        files.add(file);
+                    }
+                }
+                return files;
+            }
+
+            @Override
+            public String getDisplayName() {
+                return "compiler plugin classpath";
+            }
+        });
+    }
+
+    private static class CompilerPluginLocator implements FileContentCacheFactory.Calculator<Boolean> {
+        @Override
+        public Boolean calculate(File file, FileType fileType) {
+            try {
+                if (fileType == FileType.Directory) {
+                    return containsPlugins(file);
+                }
+                if (fileType == FileType.RegularFile && FileUtils.hasExtensionIgnoresCase(file.getName(), ".jar")) {
+                    return jarContainsPlugins(file);
+                }
+            } catch (IOException e) {
+                // A malformed classpath entry is reported by the compiler, so track its full contents to be safe
+                return true;
+            }
+            return false;
+        }
+
+        private static boolean containsPlugins(File dir) throws IOException {
+            for (String resource : PLUGIN_RESOURCES) {
+                if (new File(dir, resource).isFile()) {
+                    return true;
+                }
+            }
+            for (File file : Files.fileTreeTraverser().preOrderTraversal(dir)) {
+                if (file.isFile() && file.getName().endsWith(".class") && containsMarker(Files.toByteArray(file))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean jarContainsPlugins(File jar) throws IOException {
+            ZipFile zipFile = new ZipFile(jar);
+            try {
+                for (String resource : PLUGIN_RESOURCES) {
+                    if (zipFile.getEntry(resource) != null) {
+                        return true;
+                    }
+                }
+                Enumeration<ZipEntry> entries = zipFile.getEntries();
+                while (entries.hasMoreElements()) {
+                    ZipEntry entry = entries.nextElement();
+                    if (entry.getName().endsWith(".class")) {
+                        InputStream inputStream = zipFile.getInputStream(entry);
+                        try {
+                            if (containsMarker(ByteStreams.toByteArray(inputStream))) {
+                                return true;
+                            }
+                        } finally {
+                            inputStream.close();
+                        }
+                    }
+                }
+                return false;
+            } finally {
+                zipFile.close();
+            }
+        }
+
+        private static boolean containsMarker(byte[] classBytes) {
+            for (byte[] marker : PLUGIN_CLASS_MARKERS) {
+                if (indexOf(classBytes, marker) >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int indexOf(byte[] bytes, byte[] target) {
+            outer:
+            for (int i = 0; i <= bytes.length - target.length; i++) {
+                for (int j = 0; j < target.length; j++) {
+                    if (bytes[i + j] != target[j]) {
+                        continue outer;
+                    }
+                }
+                return i;
+            }
+            return -1;
+        }
+    }
+}
@@ -16,14 +16,19 @@
 
 package org.gradle.api.internal.tasks.compile;
 
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
 import org.gradle.api.tasks.compile.CompileOptions;
 
 import java.io.File;
 import java.util.List;
+import java.util.Map;
 
 public class DefaultJavaCompileSpec extends DefaultJvmLanguageCompileSpec implements JavaCompileSpec {
     private CompileOptions compileOptions;
     private List<File> annotationProcessorPath;
+    private List<AnnotationProcessorDeclaration> effectiveAnnotationProcessors;
+    private File annotationProcessingResultFile;
+    private Map<File, String> compileClasspathHashes;
 
     @Override
     public CompileOptions getCompileOptions() {
@@ -43,4 +48,34 @@ public class DefaultJavaCompileSpec extends DefaultJvmLanguageCompileSpec implem
     public void setAnnotationProcessorPath(List<File> annotationProcessorPath) {
         this.annotationProcessorPath = annotationProcessorPath;
     }
+
+    @Override
+    public List<AnnotationProcessorDeclaration> getEffectiveAnnotationProcessors() {
+        return effectiveAnnotationProcessors;
+    }
+
+    @Override
+    public void setEffectiveAnnotationProcessors(List<AnnotationProcessorDeclaration> effectiveAnnotationProcessors) {
+        this.effectiveAnnotationProcessors = effectiveAnnotationProcessors;
+    }
+
+    @Override
+    public File getAnnotationProcessingResultFile() {
+        return annotationProcessingResultFile;
+    }
+
+    @Override
+    public void setAnnotationProcessingResultFile(File annotationProcessingResultFile) {
+        this.annotationProcessingResultFile = annotationProcessingResultFile;
+    }
+
+    @Override
+    public Map<File, String> getCompileClasspathHashes() {
+        return compileClasspathHashes;
+    }
+
+    @Override
+    public void setCompileClasspathHashes(Map<File, String> compileClasspathHashes) {
+        this.compileClasspathHashes = compileClasspathHashes;
+    }
 }
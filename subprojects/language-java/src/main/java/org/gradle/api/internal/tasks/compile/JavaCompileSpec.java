@@ -16,10 +16,12 @@
 
 package org.gradle.api.internal.tasks.compile;
 
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
 import org.gradle.api.tasks.compile.CompileOptions;
 
 import java.io.File;
 import java.util.List;
+import java.util.Map;
 
 public interface JavaCompileSpec extends JvmLanguageCompileSpec {
     CompileOptions getCompileOptions();
@@ -33,4 +35,22 @@ public interface JavaCompileSpec extends JvmLanguageCompileSpec {
     List<File> getAnnotationProcessorPath();
 
     void setAnnotationProcessorPath(List<File> path);
+
+    /**
+     * The incremental annotation processors to run. When not null, the compiler runs exactly these processors and writes the types they generate to {@link #getAnnotationProcessingResultFile()}.
+     */
+    List<AnnotationProcessorDeclaration> getEffectiveAnnotationProcessors();
+
+    void setEffectiveAnnotationProcessors(List<AnnotationProcessorDeclaration> processors);
+
+    File getAnnotationProcessingResultFile();
+
+    void setAnnotationProcessingResultFile(File annotationProcessingResultFile);
+
+    /**
+     * The content hashes of the jars on the compile classpath. When not null, the compiler may reuse a file manager from a previous compilation whose view of these jars is still up-to-date.
+     */
+    Map<File, String> getCompileClasspathHashes();
+
+    void setCompileClasspathHashes(Map<File, String> compileClasspathHashes);
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.Stoppable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the file managers of the JDK compiler open between compilations in the build process, so that javac does not open and index the same classpath jars again for every compilation.
+ * A file manager is only handed out to compilations with the same compiler, encoding and options, ignoring the paths that every compilation sets explicitly.
+ * It is discarded as soon as the content hash of one of the jars it has seen changes.
+ */
+public class JavaFileManagerPool implements Stoppable {
+    public static final String REUSE_FILE_MANAGERS_PROPERTY = "org.gradle.internal.java.compile.reuse.file.managers";
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaFileManagerPool.class);
+    private static final Set<String> PATH_OPTIONS = ImmutableSet.of("-d", "-s", "-classpath", "-cp", "--class-path", "-sourcepath", "--source-path", "-processorpath", "--processor-path");
+    private static final JavaFileManagerPool INSTANCE = new JavaFileManagerPool(Runtime.getRuntime().availableProcessors());
+
+    private final LinkedList<PooledFileManager> idleFileManagers = new LinkedList<PooledFileManager>();
+    private final int maxIdleFileManagers;
+
+    JavaFileManagerPool(int maxIdleFileManagers) {
+        this.maxIdleFileManagers = maxIdleFileManagers;
+    }
+
+    /**
+     * Returns the pool of this process. Only compilations that run in the build process use the pool, as nothing closes the file managers of a compiler daemon.
+     */
+    public static JavaFileManagerPool getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return Boolean.getBoolean(REUSE_FILE_MANAGERS_PROPERTY);
+    }
+
+    /**
+     * Returns an idle file manager that can be used for a compilation with the given settings, or creates a new one.
+     *
+     * @param classpathHashes the content hashes of the jars on the compile classpath.
+     */
+    PooledFileManager acquire(JavaCompiler compiler, Charset charset, List<String> options, Map<File, String> classpathHashes) {
+        List<Object> key = Arrays.<Object>asList(compiler.getClass(), charset, normalize(options));
+        PooledFileManager fileManager = null;
+        synchronized (idleFileManagers) {
+            Iterator<PooledFileManager> iterator = idleFileManagers.iterator();
+            while (iterator.hasNext()) {
+                PooledFileManager candidate = iterator.next();
+                if (candidate.key.equals(key)) {
+                    iterator.remove();
+                    fileManager = candidate;
+                    break;
+                }
+            }
+        }
+
+        if (fileManager != null && !fileManager.isUpToDate(classpathHashes)) {
+            LOGGER.debug("Discarding Java file manager because classpath jars have changed.");
+            CompositeStoppable.stoppable(fileManager).stop();
+            fileManager = null;
+        }
+        if (fileManager == null) {
+            fileManager = new PooledFileManager(key, compiler.getStandardFileManager(null, null, charset));
+        } else {
+            LOGGER.debug("Reusing Java file manager.");
+        }
+        fileManager.seenHashes.putAll(classpathHashes);
+        return fileManager;
+    }
+
+    /**
+     * Makes the given file manager available to later compilations. The least recently used file managers are closed when there are too many idle ones.
+     */
+    void release(PooledFileManager fileManager) {
+        List<PooledFileManager> evicted = new ArrayList<PooledFileManager>();
+        synchronized (idleFileManagers) {
+            idleFileManagers.addFirst(fileManager);
+            while (idleFileManagers.size() > maxIdleFileManagers) {
+                evicted.add(idleFileManagers.removeLast());
+            }
+        }
+        CompositeStoppable.stoppable(evicted).stop();
+    }
+
+    /**
+     * Closes the idle file managers, releasing the jars they hold open. The pool can still be used afterwards.
+     */
+    @Override
+    public void stop() {
+        List<PooledFileManager> fileManagers;
+        synchronized (idleFileManagers) {
+            fileManagers = new ArrayList<PooledFileManager>(idleFileManagers);
+            idleFileManagers.clear();
+        }
+        CompositeStoppable.stoppable(fileManagers).stop();
+    }
+
+    private static List<String> normalize(List<String> options) {
+        List<String> result = new ArrayList<String>(options.size());
+        boolean pathValue = false;
+        for (String option : options) {
+            result.add(pathValue ? "" : option);
+            pathValue = !pathValue && PATH_OPTIONS.contains(option);
+        }
+        return result;
+    }
+
+    static class PooledFileManager implements Closeable {
+        private final List<Object> key;
+        private final StandardJavaFileManager fileManager;
+        private final Map<File, String> seenHashes = new HashMap<File, String>();
+
+        PooledFileManager(List<Object> key, StandardJavaFileManager fileManager) {
+            this.key = key;
+            this.fileManager = fileManager;
+        }
+
+        StandardJavaFileManager getFileManager() {
+            return fileManager;
+        }
+
+        boolean isUpToDate(Map<File, String> classpathHashes) {
+            for (Map.Entry<File, String> entry : classpathHashes.entrySet()) {
+                String previousHash = seenHashes.get(entry.getKey());
+                if (previousHash != null && !previousHash.equals(entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            fileManager.close();
+        }
+    }
+}
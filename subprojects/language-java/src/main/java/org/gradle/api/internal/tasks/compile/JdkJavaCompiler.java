@@ -17,19 +17,28 @@ package org.gradle.api.internal.tasks.compile;
 
 import org.gradle.api.JavaVersion;
 import org.gradle.api.internal.tasks.SimpleWorkResult;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
+import org.gradle.api.internal.tasks.compile.processing.IncrementalProcessor;
 import org.gradle.api.internal.tasks.compile.reflect.SourcepathIgnoringProxy;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.api.tasks.compile.CompileOptions;
 import org.gradle.internal.Factory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.language.base.internal.compile.Compiler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.processing.Processor;
 import javax.tools.JavaCompiler;
 import javax.tools.JavaFileObject;
 import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
 import java.io.Serializable;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
@@ -45,8 +54,31 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
     public WorkResult execute(JavaCompileSpec spec) {
         LOGGER.info("Compiling with JDK Java compiler API.");
 
-        JavaCompiler.CompilationTask task = createCompileTask(spec);
-        boolean success = task.call();
+        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
+        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
+        CompileOptions compileOptions = spec.getCompileOptions();
+        Charset charset = compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null;
+        AnnotationProcessingResult processingResult = spec.getEffectiveAnnotationProcessors() == null ? null : new AnnotationProcessingResult();
+
+        boolean success;
+        if (spec.getCompileClasspathHashes() == null) {
+            StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, charset);
+            success = compile(spec, options, compiler, standardFileManager, processingResult);
+        } else {
+            JavaFileManagerPool pool = JavaFileManagerPool.getInstance();
+            JavaFileManagerPool.PooledFileManager pooledFileManager = pool.acquire(compiler, charset, options, spec.getCompileClasspathHashes());
+            try {
+                success = compile(spec, options, compiler, pooledFileManager.getFileManager(), processingResult);
+            } catch (RuntimeException e) {
+                // The file manager may be left in an unknown state
+                CompositeStoppable.stoppable(pooledFileManager).stop();
+                throw e;
+            }
+            pool.release(pooledFileManager);
+        }
+        if (processingResult != null) {
+            processingResult.writeTo(spec.getAnnotationProcessingResultFile());
+        }
         if (!success) {
             throw new CompilationFailedException();
         }
@@ -54,17 +86,47 @@ public class JdkJavaCompiler implements Compiler<JavaCompileSpec>, Serializable
         return new SimpleWorkResult(true);
     }
 
-    private JavaCompiler.CompilationTask createCompileTask(JavaCompileSpec spec) {
-        List<String> options = new JavaCompilerArgumentsBuilder(spec).build();
-        JavaCompiler compiler = javaHomeBasedJavaCompilerFactory.create();
-        CompileOptions compileOptions = spec.getCompileOptions();
-        StandardJavaFileManager standardFileManager = compiler.getStandardFileManager(null, null, compileOptions.getEncoding() != null ? Charset.forName(compileOptions.getEncoding()) : null);
+    private boolean compile(JavaCompileSpec spec, List<String> options, JavaCompiler compiler, StandardJavaFileManager standardFileManager, AnnotationProcessingResult processingResult) {
         Iterable<? extends JavaFileObject> compilationUnits = standardFileManager.getJavaFileObjectsFromFiles(spec.getSource());
         StandardJavaFileManager fileManager = standardFileManager;
         if (JavaVersion.current().isJava9Compatible() && emptySourcepathIn(options)) {
             fileManager = (StandardJavaFileManager) SourcepathIgnoringProxy.proxy(standardFileManager, StandardJavaFileManager.class);
         }
-        return compiler.getTask(null, fileManager, null, options, null, compilationUnits);
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, compilationUnits);
+        if (processingResult == null) {
+            return task.call();
+        }
+        ClassLoader processorClassLoader = createProcessorClassLoader(spec, standardFileManager);
+        try {
+            task.setProcessors(createIncrementalProcessors(spec, processorClassLoader, processingResult));
+            return task.call();
+        } finally {
+            // The file manager may be pooled and outlive this compilation, so release the processor jars now
+            ClassLoaderUtils.tryClose(processorClassLoader);
+        }
+    }
+
+    private static ClassLoader createProcessorClassLoader(JavaCompileSpec spec, StandardJavaFileManager fileManager) {
+        try {
+            // Load the processors the same way javac does, so that they see the same classes
+            fileManager.setLocation(StandardLocation.ANNOTATION_PROCESSOR_PATH, spec.getAnnotationProcessorPath());
+            return fileManager.getClassLoader(StandardLocation.ANNOTATION_PROCESSOR_PATH);
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static List<Processor> createIncrementalProcessors(JavaCompileSpec spec, ClassLoader processorClassLoader, AnnotationProcessingResult processingResult) {
+        List<Processor> processors = new ArrayList<Processor>(spec.getEffectiveAnnotationProcessors().size());
+        try {
+            for (AnnotationProcessorDeclaration declaration : spec.getEffectiveAnnotationProcessors()) {
+                Processor processor = (Processor) processorClassLoader.loadClass(declaration.getClassName()).newInstance();
+                processors.add(new IncrementalProcessor(processor, declaration.getType(), processingResult));
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return processors;
     }
 
     private static boolean emptySourcepathIn(List<String> options) {
@@ -21,9 +21,11 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisExecutor;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.cache.internal.Stash;
@@ -48,24 +50,38 @@ public class ClassSetAnalysisUpdater {
     private final FileOperations fileOperations;
     private ClassDependenciesAnalyzer analyzer;
     private final FileHasher fileHasher;
+    private final ClassAnalysisExecutor executor;
 
-    public ClassSetAnalysisUpdater(Stash<ClassSetAnalysisData> stash, FileOperations fileOperations, ClassDependenciesAnalyzer analyzer, FileHasher fileHasher) {
+    public ClassSetAnalysisUpdater(Stash<ClassSetAnalysisData> stash, FileOperations fileOperations, ClassDependenciesAnalyzer analyzer, FileHasher fileHasher, ClassAnalysisExecutor executor) {
         this.stash = stash;
         this.fileOperations = fileOperations;
         this.analyzer = analyzer;
         this.fileHasher = fileHasher;
+        this.executor = executor;
     }
 
-    public void updateAnalysis(JavaCompileSpec spec) {
+    /**
+     * @param processingResult the types generated by incremental annotation processors during this compilation, or null when they were not tracked.
+     * @param incrementalResult the result of an incremental compilation, or null after a full compilation.
+     */
+    public void updateAnalysis(JavaCompileSpec spec, AnnotationProcessingResult processingResult, IncrementalCompilationResult incrementalResult) {
         Timer clock = Timers.startTimer();
         Set<File> baseDirs = Sets.newLinkedHashSet();
         baseDirs.add(spec.getDestinationDir());
         Iterables.addAll(baseDirs, Iterables.filter(spec.getCompileClasspath(), IS_CLASS_DIRECTORY));
-        ClassFilesAnalyzer analyzer = new ClassFilesAnalyzer(this.analyzer, fileHasher);
+        ClassFilesAnalyzer analyzer = new ClassFilesAnalyzer(this.analyzer, fileHasher, executor);
         for (File baseDir : baseDirs) {
             fileOperations.fileTree(baseDir).visit(analyzer);
         }
         ClassSetAnalysisData data = analyzer.getAnalysis();
+        if (processingResult != null) {
+            if (incrementalResult != null && incrementalResult.getPreviousAnnotationProcessingResult() != null) {
+                // Only the recompiled classes were seen by the processors, so keep what is known about the others
+                processingResult = AnnotationProcessingResult.merge(incrementalResult.getPreviousAnnotationProcessingResult(), processingResult,
+                    incrementalResult.getRecompiledClasses(), data.getClassNames());
+            }
+            data = data.withAnnotationProcessingResult(processingResult);
+        }
         stash.put(data);
         LOG.info("Class dependency analysis for incremental compilation took {}.", clock.getElapsed());
     }
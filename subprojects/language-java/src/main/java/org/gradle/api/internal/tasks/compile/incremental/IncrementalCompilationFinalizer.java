@@ -18,30 +18,51 @@ package org.gradle.api.internal.tasks.compile.incremental;
 
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotWriter;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
 import org.gradle.api.tasks.WorkResult;
 import org.gradle.language.base.internal.compile.Compiler;
+import org.gradle.util.GFileUtils;
+
+import java.io.File;
+import java.util.List;
 
 class IncrementalCompilationFinalizer implements Compiler<JavaCompileSpec> {
 
     private final Compiler<JavaCompileSpec> delegate;
     private final JarClasspathSnapshotWriter writer;
     private final ClassSetAnalysisUpdater updater;
+    private final List<AnnotationProcessorDeclaration> annotationProcessors;
 
+    /**
+     * @param annotationProcessors the incremental annotation processors whose generated types should be tracked, or null when there are none.
+     */
     public IncrementalCompilationFinalizer(Compiler<JavaCompileSpec> delegate, JarClasspathSnapshotWriter writer,
-                                           ClassSetAnalysisUpdater updater) {
+                                           ClassSetAnalysisUpdater updater, List<AnnotationProcessorDeclaration> annotationProcessors) {
         this.delegate = delegate;
         this.writer = writer;
         this.updater = updater;
+        this.annotationProcessors = annotationProcessors;
     }
 
     @Override
     public WorkResult execute(JavaCompileSpec spec) {
+        File processingResultFile = null;
+        if (annotationProcessors != null) {
+            processingResultFile = new File(spec.getTempDir(), "annotation-processing.bin");
+            GFileUtils.deleteQuietly(processingResultFile);
+            spec.setEffectiveAnnotationProcessors(annotationProcessors);
+            spec.setAnnotationProcessingResultFile(processingResultFile);
+        }
+
         WorkResult out = delegate.execute(spec);
 
         if (!(out instanceof RecompilationNotNecessary)) {
             //if recompilation was skipped
             //there's no point in updating because we have exactly the same output classes)
-            updater.updateAnalysis(spec);
+            AnnotationProcessingResult processingResult = processingResultFile == null ? null : AnnotationProcessingResult.readFrom(processingResultFile);
+            IncrementalCompilationResult incrementalResult = out instanceof IncrementalCompilationResult ? (IncrementalCompilationResult) out : null;
+            updater.updateAnalysis(spec, processingResult, incrementalResult);
         }
 
         writer.storeJarSnapshots(spec.getCompileClasspath());
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental;
+
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
+import org.gradle.api.tasks.WorkResult;
+
+import java.util.Collection;
+
+/**
+ * The result of recompiling some of the classes of a previous compilation.
+ */
+class IncrementalCompilationResult implements WorkResult {
+    private final WorkResult delegate;
+    private final Collection<String> recompiledClasses;
+    private final AnnotationProcessingResult previousAnnotationProcessingResult;
+
+    IncrementalCompilationResult(WorkResult delegate, Collection<String> recompiledClasses, AnnotationProcessingResult previousAnnotationProcessingResult) {
+        this.delegate = delegate;
+        this.recompiledClasses = recompiledClasses;
+        this.previousAnnotationProcessingResult = previousAnnotationProcessingResult;
+    }
+
+    @Override
+    public boolean getDidWork() {
+        return delegate.getDidWork();
+    }
+
+    public Collection<String> getRecompiledClasses() {
+        return recompiledClasses;
+    }
+
+    /**
+     * The types generated by annotation processors in the previous compilations, or null when they were not tracked.
+     */
+    public AnnotationProcessingResult getPreviousAnnotationProcessingResult() {
+        return previousAnnotationProcessingResult;
+    }
+}
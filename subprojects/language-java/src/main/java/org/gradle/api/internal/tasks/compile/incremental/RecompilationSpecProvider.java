@@ -40,10 +40,12 @@ public class RecompilationSpecProvider {
 
     private final SourceToNameConverter sourceToNameConverter;
     private final FileOperations fileOperations;
+    private final Set<File> annotationProcessorPath;
 
-    public RecompilationSpecProvider(SourceToNameConverter sourceToNameConverter, FileOperations fileOperations) {
+    public RecompilationSpecProvider(SourceToNameConverter sourceToNameConverter, FileOperations fileOperations, Set<File> annotationProcessorPath) {
         this.sourceToNameConverter = sourceToNameConverter;
         this.fileOperations = fileOperations;
+        this.annotationProcessorPath = annotationProcessorPath;
     }
 
     public RecompilationSpec provideRecompilationSpec(IncrementalTaskInputs inputs, PreviousCompilation previousCompilation, JarClasspathSnapshot jarClasspathSnapshot) {
@@ -53,7 +55,7 @@ public class RecompilationSpecProvider {
         processJarChanges(previousCompilation.getJarSnapshots(), jarClasspathSnapshot, jarChangeProcessor, spec);
         JavaChangeProcessor javaChangeProcessor = new JavaChangeProcessor(previousCompilation, sourceToNameConverter);
         ClassChangeProcessor classChangeProcessor = new ClassChangeProcessor(previousCompilation);
-        InputChangeAction action = new InputChangeAction(spec, javaChangeProcessor, classChangeProcessor);
+        InputChangeAction action = new InputChangeAction(spec, javaChangeProcessor, classChangeProcessor, annotationProcessorPath);
 
         //go!
         inputs.outOfDate(action);
@@ -98,11 +100,13 @@ public class RecompilationSpecProvider {
         private final RecompilationSpec spec;
         private final JavaChangeProcessor javaChangeProcessor;
         private final ClassChangeProcessor classChangeProcessor;
+        private final Set<File> annotationProcessorPath;
 
-        public InputChangeAction(RecompilationSpec spec, JavaChangeProcessor javaChangeProcessor, ClassChangeProcessor classChangeProcessor) {
+        public InputChangeAction(RecompilationSpec spec, JavaChangeProcessor javaChangeProcessor, ClassChangeProcessor classChangeProcessor, Set<File> annotationProcessorPath) {
             this.spec = spec;
             this.javaChangeProcessor = javaChangeProcessor;
             this.classChangeProcessor = classChangeProcessor;
+            this.annotationProcessorPath = annotationProcessorPath;
         }
 
         @Override
@@ -110,6 +114,11 @@ public class RecompilationSpecProvider {
             if (spec.getFullRebuildCause() != null) {
                 return;
             }
+            if (annotationProcessorPath.contains(input.getFile())) {
+                // The processors may generate different types for any of the sources
+                spec.setFullRebuildCause("Annotation processor path has been changed", input.getFile());
+                return;
+            }
             if (hasExtension(input.getFile(), ".java")) {
                 javaChangeProcessor.processChange(input, spec);
             } else if (hasExtension(input.getFile(), ".class")) {
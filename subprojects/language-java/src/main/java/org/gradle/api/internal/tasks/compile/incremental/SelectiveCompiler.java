@@ -18,10 +18,12 @@ package org.gradle.api.internal.tasks.compile.incremental;
 
 import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshot;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotProvider;
 import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation;
 import org.gradle.api.internal.tasks.compile.incremental.recomp.RecompilationSpec;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.WorkResult;
@@ -29,7 +31,14 @@ import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
 import org.gradle.internal.time.Timer;
 import org.gradle.internal.time.Timers;
 
+import java.io.File;
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 class SelectiveCompiler implements org.gradle.language.base.internal.compile.Compiler<JavaCompileSpec> {
     private static final Logger LOG = Logging.getLogger(SelectiveCompiler.class);
@@ -62,6 +71,15 @@ class SelectiveCompiler implements org.gradle.language.base.internal.compile.Com
         }
 
         Collection<String> classNames = recompilationSpec.getClassNames();
+        AnnotationProcessingResult processingResult = previousCompilation.getAnnotationProcessingResult();
+        if (processingResult != null) {
+            String fullRebuildCause = addGeneratedTypes(processingResult, classNames, spec);
+            if (fullRebuildCause != null) {
+                LOG.info("Full recompilation is required because {}. Analysis took {}.", fullRebuildCause, clock.getElapsed());
+                return cleaningCompiler.execute(spec);
+            }
+        }
+
         incrementalCompilationInitilizer.initializeCompilation(spec, classNames);
         if (spec.getSource().isEmpty()) {
             LOG.info("None of the classes needs to be compiled! Analysis took {}. ", clock.getElapsed());
@@ -70,10 +88,69 @@ class SelectiveCompiler implements org.gradle.language.base.internal.compile.Com
 
         try {
             //use the original compiler to avoid cleaning up all the files
-            return cleaningCompiler.getCompiler().execute(spec);
+            return new IncrementalCompilationResult(cleaningCompiler.getCompiler().execute(spec), classNames, processingResult);
         } finally {
             LOG.info("Incremental compilation of {} classes completed in {}.", classNames.size(), clock.getElapsed());
             LOG.debug("Recompiled classes {}", classNames);
         }
     }
+
+    /**
+     * Adds the types generated from the classes to recompile, and the classes that depend on them. Their generated sources are deleted, so that the processors can create them again.
+     *
+     * @return the reason for a full recompilation, or null when none is needed.
+     */
+    String addGeneratedTypes(AnnotationProcessingResult processingResult, Collection<String> classNames, JavaCompileSpec spec) {
+        if (processingResult.getFullRebuildCause() != null) {
+            return processingResult.getFullRebuildCause();
+        }
+        if (classNames.isEmpty()) {
+            return null;
+        }
+
+        // Aggregating processors need to see all of their annotated types again
+        classNames.addAll(processingResult.getAggregatedTypes());
+        Set<String> staleGeneratedTypes = new LinkedHashSet<String>(processingResult.getGeneratedTypesByAggregatingProcessors());
+        Deque<String> queue = new ArrayDeque<String>(classNames);
+        queue.addAll(staleGeneratedTypes);
+        while (!queue.isEmpty()) {
+            String className = queue.removeFirst();
+            for (String generatedType : processingResult.getGeneratedTypes(className)) {
+                if (staleGeneratedTypes.add(generatedType)) {
+                    queue.add(generatedType);
+                }
+            }
+            if (staleGeneratedTypes.contains(className)) {
+                classNames.add(className);
+                DependentsSet dependents = previousCompilation.getDependents(className, Collections.<Integer>emptySet());
+                if (dependents.isDependencyToAll()) {
+                    return dependents.getDescription() != null ? dependents.getDescription() : "generated type '" + className + "' is a dependency of all classes";
+                }
+                for (String dependent : dependents.getDependentClasses()) {
+                    if (classNames.add(dependent)) {
+                        queue.add(dependent);
+                    }
+                }
+            }
+        }
+
+        File generatedSourcesDir = getGeneratedSourcesDir(spec);
+        for (String generatedType : staleGeneratedTypes) {
+            File generatedSource = new File(generatedSourcesDir, generatedType.replace('.', '/') + ".java");
+            if (generatedSource.isFile() && !generatedSource.delete()) {
+                LOG.debug("Could not delete stale generated source {}.", generatedSource);
+            }
+        }
+        return null;
+    }
+
+    private static File getGeneratedSourcesDir(JavaCompileSpec spec) {
+        List<String> compilerArgs = spec.getCompileOptions().getCompilerArgs();
+        int pos = compilerArgs.indexOf("-s");
+        if (pos >= 0 && pos < compilerArgs.size() - 1) {
+            return new File(compilerArgs.get(pos + 1));
+        }
+        // javac writes generated sources next to the classes when no source output directory is given
+        return spec.getDestinationDir();
+    }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.gradle.api.Transformer;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.Stoppable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Analyzes class files and jars for incremental compilation on a bounded pool of threads.
+ * Results are returned in the order of the inputs, so the analysis does not depend on how the work was scheduled.
+ */
+public class ClassAnalysisExecutor implements Stoppable {
+    // Several batches per thread, so that a few expensive inputs do not leave the other threads idle
+    private static final int BATCHES_PER_THREAD = 4;
+    private final Executor executor;
+    private final int maxThreads;
+
+    public ClassAnalysisExecutor(ExecutorFactory executorFactory, int maxThreads) {
+        this(executorFactory.create("Class analysis", maxThreads), maxThreads);
+    }
+
+    public ClassAnalysisExecutor(Executor executor, int maxThreads) {
+        this.executor = executor;
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * Applies the given transformer to each of the inputs, returning the results in the same order. Fails with the first failure of the transformer.
+     */
+    public <T, R> List<R> transform(List<? extends T> inputs, final Transformer<? extends R, ? super T> transformer) {
+        if (inputs.size() <= 1 || maxThreads <= 1) {
+            return transformBatch(inputs, transformer);
+        }
+
+        int batchSize = Math.max(1, (inputs.size() + maxThreads * BATCHES_PER_THREAD - 1) / (maxThreads * BATCHES_PER_THREAD));
+        List<FutureTask<List<R>>> batches = new ArrayList<FutureTask<List<R>>>();
+        for (int start = 0; start < inputs.size(); start += batchSize) {
+            final List<? extends T> batch = inputs.subList(start, Math.min(inputs.size(), start + batchSize));
+            FutureTask<List<R>> task = new FutureTask<List<R>>(new Callable<List<R>>() {
+                @Override
+                public List<R> call() {
+                    return transformBatch(batch, transformer);
+                }
+            });
+            batches.add(task);
+            executor.execute(task);
+        }
+
+        List<R> results = new ArrayList<R>(inputs.size());
+        try {
+            for (FutureTask<List<R>> batch : batches) {
+                results.addAll(Uninterruptibles.getUninterruptibly(batch));
+            }
+        } catch (ExecutionException e) {
+            for (FutureTask<List<R>> batch : batches) {
+                batch.cancel(false);
+            }
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+        return results;
+    }
+
+    private static <T, R> List<R> transformBatch(List<? extends T> inputs, Transformer<? extends R, ? super T> transformer) {
+        List<R> results = new ArrayList<R>(inputs.size());
+        for (T input : inputs) {
+            results.add(transformer.transform(input));
+        }
+        return results;
+    }
+
+    @Override
+    public void stop() {
+        CompositeStoppable.stoppable(executor).stop();
+    }
+}
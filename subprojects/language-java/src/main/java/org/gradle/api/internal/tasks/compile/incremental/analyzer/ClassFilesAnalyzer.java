@@ -17,6 +17,7 @@
 package org.gradle.api.internal.tasks.compile.incremental.analyzer;
 
 import com.google.common.hash.HashCode;
+import org.gradle.api.Transformer;
 import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
@@ -24,20 +25,29 @@ import org.gradle.api.internal.tasks.compile.incremental.deps.ClassDependentsAcc
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysisData;
 import org.gradle.internal.hash.FileHasher;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects the visited class files, and analyzes them in parallel when the analysis is requested.
+ */
 public class ClassFilesAnalyzer implements FileVisitor {
     private final ClassDependenciesAnalyzer analyzer;
     private final ClassDependentsAccumulator accumulator;
     private final FileHasher hasher;
+    private final ClassAnalysisExecutor executor;
+    private final List<FileVisitDetails> classFiles = new ArrayList<FileVisitDetails>();
 
-    public ClassFilesAnalyzer(ClassDependenciesAnalyzer analyzer, FileHasher fileHasher) {
-        this(analyzer, fileHasher, new ClassDependentsAccumulator());
+    public ClassFilesAnalyzer(ClassDependenciesAnalyzer analyzer, FileHasher fileHasher, ClassAnalysisExecutor executor) {
+        this(analyzer, fileHasher, executor, new ClassDependentsAccumulator());
     }
 
-   ClassFilesAnalyzer(ClassDependenciesAnalyzer analyzer, FileHasher fileHasher, ClassDependentsAccumulator accumulator) {
-       this.analyzer = analyzer;
-       this.hasher = fileHasher;
-       this.accumulator = accumulator;
-   }
+    ClassFilesAnalyzer(ClassDependenciesAnalyzer analyzer, FileHasher fileHasher, ClassAnalysisExecutor executor, ClassDependentsAccumulator accumulator) {
+        this.analyzer = analyzer;
+        this.hasher = fileHasher;
+        this.executor = executor;
+        this.accumulator = accumulator;
+    }
 
     @Override
     public void visitDir(FileVisitDetails dirDetails) {}
@@ -47,14 +57,21 @@ public class ClassFilesAnalyzer implements FileVisitor {
         if (!fileDetails.getName().endsWith(".class")) {
             return;
         }
-
-        HashCode hash = hasher.hash(fileDetails);
-        ClassAnalysis analysis = analyzer.getClassAnalysis(hash, fileDetails);
-
-        accumulator.addClass(fileDetails.getFile(), analysis);
+        classFiles.add(fileDetails);
     }
 
     public ClassSetAnalysisData getAnalysis() {
+        List<ClassAnalysis> analyses = executor.transform(classFiles, new Transformer<ClassAnalysis, FileVisitDetails>() {
+            @Override
+            public ClassAnalysis transform(FileVisitDetails fileDetails) {
+                HashCode hash = hasher.hash(fileDetails);
+                return analyzer.getClassAnalysis(hash, fileDetails);
+            }
+        });
+        for (int i = 0; i < analyses.size(); i++) {
+            accumulator.addClass(classFiles.get(i).getFile(), analyses.get(i));
+        }
+        classFiles.clear();
         return accumulator.getAnalysis();
     }
 }
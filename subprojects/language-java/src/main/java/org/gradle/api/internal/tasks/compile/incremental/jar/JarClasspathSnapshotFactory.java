@@ -16,20 +16,26 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.jar;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.hash.HashCode;
+import org.gradle.api.Transformer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisExecutor;
 
 import java.io.File;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Set;
 
 public class JarClasspathSnapshotFactory {
 
     private final JarSnapshotter jarSnapshotter;
+    private final ClassAnalysisExecutor executor;
 
-    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter) {
+    public JarClasspathSnapshotFactory(JarSnapshotter jarSnapshotter, ClassAnalysisExecutor executor) {
         this.jarSnapshotter = jarSnapshotter;
+        this.executor = executor;
     }
 
     JarClasspathSnapshot createSnapshot(Iterable<JarArchive> jarArchives) {
@@ -38,15 +44,27 @@ public class JarClasspathSnapshotFactory {
         Set<String> allClasses = Sets.newHashSet();
         Set<String> duplicateClasses = Sets.newHashSet();
 
+        List<JarArchive> existingJars = Lists.newArrayList();
         for (JarArchive jar : jarArchives) {
             if (jar.file.exists()) {
-                JarSnapshot snapshot = jarSnapshotter.createSnapshot(jar);
-                jarSnapshots.put(jar.file, snapshot);
-                jarHashes.put(jar.file, snapshot.getHash());
-                for (String c : snapshot.getClasses()) {
-                    if (!allClasses.add(c)) {
-                        duplicateClasses.add(c);
-                    }
+                existingJars.add(jar);
+            }
+        }
+        List<JarSnapshot> snapshots = executor.transform(existingJars, new Transformer<JarSnapshot, JarArchive>() {
+            @Override
+            public JarSnapshot transform(JarArchive jar) {
+                return jarSnapshotter.createSnapshot(jar);
+            }
+        });
+
+        for (int i = 0; i < existingJars.size(); i++) {
+            JarArchive jar = existingJars.get(i);
+            JarSnapshot snapshot = snapshots.get(i);
+            jarSnapshots.put(jar.file, snapshot);
+            jarHashes.put(jar.file, snapshot.getHash());
+            for (String c : snapshot.getClasses()) {
+                if (!allClasses.add(c)) {
+                    duplicateClasses.add(c);
                 }
             }
         }
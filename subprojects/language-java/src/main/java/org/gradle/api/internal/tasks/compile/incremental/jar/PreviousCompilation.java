@@ -19,6 +19,7 @@ package org.gradle.api.internal.tasks.compile.incremental.jar;
 import com.google.common.collect.Sets;
 import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
 import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult;
 
 import java.io.File;
 import java.util.Collections;
@@ -46,6 +47,13 @@ public class PreviousCompilation {
         return analysis.getData().getClassNameForFile(path);
     }
 
+    /**
+     * The types generated by incremental annotation processors, or null when they were not tracked.
+     */
+    public AnnotationProcessingResult getAnnotationProcessingResult() {
+        return analysis.getData().getAnnotationProcessingResult();
+    }
+
     public JarSnapshot getJarSnapshot(File file) {
         if (jarSnapshots == null) {
             JarClasspathSnapshotData data = classpathSnapshotStore.get();
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.SetSerializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The types generated by incremental annotation processors during a compilation, and the types they were generated from.
+ */
+public class AnnotationProcessingResult {
+    private final Map<String, Set<String>> generatedTypesByOrigin = new LinkedHashMap<String, Set<String>>();
+    private final Set<String> aggregatedTypes = new LinkedHashSet<String>();
+    private final Set<String> generatedTypesByAggregatingProcessors = new LinkedHashSet<String>();
+    private String fullRebuildCause;
+
+    /**
+     * Records a type generated by an isolating processor from the given top level type.
+     */
+    public void addGeneratedType(String originatingType, String generatedType) {
+        Set<String> generatedTypes = generatedTypesByOrigin.get(originatingType);
+        if (generatedTypes == null) {
+            generatedTypes = new LinkedHashSet<String>();
+            generatedTypesByOrigin.put(originatingType, generatedTypes);
+        }
+        generatedTypes.add(generatedType);
+    }
+
+    /**
+     * Records a top level type that was processed by an aggregating processor.
+     */
+    public void addAggregatedType(String type) {
+        aggregatedTypes.add(type);
+    }
+
+    public void addGeneratedTypeByAggregatingProcessor(String generatedType) {
+        generatedTypesByAggregatingProcessors.add(generatedType);
+    }
+
+    /**
+     * Marks the output of this compilation as unsuitable for incremental processing, e.g. because a processor did not behave as it declared.
+     */
+    public void setFullRebuildCause(String fullRebuildCause) {
+        if (this.fullRebuildCause == null) {
+            this.fullRebuildCause = fullRebuildCause;
+        }
+    }
+
+    public String getFullRebuildCause() {
+        return fullRebuildCause;
+    }
+
+    public Set<String> getGeneratedTypes(String originatingType) {
+        Set<String> generatedTypes = generatedTypesByOrigin.get(originatingType);
+        return generatedTypes == null ? Collections.<String>emptySet() : generatedTypes;
+    }
+
+    public Set<String> getAggregatedTypes() {
+        return aggregatedTypes;
+    }
+
+    public Set<String> getGeneratedTypesByAggregatingProcessors() {
+        return generatedTypesByAggregatingProcessors;
+    }
+
+    /**
+     * Combines the result of an incremental compilation with the result of the compilation before it. Entries of the previous result are kept when their types were
+     * not recompiled and still exist.
+     */
+    public static AnnotationProcessingResult merge(AnnotationProcessingResult previous, AnnotationProcessingResult current, Collection<String> recompiledTypes, Collection<String> existingTypes) {
+        Set<String> recompiled = ImmutableSet.copyOf(recompiledTypes);
+        Set<String> existing = ImmutableSet.copyOf(existingTypes);
+        AnnotationProcessingResult merged = new AnnotationProcessingResult();
+        for (Map.Entry<String, Set<String>> entry : previous.generatedTypesByOrigin.entrySet()) {
+            if (isUnchanged(entry.getKey(), recompiled, existing)) {
+                for (String generatedType : entry.getValue()) {
+                    merged.addGeneratedType(entry.getKey(), generatedType);
+                }
+            }
+        }
+        for (String aggregatedType : previous.aggregatedTypes) {
+            if (isUnchanged(aggregatedType, recompiled, existing)) {
+                merged.addAggregatedType(aggregatedType);
+            }
+        }
+        for (String generatedType : previous.generatedTypesByAggregatingProcessors) {
+            if (isUnchanged(generatedType, recompiled, existing)) {
+                merged.addGeneratedTypeByAggregatingProcessor(generatedType);
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : current.generatedTypesByOrigin.entrySet()) {
+            for (String generatedType : entry.getValue()) {
+                merged.addGeneratedType(entry.getKey(), generatedType);
+            }
+        }
+        merged.aggregatedTypes.addAll(current.aggregatedTypes);
+        merged.generatedTypesByAggregatingProcessors.addAll(current.generatedTypesByAggregatingProcessors);
+        merged.fullRebuildCause = current.fullRebuildCause;
+        return merged;
+    }
+
+    private static boolean isUnchanged(String type, Set<String> recompiled, Set<String> existing) {
+        return !recompiled.contains(type) && existing.contains(type);
+    }
+
+    public void writeTo(File file) {
+        try {
+            KryoBackedEncoder encoder = new KryoBackedEncoder(new FileOutputStream(file));
+            try {
+                new Serializer().write(encoder, this);
+            } finally {
+                encoder.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    /**
+     * Reads a result written by {@link #writeTo(File)}, or returns null when the file does not exist.
+     */
+    public static AnnotationProcessingResult readFrom(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            KryoBackedDecoder decoder = new KryoBackedDecoder(new FileInputStream(file));
+            try {
+                return new Serializer().read(decoder);
+            } finally {
+                decoder.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    public static class Serializer extends AbstractSerializer<AnnotationProcessingResult> {
+        private static final SetSerializer<String> STRING_SET_SERIALIZER = new SetSerializer<String>(BaseSerializerFactory.STRING_SERIALIZER, true);
+
+        @Override
+        public AnnotationProcessingResult read(Decoder decoder) throws Exception {
+            AnnotationProcessingResult result = new AnnotationProcessingResult();
+            int count = decoder.readSmallInt();
+            for (int i = 0; i < count; i++) {
+                String originatingType = decoder.readString();
+                result.generatedTypesByOrigin.put(originatingType, STRING_SET_SERIALIZER.read(decoder));
+            }
+            result.aggregatedTypes.addAll(STRING_SET_SERIALIZER.read(decoder));
+            result.generatedTypesByAggregatingProcessors.addAll(STRING_SET_SERIALIZER.read(decoder));
+            result.fullRebuildCause = decoder.readNullableString();
+            return result;
+        }
+
+        @Override
+        public void write(Encoder encoder, AnnotationProcessingResult value) throws Exception {
+            encoder.writeSmallInt(value.generatedTypesByOrigin.size());
+            for (Map.Entry<String, Set<String>> entry : value.generatedTypesByOrigin.entrySet()) {
+                encoder.writeString(entry.getKey());
+                STRING_SET_SERIALIZER.write(encoder, entry.getValue());
+            }
+            STRING_SET_SERIALIZER.write(encoder, value.aggregatedTypes);
+            STRING_SET_SERIALIZER.write(encoder, value.generatedTypesByAggregatingProcessors);
+            encoder.writeNullableString(value.fullRebuildCause);
+        }
+    }
+}
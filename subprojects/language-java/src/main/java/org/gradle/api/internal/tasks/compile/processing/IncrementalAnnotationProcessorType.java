@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+/**
+ * The kind of incremental processing an annotation processor declares in {@code META-INF/gradle/incremental.annotation.processors}.
+ */
+public enum IncrementalAnnotationProcessorType {
+    /**
+     * Each generated type is derived from a single annotated type, which is passed as the only originating element to the {@link javax.annotation.processing.Filer}.
+     */
+    ISOLATING,
+    /**
+     * Generated types may combine any number of annotated types. All annotated types are reprocessed whenever one of them is recompiled.
+     */
+    AGGREGATING,
+    /**
+     * The processor did not declare how it behaves, so any change requires a full recompilation.
+     */
+    UNKNOWN;
+
+    public boolean isIncremental() {
+        return this != UNKNOWN;
+    }
+}
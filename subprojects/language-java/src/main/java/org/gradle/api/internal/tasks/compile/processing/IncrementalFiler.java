@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.FileObject;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Records the types created through a {@link Filer}, along with the top level types they originate from.
+ */
+class IncrementalFiler implements Filer {
+    private final Filer delegate;
+    private final String processorName;
+    private final IncrementalAnnotationProcessorType type;
+    private final AnnotationProcessingResult result;
+
+    IncrementalFiler(Filer delegate, String processorName, IncrementalAnnotationProcessorType type, AnnotationProcessingResult result) {
+        this.delegate = delegate;
+        this.processorName = processorName;
+        this.type = type;
+        this.result = result;
+    }
+
+    @Override
+    public JavaFileObject createSourceFile(CharSequence name, Element... originatingElements) throws IOException {
+        recordGeneratedType(name.toString(), originatingElements);
+        return delegate.createSourceFile(name, originatingElements);
+    }
+
+    @Override
+    public JavaFileObject createClassFile(CharSequence name, Element... originatingElements) throws IOException {
+        recordGeneratedType(name.toString(), originatingElements);
+        return delegate.createClassFile(name, originatingElements);
+    }
+
+    @Override
+    public FileObject createResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName, Element... originatingElements) throws IOException {
+        if (type == IncrementalAnnotationProcessorType.ISOLATING) {
+            // Resources are not tracked, so they could not be removed when their originating type goes away
+            result.setFullRebuildCause("Isolating annotation processor '" + processorName + "' created resource '" + relativeName + "'");
+        }
+        return delegate.createResource(location, pkg, relativeName, originatingElements);
+    }
+
+    @Override
+    public FileObject getResource(JavaFileManager.Location location, CharSequence pkg, CharSequence relativeName) throws IOException {
+        return delegate.getResource(location, pkg, relativeName);
+    }
+
+    private void recordGeneratedType(String generatedType, Element[] originatingElements) {
+        if (type == IncrementalAnnotationProcessorType.AGGREGATING) {
+            result.addGeneratedTypeByAggregatingProcessor(generatedType);
+            return;
+        }
+        Set<String> originatingTypes = new LinkedHashSet<String>();
+        for (Element element : originatingElements) {
+            TypeElement topLevelType = getTopLevelType(element);
+            if (topLevelType != null) {
+                originatingTypes.add(topLevelType.getQualifiedName().toString());
+            }
+        }
+        if (originatingTypes.size() != 1) {
+            result.setFullRebuildCause("Isolating annotation processor '" + processorName + "' generated type '" + generatedType + "' from " + originatingTypes.size() + " originating types instead of one");
+            return;
+        }
+        result.addGeneratedType(originatingTypes.iterator().next(), generatedType);
+    }
+
+    static TypeElement getTopLevelType(Element element) {
+        Element current = element;
+        while (current != null && !(current instanceof TypeElement && current.getEnclosingElement() instanceof PackageElement)) {
+            current = current.getEnclosingElement();
+        }
+        return (TypeElement) current;
+    }
+}
@@ -17,6 +17,7 @@
 package org.gradle.api.tasks.compile;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
 import org.gradle.api.Incubating;
 import org.gradle.api.JavaVersion;
 import org.gradle.api.file.FileCollection;
@@ -30,13 +31,16 @@ import org.gradle.api.internal.tasks.compile.CompilerForkUtils;
 import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpec;
 import org.gradle.api.internal.tasks.compile.DefaultJavaCompileSpecFactory;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
+import org.gradle.api.internal.tasks.compile.JavaFileManagerPool;
 import org.gradle.api.internal.tasks.compile.incremental.IncrementalCompilerFactory;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisExecutor;
 import org.gradle.api.internal.tasks.compile.incremental.cache.CompileCaches;
 import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
 import org.gradle.api.internal.tasks.compile.incremental.deps.LocalClassSetAnalysisStore;
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarSnapshotCache;
 import org.gradle.api.internal.tasks.compile.incremental.jar.LocalJarClasspathSnapshotStore;
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration;
 import org.gradle.api.tasks.CacheableTask;
 import org.gradle.api.tasks.Classpath;
 import org.gradle.api.tasks.CompileClasspath;
@@ -56,6 +60,9 @@ import org.gradle.language.base.internal.compile.Compiler;
 import org.gradle.language.base.internal.compile.CompilerUtil;
 
 import javax.inject.Inject;
+import java.io.File;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Compiles Java source files.
@@ -123,8 +130,10 @@ public class JavaCompile extends AbstractCompile {
 
         DefaultJavaCompileSpec spec = createSpec();
         CompileCaches compileCaches = createCompileCaches();
+        FileCollection annotationProcessorPath = getEffectiveAnnotationProcessorPath();
+        List<AnnotationProcessorDeclaration> annotationProcessors = getServices().get(AnnotationProcessorDetector.class).getAnnotationProcessors(compileOptions, annotationProcessorPath);
         IncrementalCompilerFactory factory = new IncrementalCompilerFactory(
-            getFileOperations(), getCachingFileHasher(), getPath(), createCompiler(spec), source, compileCaches, (IncrementalTaskInputsInternal) inputs, getEffectiveAnnotationProcessorPath());
+            getFileOperations(), getCachingFileHasher(), getPath(), createCompiler(spec), source, compileCaches, (IncrementalTaskInputsInternal) inputs, annotationProcessorPath, annotationProcessors, getClassAnalysisExecutor());
         Compiler<JavaCompileSpec> compiler = factory.createCompiler();
         performCompilation(spec, compiler);
     }
@@ -167,6 +176,11 @@ public class JavaCompile extends AbstractCompile {
         throw new UnsupportedOperationException();
     }
 
+    @Inject
+    protected ClassAnalysisExecutor getClassAnalysisExecutor() {
+        throw new UnsupportedOperationException();
+    }
+
     @Inject
     protected CacheRepository getCacheRepository() {
         throw new UnsupportedOperationException();
@@ -210,9 +224,24 @@ public class JavaCompile extends AbstractCompile {
         spec.setTargetCompatibility(getTargetCompatibility());
         spec.setSourceCompatibility(getSourceCompatibility());
         spec.setCompileOptions(compileOptions);
+        // A compiler daemon would hold the jars open after the build, so only compilations in the build process reuse file managers
+        if (!compileOptions.isFork() && getServices().get(JavaFileManagerPool.class).isEnabled()) {
+            spec.setCompileClasspathHashes(hashJars(spec.getCompileClasspath()));
+        }
         return spec;
     }
 
+    private Map<File, String> hashJars(Iterable<File> classpath) {
+        FileHasher hasher = getCachingFileHasher();
+        Map<File, String> hashes = Maps.newLinkedHashMap();
+        for (File file : classpath) {
+            if (file.isFile()) {
+                hashes.put(file, hasher.hash(file).toString());
+            }
+        }
+        return hashes;
+    }
+
     /**
      * Returns the compilation options.
      *
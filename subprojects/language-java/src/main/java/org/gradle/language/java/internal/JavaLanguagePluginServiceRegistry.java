@@ -20,6 +20,7 @@ import org.gradle.api.internal.component.ArtifactType;
 import org.gradle.api.internal.component.ComponentTypeRegistry;
 import org.gradle.api.internal.file.FileCollectionFactory;
 import org.gradle.api.internal.tasks.compile.AnnotationProcessorDetector;
+import org.gradle.api.internal.tasks.compile.CompilerPluginClasspathDetector;
 import org.gradle.cache.internal.FileContentCacheFactory;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
@@ -41,5 +42,9 @@ public class JavaLanguagePluginServiceRegistry extends AbstractPluginServiceRegi
         public AnnotationProcessorDetector createAnnotationProcessorDetector(FileCollectionFactory fileCollectionFactory, FileContentCacheFactory cacheFactory) {
             return new AnnotationProcessorDetector(fileCollectionFactory, cacheFactory);
         }
+
+        public CompilerPluginClasspathDetector createCompilerPluginClasspathDetector(FileCollectionFactory fileCollectionFactory, FileContentCacheFactory cacheFactory) {
+            return new CompilerPluginClasspathDetector(fileCollectionFactory, cacheFactory);
+        }
     }
 }
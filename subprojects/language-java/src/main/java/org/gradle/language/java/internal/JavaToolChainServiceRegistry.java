@@ -22,6 +22,7 @@ import org.gradle.api.internal.tasks.CurrentJvmJavaToolChain;
 import org.gradle.api.internal.tasks.JavaToolChainFactory;
 import org.gradle.api.internal.tasks.compile.DefaultJavaCompilerFactory;
 import org.gradle.api.internal.tasks.compile.JavaCompilerFactory;
+import org.gradle.api.internal.tasks.compile.JavaFileManagerPool;
 import org.gradle.api.internal.tasks.compile.JavaHomeBasedJavaCompilerFactory;
 import org.gradle.internal.Factory;
 import org.gradle.internal.jvm.inspection.JvmVersionDetector;
@@ -48,6 +49,11 @@ public class JavaToolChainServiceRegistry extends AbstractPluginServiceRegistry
         Factory<JavaCompiler> createJavaHomeBasedJavaCompilerFactory() {
             return new JavaHomeBasedJavaCompilerFactory();
         }
+
+        JavaFileManagerPool createJavaFileManagerPool() {
+            // Closed at the end of the session, so that the daemon does not keep the jars of the build open
+            return JavaFileManagerPool.getInstance();
+        }
     }
 
     private static class ProjectScopeCompileServices {
@@ -21,6 +21,7 @@ import org.gradle.api.file.FileCollection
 import org.gradle.cache.internal.TestFileContentCacheFactory
 import org.gradle.api.internal.file.TestFiles
 import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType
 import org.gradle.api.tasks.compile.CompileOptions
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
 import org.gradle.util.JarUtils
@@ -160,6 +161,39 @@ class AnnotationProcessorDetectorTest extends Specification {
         detector.getEffectiveAnnotationProcessorClasspath(options, cp).empty
     }
 
+    def "reads incremental processor declarations from the processor path"() {
+        given:
+        def dir = tmpDir.file("processor-dir")
+        dir.file("META-INF/services/javax.annotation.processing.Processor") << "Isolating\n# a comment\nUnknown\n"
+        dir.file("META-INF/gradle/incremental.annotation.processors") << "Isolating,isolating\n"
+        def jar = tmpDir.file("processor.jar")
+        jar << JarUtils.jarWithContents(
+            "META-INF/services/javax.annotation.processing.Processor": "Aggregating",
+            "META-INF/gradle/incremental.annotation.processors": "Aggregating,aggregating")
+
+        when:
+        def processors = detector.getAnnotationProcessors(options, [dir, jar])
+
+        then:
+        processors.collect { it.className } == ["Isolating", "Unknown", "Aggregating"]
+        processors.collect { it.type } == [IncrementalAnnotationProcessorType.ISOLATING, IncrementalAnnotationProcessorType.UNKNOWN, IncrementalAnnotationProcessorType.AGGREGATING]
+    }
+
+    def "uses processors named using -processor compiler arg"() {
+        given:
+        def dir = tmpDir.file("processor-dir")
+        dir.file("META-INF/services/javax.annotation.processing.Processor") << "Isolating\nOther\n"
+        dir.file("META-INF/gradle/incremental.annotation.processors") << "Isolating,isolating\n"
+        options.compilerArgs = ["-processor", "Isolating"]
+
+        when:
+        def processors = detector.getAnnotationProcessors(options, [dir])
+
+        then:
+        processors.collect { it.className } == ["Isolating"]
+        processors[0].type == IncrementalAnnotationProcessorType.ISOLATING
+    }
+
     FileCollection files(String... paths) {
         new SimpleFileCollection(paths.collect { tmpDir.file(it).createFile() })
     }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import org.gradle.api.file.FileCollection
+import org.gradle.api.internal.file.TestFiles
+import org.gradle.api.internal.file.collections.SimpleFileCollection
+import org.gradle.cache.internal.TestFileContentCacheFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.JarUtils
+import org.junit.Rule
+import spock.lang.Specification
+
+class CompilerPluginClasspathDetectorTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def detector = new CompilerPluginClasspathDetector(TestFiles.fileCollectionFactory(), new TestFileContentCacheFactory())
+
+    def "finds directories and jars that declare global AST transformations or extension modules"() {
+        def transformDir = tmpDir.file("transform-dir")
+        transformDir.file("META-INF/services/org.codehaus.groovy.transform.ASTTransformation") << "com.foo.Transform"
+        def extensionJar = tmpDir.file("extension.jar")
+        extensionJar << JarUtils.jarWithContents("META-INF/groovy/org.codehaus.groovy.runtime.ExtensionModule": "moduleName=foo")
+        def lib = tmpDir.file("lib.jar")
+        lib << JarUtils.jarWithContents("Thing.class": "thing")
+
+        expect:
+        detector.getCompilerPluginClasspath(files(lib, transformDir, extensionJar)).files as List == [transformDir, extensionJar]
+    }
+
+    def "finds directories and jars that contain local AST transformations or macro implementations"() {
+        def transformDir = tmpDir.file("transform-dir")
+        transformDir.file("com/foo/Transform.class") << "...Lorg/codehaus/groovy/transform/GroovyASTTransformation;..."
+        def macroJar = tmpDir.file("macros.jar")
+        macroJar << JarUtils.jarWithContents("com/foo/Macros.class": "...scala/reflect/macros/blackbox/Context...")
+        def otherDir = tmpDir.file("other-dir")
+        otherDir.file("com/foo/Other.class") << "...scala/collection/immutable/List..."
+
+        expect:
+        detector.getCompilerPluginClasspath(files(transformDir, otherDir, macroJar)).files as List == [transformDir, macroJar]
+    }
+
+    def "ignores classpath entries that do not exist or are not jars"() {
+        def missing = tmpDir.file("missing.jar")
+        def resource = tmpDir.file("thing.txt").createFile()
+
+        expect:
+        detector.getCompilerPluginClasspath(files(missing, resource)).empty
+    }
+
+    FileCollection files(File... files) {
+        new SimpleFileCollection(files)
+    }
+}
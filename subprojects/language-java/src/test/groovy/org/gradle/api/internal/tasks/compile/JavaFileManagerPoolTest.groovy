@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile
+
+import spock.lang.Specification
+
+import javax.tools.JavaCompiler
+import javax.tools.StandardJavaFileManager
+
+class JavaFileManagerPoolTest extends Specification {
+    def compiler = Mock(JavaCompiler)
+    def pool = new JavaFileManagerPool(2)
+    def jar = new File("lib.jar")
+
+    def "reuses file manager for compilation with same options and different paths"() {
+        def fileManager = Mock(StandardJavaFileManager)
+
+        when:
+        def first = pool.acquire(compiler, null, ["-d", "a", "-classpath", "lib.jar", "-g"], [(jar): "1"])
+        pool.release(first)
+        def second = pool.acquire(compiler, null, ["-d", "b", "-classpath", "lib.jar:other.jar", "-g"], [(jar): "1"])
+
+        then:
+        1 * compiler.getStandardFileManager(null, null, null) >> fileManager
+        second.fileManager == fileManager
+        0 * fileManager._
+    }
+
+    def "creates file manager for compilation with different options"() {
+        when:
+        pool.release(pool.acquire(compiler, null, ["-g"], [:]))
+        pool.acquire(compiler, null, ["-g:none"], [:])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >> Mock(StandardJavaFileManager)
+    }
+
+    def "discards file manager when a jar it has seen has changed"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        def newFileManager = Mock(StandardJavaFileManager)
+
+        when:
+        pool.release(pool.acquire(compiler, null, ["-g"], [(jar): "1"]))
+        def second = pool.acquire(compiler, null, ["-g"], [(jar): "2"])
+
+        then:
+        2 * compiler.getStandardFileManager(null, null, null) >>> [fileManager, newFileManager]
+        1 * fileManager.close()
+        second.fileManager == newFileManager
+    }
+
+    def "closes least recently used file managers when too many are idle"() {
+        def fileManagers = [Mock(StandardJavaFileManager), Mock(StandardJavaFileManager), Mock(StandardJavaFileManager)]
+        compiler.getStandardFileManager(null, null, null) >>> fileManagers
+
+        when:
+        def acquired = (1..3).collect { pool.acquire(compiler, null, ["-g"], [:]) }
+        acquired.each { pool.release(it) }
+
+        then:
+        1 * fileManagers[0].close()
+        0 * fileManagers[1].close()
+        0 * fileManagers[2].close()
+    }
+
+    def "closes idle file managers when stopped"() {
+        def fileManager = Mock(StandardJavaFileManager)
+        compiler.getStandardFileManager(null, null, null) >> fileManager
+
+        given:
+        pool.release(pool.acquire(compiler, null, ["-g"], [:]))
+
+        when:
+        pool.stop()
+
+        then:
+        1 * fileManager.close()
+    }
+}
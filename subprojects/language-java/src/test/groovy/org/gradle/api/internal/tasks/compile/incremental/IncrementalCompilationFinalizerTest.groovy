@@ -18,19 +18,25 @@ package org.gradle.api.internal.tasks.compile.incremental
 
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec
 import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotWriter
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessorDeclaration
+import org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType
 import org.gradle.api.tasks.WorkResult
 import org.gradle.language.base.internal.compile.Compiler
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
 import spock.lang.Specification
 import spock.lang.Subject
 
 class IncrementalCompilationFinalizerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
 
     def compiler = Mock(Compiler)
     def writer = Mock(JarClasspathSnapshotWriter)
     def infoUpdater = Mock(ClassSetAnalysisUpdater)
     def compileSpec = Stub(JavaCompileSpec)
 
-    @Subject finalizer = new IncrementalCompilationFinalizer(compiler, writer, infoUpdater)
+    @Subject finalizer = new IncrementalCompilationFinalizer(compiler, writer, infoUpdater, null)
 
     def "performs finalization"() {
         when:
@@ -38,7 +44,7 @@ class IncrementalCompilationFinalizerTest extends Specification {
 
         then:
         1 * compiler.execute(compileSpec) >> Mock(WorkResult)
-        1 * infoUpdater.updateAnalysis(compileSpec)
+        1 * infoUpdater.updateAnalysis(compileSpec, null, null)
         1 * writer.storeJarSnapshots(_)
         0 * _
     }
@@ -52,4 +58,25 @@ class IncrementalCompilationFinalizerTest extends Specification {
         1 * writer.storeJarSnapshots(_)
         0 * _
     }
+
+    def "tracks types generated by incremental annotation processors"() {
+        def processors = [new AnnotationProcessorDeclaration("Processor", IncrementalAnnotationProcessorType.ISOLATING)]
+        def spec = Mock(JavaCompileSpec)
+        def resultFile = tmpDir.file("annotation-processing.bin")
+
+        given:
+        finalizer = new IncrementalCompilationFinalizer(compiler, writer, infoUpdater, processors)
+
+        when:
+        finalizer.execute(spec)
+
+        then:
+        _ * spec.tempDir >> tmpDir.testDirectory
+        1 * spec.setEffectiveAnnotationProcessors(processors)
+        1 * spec.setAnnotationProcessingResultFile(resultFile)
+        1 * compiler.execute(spec) >> Mock(WorkResult)
+        1 * infoUpdater.updateAnalysis(spec, null, null)
+        1 * writer.storeJarSnapshots(_)
+        0 * _
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental
+
+import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler
+import org.gradle.api.internal.tasks.compile.JavaCompileSpec
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependencyToAll
+import org.gradle.api.internal.tasks.compile.incremental.jar.JarClasspathSnapshotProvider
+import org.gradle.api.internal.tasks.compile.incremental.jar.PreviousCompilation
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult
+import org.gradle.api.tasks.compile.CompileOptions
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import static org.gradle.api.internal.tasks.compile.incremental.deps.DefaultDependentsSet.dependents
+
+class SelectiveCompilerTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def previousCompilation = Mock(PreviousCompilation)
+    def compiler = new SelectiveCompiler(Mock(IncrementalTaskInputs), previousCompilation, Mock(CleaningJavaCompiler), Mock(RecompilationSpecProvider), Mock(IncrementalCompilationInitializer), Mock(JarClasspathSnapshotProvider))
+    def options = new CompileOptions()
+    def spec = Stub(JavaCompileSpec) {
+        getCompileOptions() >> options
+        getDestinationDir() >> tmpDir.file("classes")
+    }
+    def result = new AnnotationProcessingResult()
+
+    def "adds types generated from recompiled classes and their dependents"() {
+        def classNames = ["A"] as Set
+        result.addGeneratedType("A", "AHelper")
+        result.addGeneratedType("B", "BHelper")
+
+        when:
+        def cause = compiler.addGeneratedTypes(result, classNames, spec)
+
+        then:
+        cause == null
+        classNames == ["A", "AHelper", "C"] as Set
+        1 * previousCompilation.getDependents("AHelper", _) >> dependents("C")
+        0 * previousCompilation._
+    }
+
+    def "follows types generated from generated types"() {
+        def classNames = ["A"] as Set
+        result.addGeneratedType("A", "AHelper")
+        result.addGeneratedType("AHelper", "AHelperHelper")
+
+        when:
+        def cause = compiler.addGeneratedTypes(result, classNames, spec)
+
+        then:
+        cause == null
+        classNames == ["A", "AHelper", "AHelperHelper"] as Set
+        2 * previousCompilation.getDependents(_, _) >> dependents()
+    }
+
+    def "reprocesses all aggregated types and recompiles dependents of types generated by aggregating processors"() {
+        def classNames = ["A"] as Set
+        result.addAggregatedType("A")
+        result.addAggregatedType("B")
+        result.addGeneratedTypeByAggregatingProcessor("Registry")
+
+        when:
+        def cause = compiler.addGeneratedTypes(result, classNames, spec)
+
+        then:
+        cause == null
+        classNames == ["A", "B", "Registry", "Main"] as Set
+        1 * previousCompilation.getDependents("Registry", _) >> dependents("Main")
+    }
+
+    def "does nothing when no classes are recompiled"() {
+        def classNames = [] as Set
+        result.addAggregatedType("A")
+
+        expect:
+        compiler.addGeneratedTypes(result, classNames, spec) == null
+        classNames.empty
+    }
+
+    def "requires full rebuild when previous result did"() {
+        result.setFullRebuildCause("processor misbehaved")
+
+        expect:
+        compiler.addGeneratedTypes(result, ["A"] as Set, spec) == "processor misbehaved"
+    }
+
+    def "requires full rebuild when generated type is a dependency to all classes"() {
+        result.addGeneratedType("A", "AHelper")
+
+        when:
+        def cause = compiler.addGeneratedTypes(result, ["A"] as Set, spec)
+
+        then:
+        cause == "generated type 'AHelper' is a dependency of all classes"
+        1 * previousCompilation.getDependents("AHelper", _) >> DependencyToAll.INSTANCE
+    }
+
+    def "deletes stale generated sources from the configured source output directory"() {
+        def generatedDir = tmpDir.file("generated")
+        def staleSource = generatedDir.file("com/AHelper.java").createFile()
+        def otherSource = generatedDir.file("com/BHelper.java").createFile()
+        options.compilerArgs = ["-s", generatedDir.path]
+        result.addGeneratedType("com.A", "com.AHelper")
+        result.addGeneratedType("com.B", "com.BHelper")
+        previousCompilation.getDependents(_, _) >> dependents()
+
+        when:
+        compiler.addGeneratedTypes(result, ["com.A"] as Set, spec)
+
+        then:
+        !staleSource.exists()
+        otherSource.exists()
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer
+
+import org.gradle.api.Transformer
+import spock.lang.Specification
+
+import java.util.concurrent.Executors
+
+class ClassAnalysisExecutorTest extends Specification {
+    def threadPool = Executors.newFixedThreadPool(4)
+    def executor = new ClassAnalysisExecutor(threadPool, 4)
+
+    def cleanup() {
+        threadPool.shutdown()
+    }
+
+    def "returns results in the order of the inputs"() {
+        def inputs = (1..1000).toList()
+
+        expect:
+        executor.transform(inputs, { it * 2 } as Transformer) == inputs.collect { it * 2 }
+    }
+
+    def "transforms small inputs on the calling thread"() {
+        def thread = null
+
+        when:
+        executor.transform([1], { thread = Thread.currentThread(); it } as Transformer)
+
+        then:
+        thread == Thread.currentThread()
+    }
+
+    def "rethrows failure of transformer"() {
+        def failure = new RuntimeException("broken")
+
+        when:
+        executor.transform((1..100).toList(), { if (it == 50) { throw failure }; it } as Transformer)
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+    }
+}
@@ -19,7 +19,9 @@
 package org.gradle.api.internal.tasks.compile.incremental.deps
 
 import com.google.common.hash.HashCode
+import com.google.common.util.concurrent.MoreExecutors
 import org.gradle.api.file.FileVisitDetails
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisExecutor
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer
 import org.gradle.internal.hash.FileHasher
@@ -31,7 +33,7 @@ class ClassFilesAnalyzerTest extends Specification {
     def classAnalyzer = Mock(ClassDependenciesAnalyzer)
     def accumulator = Mock(ClassDependentsAccumulator)
     def fileHasher = Mock(FileHasher)
-    @Subject analyzer = new ClassFilesAnalyzer(classAnalyzer, fileHasher, accumulator)
+    @Subject analyzer = new ClassFilesAnalyzer(classAnalyzer, fileHasher, new ClassAnalysisExecutor(MoreExecutors.sameThreadExecutor(), 2), accumulator)
 
     def "does not visit dirs"() {
         when: analyzer.visitDir(null)
@@ -59,11 +61,41 @@ class ClassFilesAnalyzerTest extends Specification {
 
         when:
         analyzer.visitFile(details)
+        analyzer.getAnalysis()
 
         then:
         1 * fileHasher.hash(details) >> hash
         1 * classAnalyzer.getClassAnalysis(hash, details) >> analysis
         1 * accumulator.addClass(file, analysis)
+        1 * accumulator.getAnalysis()
         0 * _
     }
+
+    def "accumulates classes in the order they were visited"() {
+        def files = (1..5).collect { new File("org/foo/Foo${it}.class") }
+        def details = files.collect { file -> Stub(FileVisitDetails) { getFile() >> file; getName() >> file.name } }
+        def analyses = files.collect { new ClassAnalysis("org.foo." + it.name - ".class", [] as Set, false, [] as Set, [] as Set, [] as Set) }
+
+        when:
+        details.each { analyzer.visitFile(it) }
+        analyzer.getAnalysis()
+
+        then:
+        5 * classAnalyzer.getClassAnalysis(_, _) >> { hash, visited -> analyses[details.indexOf(visited)] }
+
+        then:
+        1 * accumulator.addClass(files[0], analyses[0])
+
+        then:
+        1 * accumulator.addClass(files[1], analyses[1])
+
+        then:
+        1 * accumulator.addClass(files[2], analyses[2])
+
+        then:
+        1 * accumulator.addClass(files[3], analyses[3])
+
+        then:
+        1 * accumulator.addClass(files[4], analyses[4])
+    }
 }
@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.deps
 
+import org.gradle.api.internal.tasks.compile.processing.AnnotationProcessingResult
 import org.gradle.internal.serialize.InputStreamBackedDecoder
 import org.gradle.internal.serialize.OutputStreamBackedEncoder
 import spock.lang.Specification
@@ -55,5 +56,25 @@ class ClassSetAnalysisDataSerializerTest extends Specification {
         read.classesToConstants == [C: [1,2] as Set, D: [] as Set]
         read.literalsToClasses == [3: ['A', 'B'] as Set, 4: ['D'] as Set]
         read.classesToChildren == ['A': ['SA'] as Set, B: ['SB1', 'SB2'] as Set]
+        read.annotationProcessingResult == null
+    }
+
+    def "serializes annotation processing result"() {
+        def processingResult = new AnnotationProcessingResult()
+        processingResult.addGeneratedType("A", "AGenerated")
+        processingResult.addAggregatedType("B")
+        processingResult.addGeneratedTypeByAggregatingProcessor("Registry")
+        def data = new ClassSetAnalysisData(["A.class": "A"], [:], [:], [:], [:], processingResult)
+        def os = new ByteArrayOutputStream()
+
+        when:
+        serializer.write(new OutputStreamBackedEncoder(os), data)
+        ClassSetAnalysisData read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        read.annotationProcessingResult.getGeneratedTypes("A") == ["AGenerated"] as Set
+        read.annotationProcessingResult.aggregatedTypes == ["B"] as Set
+        read.annotationProcessingResult.generatedTypesByAggregatingProcessors == ["Registry"] as Set
+        read.annotationProcessingResult.fullRebuildCause == null
     }
 }
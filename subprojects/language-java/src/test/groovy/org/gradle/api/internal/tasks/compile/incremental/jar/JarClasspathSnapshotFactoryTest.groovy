@@ -17,14 +17,16 @@
 package org.gradle.api.internal.tasks.compile.incremental.jar
 
 import com.google.common.hash.HashCode
+import com.google.common.util.concurrent.MoreExecutors
 import org.gradle.api.file.FileTree
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisExecutor
 import spock.lang.Specification
 import spock.lang.Subject
 
 class JarClasspathSnapshotFactoryTest extends Specification {
 
     def snapshotter = Mock(JarSnapshotter)
-    @Subject factory = new JarClasspathSnapshotFactory(snapshotter)
+    @Subject factory = new JarClasspathSnapshotFactory(snapshotter, new ClassAnalysisExecutor(MoreExecutors.sameThreadExecutor(), 2))
 
     def "creates classpath snapshot with correct duplicate classes"() {
         def jar1 = stubArchive("f1"); def jar2 = stubArchive("f2"); def jar3 = stubArchive("f3")
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing
+
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class AnnotationProcessingResultTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def "keeps previous entries of types that were neither recompiled nor deleted"() {
+        def previous = new AnnotationProcessingResult()
+        previous.addGeneratedType("A", "AHelper")
+        previous.addGeneratedType("B", "BHelper")
+        previous.addGeneratedType("C", "CHelper")
+        previous.addAggregatedType("A")
+        previous.addAggregatedType("B")
+        previous.addAggregatedType("C")
+        previous.addGeneratedTypeByAggregatingProcessor("Registry")
+        previous.addGeneratedTypeByAggregatingProcessor("Index")
+
+        when:
+        def merged = AnnotationProcessingResult.merge(previous, new AnnotationProcessingResult(), ["A", "Registry"], ["A", "B", "Registry", "Index"])
+
+        then:
+        merged.getGeneratedTypes("A").empty
+        merged.getGeneratedTypes("B") == ["BHelper"] as Set
+        merged.getGeneratedTypes("C").empty
+        merged.aggregatedTypes == ["B"] as Set
+        merged.generatedTypesByAggregatingProcessors == ["Index"] as Set
+        merged.fullRebuildCause == null
+    }
+
+    def "adds entries of current result"() {
+        def previous = new AnnotationProcessingResult()
+        previous.addGeneratedType("A", "AHelper")
+        previous.addGeneratedType("B", "BHelper")
+        previous.addAggregatedType("B")
+        def current = new AnnotationProcessingResult()
+        current.addGeneratedType("A", "ANewHelper")
+        current.addAggregatedType("A")
+        current.addGeneratedTypeByAggregatingProcessor("Registry")
+
+        when:
+        def merged = AnnotationProcessingResult.merge(previous, current, ["A"], ["A", "B"])
+
+        then:
+        merged.getGeneratedTypes("A") == ["ANewHelper"] as Set
+        merged.getGeneratedTypes("B") == ["BHelper"] as Set
+        merged.aggregatedTypes == ["B", "A"] as Set
+        merged.generatedTypesByAggregatingProcessors == ["Registry"] as Set
+    }
+
+    def "takes full rebuild cause from current result only"() {
+        def previous = new AnnotationProcessingResult()
+        previous.setFullRebuildCause("previous cause")
+        def current = new AnnotationProcessingResult()
+
+        expect:
+        AnnotationProcessingResult.merge(previous, current, [], []).fullRebuildCause == null
+
+        when:
+        current.setFullRebuildCause("current cause")
+
+        then:
+        AnnotationProcessingResult.merge(previous, current, [], []).fullRebuildCause == "current cause"
+    }
+
+    def "keeps first full rebuild cause"() {
+        def result = new AnnotationProcessingResult()
+
+        when:
+        result.setFullRebuildCause("first")
+        result.setFullRebuildCause("second")
+
+        then:
+        result.fullRebuildCause == "first"
+    }
+
+    def "can write and read result"() {
+        def file = tmpDir.file("result.bin")
+        def result = new AnnotationProcessingResult()
+        result.addGeneratedType("A", "AHelper")
+        result.addGeneratedType("A", "AOtherHelper")
+        result.addAggregatedType("B")
+        result.addGeneratedTypeByAggregatingProcessor("Registry")
+        result.setFullRebuildCause("some cause")
+
+        when:
+        result.writeTo(file)
+        def read = AnnotationProcessingResult.readFrom(file)
+
+        then:
+        read.getGeneratedTypes("A") == ["AHelper", "AOtherHelper"] as Set
+        read.aggregatedTypes == ["B"] as Set
+        read.generatedTypesByAggregatingProcessors == ["Registry"] as Set
+        read.fullRebuildCause == "some cause"
+    }
+
+    def "reads null when no result was written"() {
+        expect:
+        AnnotationProcessingResult.readFrom(tmpDir.file("missing.bin")) == null
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing
+
+import spock.lang.Specification
+
+import javax.annotation.processing.Filer
+import javax.lang.model.element.Element
+import javax.lang.model.element.ExecutableElement
+import javax.lang.model.element.Name
+import javax.lang.model.element.PackageElement
+import javax.lang.model.element.TypeElement
+import javax.tools.StandardLocation
+
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.AGGREGATING
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.ISOLATING
+
+class IncrementalFilerTest extends Specification {
+    def delegate = Mock(Filer)
+    def result = new AnnotationProcessingResult()
+
+    def "isolating processor records generated types with their top level originating type"() {
+        def filer = new IncrementalFiler(delegate, "MyProcessor", ISOLATING, result)
+        def a = type("com.A")
+        def b = type("com.B")
+
+        when:
+        filer.createSourceFile("com.AHelper", a)
+        filer.createClassFile("com.BHelper", method(b))
+
+        then:
+        1 * delegate.createSourceFile("com.AHelper", a)
+        1 * delegate.createClassFile("com.BHelper", _)
+        result.getGeneratedTypes("com.A") == ["com.AHelper"] as Set
+        result.getGeneratedTypes("com.B") == ["com.BHelper"] as Set
+        result.fullRebuildCause == null
+    }
+
+    def "isolating processor requires full rebuild when type has no originating type"() {
+        def filer = new IncrementalFiler(delegate, "MyProcessor", ISOLATING, result)
+
+        when:
+        filer.createSourceFile("com.Helper")
+
+        then:
+        1 * delegate.createSourceFile("com.Helper")
+        result.fullRebuildCause == "Isolating annotation processor 'MyProcessor' generated type 'com.Helper' from 0 originating types instead of one"
+    }
+
+    def "isolating processor requires full rebuild when type has several originating types"() {
+        def filer = new IncrementalFiler(delegate, "MyProcessor", ISOLATING, result)
+
+        when:
+        filer.createSourceFile("com.Helper", type("com.A"), type("com.B"))
+
+        then:
+        result.fullRebuildCause == "Isolating annotation processor 'MyProcessor' generated type 'com.Helper' from 2 originating types instead of one"
+    }
+
+    def "isolating processor requires full rebuild when it creates a resource"() {
+        def filer = new IncrementalFiler(delegate, "MyProcessor", ISOLATING, result)
+
+        when:
+        filer.createResource(StandardLocation.CLASS_OUTPUT, "com", "data.txt", type("com.A"))
+
+        then:
+        1 * delegate.createResource(StandardLocation.CLASS_OUTPUT, "com", "data.txt", _)
+        result.fullRebuildCause == "Isolating annotation processor 'MyProcessor' created resource 'data.txt'"
+    }
+
+    def "aggregating processor records generated types and resources without originating types"() {
+        def filer = new IncrementalFiler(delegate, "MyProcessor", AGGREGATING, result)
+
+        when:
+        filer.createSourceFile("com.Registry", type("com.A"), type("com.B"))
+        filer.createResource(StandardLocation.CLASS_OUTPUT, "com", "registry.txt")
+
+        then:
+        result.generatedTypesByAggregatingProcessors == ["com.Registry"] as Set
+        result.getGeneratedTypes("com.A").empty
+        result.fullRebuildCause == null
+    }
+
+    def "finds top level type of nested elements"() {
+        def outer = type("com.Outer")
+        def inner = Stub(TypeElement) {
+            getEnclosingElement() >> outer
+        }
+
+        expect:
+        IncrementalFiler.getTopLevelType(method(inner)) == outer
+        IncrementalFiler.getTopLevelType(outer) == outer
+        IncrementalFiler.getTopLevelType(Mock(PackageElement)) == null
+    }
+
+    private TypeElement type(String name) {
+        def pkg = Stub(PackageElement)
+        Stub(TypeElement) {
+            getEnclosingElement() >> pkg
+            getQualifiedName() >> new TestName(name)
+        }
+    }
+
+    private Element method(TypeElement owner) {
+        Stub(ExecutableElement) {
+            getEnclosingElement() >> owner
+        }
+    }
+
+    static class TestName implements Name {
+        final String value
+
+        TestName(String value) {
+            this.value = value
+        }
+
+        @Override
+        boolean contentEquals(CharSequence cs) {
+            value == cs.toString()
+        }
+
+        @Override
+        int length() {
+            value.length()
+        }
+
+        @Override
+        char charAt(int index) {
+            value.charAt(index)
+        }
+
+        @Override
+        CharSequence subSequence(int start, int end) {
+            value.subSequence(start, end)
+        }
+
+        @Override
+        String toString() {
+            value
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.processing
+
+import spock.lang.Specification
+
+import javax.annotation.processing.Filer
+import javax.annotation.processing.ProcessingEnvironment
+import javax.annotation.processing.Processor
+import javax.annotation.processing.RoundEnvironment
+import javax.lang.model.element.ExecutableElement
+import javax.lang.model.element.PackageElement
+import javax.lang.model.element.TypeElement
+
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.AGGREGATING
+import static org.gradle.api.internal.tasks.compile.processing.IncrementalAnnotationProcessorType.ISOLATING
+
+class IncrementalProcessorTest extends Specification {
+    def delegate = Mock(Processor)
+    def result = new AnnotationProcessingResult()
+
+    def "initializes delegate with a filer that tracks generated types"() {
+        def filer = Mock(Filer)
+        def processingEnv = Stub(ProcessingEnvironment) {
+            getFiler() >> filer
+        }
+        def processor = new IncrementalProcessor(delegate, ISOLATING, result)
+        ProcessingEnvironment wrappedEnv = null
+
+        when:
+        processor.init(processingEnv)
+
+        then:
+        1 * delegate.init(_) >> { ProcessingEnvironment env -> wrappedEnv = env }
+
+        when:
+        wrappedEnv.filer.createSourceFile("com.AHelper", type("com.A"))
+
+        then:
+        1 * filer.createSourceFile("com.AHelper", _)
+        result.getGeneratedTypes("com.A") == ["com.AHelper"] as Set
+    }
+
+    def "aggregating processor records top level types of annotated elements"() {
+        def annotation = Stub(TypeElement)
+        def a = type("com.A")
+        def b = type("com.B")
+        def roundEnv = Stub(RoundEnvironment) {
+            getElementsAnnotatedWith(annotation) >> ([a, Stub(ExecutableElement) { getEnclosingElement() >> b }] as Set)
+        }
+        def processor = new IncrementalProcessor(delegate, AGGREGATING, result)
+
+        when:
+        def claimed = processor.process([annotation] as Set, roundEnv)
+
+        then:
+        1 * delegate.process([annotation] as Set, roundEnv) >> true
+        claimed
+        result.aggregatedTypes == ["com.A", "com.B"] as Set
+    }
+
+    def "isolating processor does not record annotated elements"() {
+        def annotation = Stub(TypeElement)
+        def roundEnv = Stub(RoundEnvironment) {
+            getElementsAnnotatedWith(annotation) >> ([type("com.A")] as Set)
+        }
+        def processor = new IncrementalProcessor(delegate, ISOLATING, result)
+
+        when:
+        processor.process([annotation] as Set, roundEnv)
+
+        then:
+        1 * delegate.process(_, roundEnv) >> false
+        result.aggregatedTypes.empty
+    }
+
+    def "forwards processor metadata to delegate"() {
+        def processor = new IncrementalProcessor(delegate, ISOLATING, result)
+
+        when:
+        def options = processor.supportedOptions
+        def annotationTypes = processor.supportedAnnotationTypes
+
+        then:
+        1 * delegate.getSupportedOptions() >> (["option"] as Set)
+        1 * delegate.getSupportedAnnotationTypes() >> (["com.Annotation"] as Set)
+        options == ["option"] as Set
+        annotationTypes == ["com.Annotation"] as Set
+    }
+
+    private TypeElement type(String name) {
+        def pkg = Stub(PackageElement)
+        Stub(TypeElement) {
+            getEnclosingElement() >> pkg
+            getQualifiedName() >> new IncrementalFilerTest.TestName(name)
+        }
+    }
+}
@@ -25,6 +25,7 @@ import org.gradle.api.Project;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.internal.tasks.compile.AnnotationProcessorDetector;
 import org.gradle.api.internal.tasks.compile.CompilerForkUtils;
+import org.gradle.api.internal.tasks.compile.CompilerPluginClasspathDetector;
 import org.gradle.api.internal.tasks.scala.DefaultScalaJavaJointCompileSpec;
 import org.gradle.api.internal.tasks.scala.DefaultScalaJavaJointCompileSpecFactory;
 import org.gradle.api.internal.tasks.scala.ScalaCompileSpec;
@@ -33,6 +34,7 @@ import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.plugins.ExtraPropertiesExtension;
 import org.gradle.api.tasks.Classpath;
+import org.gradle.api.tasks.CompileClasspath;
 import org.gradle.api.tasks.Nested;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.compile.AbstractCompile;
@@ -41,6 +43,7 @@ import org.gradle.api.tasks.compile.CompileOptions;
 import java.io.File;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -50,6 +53,8 @@ import java.util.Set;
 @Incubating
 public abstract class AbstractScalaCompile extends AbstractCompile {
     protected static final Logger LOGGER = Logging.getLogger(AbstractScalaCompile.class);
+    // Scala 2.12 inliner settings, and the optimizer flags of earlier Scala versions that enable inlining
+    private static final List<String> INLINER_PARAMETERS = ImmutableList.of("-opt:l:inline", "-opt:l:classpath", "-opt-inline-from", "-optimise", "-optimize");
     private final BaseScalaCompileOptions scalaCompileOptions;
     private final CompileOptions compileOptions = new CompileOptions();
 
@@ -142,6 +147,47 @@ public abstract class AbstractScalaCompile extends AbstractCompile {
         }));
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Only the ABI of the classes on the compile classpath is tracked. Entries that contain macro implementations are also tracked in full, as is the whole classpath when the Scala inliner is enabled, see {@link #getMacroClasspath()}. When the task does run, Zinc uses its analysis of the previous compilation to recompile only the affected sources.</p>
+     */
+    @Override
+    @CompileClasspath
+    public FileCollection getClasspath() {
+        return super.getClasspath();
+    }
+
+    /**
+     * Returns the entries of the compile classpath that contain macro implementations. Macros are expanded by the Scala compiler, so a change to their implementation can change the compiled classes even when their ABI stays the same.
+     *
+     * <p>When the Scala inliner is enabled through {@link BaseScalaCompileOptions#getAdditionalParameters()}, method bodies from the classpath can be copied into the compiled classes, so the whole compile classpath is returned.</p>
+     *
+     * @since 4.2
+     */
+    @Incubating
+    @Classpath
+    protected FileCollection getMacroClasspath() {
+        if (isInlinerEnabled(scalaCompileOptions.getAdditionalParameters())) {
+            return getClasspath();
+        }
+        return getServices().get(CompilerPluginClasspathDetector.class).getCompilerPluginClasspath(getClasspath());
+    }
+
+    private static boolean isInlinerEnabled(List<String> additionalParameters) {
+        if (additionalParameters == null) {
+            return false;
+        }
+        for (String parameter : additionalParameters) {
+            for (String inlinerParameter : INLINER_PARAMETERS) {
+                if (parameter.startsWith(inlinerParameter)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns the path to use for annotation processor discovery. Returns an empty collection when no processing should be performed, for example when no annotation processors are present in the compile classpath or annotation processing has been disabled.
      *
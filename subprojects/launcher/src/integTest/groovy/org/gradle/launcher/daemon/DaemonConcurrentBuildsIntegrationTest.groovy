@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon
+
+import org.gradle.integtests.fixtures.daemon.DaemonIntegrationSpec
+import org.gradle.launcher.daemon.server.exec.ConcurrentBuildAdmission
+import org.gradle.test.fixtures.ConcurrentTestUtil
+import org.gradle.test.fixtures.server.http.BlockingHttpServer
+import org.junit.Rule
+
+class DaemonConcurrentBuildsIntegrationTest extends DaemonIntegrationSpec {
+    @Rule BlockingHttpServer server = new BlockingHttpServer()
+
+    def setup() {
+        server.start()
+        ["a", "b"].each { name ->
+            file("$name/settings.gradle") << "rootProject.name = '$name'"
+            file("$name/build.gradle") << """
+                task block {
+                    doLast {
+                        ${server.callFromBuild(name)}
+                    }
+                }
+            """
+        }
+    }
+
+    def "runs builds of separate projects in the same daemon at the same time"() {
+        given:
+        server.expectConcurrent("a", "b")
+
+        when:
+        def buildA = startBuild("a")
+        ConcurrentTestUtil.poll {
+            // Wait for the first build to occupy the daemon, so that the second build is sent to the same daemon rather than starting another one
+            assert daemons.daemons.size() == 1
+            daemons.daemon.assertBusy()
+        }
+        def buildB = startBuild("b")
+        def resultA = buildA.waitForFinish()
+        def resultB = buildB.waitForFinish()
+
+        then:
+        resultA.assertTasksExecuted(":block")
+        resultB.assertTasksExecuted(":block")
+        daemons.daemons.size() == 1
+    }
+
+    def startBuild(String projectName) {
+        executer.withBuildJvmOpts("-D${ConcurrentBuildAdmission.MAX_CONCURRENT_BUILDS}=2")
+        return executer.usingProjectDirectory(file(projectName)).withTasks("block").start()
+    }
+}
@@ -82,5 +82,15 @@ public class PropertiesToDaemonParametersConverter {
         if (debugEnabledPropertyValue != null) {
             target.setDebug(isTrue(debugEnabledPropertyValue));
         }
+
+        String standbyPropertyValue = properties.get(DAEMON_STANDBY_PROPERTY);
+        if (standbyPropertyValue != null) {
+            target.setStandby(isTrue(standbyPropertyValue));
+        }
+
+        String classDataSharingPropertyValue = properties.get(DAEMON_CLASS_DATA_SHARING_PROPERTY);
+        if (classDataSharingPropertyValue != null) {
+            target.setClassDataSharing(isTrue(classDataSharingPropertyValue));
+        }
     }
 }
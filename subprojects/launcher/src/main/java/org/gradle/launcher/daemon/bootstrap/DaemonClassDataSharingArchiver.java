@@ -0,0 +1,181 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.bootstrap;
+
+import org.gradle.api.JavaVersion;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.jvm.Jvm;
+import org.gradle.process.ExecResult;
+import org.gradle.process.internal.DefaultExecHandleBuilder;
+import org.gradle.util.GFileUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records and archives the classes loaded by a daemon for class data sharing. The client decides what a daemon does, see {@code DaemonClassDataSharing}.
+ *
+ * <p>A recording daemon holds a lock on the class list for as long as it runs, as the JVM keeps appending to the list until it exits. A daemon asked to
+ * archive the list does so in the background once no recording daemon holds this lock. The archive is written next to its final location and only moved
+ * there when the JVM succeeds, and a list that cannot be archived is deleted so that a later daemon records it again.</p>
+ */
+public class DaemonClassDataSharingArchiver {
+    public static final String RECORD_PROPERTY = "org.gradle.internal.daemon.cds.record";
+    public static final String ARCHIVE_PROPERTY = "org.gradle.internal.daemon.cds.archive";
+    public static final String CLASS_LIST_FILE_NAME = "classes.lst";
+    public static final String ARCHIVE_FILE_NAME = "classes.jsa";
+
+    private static final Logger LOGGER = Logging.getLogger(DaemonClassDataSharingArchiver.class);
+    private static final String RECORDING_LOCK_FILE_NAME = "recording.lock";
+    private static final String ARCHIVING_LOCK_FILE_NAME = "archiving.lock";
+    // A recording daemon takes its lock during startup, so a list without a recorder for this long was left behind by a daemon that failed to start
+    private static final long ABANDONED_RECORDING_MS = 10 * 60 * 1000;
+
+    private RandomAccessFile recordingLock;
+
+    /**
+     * Takes the recording lock when this daemon records the classes that it loads. The lock is released when the process exits.
+     */
+    public void maybeLockRecording() {
+        String dir = System.getProperty(RECORD_PROPERTY);
+        if (dir == null) {
+            return;
+        }
+        try {
+            RandomAccessFile file = new RandomAccessFile(new File(dir, RECORDING_LOCK_FILE_NAME), "rw");
+            if (file.getChannel().tryLock() == null) {
+                // Another daemon records to the same list
+                file.close();
+                return;
+            }
+            // Marks the list as owned by a recorder, so that an archiving daemon can tell a finished list from one whose recorder has not started yet
+            file.setLength(0);
+            file.write(1);
+            recordingLock = file;
+        } catch (IOException e) {
+            LOGGER.debug("Could not lock the class list recorded by the daemon.", e);
+        }
+    }
+
+    /**
+     * Archives the recorded classes in the background when this daemon was asked to.
+     */
+    public void maybeStartArchiving() {
+        String dir = System.getProperty(ARCHIVE_PROPERTY);
+        if (dir == null) {
+            return;
+        }
+        final File archiveDir = new File(dir);
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    archive(archiveDir);
+                } catch (Exception e) {
+                    LOGGER.info("Could not archive the classes loaded by the daemon.", e);
+                }
+            }
+        }, "Daemon class data sharing archiver");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void archive(File archiveDir) throws IOException {
+        File classList = new File(archiveDir, CLASS_LIST_FILE_NAME);
+        File recordingLockFile = new File(archiveDir, RECORDING_LOCK_FILE_NAME);
+        RandomAccessFile archivingLock = new RandomAccessFile(new File(archiveDir, ARCHIVING_LOCK_FILE_NAME), "rw");
+        try {
+            // Only one daemon archives the classes. The lock is released when the archiving daemon exits, so an interrupted archiving is retried
+            if (archivingLock.getChannel().tryLock() == null) {
+                return;
+            }
+            if (!classList.isFile() || new File(archiveDir, ARCHIVE_FILE_NAME).isFile() || !isRecordingFinished(recordingLockFile, classList)) {
+                return;
+            }
+            if (!dump(archiveDir, classList)) {
+                GFileUtils.deleteQuietly(classList);
+                GFileUtils.deleteQuietly(recordingLockFile);
+            }
+        } finally {
+            archivingLock.close();
+        }
+    }
+
+    private static boolean isRecordingFinished(File recordingLockFile, File classList) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(recordingLockFile, "rw");
+        try {
+            FileLock lock = file.getChannel().tryLock();
+            if (lock == null) {
+                LOGGER.debug("Not archiving the classes loaded by the daemon, as they are still being recorded.");
+                return false;
+            }
+            if (file.length() > 0) {
+                return true;
+            }
+            if (System.currentTimeMillis() - classList.lastModified() > ABANDONED_RECORDING_MS) {
+                LOGGER.debug("Discarding class list {}, as the daemon that recorded it did not start.", classList);
+                GFileUtils.deleteQuietly(classList);
+            }
+            return false;
+        } finally {
+            file.close();
+        }
+    }
+
+    private static boolean dump(File archiveDir, File classList) {
+        File archive = new File(archiveDir, ARCHIVE_FILE_NAME);
+        File partialArchive = new File(archiveDir, ARCHIVE_FILE_NAME + ".part");
+
+        List<String> args = new ArrayList<String>();
+        args.add(Jvm.current().getJavaExecutable().getAbsolutePath());
+        if (JavaVersion.current() == JavaVersion.VERSION_1_10) {
+            // Java 10 only shares application classes when asked to
+            args.add("-XX:+UseAppCDS");
+        }
+        args.add("-Xshare:dump");
+        args.add("-XX:SharedClassListFile=" + classList.getAbsolutePath());
+        args.add("-XX:SharedArchiveFile=" + partialArchive.getAbsolutePath());
+        // The archive is only used by daemons with the same bootstrap classpath as this one
+        args.add("-cp");
+        args.add(System.getProperty("java.class.path"));
+
+        LOGGER.debug("Archiving the classes loaded by the daemon to {}.", archive);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        DefaultExecHandleBuilder builder = new DefaultExecHandleBuilder();
+        builder.commandLine(args);
+        builder.setWorkingDir(archiveDir);
+        builder.redirectErrorStream();
+        builder.setStandardOutput(output);
+        builder.setIgnoreExitValue(true);
+        builder.setDisplayName("Gradle daemon class data sharing archiver");
+        ExecResult result = builder.build().start().waitForFinish();
+
+        if (result.getExitValue() == 0 && partialArchive.renameTo(archive)) {
+            LOGGER.info("Archived the classes loaded by the daemon to {}.", archive);
+            return true;
+        }
+        LOGGER.info("Could not archive the classes loaded by the daemon to {}. The JVM exited with value {}:\n{}", archive, result.getExitValue(), output);
+        GFileUtils.deleteQuietly(partialArchive);
+        return false;
+    }
+}
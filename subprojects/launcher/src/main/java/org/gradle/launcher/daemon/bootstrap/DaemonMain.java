@@ -62,6 +62,7 @@ public class DaemonMain extends EntryPoint {
 
     private PrintStream originalOut;
     private PrintStream originalErr;
+    private final DaemonClassDataSharingArchiver classDataSharingArchiver = new DaemonClassDataSharingArchiver();
 
     @Override
     protected void doAction(String[] args, ExecutionListener listener) {
@@ -79,6 +80,7 @@ public class DaemonMain extends EntryPoint {
         int periodicCheckIntervalMs;
         String daemonUid;
         List<File> additionalClassPath;
+        boolean standby;
 
         KryoBackedDecoder decoder = new KryoBackedDecoder(new EncodedStream.EncodedInput(System.in));
         try {
@@ -97,6 +99,7 @@ public class DaemonMain extends EntryPoint {
             for (int i = 0; i < additionalClassPathLength; i++) {
                 additionalClassPath.add(new File(decoder.readString()));
             }
+            standby = decoder.readBoolean();
         } catch (EOFException e) {
             throw new UncheckedIOException(e);
         }
@@ -117,9 +120,14 @@ public class DaemonMain extends EntryPoint {
         processEnvironment.maybeDetachProcess();
 
         LOGGER.debug("Assuming the daemon was started with following jvm opts: {}", startupOpts);
+        classDataSharingArchiver.maybeLockRecording();
 
         Daemon daemon = daemonServices.get(Daemon.class);
         daemon.start();
+        if (standby) {
+            daemon.advertiseIdle();
+        }
+        classDataSharingArchiver.maybeStartArchiving();
 
         try {
             DaemonContext daemonContext = daemonServices.get(DaemonContext.class);
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.launcher.daemon.client;
+
+import org.gradle.api.JavaVersion;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.classpath.ClassPath;
+import org.gradle.internal.hash.HashUtil;
+import org.gradle.internal.jvm.JavaInfo;
+import org.gradle.internal.jvm.Jvm;
+import org.gradle.internal.jvm.inspection.JvmVersionDetector;
+import org.gradle.launcher.daemon.configuration.DaemonParameters;
+import org.gradle.util.CollectionUtils;
+import org.gradle.util.GFileUtils;
+import org.gradle.util.GradleVersion;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.gradle.launcher.daemon.bootstrap.DaemonClassDataSharingArchiver.ARCHIVE_FILE_NAME;
+import static org.gradle.launcher.daemon.bootstrap.DaemonClassDataSharingArchiver.ARCHIVE_PROPERTY;
+import static org.gradle.launcher.daemon.bootstrap.DaemonClassDataSharingArchiver.CLASS_LIST_FILE_NAME;
+import static org.gradle.launcher.daemon.bootstrap.DaemonClassDataSharingArchiver.RECORD_PROPERTY;
+
+/**
+ * Provides the JVM arguments that start a daemon with a class data sharing archive for the classes loaded from the JDK and the daemon's bootstrap classpath.
+ *
+ * <p>The archive is kept in the Gradle user home, per Gradle version, JVM and bootstrap classpath. The JVM can only archive the classes listed by an earlier run,
+ * so the archive is created in steps. The first daemon started records the classes that it loads. A daemon started later archives these classes in the background
+ * once the recording daemon has exited, see {@link org.gradle.launcher.daemon.bootstrap.DaemonClassDataSharingArchiver}. The daemons started once the archive
+ * exists map it, rather than loading and verifying the classes again.</p>
+ *
+ * <p>Application class data sharing requires Java 10 or later. Daemons running on earlier JVMs are started as usual.</p>
+ */
+class DaemonClassDataSharing {
+    private static final Logger LOGGER = Logging.getLogger(DaemonClassDataSharing.class);
+
+    private final JvmVersionDetector versionDetector;
+
+    DaemonClassDataSharing(JvmVersionDetector versionDetector) {
+        this.versionDetector = versionDetector;
+    }
+
+    List<String> getJvmArgs(DaemonParameters daemonParameters, ClassPath classpath) {
+        if (!daemonParameters.isClassDataSharing()) {
+            return Collections.emptyList();
+        }
+        JavaInfo jvm = daemonParameters.getEffectiveJvm();
+        JavaVersion javaVersion = jvm.equals(Jvm.current()) ? JavaVersion.current() : versionDetector.getJavaVersion(jvm);
+        if (!javaVersion.isJava10Compatible()) {
+            LOGGER.info("Not using class data sharing for the daemon, as it requires Java 10 or later but the daemon runs on Java {}.", javaVersion.getMajorVersion());
+            return Collections.emptyList();
+        }
+
+        String classpathAsString = CollectionUtils.join(File.pathSeparator, classpath.getAsFiles());
+        File archiveDir = new File(daemonParameters.getGradleUserHomeDir(), "caches/" + GradleVersion.current().getVersion() + "/daemon-cds/"
+            + HashUtil.createCompactMD5(jvm.getJavaHome().getAbsolutePath() + File.pathSeparator + classpathAsString));
+        File classList = new File(archiveDir, CLASS_LIST_FILE_NAME);
+        File archive = new File(archiveDir, ARCHIVE_FILE_NAME);
+
+        List<String> jvmArgs = new ArrayList<String>();
+        if (archive.isFile()) {
+            LOGGER.debug("Using class data sharing archive {} for the daemon.", archive);
+            addUseAppCds(javaVersion, jvmArgs);
+            // If the archive cannot be mapped, the daemon starts without it
+            jvmArgs.add("-Xshare:auto");
+            jvmArgs.add("-XX:SharedArchiveFile=" + archive.getAbsolutePath());
+        } else if (classList.isFile()) {
+            LOGGER.debug("Asking the daemon to archive the classes recorded in {}.", classList);
+            jvmArgs.add("-D" + ARCHIVE_PROPERTY + "=" + archiveDir.getAbsolutePath());
+        } else {
+            LOGGER.debug("Recording the classes loaded by the daemon to {}.", classList);
+            GFileUtils.mkdirs(archiveDir);
+            addUseAppCds(javaVersion, jvmArgs);
+            jvmArgs.add("-XX:DumpLoadedClassList=" + classList.getAbsolutePath());
+            jvmArgs.add("-D" + RECORD_PROPERTY + "=" + archiveDir.getAbsolutePath());
+        }
+        return jvmArgs;
+    }
+
+    private static void addUseAppCds(JavaVersion javaVersion, List<String> jvmArgs) {
+        if (javaVersion == JavaVersion.VERSION_1_10) {
+            // Java 10 only shares application classes when asked to
+            jvmArgs.add("-XX:+UseAppCDS");
+        }
+    }
+}
@@ -19,4 +19,9 @@ import org.gradle.launcher.daemon.diagnostics.DaemonStartupInfo;
 
 public interface DaemonStarter {
     DaemonStartupInfo startDaemon();
+
+    /**
+     * Starts a daemon that advertises itself as idle as soon as it has started, so that it is available to the next client that looks for a daemon.
+     */
+    DaemonStartupInfo startStandbyDaemon();
 }
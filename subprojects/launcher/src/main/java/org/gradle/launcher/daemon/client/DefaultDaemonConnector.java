@@ -64,9 +64,17 @@ public class DefaultDaemonConnector implements DaemonConnector {
     private final DaemonStarter daemonStarter;
     private final DaemonStartListener startListener;
     private final ProgressLoggerFactory progressLoggerFactory;
+    private final boolean startStandbyDaemons;
     private long connectTimeout = DefaultDaemonConnector.DEFAULT_CONNECT_TIMEOUT;
 
     public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter, DaemonStartListener startListener, ProgressLoggerFactory progressLoggerFactory) {
+        this(daemonRegistry, connector, daemonStarter, startListener, progressLoggerFactory, false);
+    }
+
+    /**
+     * @param startStandbyDaemons whether to start a compatible daemon whenever a client takes the last compatible idle daemon, so that the next build does not wait for a daemon to start.
+     */
+    public DefaultDaemonConnector(DaemonRegistry daemonRegistry, OutgoingConnector connector, DaemonStarter daemonStarter, DaemonStartListener startListener, ProgressLoggerFactory progressLoggerFactory, boolean startStandbyDaemons) {
         Preconditions.checkNotNull(daemonRegistry);
         Preconditions.checkNotNull(connector);
         Preconditions.checkNotNull(daemonStarter);
@@ -78,6 +86,7 @@ public class DefaultDaemonConnector implements DaemonConnector {
         this.daemonStarter = daemonStarter;
         this.startListener = startListener;
         this.progressLoggerFactory = progressLoggerFactory;
+        this.startStandbyDaemons = startStandbyDaemons;
     }
 
     public void setConnectTimeout(long connectTimeout) {
@@ -106,6 +115,14 @@ public class DefaultDaemonConnector implements DaemonConnector {
     }
 
     public DaemonClientConnection connect(ExplainingSpec<DaemonContext> constraint) {
+        DaemonClientConnection connection = connectOrStartDaemon(constraint);
+        if (startStandbyDaemons) {
+            maybeStartStandbyDaemon(connection, constraint);
+        }
+        return connection;
+    }
+
+    private DaemonClientConnection connectOrStartDaemon(ExplainingSpec<DaemonContext> constraint) {
         final Pair<Collection<DaemonInfo>, Collection<DaemonInfo>> idleBusy = partitionByState(daemonRegistry.getAll(), Idle);
         final Collection<DaemonInfo> idleDaemons = idleBusy.getLeft();
         final Collection<DaemonInfo> busyDaemons = idleBusy.getRight();
@@ -127,6 +144,24 @@ public class DefaultDaemonConnector implements DaemonConnector {
         return startDaemon(constraint);
     }
 
+    private void maybeStartStandbyDaemon(DaemonClientConnection connection, ExplainingSpec<DaemonContext> constraint) {
+        String connectedUid = connection.getDaemon().getUid();
+        for (DaemonInfo daemon : daemonRegistry.getIdle()) {
+            if (!daemon.getUid().equals(connectedUid) && constraint.isSatisfiedBy(daemon.getContext())) {
+                return;
+            }
+        }
+
+        // Start the daemon before the build is handed off, rather than in the background. This client may exit as soon as the build has finished, and this
+        // would stop the daemon before it has detached. The daemon is detached from this process once it has started and outlives it.
+        try {
+            DaemonStartupInfo startupInfo = daemonStarter.startStandbyDaemon();
+            LOGGER.info("Started standby Gradle daemon {}", startupInfo);
+        } catch (Exception e) {
+            LOGGER.info("Could not start standby Gradle daemon.", e);
+        }
+    }
+
     private void handleStopEvents(Collection<DaemonInfo> idleDaemons, Collection<DaemonInfo> busyDaemons) {
         final List<DaemonStopEvent> stopEvents = daemonRegistry.getStopEvents();
 
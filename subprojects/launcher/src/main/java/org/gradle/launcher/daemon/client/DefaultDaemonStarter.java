@@ -26,6 +26,7 @@ import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.installation.CurrentGradleInstallation;
 import org.gradle.internal.installation.GradleInstallation;
 import org.gradle.internal.io.StreamByteBuffer;
+import org.gradle.internal.jvm.inspection.JvmVersionDetector;
 import org.gradle.internal.serialize.FlushableEncoder;
 import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 import org.gradle.internal.time.Timer;
@@ -58,15 +59,25 @@ public class DefaultDaemonStarter implements DaemonStarter {
     private final DaemonParameters daemonParameters;
     private final DaemonGreeter daemonGreeter;
     private final JvmVersionValidator versionValidator;
+    private final DaemonClassDataSharing classDataSharing;
 
-    public DefaultDaemonStarter(DaemonDir daemonDir, DaemonParameters daemonParameters, DaemonGreeter daemonGreeter, JvmVersionValidator versionValidator) {
+    public DefaultDaemonStarter(DaemonDir daemonDir, DaemonParameters daemonParameters, DaemonGreeter daemonGreeter, JvmVersionValidator versionValidator, JvmVersionDetector versionDetector) {
         this.daemonDir = daemonDir;
         this.daemonParameters = daemonParameters;
         this.daemonGreeter = daemonGreeter;
         this.versionValidator = versionValidator;
+        this.classDataSharing = new DaemonClassDataSharing(versionDetector);
     }
 
     public DaemonStartupInfo startDaemon() {
+        return startDaemon(false);
+    }
+
+    public DaemonStartupInfo startStandbyDaemon() {
+        return startDaemon(true);
+    }
+
+    private DaemonStartupInfo startDaemon(boolean standby) {
         String daemonUid = UUID.randomUUID().toString();
 
         GradleInstallation gradleInstallation = CurrentGradleInstallation.get();
@@ -96,6 +107,7 @@ public class DefaultDaemonStarter implements DaemonStarter {
 
         List<String> daemonOpts = daemonParameters.getEffectiveJvmArgs();
         daemonArgs.addAll(daemonOpts);
+        daemonArgs.addAll(classDataSharing.getJvmArgs(daemonParameters, classpath));
         daemonArgs.add("-cp");
         daemonArgs.add(CollectionUtils.join(File.pathSeparator, classpath.getAsFiles()));
 
@@ -125,6 +137,7 @@ public class DefaultDaemonStarter implements DaemonStarter {
             for (File file : searchClassPath) {
                 encoder.writeString(file.getAbsolutePath());
             }
+            encoder.writeBoolean(standby);
             encoder.flush();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
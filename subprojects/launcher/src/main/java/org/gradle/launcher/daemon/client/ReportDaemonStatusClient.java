@@ -22,6 +22,7 @@ import com.google.common.collect.Lists;
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.cache.internal.InMemoryCacheUsage;
 import org.gradle.internal.SystemProperties;
 import org.gradle.internal.id.IdGenerator;
 import org.gradle.launcher.daemon.logging.DaemonMessages;
@@ -101,6 +102,9 @@ public class ReportDaemonStatusClient {
             for(Status status : statuses) {
                 Long pid = status.getPid();
                 LOGGER.quiet(String.format(STATUS_FORMAT, pid == null ? "PID unknown" : pid, status.getStatus(), status.getVersion()));
+                for (InMemoryCacheUsage cacheUsage : status.getCacheUsage()) {
+                    LOGGER.quiet(String.format(STATUS_FORMAT, "", "", cacheUsage));
+                }
             }
         }
     }
@@ -52,6 +52,8 @@ public class DaemonParameters {
     private boolean foreground;
     private boolean stop;
     private boolean status;
+    private boolean standby;
+    private boolean classDataSharing;
     private boolean interactive = System.console() != null || Boolean.getBoolean(INTERACTIVE_TOGGLE);
     private JavaInfo jvm = Jvm.current();
 
@@ -207,4 +209,26 @@ public class DaemonParameters {
     public Map<String, String> getEnvironmentVariables() {
         return envVariables;
     }
+
+    /**
+     * Whether a spare daemon should be started in the background when no compatible daemon is left idle, so that the next build does not have to wait for a daemon to start.
+     */
+    public boolean isStandby() {
+        return standby;
+    }
+
+    public void setStandby(boolean standby) {
+        this.standby = standby;
+    }
+
+    /**
+     * Whether daemons should be started with a class data sharing archive of the classes loaded from the JDK and the daemon's bootstrap classpath.
+     */
+    public boolean isClassDataSharing() {
+        return classDataSharing;
+    }
+
+    public void setClassDataSharing(boolean classDataSharing) {
+        this.classDataSharing = classDataSharing;
+    }
 }
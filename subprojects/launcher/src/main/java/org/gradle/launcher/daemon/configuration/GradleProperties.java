@@ -34,9 +34,12 @@ public class GradleProperties {
     public static final String WORKERS_PROPERTY = "org.gradle.workers.max";
     public static final String BUILD_CACHE_PROPERTY = "org.gradle.caching";
     public static final String LOG_LEVEL_PROPERTY = "org.gradle.logging.level";
+    public static final String DAEMON_STANDBY_PROPERTY = "org.gradle.daemon.standby";
+    public static final String DAEMON_CLASS_DATA_SHARING_PROPERTY = "org.gradle.daemon.classdatasharing";
 
     public static final Set<String> ALL = ImmutableSet.of(IDLE_TIMEOUT_PROPERTY, HEALTH_CHECK_INTERVAL_PROPERTY, DAEMON_BASE_DIR_PROPERTY, JVM_ARGS_PROPERTY,
-            JAVA_HOME_PROPERTY, DAEMON_ENABLED_PROPERTY, DEBUG_MODE_PROPERTY, CONFIGURE_ON_DEMAND_PROPERTY, PARALLEL_PROPERTY, WORKERS_PROPERTY, BUILD_CACHE_PROPERTY, LOG_LEVEL_PROPERTY);
+            JAVA_HOME_PROPERTY, DAEMON_ENABLED_PROPERTY, DEBUG_MODE_PROPERTY, CONFIGURE_ON_DEMAND_PROPERTY, PARALLEL_PROPERTY, WORKERS_PROPERTY, BUILD_CACHE_PROPERTY, LOG_LEVEL_PROPERTY,
+            DAEMON_STANDBY_PROPERTY, DAEMON_CLASS_DATA_SHARING_PROPERTY);
 
     public static boolean isTrue(Object propertyValue) {
         return propertyValue != null && propertyValue.toString().trim().equalsIgnoreCase("true");
@@ -16,19 +16,29 @@
 
 package org.gradle.launcher.daemon.protocol;
 
+import org.gradle.cache.internal.InMemoryCacheUsage;
+
 import javax.annotation.Nullable;
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
 
 public class Status implements Serializable {
     @Nullable
     private final Long pid;
     private final String version;
     private final String status;
+    private final List<InMemoryCacheUsage> cacheUsage;
 
     public Status(Long pid, String version, String status) {
+        this(pid, version, status, Collections.<InMemoryCacheUsage>emptyList());
+    }
+
+    public Status(Long pid, String version, String status, List<InMemoryCacheUsage> cacheUsage) {
         this.pid = pid;
         this.version = version;
         this.status = status;
+        this.cacheUsage = cacheUsage;
     }
 
     @Nullable
@@ -43,4 +53,11 @@ public class Status implements Serializable {
     public String getStatus() {
         return status;
     }
+
+    /**
+     * The estimated heap usage of the in-memory caches held by the daemon, largest first.
+     */
+    public List<InMemoryCacheUsage> getCacheUsage() {
+        return cacheUsage;
+    }
 }
@@ -18,8 +18,12 @@ package org.gradle.launcher.daemon.registry;
 import org.gradle.cache.FileLockManager;
 import org.gradle.cache.internal.Cache;
 import org.gradle.cache.internal.CacheAccessSerializer;
+import org.gradle.cache.internal.DefaultFileLockManager;
+import org.gradle.cache.internal.DefaultProcessMetaDataProvider;
 import org.gradle.cache.internal.MapBackedCache;
+import org.gradle.cache.internal.locklistener.NoOpFileLockContentionHandler;
 import org.gradle.internal.Factory;
+import org.gradle.internal.nativeintegration.ProcessEnvironment;
 import org.gradle.internal.nativeintegration.filesystem.Chmod;
 
 import java.io.File;
@@ -52,10 +56,13 @@ public class DaemonRegistryServices {
         return new DaemonDir(daemonBaseDir);
     }
 
-    DaemonRegistry createDaemonRegistry(DaemonDir daemonDir, final FileLockManager fileLockManager, final Chmod chmod) {
+    DaemonRegistry createDaemonRegistry(DaemonDir daemonDir, final ProcessEnvironment processEnvironment, final Chmod chmod) {
         final File daemonRegistryFile = daemonDir.getRegistry();
         return daemonRegistryCache.get(daemonRegistryFile, new Factory<DaemonRegistry>() {
             public DaemonRegistry create() {
+                // The registry is only ever locked briefly and its owner is never asked to release it, so there is no need to
+                // set up lock contention handling. This keeps the client from opening a socket on every registry access.
+                FileLockManager fileLockManager = new DefaultFileLockManager(new DefaultProcessMetaDataProvider(processEnvironment), new NoOpFileLockContentionHandler());
                 return new PersistentDaemonRegistry(daemonRegistryFile, fileLockManager, chmod);
             }
         });
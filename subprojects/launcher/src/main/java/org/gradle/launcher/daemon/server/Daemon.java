@@ -59,6 +59,7 @@ public class Daemon implements Stoppable {
     private final ScheduledExecutorService scheduledExecutorService;
     private final ExecutorFactory executorFactory;
     private final ListenerManager listenerManager;
+    private final int maxConcurrentBuilds;
 
     private DaemonStateCoordinator stateCoordinator;
 
@@ -73,8 +74,9 @@ public class Daemon implements Stoppable {
      *
      * @param connector The provider of server connections for this daemon
      * @param daemonRegistry The registry that this daemon should advertise itself in
+     * @param maxConcurrentBuilds The maximum number of builds that this daemon runs at the same time
      */
-    public Daemon(DaemonServerConnector connector, DaemonRegistry daemonRegistry, DaemonContext daemonContext, DaemonCommandExecuter commandExecuter, ExecutorFactory executorFactory, ListenerManager listenerManager) {
+    public Daemon(DaemonServerConnector connector, DaemonRegistry daemonRegistry, DaemonContext daemonContext, DaemonCommandExecuter commandExecuter, ExecutorFactory executorFactory, ListenerManager listenerManager, int maxConcurrentBuilds) {
         this.connector = connector;
         this.daemonRegistry = daemonRegistry;
         this.daemonContext = daemonContext;
@@ -82,6 +84,7 @@ public class Daemon implements Stoppable {
         this.executorFactory = executorFactory;
         this.scheduledExecutorService = executorFactory.createScheduled("Daemon periodic checks", 1);
         this.listenerManager = listenerManager;
+        this.maxConcurrentBuilds = maxConcurrentBuilds;
     }
 
     public String getUid() {
@@ -158,7 +161,7 @@ public class Daemon implements Stoppable {
             // 3. start accepting incoming connections
             // 4. advertise presence in registry
 
-            stateCoordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, onCancelCommand);
+            stateCoordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, onCancelCommand, maxConcurrentBuilds);
             connectionHandler = new DefaultIncomingConnectionHandler(commandExecuter, daemonContext, stateCoordinator, executorFactory, token);
             Runnable connectionErrorHandler = new Runnable() {
                 @Override
@@ -176,6 +179,24 @@ public class Daemon implements Stoppable {
         LOGGER.lifecycle(DaemonMessages.PROCESS_STARTED);
     }
 
+    /**
+     * Advertises this daemon as idle without waiting for a client to run a first build, so that the daemon can serve as a standby for the next client.
+     * A daemon is otherwise advertised as busy until the build of the client that started it has completed.
+     */
+    public void advertiseIdle() {
+        lifecycleLock.lock();
+        try {
+            if (stateCoordinator == null) {
+                throw new IllegalStateException("cannot advertise daemon as idle as it is not started");
+            }
+            if (stateCoordinator.getState() == DaemonStateControl.State.Idle) {
+                registryUpdater.onCompleteActivity();
+            }
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
     /**
      * Stops the daemon, blocking until any current requests/connections have been satisfied.
      * <p>
@@ -18,6 +18,7 @@ package org.gradle.launcher.daemon.server;
 import com.google.common.collect.ImmutableList;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
+import org.gradle.cache.internal.InMemoryCacheUsageRegistry;
 import org.gradle.internal.classpath.ClassPath;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.event.ListenerManager;
@@ -40,6 +41,7 @@ import org.gradle.launcher.daemon.registry.DaemonRegistryServices;
 import org.gradle.launcher.daemon.server.api.DaemonCommandAction;
 import org.gradle.launcher.daemon.server.api.HandleReportStatus;
 import org.gradle.launcher.daemon.server.api.HandleStop;
+import org.gradle.launcher.daemon.server.exec.ConcurrentBuildAdmission;
 import org.gradle.launcher.daemon.server.exec.DaemonCommandExecuter;
 import org.gradle.launcher.daemon.server.exec.EstablishBuildEnvironment;
 import org.gradle.launcher.daemon.server.exec.ExecuteBuild;
@@ -60,6 +62,7 @@ import org.gradle.launcher.daemon.server.scaninfo.DaemonScanInfo;
 import org.gradle.launcher.daemon.server.scaninfo.DefaultDaemonScanInfo;
 import org.gradle.launcher.daemon.server.stats.DaemonRunningStats;
 import org.gradle.launcher.exec.BuildExecuter;
+import org.gradle.process.internal.health.memory.MemoryManager;
 
 import java.io.File;
 import java.util.UUID;
@@ -107,6 +110,10 @@ public class DaemonServices extends DefaultServiceRegistry {
         return new DaemonMemoryStatus(healthStats);
     }
 
+    protected ConcurrentBuildAdmission createConcurrentBuildAdmission(DaemonMemoryStatus memoryStatus) {
+        return new ConcurrentBuildAdmission(memoryStatus);
+    }
+
     protected DaemonHealthCheck createDaemonHealthCheck(ListenerManager listenerManager, HealthExpirationStrategy healthExpirationStrategy) {
         return new DaemonHealthCheck(healthExpirationStrategy, listenerManager);
     }
@@ -123,25 +130,25 @@ public class DaemonServices extends DefaultServiceRegistry {
         return new MasterExpirationStrategy(daemon, configuration, healthExpirationStrategy, listenerManager);
     }
 
-    protected HealthExpirationStrategy createHealthExpirationStrategy(DaemonMemoryStatus memoryStatus) {
-        return new HealthExpirationStrategy(memoryStatus);
+    protected HealthExpirationStrategy createHealthExpirationStrategy(DaemonMemoryStatus memoryStatus, MemoryManager memoryManager) {
+        return new HealthExpirationStrategy(memoryStatus, memoryManager);
     }
 
     protected DaemonHealthStats createDaemonHealthStats(DaemonRunningStats runningStats, ExecutorFactory executorFactory) {
         return new DaemonHealthStats(runningStats, executorFactory);
     }
 
-    protected ImmutableList<DaemonCommandAction> createDaemonCommandActions(DaemonContext daemonContext, ProcessEnvironment processEnvironment, DaemonHealthStats healthStats, DaemonHealthCheck healthCheck, BuildExecuter buildActionExecuter, DaemonRunningStats runningStats) {
+    protected ImmutableList<DaemonCommandAction> createDaemonCommandActions(DaemonContext daemonContext, ProcessEnvironment processEnvironment, DaemonHealthStats healthStats, DaemonHealthCheck healthCheck, BuildExecuter buildActionExecuter, DaemonRunningStats runningStats, ConcurrentBuildAdmission buildAdmission) {
         File daemonLog = getDaemonLogFile();
         DaemonDiagnostics daemonDiagnostics = new DaemonDiagnostics(daemonLog, daemonContext.getPid());
         return ImmutableList.of(
             new HandleStop(get(ListenerManager.class)),
             new HandleCancel(),
-            new HandleReportStatus(),
+            new HandleReportStatus(get(InMemoryCacheUsageRegistry.class)),
             new ReturnResult(),
-            new StartBuildOrRespondWithBusy(daemonDiagnostics), // from this point down, the daemon is 'busy'
+            new StartBuildOrRespondWithBusy(daemonDiagnostics, buildAdmission), // from this point down, the daemon is 'busy'
             new EstablishBuildEnvironment(processEnvironment),
-            new LogToClient(loggingManager, daemonDiagnostics), // from this point down, logging is sent back to the client
+            new LogToClient(loggingManager, daemonDiagnostics, buildAdmission.isConcurrentBuildsEnabled()), // from this point down, logging is sent back to the client
             new LogAndCheckHealth(healthStats, healthCheck),
             new ForwardClientInput(),
             new RequestStopIfSingleUsedDaemon(),
@@ -152,7 +159,7 @@ public class DaemonServices extends DefaultServiceRegistry {
 
     }
 
-    protected Daemon createDaemon(ImmutableList<DaemonCommandAction> actions) {
+    protected Daemon createDaemon(ImmutableList<DaemonCommandAction> actions, ConcurrentBuildAdmission buildAdmission) {
         return new Daemon(
             new DaemonTcpServerConnector(
                 get(ExecutorFactory.class),
@@ -162,7 +169,8 @@ public class DaemonServices extends DefaultServiceRegistry {
             get(DaemonContext.class),
             new DaemonCommandExecuter(actions),
             get(ExecutorFactory.class),
-            get(ListenerManager.class)
+            get(ListenerManager.class),
+            buildAdmission.getMaxConcurrentBuilds()
         );
     }
 
@@ -19,7 +19,6 @@ package org.gradle.launcher.daemon.server;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.initialization.BuildCancellationToken;
-import org.gradle.initialization.DefaultBuildCancellationToken;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.concurrent.ManagedExecutor;
@@ -31,6 +30,8 @@ import org.gradle.launcher.daemon.server.api.DaemonStateControl;
 import org.gradle.launcher.daemon.server.api.DaemonStoppedException;
 import org.gradle.launcher.daemon.server.api.DaemonUnavailableException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
@@ -42,6 +43,10 @@ import java.util.concurrent.locks.ReentrantLock;
  * This class has no knowledge of the Daemon's internals and is designed to be used internally by the daemon to coordinate itself and allow worker threads to control the daemon's busy/idle status.
  *
  * This is not exposed to clients of the daemon.
+ *
+ * By default, at most one command runs at a time. When created with a higher limit, additional commands may start while the daemon is busy.
+ * The commands that run together share the daemon's busy period, but each of them has its own cancellation token, so canceling one command does not
+ * affect the others.
  */
 public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     public static final String DAEMON_WILL_STOP_MESSAGE = "Daemon will be stopped at the end of the build ";
@@ -51,13 +56,12 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     private final Lock lock = new ReentrantLock();
     private final Condition condition = lock.newCondition();
     private final long cancelTimeoutMs;
+    private final int maxConcurrentCommands;
 
     private State state = State.Idle;
     private final Timer idleTimer;
-    private String currentCommandExecution;
-    private Object result;
+    private final List<CommandExecution> currentCommandExecutions = new ArrayList<CommandExecution>();
     private String stopReason;
-    private volatile DefaultBuildCancellationToken cancellationToken;
 
     private final ManagedExecutor executor;
     private final Runnable onStartCommand;
@@ -65,17 +69,28 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     private final Runnable onCancelCommand;
 
     public DaemonStateCoordinator(ExecutorFactory executorFactory, Runnable onStartCommand, Runnable onFinishCommand, Runnable onCancelCommand) {
-        this(executorFactory, onStartCommand, onFinishCommand, onCancelCommand, 10 * 1000L);
+        this(executorFactory, onStartCommand, onFinishCommand, onCancelCommand, 1);
+    }
+
+    public DaemonStateCoordinator(ExecutorFactory executorFactory, Runnable onStartCommand, Runnable onFinishCommand, Runnable onCancelCommand, int maxConcurrentCommands) {
+        this(executorFactory, onStartCommand, onFinishCommand, onCancelCommand, 10 * 1000L, maxConcurrentCommands);
     }
 
     DaemonStateCoordinator(ExecutorFactory executorFactory, Runnable onStartCommand, Runnable onFinishCommand, Runnable onCancelCommand, long cancelTimeoutMs) {
+        this(executorFactory, onStartCommand, onFinishCommand, onCancelCommand, cancelTimeoutMs, 1);
+    }
+
+    DaemonStateCoordinator(ExecutorFactory executorFactory, Runnable onStartCommand, Runnable onFinishCommand, Runnable onCancelCommand, long cancelTimeoutMs, int maxConcurrentCommands) {
+        if (maxConcurrentCommands < 1) {
+            throw new IllegalArgumentException("The maximum number of concurrent commands must be at least 1.");
+        }
         executor = executorFactory.create("Daemon worker");
         this.onStartCommand = onStartCommand;
         this.onFinishCommand = onFinishCommand;
         this.onCancelCommand = onCancelCommand;
         this.cancelTimeoutMs = cancelTimeoutMs;
+        this.maxConcurrentCommands = maxConcurrentCommands;
         idleTimer = Timers.startTimer();
-        updateCancellationToken();
     }
 
     private void setState(State state) {
@@ -192,37 +207,48 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     }
 
     @Override
-    public BuildCancellationToken getCancellationToken() {
-        return cancellationToken;
-    }
-
-    private void updateCancellationToken() {
-        cancellationToken = new DefaultBuildCancellationToken();
-        cancellationToken.addCallback(onCancelCommand);
-    }
-
-    @Override
-    public void requestCancel() {
+    public void requestCancel(BuildCancellationToken cancellationToken) {
+        CommandExecution executionToCancel = null;
         lock.lock();
         try {
-            if (state == State.Busy) {
+            CommandExecution execution = findExecution(cancellationToken);
+            if (execution == null) {
+                return;
+            }
+            if (state == State.Busy || state == State.Canceled) {
+                if (execution.cancelRequested || cancellationToken.isCancellationRequested()) {
+                    return;
+                }
+                execution.cancelRequested = true;
                 setState(State.Canceled);
             } else if (state == State.StopRequested) {
-                requestForcefulStop("the build was canceled after a stop was requested");
+                if (currentCommandExecutions.size() == 1) {
+                    requestForcefulStop("the build was canceled after a stop was requested");
+                } else {
+                    // The daemon stops once the other commands have completed
+                    executionToCancel = execution;
+                }
             }
         } finally {
             lock.unlock();
         }
+        if (executionToCancel != null) {
+            cancel(executionToCancel);
+        }
     }
 
     @Override
-    public void cancelBuild() {
-        requestCancel();
+    public void cancelBuild(BuildCancellationToken cancellationToken) {
+        requestCancel(cancellationToken);
 
         lock.lock();
         try {
             while(true) {
                 try {
+                    CommandExecution execution = findExecution(cancellationToken);
+                    if (execution == null || execution.result != null) {
+                        return;
+                    }
                     switch (state) {
                         case Idle:
                         case Stopped:
@@ -247,15 +273,21 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     private void cancelNow() {
         CountdownTimer timer = Timers.startTimer(cancelTimeoutMs);
 
-        LOGGER.debug("Cancel requested: will wait for daemon to become idle.");
-        try {
-            cancellationToken.cancel();
-        } catch (Exception ex) {
-            LOGGER.error("Cancel processing failed. Will continue.", ex);
-        }
-
         lock.lock();
         try {
+            List<CommandExecution> canceledExecutions = new ArrayList<CommandExecution>();
+            for (CommandExecution execution : currentCommandExecutions) {
+                if (execution.cancelRequested) {
+                    execution.cancelRequested = false;
+                    canceledExecutions.add(execution);
+                }
+            }
+
+            LOGGER.debug("Cancel requested: will wait for {} canceled command(s) to complete.", canceledExecutions.size());
+            for (CommandExecution execution : canceledExecutions) {
+                cancel(execution);
+            }
+
             while (!timer.hasExpired()) {
                 try {
                     switch (state) {
@@ -265,6 +297,13 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
                         case Busy:
                         case Canceled:
                         case StopRequested:
+                            if (!isAnyRunning(canceledExecutions)) {
+                                LOGGER.debug("Cancel: canceled command(s) have completed.");
+                                if (state == State.Canceled && !isAnyCancelRequested()) {
+                                    setState(State.Busy);
+                                }
+                                return;
+                            }
                             LOGGER.debug("Cancel: daemon is busy, sleeping until state changes.");
                             condition.await(timer.getRemainingMillis(), TimeUnit.MILLISECONDS);
                             break;
@@ -278,6 +317,17 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
                     throw UncheckedException.throwAsUncheckedException(e);
                 }
             }
+            if (currentCommandExecutions.size() > countRunning(canceledExecutions)) {
+                // Other commands are still running, so abandon the canceled commands and stop the daemon once the other commands have completed
+                LOGGER.debug("Cancel: canceled command(s) still running after grace period. Will stop once the other commands have completed.");
+                for (CommandExecution execution : canceledExecutions) {
+                    if (execution.result == null) {
+                        execution.result = new DaemonStoppedException("cancel requested but timed out");
+                    }
+                }
+                beginStopping();
+                return;
+            }
             LOGGER.debug("Cancel: daemon is still busy after grace period. Will force stop.");
             stopNow("cancel requested but timed out");
         } finally {
@@ -285,41 +335,81 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         }
     }
 
+    private void cancel(CommandExecution execution) {
+        try {
+            execution.cancellationToken.cancel();
+        } catch (Exception ex) {
+            LOGGER.error("Cancel processing failed. Will continue.", ex);
+        }
+    }
+
+    private CommandExecution findExecution(BuildCancellationToken cancellationToken) {
+        for (CommandExecution execution : currentCommandExecutions) {
+            if (execution.cancellationToken == cancellationToken) {
+                return execution;
+            }
+        }
+        return null;
+    }
+
+    private boolean isAnyCancelRequested() {
+        for (CommandExecution execution : currentCommandExecutions) {
+            if (execution.cancelRequested) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isAnyRunning(List<CommandExecution> executions) {
+        return countRunning(executions) > 0;
+    }
+
+    private int countRunning(List<CommandExecution> executions) {
+        int running = 0;
+        for (CommandExecution execution : executions) {
+            if (execution.result == null && currentCommandExecutions.contains(execution)) {
+                running++;
+            }
+        }
+        return running;
+    }
+
     @Override
-    public void runCommand(final Runnable command, String commandDisplayName) throws DaemonUnavailableException {
-        onStartCommand(commandDisplayName);
+    public void runCommand(final Runnable command, String commandDisplayName, BuildCancellationToken cancellationToken) throws DaemonUnavailableException {
+        final CommandExecution execution = onStartCommand(commandDisplayName, cancellationToken);
         try {
             executor.execute(new Runnable() {
                 public void run() {
                     try {
                         command.run();
-                        onCommandSuccessful();
+                        onCommandSuccessful(execution);
                     } catch (Throwable t) {
-                        onCommandFailed(t);
+                        onCommandFailed(execution, t);
                     }
                 }
             });
-            waitForCommandCompletion();
+            waitForCommandCompletion(execution);
         } finally {
-            onFinishCommand();
+            onFinishCommand(execution);
         }
     }
 
-    private void waitForCommandCompletion() {
+    private void waitForCommandCompletion(CommandExecution execution) {
         lock.lock();
         try {
-            while ((state == State.Busy || state == State.Canceled || state == State.StopRequested) && result == null) {
+            while ((state == State.Busy || state == State.Canceled || state == State.StopRequested) && execution.result == null) {
                 try {
                     condition.await();
                 } catch (InterruptedException e) {
                     throw UncheckedException.throwAsUncheckedException(e);
                 }
             }
-            LOGGER.debug("Command execution: finished waiting for {}. Result {} with state {}", currentCommandExecution, result, state);
-            if (result instanceof Throwable) {
-                throw UncheckedException.throwAsUncheckedException((Throwable) result);
+            LOGGER.debug("Command execution: finished waiting for {}. Result {} with state {}", execution.displayName, execution.result, state);
+            if (execution.result instanceof Throwable) {
+                throw UncheckedException.throwAsUncheckedException((Throwable) execution.result);
             }
-            if (result != null) {
+            if (execution.result != null) {
                 return;
             }
             switch (state) {
@@ -335,27 +425,27 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         }
     }
 
-    private void onCommandFailed(Throwable failure) {
+    private void onCommandFailed(CommandExecution execution, Throwable failure) {
         lock.lock();
         try {
-            result = failure;
+            execution.result = failure;
             condition.signalAll();
         } finally {
             lock.unlock();
         }
     }
 
-    private void onCommandSuccessful() {
+    private void onCommandSuccessful(CommandExecution execution) {
         lock.lock();
         try {
-            result = this;
+            execution.result = this;
             condition.signalAll();
         } finally {
             lock.unlock();
         }
     }
 
-    private void onStartCommand(String commandDisplayName) {
+    private CommandExecution onStartCommand(String commandDisplayName, BuildCancellationToken cancellationToken) {
         lock.lock();
         try {
             switch (state) {
@@ -365,20 +455,28 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
                     throw new DaemonUnavailableException("This daemon is currently stopping.");
                 case Stopped:
                     throw new DaemonUnavailableException("This daemon has stopped.");
-                case Busy:
                 case Canceled:
-                    throw new DaemonUnavailableException(String.format("This daemon is currently executing: %s", currentCommandExecution));
+                    throw new DaemonUnavailableException(String.format("This daemon is currently executing: %s", currentCommandExecutions.get(0).displayName));
+                case Busy:
+                    if (currentCommandExecutions.size() >= maxConcurrentCommands) {
+                        throw new DaemonUnavailableException(String.format("This daemon is currently executing: %s", currentCommandExecutions.get(0).displayName));
+                    }
+                    LOGGER.info("Command execution: started {} alongside {} other command(s)", commandDisplayName, currentCommandExecutions.size());
+                    CommandExecution concurrentExecution = new CommandExecution(commandDisplayName, cancellationToken, onCancelCommand);
+                    currentCommandExecutions.add(concurrentExecution);
+                    updateActivityTimestamp();
+                    return concurrentExecution;
             }
 
             LOGGER.error("Command execution: started {} after {} minutes of idle", commandDisplayName, getIdleMinutes());
             try {
                 setState(State.Busy);
                 onStartCommand.run();
-                currentCommandExecution = commandDisplayName;
-                result = null;
+                CommandExecution execution = new CommandExecution(commandDisplayName, cancellationToken, onCancelCommand);
+                currentCommandExecutions.add(execution);
                 updateActivityTimestamp();
-                updateCancellationToken();
                 condition.signalAll();
+                return execution;
             } catch (Throwable throwable) {
                 setState(State.Broken);
                 throw UncheckedException.throwAsUncheckedException(throwable);
@@ -388,14 +486,18 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
         }
     }
 
-    private void onFinishCommand() {
+    private void onFinishCommand(CommandExecution execution) {
         lock.lock();
         try {
-            LOGGER.debug("Command execution: completed {}", currentCommandExecution);
-            currentCommandExecution = null;
-            result = null;
-            stopReason = null;
+            LOGGER.debug("Command execution: completed {}", execution.displayName);
+            currentCommandExecutions.remove(execution);
+            execution.cancellationToken.removeCallback(onCancelCommand);
             updateActivityTimestamp();
+            if (!currentCommandExecutions.isEmpty()) {
+                // Other commands are still running, and the daemon stays busy until the last of them completes
+                return;
+            }
+            stopReason = null;
             switch (state) {
                 case Idle:
                 case Busy:
@@ -451,4 +553,17 @@ public class DaemonStateCoordinator implements Stoppable, DaemonStateControl {
     public State getState() {
         return state;
     }
+
+    private static class CommandExecution {
+        private final String displayName;
+        private final BuildCancellationToken cancellationToken;
+        private boolean cancelRequested;
+        private Object result;
+
+        CommandExecution(String displayName, BuildCancellationToken cancellationToken, Runnable onCancelCommand) {
+            this.displayName = displayName;
+            this.cancellationToken = cancellationToken;
+            cancellationToken.addCallback(onCancelCommand);
+        }
+    }
 }
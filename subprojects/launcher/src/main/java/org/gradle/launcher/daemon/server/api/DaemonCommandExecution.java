@@ -15,6 +15,8 @@
  */
 package org.gradle.launcher.daemon.server.api;
 
+import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.initialization.DefaultBuildCancellationToken;
 import org.gradle.launcher.daemon.context.DaemonContext;
 import org.gradle.launcher.daemon.protocol.BuildAndStop;
 import org.gradle.launcher.daemon.protocol.Command;
@@ -37,6 +39,7 @@ public class DaemonCommandExecution {
     final private DaemonContext daemonContext;
     final private DaemonStateControl daemonStateControl;
     final private List<DaemonCommandAction> actions;
+    final private BuildCancellationToken cancellationToken = new DefaultBuildCancellationToken();
 
     private Throwable exception;
     private Object result;
@@ -71,6 +74,13 @@ public class DaemonCommandExecution {
         return daemonStateControl;
     }
 
+    /**
+     * The token used to cancel this command. Canceling it does not affect other commands running in the daemon at the same time.
+     */
+    public BuildCancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
     /**
      * Sets what is to be considered the result of executing the command.
      * <p>
@@ -43,37 +43,33 @@ public interface DaemonStateControl {
     State getState();
 
     /**
-     * Requests that a running build be canceled.  Note that this method does NOT block until the operation has been cancelled.
+     * Requests that the running command with the given cancellation token be canceled. Other commands running at the same time are not affected.
+     * Note that this method does NOT block until the operation has been cancelled.
      */
-    void requestCancel();
+    void requestCancel(BuildCancellationToken cancellationToken);
 
     /**
-     * Communicates a request for build cancellation. Note that this method blocks until the operation has been cancelled.
+     * Communicates a request for cancellation of the command with the given cancellation token. Note that this method blocks until the operation has been cancelled.
      *
-     * <p>If any long running command is currently running, this method does block for certain time to give chance to perform cancellation, and if the command
-     * doesn't finnish in a timely manner a request for forceful stop will be issued ({@link #requestForcefulStop(String reason)}.</p>
+     * <p>If the command is currently running, this method does block for certain time to give chance to perform cancellation, and if the command
+     * doesn't finnish in a timely manner a request for forceful stop will be issued ({@link #requestForcefulStop(String reason)}. When other commands are
+     * running at the same time, the command is abandoned instead and the daemon stops once the other commands have completed.</p>
      */
-    void cancelBuild();
+    void cancelBuild(BuildCancellationToken cancellationToken);
 
     /**
-     * Returns a cancellation token used to communicate cancel requests to commands processed in this daemon.
-     *
-     * @return Created cancellation token associated with currently running command or an arbitrary instance if no command is running.
-     */
-    BuildCancellationToken getCancellationToken();
-
-    /**
-     * Runs the given long running command. No more than 1 command may be running at any given time.
+     * Runs the given long running command. Unless the daemon has been configured to run builds concurrently, no more than 1 command may be running at any given time.
      *
      * @param command The command to run
      * @param commandDisplayName The command's display name, used for logging and error messages.
+     * @param cancellationToken The token the command uses to receive cancel requests.
      *
      * @throws DaemonUnavailableException When this daemon is unable to run the command, either because it is currently executing another command
      * or is currently stopping.
      * @throws DaemonStoppedException When this daemon started executing the command but was unable to complete it because the daemon is about to stop.
      * The caller should note that the command may still be running at the time the method returns but should consider the command as abandoned.
      */
-    void runCommand(Runnable command, String commandDisplayName) throws DaemonUnavailableException, DaemonStoppedException;
+    void runCommand(Runnable command, String commandDisplayName, BuildCancellationToken cancellationToken) throws DaemonUnavailableException, DaemonStoppedException;
 
     enum State {Idle, Busy, Canceled, StopRequested, Stopped, Broken}
 }
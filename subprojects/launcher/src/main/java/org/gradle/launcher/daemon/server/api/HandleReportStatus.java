@@ -16,18 +16,25 @@
 
 package org.gradle.launcher.daemon.server.api;
 
+import org.gradle.cache.internal.InMemoryCacheUsageRegistry;
 import org.gradle.launcher.daemon.protocol.ReportStatus;
 import org.gradle.launcher.daemon.protocol.Status;
 import org.gradle.launcher.daemon.protocol.Success;
 import org.gradle.util.GradleVersion;
 
 public class HandleReportStatus implements DaemonCommandAction {
+    private final InMemoryCacheUsageRegistry cacheUsageRegistry;
+
+    public HandleReportStatus(InMemoryCacheUsageRegistry cacheUsageRegistry) {
+        this.cacheUsageRegistry = cacheUsageRegistry;
+    }
+
     @Override
     public void execute(DaemonCommandExecution execution) {
         if (execution.getCommand() instanceof ReportStatus) {
             String version = GradleVersion.current().getVersion();
             String status = execution.getDaemonStateControl().getState().toString().toUpperCase();
-            Status message = new Status(execution.getDaemonContext().getPid(), version, status);
+            Status message = new Status(execution.getDaemonContext().getPid(), version, status, cacheUsageRegistry.getUsage());
             execution.getConnection().completed(new Success(message));
         } else {
             execution.proceed();
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.launcher.daemon.server.exec;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import org.gradle.StartParameter;
+import org.gradle.api.GradleException;
+import org.gradle.api.Project;
+import org.gradle.internal.FileUtils;
+import org.gradle.launcher.daemon.protocol.Build;
+import org.gradle.launcher.daemon.server.api.DaemonUnavailableException;
+import org.gradle.launcher.daemon.server.health.DaemonMemoryStatus;
+import org.gradle.launcher.exec.BuildActionParameters;
+import org.gradle.util.GUtil;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.String.format;
+
+/**
+ * Decides whether a build may start while other builds are running in the same daemon.
+ *
+ * <p>Concurrent builds are disabled unless the {@value #MAX_CONCURRENT_BUILDS} system property is set to a value greater than 1.
+ * Builds that run together share the daemon's global and user home services, as well as the process wide system properties, environment variables
+ * and heap. A build is therefore only admitted alongside the running builds when:</p>
+ *
+ * <ul>
+ *     <li>fewer than the maximum number of builds are running,</li>
+ *     <li>its project directory does not overlap with the project directory of a running build,</li>
+ *     <li>it is not interactive, as the daemon has only one standard input to forward,</li>
+ *     <li>it requests the same system properties and environment variables as the running builds,</li>
+ *     <li>neither it nor any running build sets system properties from a {@code gradle.properties} file, as these are set for the whole process
+ *     while the build runs, and</li>
+ *     <li>the tenured space usage reported by {@link DaemonMemoryStatus} is below {@value #MAX_TENURED_USAGE} percent (60 by default).</li>
+ * </ul>
+ *
+ * <p>Builds may be started from different working directories and with different log levels. The daemon logs at debug level and sends each
+ * client only the output at its requested level. The process working directory stays that of the first build, but Gradle resolves the files
+ * of a build against its project directory.</p>
+ *
+ * <p>A build that is not admitted is refused as if the daemon were busy, so the client looks for another daemon.</p>
+ */
+public class ConcurrentBuildAdmission {
+    public static final String MAX_CONCURRENT_BUILDS = "org.gradle.internal.daemon.max-concurrent-builds";
+    public static final String MAX_TENURED_USAGE = "org.gradle.internal.daemon.concurrent-builds.max-tenured-usage";
+    private static final int DEFAULT_MAX_TENURED_USAGE = 60;
+    private static final Set<String> IGNORED_ENV_VARIABLES = ImmutableSet.of("PWD", "OLDPWD", "_");
+
+    private final DaemonMemoryStatus memoryStatus;
+    private final int maxConcurrentBuilds;
+    private final int maxTenuredUsage;
+    private final List<RunningBuild> runningBuilds = new ArrayList<RunningBuild>();
+
+    public ConcurrentBuildAdmission(DaemonMemoryStatus memoryStatus) {
+        this(memoryStatus, parseValue(MAX_CONCURRENT_BUILDS, 1), parseValue(MAX_TENURED_USAGE, DEFAULT_MAX_TENURED_USAGE));
+    }
+
+    ConcurrentBuildAdmission(DaemonMemoryStatus memoryStatus, int maxConcurrentBuilds, int maxTenuredUsage) {
+        this.memoryStatus = memoryStatus;
+        this.maxConcurrentBuilds = Math.max(1, maxConcurrentBuilds);
+        this.maxTenuredUsage = maxTenuredUsage;
+    }
+
+    public int getMaxConcurrentBuilds() {
+        return maxConcurrentBuilds;
+    }
+
+    public boolean isConcurrentBuildsEnabled() {
+        return maxConcurrentBuilds > 1;
+    }
+
+    /**
+     * Admits the given build, or throws a {@link DaemonUnavailableException} describing why the build cannot run alongside the running builds.
+     * Each admitted build must be released using {@link #release(Build)} once it has completed.
+     */
+    public synchronized void admit(Build command) throws DaemonUnavailableException {
+        RunningBuild build = new RunningBuild(command);
+        if (!runningBuilds.isEmpty()) {
+            if (runningBuilds.size() >= maxConcurrentBuilds) {
+                throw new DaemonUnavailableException(format("This daemon is already running %s builds.", runningBuilds.size()));
+            }
+            if (command.getParameters().isInteractive()) {
+                throw new DaemonUnavailableException("This daemon cannot run an interactive build alongside other builds.");
+            }
+            RunningBuild first = runningBuilds.get(0);
+            for (RunningBuild runningBuild : runningBuilds) {
+                if (runningBuild.overlaps(build)) {
+                    throw new DaemonUnavailableException(format("This daemon is currently running a build in %s.", runningBuild.projectDir));
+                }
+            }
+            if (!first.hasSameEnvironmentAs(build)) {
+                throw new DaemonUnavailableException("This daemon is currently running a build with different system properties or environment variables.");
+            }
+            if (build.setsSystemProperties || isAnySettingSystemProperties()) {
+                throw new DaemonUnavailableException("This daemon cannot run a build that sets system properties in gradle.properties alongside other builds.");
+            }
+            if (!memoryStatus.hasTenuredSpaceHeadroom(maxTenuredUsage)) {
+                throw new DaemonUnavailableException("This daemon does not have enough free heap to run another build.");
+            }
+        }
+        runningBuilds.add(build);
+    }
+
+    private boolean isAnySettingSystemProperties() {
+        for (RunningBuild runningBuild : runningBuilds) {
+            if (runningBuild.setsSystemProperties) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized void release(Build command) {
+        for (Iterator<RunningBuild> iterator = runningBuilds.iterator(); iterator.hasNext();) {
+            if (iterator.next().command == command) {
+                iterator.remove();
+                return;
+            }
+        }
+    }
+
+    private static int parseValue(String property, int defaultValue) {
+        String value = System.getProperty(property);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new GradleException(format(
+                "System property '%s' has incorrect value: '%s'. The value needs to be an integer.",
+                property, value));
+        }
+    }
+
+    private static class RunningBuild {
+        private final Build command;
+        private final File projectDir;
+        private final boolean setsSystemProperties;
+        private final Map<String, String> systemProperties;
+        private final Map<String, String> envVariables;
+
+        RunningBuild(Build command) {
+            BuildActionParameters parameters = command.getParameters();
+            StartParameter startParameter = command.getAction().getStartParameter();
+            this.command = command;
+            this.projectDir = FileUtils.canonicalize(startParameter.getCurrentDir());
+            this.setsSystemProperties = hasSystemPropertiesIn(startParameter.getGradleUserHomeDir(), projectDir);
+            this.systemProperties = EstablishBuildEnvironment.getClientSystemProperties(parameters.getSystemProperties());
+            this.envVariables = Maps.newHashMap(parameters.getEnvVariables());
+            envVariables.keySet().removeAll(IGNORED_ENV_VARIABLES);
+        }
+
+        boolean overlaps(RunningBuild other) {
+            return isAncestorOrSelf(projectDir, other.projectDir) || isAncestorOrSelf(other.projectDir, projectDir);
+        }
+
+        boolean hasSameEnvironmentAs(RunningBuild other) {
+            return systemProperties.equals(other.systemProperties) && envVariables.equals(other.envVariables);
+        }
+
+        /**
+         * Returns true when the user home or any directory that may contain the root project of the build has a {@code gradle.properties}
+         * file that sets system properties. The root project directory is not known before the build runs, so all ancestors are checked.
+         */
+        private static boolean hasSystemPropertiesIn(File gradleUserHomeDir, File projectDir) {
+            if (hasSystemPropertiesIn(new File(gradleUserHomeDir, Project.GRADLE_PROPERTIES))) {
+                return true;
+            }
+            for (File current = projectDir; current != null; current = current.getParentFile()) {
+                if (hasSystemPropertiesIn(new File(current, Project.GRADLE_PROPERTIES))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean hasSystemPropertiesIn(File propertiesFile) {
+            if (!propertiesFile.isFile()) {
+                return false;
+            }
+            for (String name : GUtil.loadProperties(propertiesFile).stringPropertyNames()) {
+                if (name.startsWith(Project.SYSTEM_PROP_PREFIX + '.')) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isAncestorOrSelf(File ancestor, File file) {
+            for (File current = file; current != null; current = current.getParentFile()) {
+                if (current.equals(ancestor)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
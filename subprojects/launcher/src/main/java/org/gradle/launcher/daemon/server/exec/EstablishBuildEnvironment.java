@@ -42,23 +42,39 @@ public class EstablishBuildEnvironment extends BuildCommandOnly {
         this.processEnvironment = processEnvironment;
     }
 
-    protected void doBuild(DaemonCommandExecution execution, Build build) {
-        Properties originalSystemProperties = new Properties();
-        originalSystemProperties.putAll(System.getProperties());
-        Map<String, String> originalEnv = new HashMap<String, String>(System.getenv());
-        File originalProcessDir = FileUtils.canonicalize(new File("."));
+    private final Object lock = new Object();
+    private int activeBuilds;
+    private Properties originalSystemProperties;
+    private Map<String, String> originalEnv;
+    private File originalProcessDir;
+    private Locale originalLocale;
 
-        for (Map.Entry<String, String> entry : build.getParameters().getSystemProperties().entrySet()) {
-            if (SystemProperties.getInstance().getStandardProperties().contains(entry.getKey())) {
-                continue;
-            }
-            if (SystemProperties.getInstance().getNonStandardImportantProperties().contains(entry.getKey())) {
-                continue;
+    protected void doBuild(DaemonCommandExecution execution, Build build) {
+        // Builds running concurrently in the daemon have been admitted with the same system properties and environment, so the environment
+        // is established by the first of them and restored once the last of them has completed. The process working directory stays that of the first build
+        synchronized (lock) {
+            if (activeBuilds++ == 0) {
+                establish(build);
             }
-            if (entry.getKey().startsWith("sun.") || entry.getKey().startsWith("awt.")
-                    || entry.getKey().contains(".awt.")) {
-                continue;
+        }
+        try {
+            execution.proceed();
+        } finally {
+            synchronized (lock) {
+                if (--activeBuilds == 0) {
+                    restore();
+                }
             }
+        }
+    }
+
+    private void establish(Build build) {
+        originalSystemProperties = new Properties();
+        originalSystemProperties.putAll(System.getProperties());
+        originalEnv = new HashMap<String, String>(System.getenv());
+        originalProcessDir = FileUtils.canonicalize(new File("."));
+
+        for (Map.Entry<String, String> entry : getClientSystemProperties(build.getParameters().getSystemProperties()).entrySet()) {
             System.setProperty(entry.getKey(), entry.getValue());
         }
 
@@ -76,15 +92,38 @@ public class EstablishBuildEnvironment extends BuildCommandOnly {
         processEnvironment.maybeSetProcessDir(build.getParameters().getCurrentDir());
 
         // Capture and restore this in case the build code calls Locale.setDefault()
-        Locale locale = Locale.getDefault();
+        originalLocale = Locale.getDefault();
+    }
 
-        try {
-            execution.proceed();
-        } finally {
-            System.setProperties(originalSystemProperties);
-            processEnvironment.maybeSetEnvironment(originalEnv);
-            processEnvironment.maybeSetProcessDir(originalProcessDir);
-            Locale.setDefault(locale);
+    private void restore() {
+        System.setProperties(originalSystemProperties);
+        processEnvironment.maybeSetEnvironment(originalEnv);
+        processEnvironment.maybeSetProcessDir(originalProcessDir);
+        Locale.setDefault(originalLocale);
+        originalSystemProperties = null;
+        originalEnv = null;
+        originalProcessDir = null;
+        originalLocale = null;
+    }
+
+    /**
+     * Returns the client system properties that are applied to the daemon, leaving out those that describe the client JVM and platform.
+     */
+    static Map<String, String> getClientSystemProperties(Map<String, String> systemProperties) {
+        Map<String, String> clientSystemProperties = new HashMap<String, String>();
+        for (Map.Entry<String, String> entry : systemProperties.entrySet()) {
+            if (SystemProperties.getInstance().getStandardProperties().contains(entry.getKey())) {
+                continue;
+            }
+            if (SystemProperties.getInstance().getNonStandardImportantProperties().contains(entry.getKey())) {
+                continue;
+            }
+            if (entry.getKey().startsWith("sun.") || entry.getKey().startsWith("awt.")
+                    || entry.getKey().contains(".awt.")) {
+                continue;
+            }
+            clientSystemProperties.put(entry.getKey(), entry.getValue());
         }
+        return clientSystemProperties;
     }
 }
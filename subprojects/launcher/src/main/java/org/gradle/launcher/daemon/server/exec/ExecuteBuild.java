@@ -54,7 +54,7 @@ public class ExecuteBuild extends BuildCommandOnly {
         LOGGER.debug("Executing build with daemon context: {}", execution.getDaemonContext());
         runningStats.buildStarted();
         try {
-            BuildCancellationToken cancellationToken = execution.getDaemonStateControl().getCancellationToken();
+            BuildCancellationToken cancellationToken = execution.getCancellationToken();
             BuildRequestContext buildRequestContext = new DefaultBuildRequestContext(build.getBuildRequestMetaData(), cancellationToken, new DaemonConnectionBackedEventConsumer(execution));
             if (!build.getParameters().isContinuous()) {
                 buildRequestContext.getCancellationToken().addCallback(new Runnable() {
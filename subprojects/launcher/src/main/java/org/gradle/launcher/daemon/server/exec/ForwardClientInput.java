@@ -32,11 +32,37 @@ import java.util.concurrent.Callable;
 
 /**
  * Listens for ForwardInput commands during the execution and sends that to a piped input stream that we install.
+ *
+ * <p>The standard input of the process is replaced by only one build at a time. A build that runs alongside the build that has replaced it
+ * is not interactive, and does not receive any input.</p>
  */
 public class ForwardClientInput implements DaemonCommandAction {
     private static final Logger LOGGER = Logging.getLogger(ForwardClientInput.class);
 
+    private final Object lock = new Object();
+    private boolean stdinReplaced;
+
     public void execute(final DaemonCommandExecution execution) {
+        boolean replaceStdin;
+        synchronized (lock) {
+            replaceStdin = !stdinReplaced;
+            stdinReplaced = true;
+        }
+        if (!replaceStdin) {
+            LOGGER.debug("Not forwarding client input, as the daemon's stdin is used by another build.");
+            execution.proceed();
+            return;
+        }
+        try {
+            forwardInput(execution);
+        } finally {
+            synchronized (lock) {
+                stdinReplaced = false;
+            }
+        }
+    }
+
+    private void forwardInput(final DaemonCommandExecution execution) {
         final PipedOutputStream inputSource = new PipedOutputStream();
         final PipedInputStream replacementStdin;
         try {
@@ -30,7 +30,7 @@ public class HandleCancel implements DaemonCommandAction {
         execution.getConnection().onCancel(new Runnable() {
             public void run() {
                 LOGGER.info("HandleCancel processing {}", execution.getCommand());
-                execution.getDaemonStateControl().cancelBuild();
+                execution.getDaemonStateControl().cancelBuild(execution.getCancellationToken());
             }
         });
         try {
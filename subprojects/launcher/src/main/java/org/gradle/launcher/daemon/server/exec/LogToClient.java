@@ -19,18 +19,25 @@ import org.gradle.api.logging.LogLevel;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.internal.logging.LoggingOutputInternal;
+import org.gradle.internal.logging.events.OperationIdentifier;
 import org.gradle.internal.logging.events.OutputEvent;
 import org.gradle.internal.logging.events.OutputEventListener;
 import org.gradle.internal.logging.events.ProgressCompleteEvent;
 import org.gradle.internal.logging.events.ProgressEvent;
 import org.gradle.internal.logging.events.ProgressStartEvent;
+import org.gradle.internal.logging.events.RenderableOutputEvent;
 import org.gradle.launcher.daemon.diagnostics.DaemonDiagnostics;
 import org.gradle.launcher.daemon.logging.DaemonMessages;
 import org.gradle.launcher.daemon.protocol.Build;
 import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
 import org.gradle.launcher.daemon.server.api.DaemonConnection;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 
@@ -41,12 +48,15 @@ public class LogToClient extends BuildCommandOnly {
 
     private final LoggingOutputInternal loggingOutput;
     private final DaemonDiagnostics diagnostics;
+    private final boolean concurrentBuilds;
 
-    private volatile AsynchronousLogDispatcher dispatcher;
-
-    public LogToClient(LoggingOutputInternal loggingOutput, DaemonDiagnostics diagnostics) {
+    /**
+     * @param concurrentBuilds whether other builds may run in the daemon at the same time, in which case only the output of the client's own build is sent to it.
+     */
+    public LogToClient(LoggingOutputInternal loggingOutput, DaemonDiagnostics diagnostics, boolean concurrentBuilds) {
         this.loggingOutput = loggingOutput;
         this.diagnostics = diagnostics;
+        this.concurrentBuilds = concurrentBuilds;
     }
 
     protected void doBuild(final DaemonCommandExecution execution, Build build) {
@@ -55,7 +65,8 @@ public class LogToClient extends BuildCommandOnly {
             return;
         }
 
-        dispatcher = new AsynchronousLogDispatcher(execution.getConnection(), build.getParameters().getLogLevel());
+        BuildOutputFilter filter = concurrentBuilds ? new BuildOutputFilter(Thread.currentThread()) : null;
+        AsynchronousLogDispatcher dispatcher = new AsynchronousLogDispatcher(execution.getConnection(), build.getParameters().getLogLevel(), filter);
         LOGGER.info("{}{}). The daemon log file: {}", DaemonMessages.STARTED_RELAYING_LOGS, diagnostics.getPid(), diagnostics.getDaemonLog());
         dispatcher.start();
         try {
@@ -66,6 +77,7 @@ public class LogToClient extends BuildCommandOnly {
     }
 
     private class AsynchronousLogDispatcher extends Thread {
+        private static final int MAX_BATCH_SIZE = 512;
         private final CountDownLatch completionLock = new CountDownLatch(1);
         private final Queue<OutputEvent> eventQueue = new ConcurrentLinkedQueue<OutputEvent>();
         private final DaemonConnection connection;
@@ -73,13 +85,16 @@ public class LogToClient extends BuildCommandOnly {
         private volatile boolean shouldStop;
         private boolean unableToSend;
 
-        private AsynchronousLogDispatcher(DaemonConnection conn, final LogLevel buildLogLevel) {
+        private AsynchronousLogDispatcher(DaemonConnection conn, final LogLevel buildLogLevel, final BuildOutputFilter filter) {
             super("Asynchronous log dispatcher for " + conn);
             this.connection = conn;
             this.listener = new OutputEventListener() {
                 public void onOutput(OutputEvent event) {
-                    if (dispatcher != null && (isMatchingBuildLogLevel(event) || isProgressEvent(event))) {
-                        dispatcher.submit(event);
+                    if (filter != null && !filter.isBuildOutput(event)) {
+                        return;
+                    }
+                    if (isMatchingBuildLogLevel(event) || isProgressEvent(event)) {
+                        submit(event);
                     }
                 }
 
@@ -101,13 +116,13 @@ public class LogToClient extends BuildCommandOnly {
 
         @Override
         public void run() {
+            List<OutputEvent> batch = new ArrayList<OutputEvent>(MAX_BATCH_SIZE);
             try {
                 while (!shouldStop) {
-                    OutputEvent event = eventQueue.poll();
-                    if (event == null) {
+                    if (!takeBatch(batch)) {
                         Thread.sleep(10);
                     } else {
-                        dispatchAsync(event);
+                        dispatchAsync(batch);
                     }
                 }
             } catch (InterruptedException ex) {
@@ -116,23 +131,31 @@ public class LogToClient extends BuildCommandOnly {
                 // automatically closes the connection)
                 shouldStop = true;
             }
-            sendRemainingEvents();
+            sendRemainingEvents(batch);
             completionLock.countDown();
         }
 
-        private void sendRemainingEvents() {
+        private boolean takeBatch(List<OutputEvent> batch) {
+            batch.clear();
             OutputEvent event;
-            while ((event = eventQueue.poll()) != null) {
-                dispatchAsync(event);
+            while (batch.size() < MAX_BATCH_SIZE && (event = eventQueue.poll()) != null) {
+                batch.add(event);
+            }
+            return !batch.isEmpty();
+        }
+
+        private void sendRemainingEvents(List<OutputEvent> batch) {
+            while (takeBatch(batch)) {
+                dispatchAsync(batch);
             }
         }
 
-        private void dispatchAsync(OutputEvent event) {
+        private void dispatchAsync(List<OutputEvent> batch) {
             if (unableToSend) {
                 return;
             }
             try {
-                connection.logEvent(event);
+                connection.logEvents(batch);
             } catch (Exception ex) {
                 shouldStop = true;
                 unableToSend = true;
@@ -151,4 +174,52 @@ public class LogToClient extends BuildCommandOnly {
             }
         }
     }
+
+    /**
+     * Selects the output of a single build when several builds run in the daemon at the same time. Output belongs to the build when it
+     * is generated by one of the build's operations, which are tracked as they start, or by the thread that runs the build.
+     */
+    private static class BuildOutputFilter {
+        private final Thread buildThread;
+        private final Set<Object> buildOperationIds = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+        private final Set<OperationIdentifier> progressOperationIds = Collections.newSetFromMap(new ConcurrentHashMap<OperationIdentifier, Boolean>());
+
+        BuildOutputFilter(Thread buildThread) {
+            this.buildThread = buildThread;
+        }
+
+        boolean isBuildOutput(OutputEvent event) {
+            if (event instanceof ProgressStartEvent) {
+                ProgressStartEvent startEvent = (ProgressStartEvent) event;
+                if (!isStartedByBuild(startEvent)) {
+                    return false;
+                }
+                if (startEvent.getBuildOperationId() != null) {
+                    buildOperationIds.add(startEvent.getBuildOperationId());
+                }
+                progressOperationIds.add(startEvent.getProgressOperationId());
+                return true;
+            }
+            if (event instanceof ProgressEvent) {
+                return progressOperationIds.contains(((ProgressEvent) event).getProgressOperationId());
+            }
+            if (event instanceof ProgressCompleteEvent) {
+                return progressOperationIds.remove(((ProgressCompleteEvent) event).getProgressOperationId());
+            }
+            if (event instanceof RenderableOutputEvent && ((RenderableOutputEvent) event).getBuildOperationId() != null) {
+                return buildOperationIds.contains(((RenderableOutputEvent) event).getBuildOperationId());
+            }
+            return Thread.currentThread() == buildThread;
+        }
+
+        private boolean isStartedByBuild(ProgressStartEvent startEvent) {
+            if (startEvent.getParentBuildOperationId() != null) {
+                return buildOperationIds.contains(startEvent.getParentBuildOperationId());
+            }
+            if (startEvent.getParentProgressOperationId() != null) {
+                return progressOperationIds.contains(startEvent.getParentProgressOperationId());
+            }
+            return Thread.currentThread() == buildThread;
+        }
+    }
 }
@@ -29,20 +29,28 @@ import org.gradle.launcher.daemon.server.api.DaemonUnavailableException;
 
 /**
  * Updates the daemon idle/busy status, sending a DaemonUnavailable result back to the client if the daemon is busy.
+ * When the daemon runs builds concurrently, the build is also sent a DaemonUnavailable result when it cannot be admitted alongside the running builds.
  */
 public class StartBuildOrRespondWithBusy extends BuildCommandOnly {
     
     private static final Logger LOGGER = Logging.getLogger(StartBuildOrRespondWithBusy.class);
     private final DaemonDiagnostics diagnostics;
+    private final ConcurrentBuildAdmission buildAdmission;
 
-    public StartBuildOrRespondWithBusy(DaemonDiagnostics diagnostics) {
+    public StartBuildOrRespondWithBusy(DaemonDiagnostics diagnostics, ConcurrentBuildAdmission buildAdmission) {
         this.diagnostics = diagnostics;
+        this.buildAdmission = buildAdmission;
     }
 
     protected void doBuild(final DaemonCommandExecution execution, final Build build) {
         DaemonStateControl stateCoordinator = execution.getDaemonStateControl();
 
+        boolean admitted = false;
         try {
+            if (buildAdmission.isConcurrentBuildsEnabled()) {
+                buildAdmission.admit(build);
+                admitted = true;
+            }
             Runnable command = new Runnable() {
                 public void run() {
                     LOGGER.info("Daemon is about to start building {}. Dispatching build started information...", build);
@@ -51,12 +59,16 @@ public class StartBuildOrRespondWithBusy extends BuildCommandOnly {
                 }
             };
 
-            stateCoordinator.runCommand(command, execution.toString());
+            stateCoordinator.runCommand(command, execution.toString(), execution.getCancellationToken());
         } catch (DaemonUnavailableException e) {
             LOGGER.info("Daemon will not handle the command {} because is unavailable: {}", build, e.getMessage());
             execution.getConnection().daemonUnavailable(new DaemonUnavailable(e.getMessage()));
         } catch (DaemonStoppedException e) {
             execution.getConnection().completed(new Failure(e));
+        } finally {
+            if (admitted) {
+                buildAdmission.release(build);
+            }
         }
     }
 }
\ No newline at end of file
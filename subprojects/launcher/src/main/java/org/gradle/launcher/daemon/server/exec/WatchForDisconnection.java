@@ -29,7 +29,7 @@ public class WatchForDisconnection implements DaemonCommandAction {
         execution.getConnection().onDisconnect(new Runnable() {
             public void run() {
                 LOGGER.warn("thread {}: client disconnection detected, canceling the build", Thread.currentThread().getId());
-                execution.getDaemonStateControl().requestCancel();
+                execution.getDaemonStateControl().requestCancel(execution.getCancellationToken());
             }
         });
 
@@ -97,6 +97,20 @@ public class DaemonMemoryStatus {
         });
     }
 
+    /**
+     * Returns true when the tenured space usage is below the given percentage, so that the daemon has heap left to take on more work.
+     * Falls back to the overall heap usage when the garbage collector is not known.
+     */
+    public boolean hasTenuredSpaceHeadroom(int maxUsagePercent) {
+        if (strategy == GarbageCollectorMonitoringStrategy.UNKNOWN) {
+            Runtime runtime = Runtime.getRuntime();
+            long used = runtime.totalMemory() - runtime.freeMemory();
+            return used * 100 < runtime.maxMemory() * maxUsagePercent;
+        }
+        GarbageCollectionStats gcStats = stats.getGcMonitor().getTenuredStats();
+        return gcStats.getUsage() < maxUsagePercent;
+    }
+
     private boolean exceedsThreshold(String pool, GarbageCollectionStats gcStats, Spec<GarbageCollectionStats> spec) {
         if (isEnabled()
             && strategy != GarbageCollectorMonitoringStrategy.UNKNOWN
@@ -16,16 +16,47 @@
 
 package org.gradle.launcher.daemon.server.health;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.time.CountdownTimer;
+import org.gradle.internal.time.Timers;
+import org.gradle.internal.util.NumberUtil;
 import org.gradle.launcher.daemon.server.expiry.AnyDaemonExpirationStrategy;
 import org.gradle.launcher.daemon.server.expiry.DaemonExpirationResult;
 import org.gradle.launcher.daemon.server.expiry.DaemonExpirationStrategy;
+import org.gradle.process.internal.health.memory.MemoryManager;
 
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Expires the daemon when it is running out of memory or the garbage collector is thrashing.
+ *
+ * <p>A daemon whose garbage collector is thrashing is expired straight away. Otherwise, before expiring a daemon that is running out of memory,
+ * the heap memory holders of the daemon, such as its in-memory caches, are asked to release memory. The daemon is then given a grace period to recover,
+ * and is only expired when it is still running out of memory after the grace period, or when there is nothing left to release.</p>
+ */
 public class HealthExpirationStrategy implements DaemonExpirationStrategy {
+    private static final Logger LOGGER = Logging.getLogger(HealthExpirationStrategy.class);
+    private static final long RELEASE_GRACE_PERIOD_MILLIS = TimeUnit.SECONDS.toMillis(30);
 
+    private final DaemonMemoryStatus memoryStatus;
+    private final MemoryManager memoryManager;
+    private final long releaseGracePeriodMillis;
     private final DaemonExpirationStrategy strategy;
+    private CountdownTimer releaseGracePeriod;
+    private boolean releasedUnderCurrentPressure;
+
+    public HealthExpirationStrategy(DaemonMemoryStatus memoryStatus, MemoryManager memoryManager) {
+        this(memoryStatus, memoryManager, RELEASE_GRACE_PERIOD_MILLIS);
+    }
 
-    public HealthExpirationStrategy(DaemonMemoryStatus memoryStatus) {
+    @VisibleForTesting
+    HealthExpirationStrategy(DaemonMemoryStatus memoryStatus, MemoryManager memoryManager, long releaseGracePeriodMillis) {
+        this.memoryStatus = memoryStatus;
+        this.memoryManager = memoryManager;
+        this.releaseGracePeriodMillis = releaseGracePeriodMillis;
         this.strategy = new AnyDaemonExpirationStrategy(ImmutableList.of(
             new GcThrashingDaemonExpirationStrategy(memoryStatus),
             new LowTenuredSpaceDaemonExpirationStrategy(memoryStatus),
@@ -34,8 +65,38 @@ public class HealthExpirationStrategy implements DaemonExpirationStrategy {
     }
 
     @Override
-    public DaemonExpirationResult checkExpiration() {
+    public synchronized DaemonExpirationResult checkExpiration() {
+        if (memoryStatus.isThrashing()) {
+            // The daemon is making almost no progress, so there is no point waiting for it to recover
+            return strategy.checkExpiration();
+        }
+        if (!isRunningOutOfMemory()) {
+            releasedUnderCurrentPressure = false;
+            releaseGracePeriod = null;
+            return DaemonExpirationResult.NOT_TRIGGERED;
+        }
+        if (releaseGracePeriod != null && !releaseGracePeriod.hasExpired()) {
+            // Give the daemon a chance to recover from the previous release
+            return DaemonExpirationResult.NOT_TRIGGERED;
+        }
+        if (!releasedUnderCurrentPressure && releaseHeapMemory()) {
+            releasedUnderCurrentPressure = true;
+            releaseGracePeriod = Timers.startTimer(releaseGracePeriodMillis);
+            return DaemonExpirationResult.NOT_TRIGGERED;
+        }
         return strategy.checkExpiration();
     }
 
+    private boolean isRunningOutOfMemory() {
+        return memoryStatus.isTenuredSpaceExhausted() || memoryStatus.isPermGenSpaceExhausted();
+    }
+
+    private boolean releaseHeapMemory() {
+        long released = memoryManager.requestFreeHeapMemory(Runtime.getRuntime().maxMemory() / 4);
+        if (released > 0) {
+            LOGGER.info("Daemon is running low on memory. Released approximately {} of cached state instead of stopping the daemon.", NumberUtil.formatBytes(released));
+            return true;
+        }
+        return false;
+    }
 }
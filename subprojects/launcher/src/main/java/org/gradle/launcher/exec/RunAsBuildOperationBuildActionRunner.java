@@ -16,6 +16,11 @@
 
 package org.gradle.launcher.exec;
 
+import org.gradle.BuildAdapter;
+import org.gradle.api.invocation.Gradle;
+import org.gradle.cache.internal.InMemoryCacheUsage;
+import org.gradle.cache.internal.InMemoryCacheUsageRegistry;
+import org.gradle.cache.internal.ReportInMemoryCacheUsageBuildOperationType;
 import org.gradle.internal.invocation.BuildAction;
 import org.gradle.internal.invocation.BuildActionRunner;
 import org.gradle.internal.invocation.BuildController;
@@ -24,10 +29,18 @@ import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.progress.BuildOperationDescriptor;
 
+import java.util.List;
+
 /**
- * An {@link BuildActionRunner} that wraps all work in a build operation.
+ * An {@link BuildActionRunner} that wraps all work in a build operation, and optionally reports the heap usage of the in-memory caches after configuration
+ * and once the work is complete.
  */
 public class RunAsBuildOperationBuildActionRunner implements BuildActionRunner {
+    /**
+     * When set to true, the heap usage of the in-memory caches is reported once all projects are configured and at the end of each build.
+     */
+    public static final String REPORT_CACHE_USAGE_PROPERTY = "org.gradle.cache.reportusage";
+
     private final BuildActionRunner delegate;
 
     public RunAsBuildOperationBuildActionRunner(BuildActionRunner delegate) {
@@ -36,11 +49,24 @@ public class RunAsBuildOperationBuildActionRunner implements BuildActionRunner {
 
     @Override
     public void run(final BuildAction action, final BuildController buildController) {
-        BuildOperationExecutor buildOperationExecutor = buildController.getGradle().getServices().get(BuildOperationExecutor.class);
+        final BuildOperationExecutor buildOperationExecutor = buildController.getGradle().getServices().get(BuildOperationExecutor.class);
+        final InMemoryCacheUsageRegistry cacheUsageRegistry = buildController.getGradle().getServices().get(InMemoryCacheUsageRegistry.class);
         buildOperationExecutor.run(new RunnableBuildOperation() {
             @Override
             public void run(BuildOperationContext context) {
+                boolean reportCacheUsage = Boolean.getBoolean(REPORT_CACHE_USAGE_PROPERTY);
+                if (reportCacheUsage) {
+                    buildController.getGradle().addBuildListener(new BuildAdapter() {
+                        @Override
+                        public void projectsEvaluated(Gradle gradle) {
+                            buildOperationExecutor.run(new ReportInMemoryCacheUsage(cacheUsageRegistry, "configuration"));
+                        }
+                    });
+                }
                 delegate.run(action, buildController);
+                if (reportCacheUsage) {
+                    buildOperationExecutor.run(new ReportInMemoryCacheUsage(cacheUsageRegistry, "build"));
+                }
             }
 
             @Override
@@ -49,4 +75,35 @@ public class RunAsBuildOperationBuildActionRunner implements BuildActionRunner {
             }
         });
     }
+
+    private static class ReportInMemoryCacheUsage implements RunnableBuildOperation {
+        private final InMemoryCacheUsageRegistry cacheUsageRegistry;
+        private final String phase;
+
+        ReportInMemoryCacheUsage(InMemoryCacheUsageRegistry cacheUsageRegistry, String phase) {
+            this.cacheUsageRegistry = cacheUsageRegistry;
+            this.phase = phase;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            final List<InMemoryCacheUsage> usage = cacheUsageRegistry.getUsage();
+            context.setResult(new ReportInMemoryCacheUsageBuildOperationType.Result() {
+                @Override
+                public List<InMemoryCacheUsage> getCaches() {
+                    return usage;
+                }
+            });
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Report in-memory cache usage after " + phase).details(new ReportInMemoryCacheUsageBuildOperationType.Details() {
+                @Override
+                public String getPhase() {
+                    return phase;
+                }
+            });
+        }
+    }
 }
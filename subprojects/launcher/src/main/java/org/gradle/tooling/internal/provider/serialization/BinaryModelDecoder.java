@@ -0,0 +1,310 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.tooling.internal.provider.serialization;
+
+import org.gradle.internal.serialize.Decoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.gradle.tooling.internal.provider.serialization.BinaryModelEncoder.*;
+
+/**
+ * Reads a graph of tooling models written by {@link BinaryModelEncoder}.
+ */
+class BinaryModelDecoder {
+    private final Decoder decoder;
+    private final Map<Short, ClassLoaderDetails> classLoaderDetails;
+    private final DeserializeMap map;
+    private final List<Class<?>> classes = new ArrayList<Class<?>>();
+    private final Map<Class<?>, BinaryModelSchema> schemas = new HashMap<Class<?>, BinaryModelSchema>();
+    private final List<String> strings = new ArrayList<String>();
+    private final List<File> files = new ArrayList<File>();
+    private final List<Object> objects = new ArrayList<Object>();
+
+    BinaryModelDecoder(Decoder decoder, Map<Short, ClassLoaderDetails> classLoaderDetails, DeserializeMap map) {
+        this.decoder = decoder;
+        this.classLoaderDetails = classLoaderDetails;
+        this.map = map;
+    }
+
+    Object read() throws IOException, ClassNotFoundException {
+        byte tag = decoder.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case REFERENCE:
+                return objects.get(decoder.readSmallInt());
+            case STRING:
+                return readString();
+            case FILE:
+                return readFile();
+            case BOOLEAN:
+                return decoder.readBoolean();
+            case BYTE:
+                return decoder.readByte();
+            case SHORT:
+                return (short) decoder.readInt();
+            case CHARACTER:
+                return (char) decoder.readSmallInt();
+            case INTEGER:
+                return decoder.readInt();
+            case LONG:
+                return decoder.readLong();
+            case FLOAT:
+                return Float.intBitsToFloat(decoder.readInt());
+            case DOUBLE:
+                return Double.longBitsToDouble(decoder.readLong());
+            case ENUM:
+                return readEnum();
+            case MODEL:
+                return readModel();
+            case COLLECTION:
+                return readCollection();
+            case MAP:
+                return readMap();
+            default:
+                throw new IllegalStateException(String.format("Unexpected tag %s in binary payload.", tag));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object readEnum() throws IOException, ClassNotFoundException {
+        Class<? extends Enum> type = readClass(false).asSubclass(Enum.class);
+        return Enum.valueOf(type, readString());
+    }
+
+    private Object readModel() throws IOException, ClassNotFoundException {
+        BinaryModelSchema schema = schemas.get(readClass(true));
+        Object value = schema.newInstance();
+        objects.add(value);
+        try {
+            for (Field field : schema.getFields()) {
+                Class<?> fieldType = field.getType();
+                if (!fieldType.isPrimitive()) {
+                    field.set(value, read());
+                } else if (fieldType == boolean.class) {
+                    field.setBoolean(value, decoder.readBoolean());
+                } else if (fieldType == byte.class) {
+                    field.setByte(value, decoder.readByte());
+                } else if (fieldType == short.class) {
+                    field.setShort(value, (short) decoder.readInt());
+                } else if (fieldType == char.class) {
+                    field.setChar(value, (char) decoder.readSmallInt());
+                } else if (fieldType == int.class) {
+                    field.setInt(value, decoder.readInt());
+                } else if (fieldType == long.class) {
+                    field.setLong(value, decoder.readLong());
+                } else if (fieldType == float.class) {
+                    field.setFloat(value, Float.intBitsToFloat(decoder.readInt()));
+                } else {
+                    field.setDouble(value, Double.longBitsToDouble(decoder.readLong()));
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(String.format("Could not read the state of %s.", schema.getType().getName()), e);
+        }
+        return value;
+    }
+
+    private Object readCollection() throws IOException, ClassNotFoundException {
+        byte kind = decoder.readByte();
+        int size = decoder.readSmallInt();
+        Collection<Object> collection;
+        switch (kind) {
+            case ARRAY_LIST:
+                collection = new ArrayList<Object>(size);
+                break;
+            case LINKED_LIST:
+                collection = new LinkedList<Object>();
+                break;
+            case HASH_SET:
+                collection = new HashSet<Object>();
+                break;
+            case LINKED_HASH_SET:
+                collection = new LinkedHashSet<Object>();
+                break;
+            case TREE_SET:
+                collection = new TreeSet<Object>();
+                break;
+            default:
+                // An immutable collection, which is created once its elements have been read
+                return readImmutableCollection(kind, size);
+        }
+        objects.add(collection);
+        for (int i = 0; i < size; i++) {
+            collection.add(read());
+        }
+        return collection;
+    }
+
+    private Object readImmutableCollection(byte kind, int size) throws IOException, ClassNotFoundException {
+        int id = objects.size();
+        objects.add(null);
+        List<Object> elements = new ArrayList<Object>(size);
+        for (int i = 0; i < size; i++) {
+            elements.add(read());
+        }
+        Collection<Object> collection;
+        switch (kind) {
+            case ARRAYS_AS_LIST:
+                collection = Arrays.asList(elements.toArray());
+                break;
+            case EMPTY_LIST:
+                collection = Collections.emptyList();
+                break;
+            case EMPTY_SET:
+                collection = Collections.emptySet();
+                break;
+            case SINGLETON_LIST:
+                collection = Collections.singletonList(elements.get(0));
+                break;
+            case SINGLETON_SET:
+                collection = Collections.singleton(elements.get(0));
+                break;
+            case UNMODIFIABLE_LIST:
+                collection = Collections.unmodifiableList(elements);
+                break;
+            case UNMODIFIABLE_SET:
+                collection = Collections.unmodifiableSet(new LinkedHashSet<Object>(elements));
+                break;
+            case UNMODIFIABLE_COLLECTION:
+                collection = Collections.unmodifiableCollection(elements);
+                break;
+            default:
+                throw new IllegalStateException(String.format("Unexpected collection kind %s in binary payload.", kind));
+        }
+        objects.set(id, collection);
+        return collection;
+    }
+
+    private Object readMap() throws IOException, ClassNotFoundException {
+        byte kind = decoder.readByte();
+        int size = decoder.readSmallInt();
+        Map<Object, Object> result;
+        switch (kind) {
+            case HASH_MAP:
+                result = new HashMap<Object, Object>();
+                break;
+            case LINKED_HASH_MAP:
+                result = new LinkedHashMap<Object, Object>();
+                break;
+            case TREE_MAP:
+                result = new TreeMap<Object, Object>();
+                break;
+            default:
+                // An immutable map, which is created once its entries have been read
+                return readImmutableMap(kind, size);
+        }
+        objects.add(result);
+        for (int i = 0; i < size; i++) {
+            Object key = read();
+            result.put(key, read());
+        }
+        return result;
+    }
+
+    private Object readImmutableMap(byte kind, int size) throws IOException, ClassNotFoundException {
+        int id = objects.size();
+        objects.add(null);
+        Map<Object, Object> entries = new LinkedHashMap<Object, Object>();
+        for (int i = 0; i < size; i++) {
+            Object key = read();
+            entries.put(key, read());
+        }
+        Map<Object, Object> result;
+        switch (kind) {
+            case EMPTY_MAP:
+                result = Collections.emptyMap();
+                break;
+            case SINGLETON_MAP:
+                Map.Entry<Object, Object> entry = entries.entrySet().iterator().next();
+                result = Collections.singletonMap(entry.getKey(), entry.getValue());
+                break;
+            case UNMODIFIABLE_MAP:
+                result = Collections.unmodifiableMap(entries);
+                break;
+            default:
+                throw new IllegalStateException(String.format("Unexpected map kind %s in binary payload.", kind));
+        }
+        objects.set(id, result);
+        return result;
+    }
+
+    private Class<?> readClass(boolean model) throws IOException, ClassNotFoundException {
+        int id = decoder.readSmallInt();
+        if (id > 0) {
+            return classes.get(id - 1);
+        }
+        short classLoaderId = (short) decoder.readInt();
+        String className = readString();
+        Class<?> type = map.resolveClass(classLoaderDetails.get(classLoaderId), className);
+        if (model) {
+            String[] fieldNames = new String[decoder.readSmallInt()];
+            for (int i = 0; i < fieldNames.length; i++) {
+                fieldNames[i] = readString();
+            }
+            BinaryModelSchema schema = BinaryModelSchema.of(type);
+            if (schema == null) {
+                throw new IllegalStateException(String.format("Cannot read an instance of %s from binary payload.", className));
+            }
+            schema.verifyFieldNames(fieldNames);
+            schemas.put(type, schema);
+        }
+        classes.add(type);
+        return type;
+    }
+
+    private String readString() throws IOException {
+        int id = decoder.readSmallInt();
+        if (id > 0) {
+            return strings.get(id - 1);
+        }
+        String value = decoder.readString();
+        strings.add(value);
+        return value;
+    }
+
+    private File readFile() throws IOException {
+        int id = decoder.readSmallInt();
+        if (id > 0) {
+            return files.get(id - 1);
+        }
+        File file;
+        if (decoder.readBoolean()) {
+            File parent = readFile();
+            file = new File(parent, readString());
+        } else {
+            file = new File(readString());
+        }
+        files.add(file);
+        return file;
+    }
+}
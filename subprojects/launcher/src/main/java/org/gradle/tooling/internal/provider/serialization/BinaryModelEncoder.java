@@ -0,0 +1,356 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.tooling.internal.provider.serialization;
+
+import org.gradle.internal.serialize.Encoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Writes a graph of tooling models using a compact binary encoding, as an alternative to Java serialization.
+ *
+ * <p>The state of each model class is described once per payload, after which instances are written as a sequence of field values.
+ * Strings and files are written once and then referred to by index, and files are written relative to their parent file, so that the many paths
+ * that share the same directories are cheap to write. Other objects that appear more than once in the graph are also written once.</p>
+ *
+ * <p>Only models, strings, files, boxed primitives, enums and the common JDK collections can be written. An immutable collection or map is created
+ * only after its elements have been read, so it cannot be referred to from within its own elements. When the graph contains any other object, or such
+ * a reference, the encoder fails with {@link UnsupportedGraphException} and the whole payload should be written using Java serialization instead,
+ * so that object identity is preserved across the graph.</p>
+ */
+class BinaryModelEncoder {
+    static final byte NULL = 0;
+    static final byte REFERENCE = 1;
+    static final byte STRING = 2;
+    static final byte FILE = 3;
+    static final byte BOOLEAN = 4;
+    static final byte BYTE = 5;
+    static final byte SHORT = 6;
+    static final byte CHARACTER = 7;
+    static final byte INTEGER = 8;
+    static final byte LONG = 9;
+    static final byte FLOAT = 10;
+    static final byte DOUBLE = 11;
+    static final byte ENUM = 12;
+    static final byte MODEL = 13;
+    static final byte COLLECTION = 14;
+    static final byte MAP = 15;
+
+    static final byte ARRAY_LIST = 0;
+    static final byte LINKED_LIST = 1;
+    static final byte HASH_SET = 2;
+    static final byte LINKED_HASH_SET = 3;
+    static final byte TREE_SET = 4;
+    static final byte ARRAYS_AS_LIST = 5;
+    static final byte EMPTY_LIST = 6;
+    static final byte EMPTY_SET = 7;
+    static final byte SINGLETON_LIST = 8;
+    static final byte SINGLETON_SET = 9;
+    static final byte UNMODIFIABLE_LIST = 10;
+    static final byte UNMODIFIABLE_SET = 11;
+    static final byte UNMODIFIABLE_COLLECTION = 12;
+
+    static final byte HASH_MAP = 0;
+    static final byte LINKED_HASH_MAP = 1;
+    static final byte TREE_MAP = 2;
+    static final byte EMPTY_MAP = 3;
+    static final byte SINGLETON_MAP = 4;
+    static final byte UNMODIFIABLE_MAP = 5;
+
+    private static final Map<Class<?>, Byte> COLLECTION_KINDS = new HashMap<Class<?>, Byte>();
+    private static final Map<Class<?>, Byte> MAP_KINDS = new HashMap<Class<?>, Byte>();
+
+    static {
+        COLLECTION_KINDS.put(ArrayList.class, ARRAY_LIST);
+        COLLECTION_KINDS.put(LinkedList.class, LINKED_LIST);
+        COLLECTION_KINDS.put(HashSet.class, HASH_SET);
+        COLLECTION_KINDS.put(LinkedHashSet.class, LINKED_HASH_SET);
+        COLLECTION_KINDS.put(TreeSet.class, TREE_SET);
+        COLLECTION_KINDS.put(Arrays.asList().getClass(), ARRAYS_AS_LIST);
+        COLLECTION_KINDS.put(Collections.emptyList().getClass(), EMPTY_LIST);
+        COLLECTION_KINDS.put(Collections.emptySet().getClass(), EMPTY_SET);
+        COLLECTION_KINDS.put(Collections.singletonList(null).getClass(), SINGLETON_LIST);
+        COLLECTION_KINDS.put(Collections.singleton(null).getClass(), SINGLETON_SET);
+        COLLECTION_KINDS.put(Collections.unmodifiableList(new ArrayList<Object>()).getClass(), UNMODIFIABLE_LIST);
+        COLLECTION_KINDS.put(Collections.unmodifiableList(new LinkedList<Object>()).getClass(), UNMODIFIABLE_LIST);
+        COLLECTION_KINDS.put(Collections.unmodifiableSet(new HashSet<Object>()).getClass(), UNMODIFIABLE_SET);
+        COLLECTION_KINDS.put(Collections.unmodifiableCollection(new ArrayList<Object>()).getClass(), UNMODIFIABLE_COLLECTION);
+        MAP_KINDS.put(HashMap.class, HASH_MAP);
+        MAP_KINDS.put(LinkedHashMap.class, LINKED_HASH_MAP);
+        MAP_KINDS.put(TreeMap.class, TREE_MAP);
+        MAP_KINDS.put(Collections.emptyMap().getClass(), EMPTY_MAP);
+        MAP_KINDS.put(Collections.singletonMap(null, null).getClass(), SINGLETON_MAP);
+        MAP_KINDS.put(Collections.unmodifiableMap(new HashMap<Object, Object>()).getClass(), UNMODIFIABLE_MAP);
+    }
+
+    private final Encoder encoder;
+    private final SerializeMap map;
+    private final Map<Class<?>, BinaryModelSchema> schemas = new HashMap<Class<?>, BinaryModelSchema>();
+    private final Map<Class<?>, Integer> classes = new HashMap<Class<?>, Integer>();
+    private final Map<String, Integer> strings = new HashMap<String, Integer>();
+    // Keyed by path, as File equality ignores case on Windows and would merge files whose paths differ only in case
+    private final Map<String, Integer> files = new HashMap<String, Integer>();
+    private final Map<Object, Integer> objects = new IdentityHashMap<Object, Integer>();
+    private final Set<Object> incompleteImmutables = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+    BinaryModelEncoder(Encoder encoder, SerializeMap map) {
+        this.encoder = encoder;
+        this.map = map;
+    }
+
+    /**
+     * Returns true when the given object is a model that can be written using this encoding.
+     */
+    static boolean canEncode(Object payload) {
+        return payload != null && BinaryModelSchema.of(payload.getClass()) != null;
+    }
+
+    void write(Object value) throws IOException {
+        if (value == null) {
+            encoder.writeByte(NULL);
+            return;
+        }
+        Class<?> type = value.getClass();
+        if (type == String.class) {
+            encoder.writeByte(STRING);
+            writeString((String) value);
+        } else if (type == File.class) {
+            encoder.writeByte(FILE);
+            writeFile((File) value);
+        } else if (type == Boolean.class) {
+            encoder.writeByte(BOOLEAN);
+            encoder.writeBoolean((Boolean) value);
+        } else if (type == Byte.class) {
+            encoder.writeByte(BYTE);
+            encoder.writeByte((Byte) value);
+        } else if (type == Short.class) {
+            encoder.writeByte(SHORT);
+            encoder.writeInt((Short) value);
+        } else if (type == Character.class) {
+            encoder.writeByte(CHARACTER);
+            encoder.writeSmallInt((Character) value);
+        } else if (type == Integer.class) {
+            encoder.writeByte(INTEGER);
+            encoder.writeInt((Integer) value);
+        } else if (type == Long.class) {
+            encoder.writeByte(LONG);
+            encoder.writeLong((Long) value);
+        } else if (type == Float.class) {
+            encoder.writeByte(FLOAT);
+            encoder.writeInt(Float.floatToIntBits((Float) value));
+        } else if (type == Double.class) {
+            encoder.writeByte(DOUBLE);
+            encoder.writeLong(Double.doubleToLongBits((Double) value));
+        } else if (value instanceof Enum) {
+            Enum<?> enumValue = (Enum<?>) value;
+            encoder.writeByte(ENUM);
+            writeClass(enumValue.getDeclaringClass(), null);
+            writeString(enumValue.name());
+        } else {
+            writeObject(value, type);
+        }
+    }
+
+    private void writeObject(Object value, Class<?> type) throws IOException {
+        Integer id = objects.get(value);
+        if (id != null) {
+            if (incompleteImmutables.contains(value)) {
+                throw new UnsupportedGraphException(String.format("Cannot write a reference to %s from within its own elements.", type.getName()));
+            }
+            encoder.writeByte(REFERENCE);
+            encoder.writeSmallInt(id);
+            return;
+        }
+        objects.put(value, objects.size());
+
+        Byte collectionKind = COLLECTION_KINDS.get(type);
+        if (collectionKind != null && !hasComparator(value)) {
+            Collection<?> collection = (Collection<?>) value;
+            encoder.writeByte(COLLECTION);
+            encoder.writeByte(collectionKind);
+            encoder.writeSmallInt(collection.size());
+            boolean immutable = collectionKind >= ARRAYS_AS_LIST;
+            if (immutable) {
+                incompleteImmutables.add(value);
+            }
+            for (Object element : collection) {
+                write(element);
+            }
+            if (immutable) {
+                incompleteImmutables.remove(value);
+            }
+            return;
+        }
+
+        Byte mapKind = MAP_KINDS.get(type);
+        if (mapKind != null && !hasComparator(value)) {
+            Map<?, ?> mapValue = (Map<?, ?>) value;
+            encoder.writeByte(MAP);
+            encoder.writeByte(mapKind);
+            encoder.writeSmallInt(mapValue.size());
+            boolean immutable = mapKind >= EMPTY_MAP;
+            if (immutable) {
+                incompleteImmutables.add(value);
+            }
+            for (Map.Entry<?, ?> entry : mapValue.entrySet()) {
+                write(entry.getKey());
+                write(entry.getValue());
+            }
+            if (immutable) {
+                incompleteImmutables.remove(value);
+            }
+            return;
+        }
+
+        BinaryModelSchema schema = schemaFor(type);
+        if (schema != null) {
+            encoder.writeByte(MODEL);
+            writeClass(type, schema);
+            writeFields(value, schema);
+            return;
+        }
+
+        // Writing the value separately using Java serialization would duplicate any objects it shares with the rest of the graph
+        throw new UnsupportedGraphException(String.format("Cannot write an instance of %s using the binary encoding.", type.getName()));
+    }
+
+    private static boolean hasComparator(Object value) {
+        if (value instanceof SortedSet) {
+            return ((SortedSet<?>) value).comparator() != null;
+        }
+        if (value instanceof SortedMap) {
+            return ((SortedMap<?, ?>) value).comparator() != null;
+        }
+        return false;
+    }
+
+    private BinaryModelSchema schemaFor(Class<?> type) {
+        if (schemas.containsKey(type)) {
+            return schemas.get(type);
+        }
+        BinaryModelSchema schema = BinaryModelSchema.of(type);
+        schemas.put(type, schema);
+        return schema;
+    }
+
+    private void writeFields(Object value, BinaryModelSchema schema) throws IOException {
+        try {
+            for (Field field : schema.getFields()) {
+                Class<?> fieldType = field.getType();
+                if (!fieldType.isPrimitive()) {
+                    write(field.get(value));
+                } else if (fieldType == boolean.class) {
+                    encoder.writeBoolean(field.getBoolean(value));
+                } else if (fieldType == byte.class) {
+                    encoder.writeByte(field.getByte(value));
+                } else if (fieldType == short.class) {
+                    encoder.writeInt(field.getShort(value));
+                } else if (fieldType == char.class) {
+                    encoder.writeSmallInt(field.getChar(value));
+                } else if (fieldType == int.class) {
+                    encoder.writeInt(field.getInt(value));
+                } else if (fieldType == long.class) {
+                    encoder.writeLong(field.getLong(value));
+                } else if (fieldType == float.class) {
+                    encoder.writeInt(Float.floatToIntBits(field.getFloat(value)));
+                } else {
+                    encoder.writeLong(Double.doubleToLongBits(field.getDouble(value)));
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(String.format("Could not write the state of %s.", schema.getType().getName()), e);
+        }
+    }
+
+    /**
+     * Writes a class, as a reference to a previously written class or as a new class followed by the names of its fields when it is a model class.
+     */
+    private void writeClass(Class<?> type, BinaryModelSchema schema) throws IOException {
+        Integer id = classes.get(type);
+        if (id != null) {
+            encoder.writeSmallInt(id + 1);
+            return;
+        }
+        encoder.writeSmallInt(0);
+        encoder.writeInt(map.visitClass(type));
+        writeString(type.getName());
+        if (schema != null) {
+            Field[] fields = schema.getFields();
+            encoder.writeSmallInt(fields.length);
+            for (Field field : fields) {
+                writeString(field.getName());
+            }
+        }
+        classes.put(type, classes.size());
+    }
+
+    private void writeString(String value) throws IOException {
+        Integer id = strings.get(value);
+        if (id != null) {
+            encoder.writeSmallInt(id + 1);
+            return;
+        }
+        encoder.writeSmallInt(0);
+        encoder.writeString(value);
+        strings.put(value, strings.size());
+    }
+
+    private void writeFile(File file) throws IOException {
+        Integer id = files.get(file.getPath());
+        if (id != null) {
+            encoder.writeSmallInt(id + 1);
+            return;
+        }
+        encoder.writeSmallInt(0);
+        File parent = file.getParentFile();
+        if (parent == null) {
+            encoder.writeBoolean(false);
+            writeString(file.getPath());
+        } else {
+            encoder.writeBoolean(true);
+            writeFile(parent);
+            writeString(file.getName());
+        }
+        files.put(file.getPath(), files.size());
+    }
+
+    /**
+     * Thrown when a graph cannot be written using this encoding without losing object identity.
+     */
+    static class UnsupportedGraphException extends RuntimeException {
+        UnsupportedGraphException(String message) {
+            super(message);
+        }
+    }
+}
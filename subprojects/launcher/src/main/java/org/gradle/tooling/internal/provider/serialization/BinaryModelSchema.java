@@ -0,0 +1,177 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.tooling.internal.provider.serialization;
+
+import org.gradle.internal.UncheckedException;
+
+import javax.annotation.Nullable;
+import java.io.Externalizable;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The state of a model class, as written by the binary payload encoding. This is the same state that Java serialization would write: the non-static,
+ * non-transient fields of the class and of its serializable super classes. Instances are created in the same way as Java serialization does, without
+ * running the constructors of the class.
+ *
+ * <p>Only Gradle's own classes that use the default Java serialization behaviour are encoded this way.</p>
+ */
+class BinaryModelSchema {
+    private static final Object REFLECTION_FACTORY;
+    private static final Method NEW_CONSTRUCTOR_FOR_SERIALIZATION;
+    private static final Comparator<Field> FIELD_ORDER = new Comparator<Field>() {
+        @Override
+        public int compare(Field o1, Field o2) {
+            return o1.getName().compareTo(o2.getName());
+        }
+    };
+
+    static {
+        Object factory;
+        Method method;
+        try {
+            Class<?> factoryClass = Class.forName("sun.reflect.ReflectionFactory");
+            factory = factoryClass.getMethod("getReflectionFactory").invoke(null);
+            method = factoryClass.getMethod("newConstructorForSerialization", Class.class, Constructor.class);
+        } catch (Exception e) {
+            // Cannot create instances without running their constructors on this JVM, so use Java serialization for everything
+            factory = null;
+            method = null;
+        }
+        REFLECTION_FACTORY = factory;
+        NEW_CONSTRUCTOR_FOR_SERIALIZATION = method;
+    }
+
+    private final Class<?> type;
+    private final Constructor<?> constructor;
+    private final Field[] fields;
+
+    private BinaryModelSchema(Class<?> type, Constructor<?> constructor, Field[] fields) {
+        this.type = type;
+        this.constructor = constructor;
+        this.fields = fields;
+    }
+
+    /**
+     * Returns the schema for the given type, or null when instances of the type should be written using Java serialization.
+     */
+    @Nullable
+    static BinaryModelSchema of(Class<?> type) {
+        if (NEW_CONSTRUCTOR_FOR_SERIALIZATION == null
+            || !type.getName().startsWith("org.gradle.")
+            || !Serializable.class.isAssignableFrom(type)
+            || Externalizable.class.isAssignableFrom(type)
+            || Throwable.class.isAssignableFrom(type)
+            || Enum.class.isAssignableFrom(type)
+            || Modifier.isAbstract(type.getModifiers())
+            || Proxy.isProxyClass(type)) {
+            return null;
+        }
+
+        List<Field> fields = new ArrayList<Field>();
+        Class<?> current = type;
+        for (; Serializable.class.isAssignableFrom(current); current = current.getSuperclass()) {
+            if (hasCustomSerialization(current)) {
+                return null;
+            }
+            List<Field> declaredFields = new ArrayList<Field>();
+            for (Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers())) {
+                    declaredFields.add(field);
+                }
+            }
+            Collections.sort(declaredFields, FIELD_ORDER);
+            fields.addAll(0, declaredFields);
+        }
+
+        Constructor<?> superConstructor;
+        try {
+            superConstructor = current.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+        if (Modifier.isPrivate(superConstructor.getModifiers())) {
+            return null;
+        }
+
+        try {
+            Constructor<?> constructor = (Constructor<?>) NEW_CONSTRUCTOR_FOR_SERIALIZATION.invoke(REFLECTION_FACTORY, type, superConstructor);
+            constructor.setAccessible(true);
+            for (Field field : fields) {
+                field.setAccessible(true);
+            }
+            return new BinaryModelSchema(type, constructor, fields.toArray(new Field[0]));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static boolean hasCustomSerialization(Class<?> type) {
+        for (Method method : type.getDeclaredMethods()) {
+            String name = method.getName();
+            if (name.equals("writeObject") || name.equals("readObject") || name.equals("readObjectNoData") || name.equals("writeReplace") || name.equals("readResolve")) {
+                return true;
+            }
+        }
+        for (Field field : type.getDeclaredFields()) {
+            if (field.getName().equals("serialPersistentFields")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Class<?> getType() {
+        return type;
+    }
+
+    Field[] getFields() {
+        return fields;
+    }
+
+    /**
+     * Checks that the given field names, as written by the other party, match the fields of this class.
+     */
+    void verifyFieldNames(String[] fieldNames) {
+        String[] expected = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            expected[i] = fields[i].getName();
+        }
+        if (!Arrays.equals(expected, fieldNames)) {
+            throw new IllegalStateException(String.format("Cannot read an instance of %s, as it was written with fields %s but the class has fields %s.", type.getName(), Arrays.toString(fieldNames), Arrays.toString(expected)));
+        }
+    }
+
+    Object newInstance() {
+        try {
+            return constructor.newInstance();
+        } catch (InvocationTargetException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+}
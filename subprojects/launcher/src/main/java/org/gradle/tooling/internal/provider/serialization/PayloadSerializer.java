@@ -20,6 +20,8 @@ import net.jcip.annotations.ThreadSafe;
 import org.gradle.internal.IoActions;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.io.StreamByteBuffer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
@@ -27,6 +29,12 @@ import java.io.ObjectOutputStream;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Serializes the objects exchanged between the tooling API provider and the daemon, along with the details of the ClassLoaders needed to load their classes.
+ *
+ * <p>Gradle's own tooling models are written using a compact binary encoding, see {@link BinaryModelEncoder}. All other objects, such as client provided
+ * actions and their results, and model graphs that the binary encoding cannot represent, are written using Java serialization.</p>
+ */
 @ThreadSafe
 public class PayloadSerializer {
     private final PayloadClassLoaderRegistry classLoaderRegistry;
@@ -36,6 +44,37 @@ public class PayloadSerializer {
     }
 
     public SerializedPayload serialize(Object payload) {
+        if (BinaryModelEncoder.canEncode(payload)) {
+            SerializedPayload serialized = serializeBinary(payload);
+            if (serialized != null) {
+                return serialized;
+            }
+        }
+        return serializeJava(payload);
+    }
+
+    /**
+     * Writes the given payload using the binary encoding, or returns null when the graph cannot be written this way.
+     */
+    private SerializedPayload serializeBinary(Object payload) {
+        final SerializeMap map = classLoaderRegistry.newSerializeSession();
+        try {
+            StreamByteBuffer buffer = new StreamByteBuffer();
+            KryoBackedEncoder encoder = new KryoBackedEncoder(buffer.getOutputStream());
+            try {
+                new BinaryModelEncoder(encoder, map).write(payload);
+            } finally {
+                encoder.close();
+            }
+            return toPayload(map, buffer, true);
+        } catch (BinaryModelEncoder.UnsupportedGraphException e) {
+            return null;
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private SerializedPayload serializeJava(Object payload) {
         final SerializeMap map = classLoaderRegistry.newSerializeSession();
         try {
             StreamByteBuffer buffer = new StreamByteBuffer();
@@ -46,20 +85,26 @@ public class PayloadSerializer {
             } finally {
                 IoActions.closeQuietly(objectStream);
             }
-
-            Map<Short, ClassLoaderDetails> classLoaders = new HashMap<Short, ClassLoaderDetails>();
-            map.collectClassLoaderDefinitions(classLoaders);
-            return new SerializedPayload(classLoaders, buffer.readAsListOfByteArrays());
+            return toPayload(map, buffer, false);
         } catch (IOException e) {
             throw UncheckedException.throwAsUncheckedException(e);
         }
     }
 
+    private static SerializedPayload toPayload(SerializeMap map, StreamByteBuffer buffer, boolean binaryEncoded) {
+        Map<Short, ClassLoaderDetails> classLoaders = new HashMap<Short, ClassLoaderDetails>();
+        map.collectClassLoaderDefinitions(classLoaders);
+        return new SerializedPayload(classLoaders, buffer.readAsListOfByteArrays(), binaryEncoded);
+    }
+
     public Object deserialize(SerializedPayload payload) {
         final DeserializeMap map = classLoaderRegistry.newDeserializeSession();
         try {
             final Map<Short, ClassLoaderDetails> classLoaderDetails = (Map<Short, ClassLoaderDetails>) payload.getHeader();
             StreamByteBuffer buffer = StreamByteBuffer.of(payload.getSerializedModel());
+            if (payload.isBinaryEncoded()) {
+                return new BinaryModelDecoder(new KryoBackedDecoder(buffer.getInputStream()), classLoaderDetails, map).read();
+            }
             final ObjectInputStream objectStream = new PayloadSerializerObjectInputStream(buffer.getInputStream(), getClass().getClassLoader(), classLoaderDetails, map);
             return objectStream.readObject();
         } catch (Exception e) {
@@ -22,10 +22,16 @@ import java.util.List;
 public class SerializedPayload implements Serializable {
     private final List<byte[]> serializedModel;
     private final Object header;
+    private final boolean binaryEncoded;
 
     public SerializedPayload(Object header, List<byte[]> serializedModel) {
+        this(header, serializedModel, false);
+    }
+
+    public SerializedPayload(Object header, List<byte[]> serializedModel, boolean binaryEncoded) {
         this.header = header;
         this.serializedModel = serializedModel;
+        this.binaryEncoded = binaryEncoded;
     }
 
     public Object getHeader() {
@@ -35,4 +41,11 @@ public class SerializedPayload implements Serializable {
     public List<byte[]> getSerializedModel() {
         return serializedModel;
     }
+
+    /**
+     * Returns true when the model was written using the binary model encoding rather than Java serialization.
+     */
+    public boolean isBinaryEncoded() {
+        return binaryEncoded;
+    }
 }
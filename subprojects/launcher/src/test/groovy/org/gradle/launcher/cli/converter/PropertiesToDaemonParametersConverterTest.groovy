@@ -134,6 +134,24 @@ class PropertiesToDaemonParametersConverterTest extends Specification {
         params.enabled
     }
 
+    def "standby daemons and class data sharing are disabled by default"() {
+        when:
+        converter.convert([:], params)
+
+        then:
+        !params.standby
+        !params.classDataSharing
+    }
+
+    def "can enable standby daemons and class data sharing"() {
+        when:
+        converter.convert([(GradleProperties.DAEMON_STANDBY_PROPERTY): 'true', (GradleProperties.DAEMON_CLASS_DATA_SHARING_PROPERTY): 'true'], params)
+
+        then:
+        params.standby
+        params.classDataSharing
+    }
+
     @Unroll
     def "explicitly sets daemon usage if daemon system property is specified"() {
         when:
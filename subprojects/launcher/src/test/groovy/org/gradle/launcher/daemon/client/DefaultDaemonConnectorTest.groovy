@@ -61,7 +61,8 @@ class DefaultDaemonConnectorTest extends Specification {
                 Spy(OutgoingConnectorStub),
                 { startBusyDaemon() } as DaemonStarter,
                 Stub(DaemonStartListener),
-                Stub(ProgressLoggerFactory)]
+                Stub(ProgressLoggerFactory),
+                startStandbyDaemons]
         )
         connector.connectTimeout = connectTimeoutSecs * 1000
         connector
@@ -83,6 +84,7 @@ class DefaultDaemonConnectorTest extends Specification {
     }
 
     def theConnector
+    def startStandbyDaemons = false
 
     def DefaultDaemonConnector getConnector() {
         if (theConnector == null) {
@@ -159,6 +161,35 @@ class DefaultDaemonConnectorTest extends Specification {
         numAllDaemons == 2
     }
 
+    def "connect() starts a standby daemon when it takes the last compatible idle daemon"() {
+        given:
+        startStandbyDaemons = true
+        startIdleDaemon()
+
+        when:
+        def connection = connector.connect({it.pid < 12} as ExplainingSpec)
+
+        then:
+        connection && connection.connection.num == 0
+
+        and:
+        numAllDaemons == 2
+    }
+
+    def "connect() does not start a standby daemon when another compatible daemon is idle"() {
+        given:
+        startStandbyDaemons = true
+        startIdleDaemon()
+        startIdleDaemon()
+
+        when:
+        def connection = connector.connect({it.pid < 12} as ExplainingSpec)
+
+        then:
+        connection
+        numAllDaemons == 2
+    }
+
     def "connect() will not use existing connection if it fails the compatibility spec"() {
         given:
         startIdleDaemon()
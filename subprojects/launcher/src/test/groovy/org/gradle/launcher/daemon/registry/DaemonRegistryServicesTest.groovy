@@ -15,10 +15,7 @@
  */
 package org.gradle.launcher.daemon.registry
 
-import org.gradle.cache.FileLockManager
-import org.gradle.cache.internal.DefaultFileLockManager
-import org.gradle.cache.internal.ProcessMetaDataProvider
-import org.gradle.cache.internal.locklistener.FileLockContentionHandler
+import org.gradle.internal.nativeintegration.ProcessEnvironment
 import org.gradle.internal.nativeintegration.filesystem.Chmod
 import org.gradle.internal.remote.internal.inet.SocketInetAddress
 import org.gradle.internal.service.DefaultServiceRegistry
@@ -34,7 +31,7 @@ import static org.gradle.launcher.daemon.server.api.DaemonStateControl.State.Idl
 class DaemonRegistryServicesTest extends Specification {
     @Rule TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
     def parent = Mock(ServiceRegistry) {
-        get(FileLockManager) >> new DefaultFileLockManager(Stub(ProcessMetaDataProvider), Stub(FileLockContentionHandler))
+        get(ProcessEnvironment) >> Stub(ProcessEnvironment)
         get(Chmod) >> Stub(Chmod)
         hasService(_) >> true
     }
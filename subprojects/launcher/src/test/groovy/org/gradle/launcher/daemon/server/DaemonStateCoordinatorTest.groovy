@@ -15,8 +15,10 @@
  */
 package org.gradle.launcher.daemon.server
 
+import org.gradle.initialization.DefaultBuildCancellationToken
 import org.gradle.launcher.daemon.server.api.DaemonStoppedException
 import org.gradle.launcher.daemon.server.api.DaemonUnavailableException
+import org.gradle.test.fixtures.ConcurrentTestUtil
 import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 
 import static org.gradle.launcher.daemon.server.api.DaemonStateControl.State.*
@@ -32,6 +34,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         }
     }
     final coordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, onCancelCommand, 2000)
+    final token = new DefaultBuildCancellationToken()
 
     def "can stop multiple times"() {
         expect:
@@ -66,7 +69,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         Runnable command = Mock()
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         1 * onStartCommand.run()
@@ -80,7 +83,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         Runnable command2 = Mock()
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         1 * onStartCommand.run()
@@ -89,7 +92,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         0 * _._
 
         when:
-        coordinator.runCommand(command2, "command")
+        coordinator.runCommand(command2, "command", token)
 
         then:
         1 * onStartCommand.run()
@@ -103,7 +106,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         def failure = new RuntimeException()
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         RuntimeException e = thrown()
@@ -118,16 +121,55 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         Runnable command = Mock()
 
         given:
-        command.run() >> { coordinator.runCommand(Mock(Runnable), "other") }
+        command.run() >> { coordinator.runCommand(Mock(Runnable), "other", token) }
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         DaemonUnavailableException e = thrown()
         e.message == 'This daemon is currently executing: command'
     }
 
+    def "can run commands concurrently up to the configured limit"() {
+        def concurrentCoordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, onCancelCommand, 2000, 2)
+        Runnable command1 = Mock()
+        Runnable command2 = Mock()
+
+        when:
+        async {
+            start {
+                concurrentCoordinator.runCommand(command1, "command1", token)
+            }
+            start {
+                thread.blockUntil.command1Running
+                concurrentCoordinator.runCommand(command2, "command2", new DefaultBuildCancellationToken())
+            }
+        }
+
+        then:
+        concurrentCoordinator.state == Idle
+
+        and:
+        1 * onStartCommand.run()
+        1 * command1.run() >> {
+            instant.command1Running
+            thread.blockUntil.command2Running
+        }
+        1 * command2.run() >> {
+            instant.command2Running
+            assert concurrentCoordinator.state == Busy
+            try {
+                concurrentCoordinator.runCommand(Mock(Runnable), "command3", new DefaultBuildCancellationToken())
+                assert false
+            } catch (DaemonUnavailableException e) {
+                assert e.message == 'This daemon is currently executing: command1'
+            }
+        }
+        1 * onFinishCommand.run()
+        0 * _._
+    }
+
     def "cannot run command after stop requested"() {
         Runnable command = Mock()
 
@@ -135,7 +177,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         coordinator.requestStop("REASON")
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         DaemonUnavailableException e = thrown()
@@ -149,7 +191,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         coordinator.requestForcefulStop("stop")
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         DaemonUnavailableException e = thrown()
@@ -163,7 +205,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         coordinator.requestStop("REASON")
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         DaemonUnavailableException e = thrown()
@@ -175,7 +217,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         RuntimeException failure = new RuntimeException()
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         RuntimeException e = thrown()
@@ -185,7 +227,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         0 * _._
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         DaemonUnavailableException unavailableException = thrown()
@@ -197,7 +239,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         RuntimeException failure = new RuntimeException()
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         RuntimeException e = thrown()
@@ -210,7 +252,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         0 * _._
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         DaemonUnavailableException unavailableException = thrown()
@@ -222,7 +264,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         RuntimeException failure = new RuntimeException()
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         RuntimeException e = thrown()
@@ -243,7 +285,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         RuntimeException failure = new RuntimeException()
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         RuntimeException e = thrown()
@@ -263,7 +305,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         RuntimeException failure = new RuntimeException()
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         RuntimeException e = thrown()
@@ -285,7 +327,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         RuntimeException failure = new RuntimeException()
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
 
         then:
         RuntimeException e = thrown()
@@ -319,7 +361,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         Runnable command = Mock()
 
         when:
-        coordinator.runCommand(command, "some command")
+        coordinator.runCommand(command, "some command", token)
 
         then:
         1 * command.run() >> {
@@ -341,7 +383,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         Runnable command = Mock()
 
         when:
-        coordinator.runCommand(command, "some command")
+        coordinator.runCommand(command, "some command", token)
 
         then:
         1 * command.run() >> {
@@ -366,7 +408,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         RuntimeException failure = new RuntimeException()
 
         when:
-        coordinator.runCommand(command, "some command")
+        coordinator.runCommand(command, "some command", token)
 
         then:
         1 * command.run() >> {
@@ -394,7 +436,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
 
         when:
         start {
-            coordinator.runCommand(command, "command")
+            coordinator.runCommand(command, "command", token)
         }
         async {
             thread.blockUntil.actionStarted
@@ -438,7 +480,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
 
         when:
         operation.run {
-            coordinator.runCommand(command, "command")
+            coordinator.runCommand(command, "command", token)
         }
 
         then:
@@ -465,7 +507,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
 
         when:
         start {
-            coordinator.runCommand(command, "command")
+            coordinator.runCommand(command, "command", token)
         }
         async {
             thread.blockUntil.startAction
@@ -497,10 +539,10 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         !stopped
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
         start {
             thread.blockUntil.running
-            coordinator.cancelBuild()
+            coordinator.cancelBuild(token)
         }
 
         then:
@@ -525,10 +567,10 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         !stopped
 
         when:
-        coordinator.runCommand(command, "command")
+        coordinator.runCommand(command, "command", token)
         start {
             thread.blockUntil.running
-            coordinator.cancelBuild()
+            coordinator.cancelBuild(token)
         }
 
         then:
@@ -540,7 +582,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         1 * onStartCommand.run()
         1 * command.run() >> {
             assert !stopped
-            coordinator.cancellationToken.addCallback { throw new RuntimeException('failing cancel callback') }
+            token.addCallback { throw new RuntimeException('failing cancel callback') }
             instant.running
             thread.block()
         }
@@ -556,7 +598,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
 
         when:
         start {
-            coordinator.runCommand(command, "command")
+            coordinator.runCommand(command, "command", token)
         }
         start {
             instant.awaitRunning
@@ -566,7 +608,7 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
             thread.blockUntil.commandRunning
             thread.blockUntil.awaitRunning
             thread.block()
-            coordinator.cancelBuild()
+            coordinator.cancelBuild(token)
         }
 
         then:
@@ -589,19 +631,20 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
     def "canceled build does not affect next build"() {
         def command1 = Mock(Runnable)
         def command2 = Mock(Runnable)
+        def token2 = new DefaultBuildCancellationToken()
 
         expect:
         !stopped
 
         when:
-        coordinator.runCommand(command1, "command1")
+        coordinator.runCommand(command1, "command1", token)
         start {
             thread.blockUntil.running
-            coordinator.cancelBuild()
+            coordinator.cancelBuild(token)
             instant.cancelled
         }
         thread.blockUntil.cancelled
-        coordinator.runCommand(command2, "command2")
+        coordinator.runCommand(command2, "command2", token2)
 
         then:
         !coordinator.willRefuseNewCommands
@@ -616,18 +659,114 @@ class DaemonStateCoordinatorTest extends ConcurrentSpec {
         }
         1 * command2.run() >> {
             assert !stopped
-            assert !coordinator.cancellationToken.cancellationRequested
+            assert !token2.cancellationRequested
         }
         2 * onFinishCommand.run()
         0 * _._
     }
 
+    def "canceling one of several concurrent commands does not cancel the others"() {
+        def concurrentCoordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, onCancelCommand, 2000, 2)
+        def token2 = new DefaultBuildCancellationToken()
+        Runnable command1 = Mock()
+        Runnable command2 = Mock()
+
+        when:
+        async {
+            start {
+                concurrentCoordinator.runCommand(command1, "command1", token)
+                instant.command1Completed
+            }
+            start {
+                thread.blockUntil.command1Running
+                concurrentCoordinator.runCommand(command2, "command2", token2)
+                concurrentCoordinator.stop()
+            }
+            start {
+                concurrentCoordinator.awaitStop()
+            }
+            start {
+                thread.blockUntil.command2Running
+                concurrentCoordinator.cancelBuild(token)
+            }
+        }
+
+        then:
+        canceled
+        token.cancellationRequested
+        !token2.cancellationRequested
+
+        and:
+        1 * onStartCommand.run()
+        1 * command1.run() >> {
+            token.addCallback { instant.command1Canceled }
+            instant.command1Running
+            thread.blockUntil.command1Canceled
+        }
+        1 * command2.run() >> {
+            instant.command2Running
+            thread.blockUntil.command1Completed
+            assert !token2.cancellationRequested
+            ConcurrentTestUtil.poll { assert concurrentCoordinator.state == Busy }
+        }
+        1 * onFinishCommand.run()
+        0 * _._
+    }
+
+    def "abandons canceled command that does not complete in short time and stops once other commands have completed"() {
+        def concurrentCoordinator = new DaemonStateCoordinator(executorFactory, onStartCommand, onFinishCommand, onCancelCommand, 2000, 2)
+        def token2 = new DefaultBuildCancellationToken()
+        Runnable command1 = Mock()
+        Runnable command2 = Mock()
+
+        when:
+        async {
+            start {
+                try {
+                    concurrentCoordinator.runCommand(command1, "command1", token)
+                } catch (DaemonStoppedException e) {
+                    instant.command1Abandoned
+                }
+            }
+            start {
+                thread.blockUntil.command1Running
+                concurrentCoordinator.runCommand(command2, "command2", token2)
+            }
+            start {
+                concurrentCoordinator.awaitStop()
+            }
+            start {
+                thread.blockUntil.command2Running
+                concurrentCoordinator.cancelBuild(token)
+            }
+        }
+
+        then:
+        canceled
+        !token2.cancellationRequested
+        concurrentCoordinator.state == Stopped
+
+        and:
+        1 * onStartCommand.run()
+        1 * command1.run() >> {
+            instant.command1Running
+            thread.blockUntil.never
+        }
+        1 * command2.run() >> {
+            instant.command2Running
+            thread.blockUntil.command1Abandoned
+            assert !token2.cancellationRequested
+            assert concurrentCoordinator.state == StopRequested
+        }
+        0 * _._
+    }
+
     def "idle millis is 0 if daemon is busy"() {
         given:
         Runnable command = Mock()
 
         when:
-        coordinator.runCommand(command, "some command")
+        coordinator.runCommand(command, "some command", token)
 
         then:
         1 * command.run() >> {
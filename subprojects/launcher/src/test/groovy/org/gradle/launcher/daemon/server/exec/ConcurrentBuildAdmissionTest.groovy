@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.launcher.daemon.server.exec
+
+import org.gradle.StartParameter
+import org.gradle.api.logging.LogLevel
+import org.gradle.initialization.BuildClientMetaData
+import org.gradle.internal.invocation.BuildAction
+import org.gradle.launcher.daemon.protocol.Build
+import org.gradle.launcher.daemon.server.api.DaemonUnavailableException
+import org.gradle.launcher.daemon.server.health.DaemonMemoryStatus
+import org.gradle.launcher.exec.BuildActionParameters
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class ConcurrentBuildAdmissionTest extends Specification {
+    @Rule TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+
+    def memoryStatus = Mock(DaemonMemoryStatus)
+    def admission = new ConcurrentBuildAdmission(memoryStatus, 2, 60)
+
+    def "admits builds in separate directories up to the limit"() {
+        def build1 = build(tmpDir.file("a"))
+        def build2 = build(tmpDir.file("b"))
+        def build3 = build(tmpDir.file("c"))
+
+        given:
+        memoryStatus.hasTenuredSpaceHeadroom(60) >> true
+
+        when:
+        admission.admit(build1)
+        admission.admit(build2)
+
+        then:
+        noExceptionThrown()
+
+        when:
+        admission.admit(build3)
+
+        then:
+        def e = thrown(DaemonUnavailableException)
+        e.message == "This daemon is already running 2 builds."
+
+        when:
+        admission.release(build1)
+        admission.admit(build3)
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "refuses build in directory that overlaps with a running build"() {
+        given:
+        memoryStatus.hasTenuredSpaceHeadroom(60) >> true
+        admission.admit(build(tmpDir.file("a")))
+
+        when:
+        admission.admit(build(tmpDir.file("a/sub")))
+
+        then:
+        def e = thrown(DaemonUnavailableException)
+        e.message.startsWith("This daemon is currently running a build in ")
+    }
+
+    def "refuses build with different environment"() {
+        given:
+        memoryStatus.hasTenuredSpaceHeadroom(60) >> true
+        admission.admit(build(tmpDir.file("a"), [someProp: "a"]))
+
+        when:
+        admission.admit(build(tmpDir.file("b"), [someProp: "b"]))
+
+        then:
+        def e = thrown(DaemonUnavailableException)
+        e.message == "This daemon is currently running a build with different system properties or environment variables."
+    }
+
+    def "admits builds started from different working directories and with different log levels"() {
+        given:
+        memoryStatus.hasTenuredSpaceHeadroom(60) >> true
+        admission.admit(build(tmpDir.file("a")))
+
+        when:
+        admission.admit(build(tmpDir.file("b"), [:], tmpDir.file("b"), LogLevel.DEBUG))
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "refuses build that sets system properties in gradle.properties"() {
+        given:
+        memoryStatus.hasTenuredSpaceHeadroom(60) >> true
+        tmpDir.file("b/gradle.properties") << "systemProp.someProp=b"
+        admission.admit(build(tmpDir.file("a")))
+
+        when:
+        admission.admit(build(tmpDir.file("b/sub")))
+
+        then:
+        def e = thrown(DaemonUnavailableException)
+        e.message == "This daemon cannot run a build that sets system properties in gradle.properties alongside other builds."
+    }
+
+    def "refuses build alongside a build that sets system properties in gradle.properties"() {
+        given:
+        memoryStatus.hasTenuredSpaceHeadroom(60) >> true
+        tmpDir.file("a/gradle.properties") << "systemProp.someProp=a"
+        admission.admit(build(tmpDir.file("a")))
+
+        when:
+        admission.admit(build(tmpDir.file("b")))
+
+        then:
+        def e = thrown(DaemonUnavailableException)
+        e.message == "This daemon cannot run a build that sets system properties in gradle.properties alongside other builds."
+    }
+
+    def "admits builds that set other properties in gradle.properties"() {
+        given:
+        memoryStatus.hasTenuredSpaceHeadroom(60) >> true
+        tmpDir.file("a/gradle.properties") << "someProp=a"
+        tmpDir.file("user-home/gradle.properties") << "org.gradle.jvmargs=-Xmx1g"
+        admission.admit(build(tmpDir.file("a")))
+
+        when:
+        admission.admit(build(tmpDir.file("b")))
+
+        then:
+        noExceptionThrown()
+    }
+
+    def "refuses build when daemon has no heap headroom"() {
+        given:
+        admission.admit(build(tmpDir.file("a")))
+
+        when:
+        admission.admit(build(tmpDir.file("b")))
+
+        then:
+        1 * memoryStatus.hasTenuredSpaceHeadroom(60) >> false
+        def e = thrown(DaemonUnavailableException)
+        e.message == "This daemon does not have enough free heap to run another build."
+    }
+
+    def "first build is always admitted"() {
+        when:
+        admission.admit(build(tmpDir.file("a")))
+
+        then:
+        0 * memoryStatus._
+    }
+
+    private Build build(File projectDir, Map<String, String> systemProperties = [:], File workingDir = tmpDir.testDirectory, LogLevel logLevel = LogLevel.LIFECYCLE) {
+        def parameters = Stub(BuildActionParameters) {
+            getCurrentDir() >> workingDir
+            getSystemProperties() >> systemProperties
+            getEnvVariables() >> [PATH: "bin"]
+            getLogLevel() >> logLevel
+        }
+        def startParameter = new StartParameter()
+        startParameter.currentDir = projectDir
+        startParameter.gradleUserHomeDir = tmpDir.file("user-home")
+        def action = Stub(BuildAction) {
+            getStartParameter() >> startParameter
+        }
+        return new Build(UUID.randomUUID(), [] as byte[], action, Stub(BuildClientMetaData), 0, parameters)
+    }
+}
@@ -148,6 +148,27 @@ class DaemonMemoryStatusTest extends Specification {
         10             | 90             | 15   | 0    | false
     }
 
+    @Unroll
+    def "knows when tenured space has headroom (#used < #maxUsage)"() {
+        when:
+        gcMonitor.getTenuredStats() >> {
+            Stub(GarbageCollectionStats) {
+                getUsage() >> used
+            }
+        }
+
+        then:
+        status.hasTenuredSpaceHeadroom(maxUsage) == headroom
+
+        where:
+        maxUsage | used | headroom
+        60       | -1   | true
+        60       | 0    | true
+        60       | 59   | true
+        60       | 60   | false
+        60       | 95   | false
+    }
+
     def "can disable daemon performance monitoring"() {
         when:
         System.setProperty(DaemonMemoryStatus.ENABLE_PERFORMANCE_MONITORING, "false")
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.launcher.daemon.server.health
+
+import org.gradle.launcher.daemon.server.expiry.DaemonExpirationResult
+import org.gradle.process.internal.health.memory.MemoryManager
+import spock.lang.Specification
+
+import static org.gradle.launcher.daemon.server.expiry.DaemonExpirationStatus.GRACEFUL_EXPIRE
+import static org.gradle.launcher.daemon.server.expiry.DaemonExpirationStatus.IMMEDIATE_EXPIRE
+
+class HealthExpirationStrategyTest extends Specification {
+    private final DaemonMemoryStatus status = Stub(DaemonMemoryStatus)
+    private final MemoryManager memoryManager = Mock(MemoryManager)
+
+    def "daemon is not expired and no memory is released when there is no memory pressure"() {
+        def strategy = new HealthExpirationStrategy(status, memoryManager)
+
+        when:
+        def result = strategy.checkExpiration()
+
+        then:
+        0 * memoryManager._
+
+        and:
+        result == DaemonExpirationResult.NOT_TRIGGERED
+    }
+
+    def "releases heap memory instead of expiring daemon when tenured space is low"() {
+        def strategy = new HealthExpirationStrategy(status, memoryManager)
+        status.isTenuredSpaceExhausted() >> true
+
+        when:
+        def result = strategy.checkExpiration()
+
+        then:
+        1 * memoryManager.requestFreeHeapMemory(_) >> 1000
+
+        and:
+        result == DaemonExpirationResult.NOT_TRIGGERED
+    }
+
+    def "daemon is expired when tenured space is low and no heap memory can be released"() {
+        def strategy = new HealthExpirationStrategy(status, memoryManager)
+        status.isTenuredSpaceExhausted() >> true
+
+        when:
+        def result = strategy.checkExpiration()
+
+        then:
+        1 * memoryManager.requestFreeHeapMemory(_) >> 0
+
+        and:
+        result.status == GRACEFUL_EXPIRE
+        result.reason == LowTenuredSpaceDaemonExpirationStrategy.EXPIRATION_REASON
+    }
+
+    def "daemon is expired without releasing heap memory when the garbage collector is thrashing"() {
+        def strategy = new HealthExpirationStrategy(status, memoryManager)
+        status.isThrashing() >> true
+        status.isTenuredSpaceExhausted() >> true
+
+        when:
+        def result = strategy.checkExpiration()
+
+        then:
+        0 * memoryManager._
+
+        and:
+        result.status == IMMEDIATE_EXPIRE
+        result.reason == GcThrashingDaemonExpirationStrategy.EXPIRATION_REASON
+    }
+
+    def "daemon is not expired during the grace period after heap memory has been released"() {
+        def strategy = new HealthExpirationStrategy(status, memoryManager, 60000)
+        status.isTenuredSpaceExhausted() >> true
+
+        when:
+        strategy.checkExpiration()
+        def result = strategy.checkExpiration()
+
+        then:
+        1 * memoryManager.requestFreeHeapMemory(_) >> 1000
+
+        and:
+        result == DaemonExpirationResult.NOT_TRIGGERED
+    }
+
+    def "daemon is expired when memory pressure persists after the grace period"() {
+        def strategy = new HealthExpirationStrategy(status, memoryManager, 1)
+        status.isTenuredSpaceExhausted() >> true
+
+        when:
+        strategy.checkExpiration()
+        Thread.sleep(10)
+        def result = strategy.checkExpiration()
+
+        then:
+        1 * memoryManager.requestFreeHeapMemory(_) >> 1000
+
+        and:
+        result.status == GRACEFUL_EXPIRE
+        result.reason == LowTenuredSpaceDaemonExpirationStrategy.EXPIRATION_REASON
+    }
+
+    def "releases heap memory again once memory pressure has been relieved"() {
+        def pressure = true
+        def memoryStatus = Stub(DaemonMemoryStatus) {
+            isTenuredSpaceExhausted() >> { pressure }
+        }
+        def strategy = new HealthExpirationStrategy(memoryStatus, memoryManager, 1)
+
+        when:
+        strategy.checkExpiration()
+        pressure = false
+        strategy.checkExpiration()
+        pressure = true
+        Thread.sleep(10)
+        def result = strategy.checkExpiration()
+
+        then:
+        2 * memoryManager.requestFreeHeapMemory(_) >> 1000
+
+        and:
+        result == DaemonExpirationResult.NOT_TRIGGERED
+    }
+}
@@ -17,6 +17,9 @@
 package org.gradle.tooling.internal.provider.serialization
 
 import org.gradle.internal.classloader.FilteringClassLoader
+import org.gradle.tooling.internal.gradle.DefaultBuildIdentifier
+import org.gradle.tooling.internal.gradle.DefaultGradleProject
+import org.gradle.tooling.internal.gradle.DefaultProjectIdentifier
 import org.gradle.tooling.internal.provider.AbstractClassGraphSpec
 import org.gradle.tooling.internal.provider.CustomPayload
 import org.gradle.tooling.internal.provider.PayloadInterface
@@ -27,6 +30,7 @@ import spock.lang.Ignore
 import java.lang.reflect.InvocationHandler
 import java.lang.reflect.Method
 import java.lang.reflect.Proxy
+import java.util.concurrent.CopyOnWriteArrayList
 
 class PayloadSerializerTest extends AbstractClassGraphSpec {
     final PayloadSerializer originator = new PayloadSerializer(new WellKnownClassLoaderRegistry(new DefaultPayloadClassLoaderRegistry(new ClassLoaderCache(), new ModelClassLoaderFactory())))
@@ -43,6 +47,72 @@ class PayloadSerializerTest extends AbstractClassGraphSpec {
         "some value" | _
     }
 
+    def "uses binary encoding for Gradle models"() {
+        def buildIdentifier = new DefaultBuildIdentifier(new File("root"))
+        def root = new DefaultGradleProject().setName("root").setProjectDirectory(new File("root")).setProjectIdentifier(new DefaultProjectIdentifier(buildIdentifier, ":"))
+        def child1 = new DefaultGradleProject().setName("child1").setParent(root).setProjectDirectory(new File("root/child1")).setProjectIdentifier(new DefaultProjectIdentifier(buildIdentifier, ":child1"))
+        def child2 = new DefaultGradleProject().setName("child2").setParent(root).setProjectDirectory(new File("root/child2")).setProjectIdentifier(new DefaultProjectIdentifier(buildIdentifier, ":child2"))
+        child2.setTasks(Collections.singletonList([a: 1, b: [Thread.State.NEW, 2L, 'c', null] as Set]))
+        root.setChildren([child1, child2])
+
+        when:
+        def serialized = originator.serialize(root)
+        def received = receiver.deserialize(serialized)
+
+        then:
+        serialized.binaryEncoded
+        received.name == "root"
+        received.projectDirectory == new File("root")
+        received.children*.name == ["child1", "child2"]
+        received.children*.parent.every { it.is(received) }
+        received.children*.projectDirectory == [new File("root/child1"), new File("root/child2")]
+        received.children*.rootDir.every { it.is(received.rootDir) }
+        received.children[1].path == ":child2"
+        received.children[1].tasks == [[a: 1, b: [Thread.State.NEW, 2L, 'c', null] as Set]]
+    }
+
+    def "uses Java serialization for Gradle models that refer to objects that are not Gradle models"() {
+        def root = new DefaultGradleProject().setName("root")
+        def child1 = new DefaultGradleProject().setName("child1").setParent(root)
+        def child2 = new DefaultGradleProject().setName("child2").setParent(root)
+        root.setChildren(new CopyOnWriteArrayList([child1, child2]))
+
+        when:
+        def serialized = originator.serialize(root)
+        def received = receiver.deserialize(serialized)
+
+        then:
+        !serialized.binaryEncoded
+        received.children instanceof CopyOnWriteArrayList
+        received.children*.name == ["child1", "child2"]
+        received.children*.parent.every { it.is(received) }
+    }
+
+    def "uses Java serialization for Gradle models that refer to an immutable collection from within its elements"() {
+        def root = new DefaultGradleProject().setName("root")
+        def children = []
+        def unmodifiableChildren = Collections.unmodifiableList(children)
+        def child = new DefaultGradleProject().setName("child").setParent(root).setChildren(unmodifiableChildren)
+        children.add(child)
+        root.setChildren(unmodifiableChildren)
+
+        when:
+        def serialized = originator.serialize(root)
+        def received = receiver.deserialize(serialized)
+
+        then:
+        !serialized.binaryEncoded
+        received.children*.name == ["child"]
+        received.children[0].parent.is(received)
+        received.children[0].children.is(received.children)
+    }
+
+    def "uses Java serialization for objects that are not Gradle models"() {
+        expect:
+        !originator.serialize(new StringBuilder("value")).binaryEncoded
+        !originator.serialize(null).binaryEncoded
+    }
+
     def "implementation classpath travels with object"() {
         def payloadClass = isolated(CustomPayload, PayloadInterface).loadClass(CustomPayload.name)
         def original = payloadClass.newInstance(value: 'value')
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.logging.sink;
+
+import org.gradle.api.logging.LogLevel;
+import org.gradle.api.logging.Logger;
+import org.gradle.internal.io.NullOutputStream;
+import org.gradle.internal.logging.events.EndOutputEvent;
+import org.gradle.internal.logging.slf4j.OutputEventListenerBackedLoggerContext;
+import org.gradle.internal.time.ReliableTimeProvider;
+import org.gradle.internal.time.TimeProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Logs from many threads at once through the logging pipeline to a console, as parallel task and test workers do.
+ */
+@State(Scope.Benchmark)
+@Threads(32)
+public class LoggingPipelineBenchmark {
+    private OutputEventRenderer renderer;
+    private Logger logger;
+
+    @Setup(Level.Trial)
+    public void setupPipeline() {
+        TimeProvider timeProvider = new ReliableTimeProvider();
+        renderer = new OutputEventRenderer(timeProvider);
+        renderer.attachAnsiConsole(NullOutputStream.INSTANCE);
+        renderer.configure(LogLevel.LIFECYCLE);
+
+        OutputEventListenerBackedLoggerContext context = new OutputEventListenerBackedLoggerContext(NullOutputStream.INSTANCE, NullOutputStream.INSTANCE, timeProvider);
+        context.setOutputEventListener(renderer);
+        context.setLevel(LogLevel.LIFECYCLE);
+        logger = context.getLogger(LoggingPipelineBenchmark.class.getName());
+    }
+
+    @TearDown(Level.Trial)
+    public void stopPipeline() {
+        renderer.onOutput(new EndOutputEvent());
+    }
+
+    @Benchmark
+    public void logEnabledLine() {
+        logger.lifecycle("Processed item {} of {}", Thread.currentThread().getName(), "benchmark");
+    }
+
+    @Benchmark
+    public void logDisabledLine() {
+        logger.debug("Processed item {} of {}", Thread.currentThread().getName(), "benchmark");
+    }
+}
@@ -22,14 +22,21 @@ import org.gradle.internal.logging.events.OutputEventListener;
 import org.gradle.internal.logging.events.UpdateNowEvent;
 import org.gradle.internal.time.TimeProvider;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Queue output events to be forwarded and schedule flush when time passed or if end of build is signalled.
+ *
+ * <p>Threads generating output only add to a lock-free queue, and never wait for the queued events to be forwarded unless they forward them themselves.
+ * Events are forwarded in batches by a single thread at a time.</p>
  */
 public class ThrottlingOutputEventListener implements OutputEventListener {
     private final static long UPDATE_NOW_FLUSH_INITIAL_DELAY_AND_PERIOD_MS = 100L;
@@ -38,10 +45,13 @@ public class ThrottlingOutputEventListener implements OutputEventListener {
     private final ScheduledExecutorService executor;
     private final TimeProvider timeProvider;
     private final int throttleMs;
-    private final Object lock = new Object();
+    private final Lock renderLock = new ReentrantLock();
 
-    private long lastUpdate;
-    private final List<OutputEvent> queue = new ArrayList<OutputEvent>();
+    private volatile long lastUpdate;
+    private final Queue<OutputEvent> queue = new ConcurrentLinkedQueue<OutputEvent>();
+    // The number of events added to the queue that have not yet been claimed by a flush
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicBoolean flushPending = new AtomicBoolean();
 
     public ThrottlingOutputEventListener(OutputEventListener listener, TimeProvider timeProvider) {
         this(listener, Integer.getInteger("org.gradle.console.throttle", 85), Executors.newSingleThreadScheduledExecutor(), timeProvider);
@@ -65,50 +75,58 @@ public class ThrottlingOutputEventListener implements OutputEventListener {
     }
 
     public void onOutput(OutputEvent newEvent) {
-        synchronized (lock) {
-            queue.add(newEvent);
+        queue.add(newEvent);
+        queued.incrementAndGet();
 
-            if (newEvent instanceof EndOutputEvent) {
-                // Flush and clean up
-                renderNow(timeProvider.getCurrentTime());
-                executor.shutdown();
-                return;
-            }
-
-            if (queue.size() > 1) {
-                // Currently queuing events, a thread is scheduled to flush the queue later
-                return;
-            }
+        if (newEvent instanceof EndOutputEvent) {
+            // Flush and clean up
+            renderNow(timeProvider.getCurrentTime());
+            executor.shutdown();
+            return;
+        }
 
-            long now = timeProvider.getCurrentTime();
-            if (now - lastUpdate >= throttleMs) {
-                // Has been long enough since last update - flush now
-                renderNow(now);
-                return;
-            }
+        if (!flushPending.compareAndSet(false, true)) {
+            // Currently queuing events, a flush is scheduled or running and will forward this event
+            return;
+        }
 
-            // This is the first queued event - schedule a thread to flush later
-            executor.schedule(new Runnable() {
-                @Override
-                public void run() {
-                    synchronized (lock) {
-                        renderNow(timeProvider.getCurrentTime());
-                    }
-                }
-            }, throttleMs, TimeUnit.MILLISECONDS);
+        long now = timeProvider.getCurrentTime();
+        if (now - lastUpdate >= throttleMs) {
+            // Has been long enough since last update - flush now
+            renderNow(now);
+            return;
         }
+
+        // This is the first queued event - schedule a thread to flush later
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                renderNow(timeProvider.getCurrentTime());
+            }
+        }, throttleMs, TimeUnit.MILLISECONDS);
     }
 
     private void renderNow(long now) {
-        if (queue.isEmpty()) {
-            // Already rendered - don't update anything
-            return;
-        }
+        renderLock.lock();
+        try {
+            // Claim the events queued so far. Any event queued after this point triggers another flush, so the batch is bounded even when output keeps arriving
+            flushPending.set(false);
+            int count = queued.getAndSet(0);
+            if (count == 0) {
+                // Already rendered - don't update anything
+                return;
+            }
 
-        for (OutputEvent event : queue) {
-            listener.onOutput(event);
+            for (int i = 0; i < count; i++) {
+                OutputEvent event = queue.poll();
+                if (event == null) {
+                    break;
+                }
+                listener.onOutput(event);
+            }
+            lastUpdate = now;
+        } finally {
+            renderLock.unlock();
         }
-        queue.clear();
-        lastUpdate = now;
     }
 }
@@ -17,6 +17,7 @@ package org.gradle.internal.logging.console
 
 import org.gradle.internal.logging.OutputSpecification
 import org.gradle.internal.logging.events.EndOutputEvent
+import org.gradle.internal.logging.events.LogEvent
 import org.gradle.internal.logging.events.OutputEventListener
 import org.gradle.internal.logging.events.UpdateNowEvent
 import org.gradle.util.MockExecutor
@@ -155,6 +156,30 @@ class ThrottlingOutputEventListenerTest extends OutputSpecification {
         executor.isShutdown()
     }
 
+    def "forwards all events generated concurrently in the order each thread generated them"() {
+        def received = []
+        def collector = { event -> received << event } as OutputEventListener
+        def renderer = new ThrottlingOutputEventListener(collector, 0, executor, timeProvider)
+        def threads = (1..8).collect { thread ->
+            new Thread({
+                (1..500).each { renderer.onOutput(event("${thread}:${it}")) }
+            })
+        }
+
+        when:
+        threads*.start()
+        threads*.join()
+        renderer.onOutput(new EndOutputEvent())
+
+        then:
+        received.size() == 8 * 500 + 1
+        received.last() instanceof EndOutputEvent
+        (1..8).each { thread ->
+            def messages = received.findAll { it instanceof LogEvent && it.message.startsWith("${thread}:") }*.message
+            assert messages == (1..500).collect { "${thread}:${it}" as String }
+        }
+    }
+
     private void flushSingleScheduledActions() {
         executor.runSingleScheduledActionsNow()
     }
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.remote.internal.inet;
+
+import com.google.common.base.Strings;
+import org.gradle.internal.remote.internal.KryoBackedMessageSerializer;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.Serializers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many messages per second a socket connection sends to another process on the same machine.
+ * The receiving process acknowledges each batch of messages, so that the measurement includes reading and decoding the messages.
+ */
+@Fork(2)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class SocketConnectionBenchmark {
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"16", "256", "4096"})
+    int messageSize;
+
+    private Process receiverProcess;
+    private SocketConnection<String> connection;
+    private String message;
+
+    @Setup
+    public void startReceiver() throws Exception {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        try {
+            server.socket().bind(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 0));
+            String java = new File(System.getProperty("java.home"), "bin/java").getAbsolutePath();
+            receiverProcess = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), Receiver.class.getName(), String.valueOf(server.socket().getLocalPort()))
+                .redirectErrorStream(true)
+                .start();
+            connection = createConnection(server.accept());
+        } finally {
+            server.close();
+        }
+        message = Strings.repeat("x", messageSize);
+    }
+
+    @TearDown
+    public void stopReceiver() throws Exception {
+        connection.stop();
+        receiverProcess.waitFor();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public String dispatchBatch() {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            connection.dispatch(message);
+        }
+        connection.flush();
+        return connection.receive();
+    }
+
+    private static SocketConnection<String> createConnection(SocketChannel socket) {
+        return new SocketConnection<String>(socket, new KryoBackedMessageSerializer(), Serializers.stateful(BaseSerializerFactory.STRING_SERIALIZER));
+    }
+
+    /**
+     * Receives messages in a separate process, and acknowledges each batch.
+     */
+    public static class Receiver {
+        public static void main(String[] args) throws Exception {
+            SocketConnection<String> connection = createConnection(SocketChannel.open(new InetSocketAddress(InetAddress.getByName("127.0.0.1"), Integer.parseInt(args[0]))));
+            try {
+                int count = 0;
+                while (connection.receive() != null) {
+                    if (++count == BATCH_SIZE) {
+                        count = 0;
+                        connection.dispatch("ack");
+                        connection.flush();
+                    }
+                }
+            } finally {
+                connection.stop();
+            }
+        }
+    }
+}
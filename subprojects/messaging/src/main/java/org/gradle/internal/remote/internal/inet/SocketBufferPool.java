@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.internal.remote.internal.inet;
+
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of the direct buffers used by socket connections to read from their channel.
+ *
+ * <p>Allocating a direct buffer is expensive, and its memory is only released once the buffer has been garbage collected. Processes that open many
+ * short lived connections, such as the daemon and worker processes, reuse the buffers of closed connections instead.</p>
+ *
+ * <p>A read buffer is only used by the thread reading from the connection, which returns it to the pool once it has reached the end of the stream.
+ * Write buffers are not pooled, as a connection may be stopped while another thread is still writing to it.</p>
+ */
+class SocketBufferPool {
+    static final int BUFFER_SIZE = 32 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 32;
+
+    private static final Queue<ByteBuffer> BUFFERS = new ConcurrentLinkedQueue<ByteBuffer>();
+    private static final AtomicInteger POOLED_BUFFERS = new AtomicInteger();
+
+    private SocketBufferPool() {
+    }
+
+    /**
+     * Returns an empty buffer of {@link #BUFFER_SIZE} bytes, ready to be written to.
+     */
+    static ByteBuffer acquire() {
+        ByteBuffer buffer = BUFFERS.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+        POOLED_BUFFERS.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns the given buffer to the pool. The caller must not use the buffer afterwards.
+     */
+    static void release(ByteBuffer buffer) {
+        if (POOLED_BUFFERS.incrementAndGet() <= MAX_POOLED_BUFFERS) {
+            BUFFERS.add(buffer);
+        } else {
+            POOLED_BUFFERS.decrementAndGet();
+        }
+    }
+}
@@ -146,15 +146,16 @@ public class SocketConnection<T> implements RemoteConnection<T> {
 
     private static class SocketInputStream extends InputStream {
         private final Selector selector;
-        private final ByteBuffer buffer;
         private final SocketChannel socket;
         private final byte[] readBuffer = new byte[1];
+        // Only used by the reading thread, which returns it to the pool once the end of the stream has been reached
+        private ByteBuffer buffer;
 
         public SocketInputStream(SocketChannel socket) throws IOException {
             this.socket = socket;
             selector = Selector.open();
             socket.register(selector, SelectionKey.OP_READ);
-            buffer = ByteBuffer.allocateDirect(4096);
+            buffer = SocketBufferPool.acquire();
             buffer.limit(0);
         }
 
@@ -172,39 +173,49 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             if (max == 0) {
                 return 0;
             }
+            if (buffer == null) {
+                return -1;
+            }
 
             if (buffer.remaining() == 0) {
-                try {
-                    selector.select();
-                } catch (ClosedSelectorException e) {
-                    return -1;
-                }
-                if (!selector.isOpen()) {
+                int nread = fillBuffer();
+                if (nread < 0) {
+                    SocketBufferPool.release(buffer);
+                    buffer = null;
                     return -1;
                 }
+            }
 
-                buffer.clear();
-                int nread;
-                try {
-                    nread = socket.read(buffer);
-                } catch (IOException e) {
-                    if (isEndOfStream(e)) {
-                        buffer.position(0);
-                        buffer.limit(0);
+            int count = Math.min(buffer.remaining(), max);
+            buffer.get(dest, offset, count);
+            return count;
+        }
+
+        private int fillBuffer() throws IOException {
+            buffer.clear();
+            try {
+                // Read whatever is available, and only wait for more data when there is none
+                int nread = socket.read(buffer);
+                while (nread == 0) {
+                    try {
+                        selector.select();
+                    } catch (ClosedSelectorException e) {
+                        return -1;
+                    }
+                    if (!selector.isOpen()) {
                         return -1;
                     }
-                    throw e;
+                    nread = socket.read(buffer);
                 }
-                buffer.flip();
-
-                if (nread < 0) {
+                return nread;
+            } catch (IOException e) {
+                if (isEndOfStream(e)) {
                     return -1;
                 }
+                throw e;
+            } finally {
+                buffer.flip();
             }
-
-            int count = Math.min(buffer.remaining(), max);
-            buffer.get(dest, offset, count);
-            return count;
         }
 
         @Override
@@ -217,12 +228,14 @@ public class SocketConnection<T> implements RemoteConnection<T> {
         private static final int RETRIES_WHEN_BUFFER_FULL = 2;
         private Selector selector;
         private final SocketChannel socket;
-        private final ByteBuffer buffer;
+        private final ByteBuffer[] buffers = new ByteBuffer[2];
         private final byte[] writeBuffer = new byte[1];
+        // Not pooled, as the connection may be stopped while another thread is still writing to it
+        private final ByteBuffer buffer;
 
         public SocketOutputStream(SocketChannel socket) throws IOException {
             this.socket = socket;
-            buffer = ByteBuffer.allocateDirect(32 * 1024);
+            buffer = ByteBuffer.allocateDirect(SocketBufferPool.BUFFER_SIZE);
         }
 
         @Override
@@ -233,19 +246,12 @@ public class SocketConnection<T> implements RemoteConnection<T> {
 
         @Override
         public void write(byte[] src, int offset, int max) throws IOException {
-            int remaining = max;
-            int currentPos = offset;
-            while (remaining > 0) {
-                int count = Math.min(remaining, buffer.remaining());
-                if (count > 0) {
-                    buffer.put(src, currentPos, count);
-                    remaining -= count;
-                    currentPos += count;
-                }
-                while (buffer.remaining() == 0) {
-                    writeBufferToChannel();
-                }
+            if (max > buffer.remaining()) {
+                // Send the buffered bytes and the given bytes together, instead of copying the given bytes through the buffer in chunks
+                writeBufferAndContentToChannel(ByteBuffer.wrap(src, offset, max));
+                return;
             }
+            buffer.put(src, offset, max);
         }
 
         @Override
@@ -265,6 +271,25 @@ public class SocketConnection<T> implements RemoteConnection<T> {
             buffer.compact();
         }
 
+        private void writeBufferAndContentToChannel(ByteBuffer content) throws IOException {
+            buffer.flip();
+            buffers[0] = buffer;
+            buffers[1] = content;
+            try {
+                while (content.hasRemaining()) {
+                    long count = socket.write(buffers);
+                    if (count < 0) {
+                        throw new EOFException();
+                    } else if (count == 0) {
+                        waitForWriteBufferToDrain();
+                    }
+                }
+            } finally {
+                buffers[1] = null;
+                buffer.compact();
+            }
+        }
+
         private int writeWithNonBlockingRetry() throws IOException {
             int count = 0;
             int retryCount = 0;
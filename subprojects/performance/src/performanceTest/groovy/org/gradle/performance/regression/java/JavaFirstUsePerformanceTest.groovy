@@ -73,4 +73,27 @@ class JavaFirstUsePerformanceTest extends AbstractCrossVersionPerformanceTest {
         LARGE_MONOLITHIC_JAVA_PROJECT | _
         LARGE_JAVA_MULTI_PROJECT      | _
     }
+
+    @Unroll
+    def "cold daemon with class data sharing on #testProject"() {
+        given:
+        runner.testProject = testProject
+        runner.tasksToRun = ['tasks']
+        // Only a forked daemon is started with the class data sharing archive. The build needs more heap than the client has, so every
+        // invocation starts a single use daemon, which records, archives and then uses the classes loaded across invocations
+        runner.args = ["-Dorg.gradle.jvmargs=-Xms${testProject.daemonMemory} -Xmx${testProject.daemonMemory}", '-Dorg.gradle.daemon.classdatasharing=true']
+        runner.useDaemon = false
+        runner.targetVersions = ["4.2-20170818142118+0000"]
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+
+        where:
+        testProject                   | _
+        LARGE_MONOLITHIC_JAVA_PROJECT | _
+        LARGE_JAVA_MULTI_PROJECT      | _
+    }
 }
@@ -54,6 +54,7 @@ public class BTreePersistentIndexedCache<K, V> {
     private final short maxChildIndexEntries;
     private final int minIndexChildNodes;
     private final StateCheckBlockStore store;
+    private final boolean readOnly;
     private HeaderBlock header;
 
     public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
@@ -62,12 +63,18 @@ public class BTreePersistentIndexedCache<K, V> {
 
     public BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer,
                                        short maxChildIndexEntries, int maxFreeListEntries) {
+        this(cacheFile, keySerializer, valueSerializer, maxChildIndexEntries, maxFreeListEntries, false);
+    }
+
+    private BTreePersistentIndexedCache(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer,
+                                        short maxChildIndexEntries, int maxFreeListEntries, boolean readOnly) {
         this.cacheFile = cacheFile;
+        this.readOnly = readOnly;
         this.keyHasher = new KeyHasher<K>(keySerializer);
         this.serializer = valueSerializer;
         this.maxChildIndexEntries = maxChildIndexEntries;
         this.minIndexChildNodes = maxChildIndexEntries / 2;
-        BlockStore cachingStore = new CachingBlockStore(new FileBackedBlockStore(cacheFile), ImmutableSet.of(IndexBlock.class, FreeListBlockStore.FreeListBlock.class));
+        BlockStore cachingStore = new CachingBlockStore(new FileBackedBlockStore(cacheFile, readOnly), ImmutableSet.of(IndexBlock.class, FreeListBlockStore.FreeListBlock.class));
         this.store = new StateCheckBlockStore(new FreeListBlockStore(cachingStore, maxFreeListEntries));
         try {
             open();
@@ -76,6 +83,14 @@ public class BTreePersistentIndexedCache<K, V> {
         }
     }
 
+    /**
+     * Opens an existing cache file for reading only, for example one on a read-only file system. The file is never written to:
+     * {@link #put(Object, Object)} and {@link #remove(Object)} fail, and a corrupt file is reported rather than discarded.
+     */
+    public static <K, V> BTreePersistentIndexedCache<K, V> openReadOnly(File cacheFile, Serializer<K> keySerializer, Serializer<V> valueSerializer) {
+        return new BTreePersistentIndexedCache<K, V>(cacheFile, keySerializer, valueSerializer, (short) 512, 512, true);
+    }
+
     @Override
     public String toString() {
         return "cache " + cacheFile.getName() + " (" + cacheFile + ")";
@@ -86,6 +101,9 @@ public class BTreePersistentIndexedCache<K, V> {
         try {
             doOpen();
         } catch (CorruptedCacheException e) {
+            if (readOnly) {
+                throw e;
+            }
             rebuild();
         }
     }
@@ -127,6 +145,10 @@ public class BTreePersistentIndexedCache<K, V> {
                 }
                 return null;
             } catch (CorruptedCacheException e) {
+                if (readOnly) {
+                    LOGGER.warn("{} is corrupt. Ignoring entry '{}'.", this, key);
+                    return null;
+                }
                 rebuild();
                 return null;
             }
@@ -136,6 +158,7 @@ public class BTreePersistentIndexedCache<K, V> {
     }
 
     public void put(K key, V value) {
+        assertWritable();
         try {
             long hashCode = keyHasher.getHashCode(key);
             Lookup lookup = header.getRoot().find(hashCode);
@@ -161,6 +184,7 @@ public class BTreePersistentIndexedCache<K, V> {
     }
 
     public void remove(K key) {
+        assertWritable();
         try {
             Lookup lookup = header.getRoot().find(key);
             if (lookup.entry == null) {
@@ -175,6 +199,12 @@ public class BTreePersistentIndexedCache<K, V> {
         }
     }
 
+    private void assertWritable() {
+        if (readOnly) {
+            throw new UnsupportedOperationException(String.format("Cannot modify read-only %s.", this));
+        }
+    }
+
     private IndexBlock load(BlockPointer pos, IndexRoot root, IndexBlock parent, int index) {
         IndexBlock block = store.read(pos, IndexBlock.class);
         block.root = root;
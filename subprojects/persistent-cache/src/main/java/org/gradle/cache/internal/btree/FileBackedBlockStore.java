@@ -25,6 +25,7 @@ import java.io.RandomAccessFile;
 
 public class FileBackedBlockStore implements BlockStore {
     private final File cacheFile;
+    private final boolean readOnly;
     private RandomAccessFile file;
     private ByteOutput output;
     private ByteInput input;
@@ -33,7 +34,15 @@ public class FileBackedBlockStore implements BlockStore {
     private long currentFileSize;
 
     public FileBackedBlockStore(File cacheFile) {
+        this(cacheFile, false);
+    }
+
+    /**
+     * @param readOnly when true, the file must already exist and is opened without write access.
+     */
+    public FileBackedBlockStore(File cacheFile, boolean readOnly) {
         this.cacheFile = cacheFile;
+        this.readOnly = readOnly;
     }
 
     @Override
@@ -44,13 +53,20 @@ public class FileBackedBlockStore implements BlockStore {
     public void open(Runnable runnable, Factory factory) {
         this.factory = factory;
         try {
-            cacheFile.getParentFile().mkdirs();
-            file = new RandomAccessFile(cacheFile, "rw");
+            if (readOnly) {
+                file = new RandomAccessFile(cacheFile, "r");
+            } else {
+                cacheFile.getParentFile().mkdirs();
+                file = new RandomAccessFile(cacheFile, "rw");
+            }
             output = new ByteOutput(file);
             input = new ByteInput(file);
             currentFileSize = file.length();
             nextBlock = currentFileSize;
             if (currentFileSize == 0) {
+                if (readOnly) {
+                    throw new CorruptedCacheException(String.format("Read-only %s is empty.", this));
+                }
                 runnable.run();
             }
         } catch (IOException e) {
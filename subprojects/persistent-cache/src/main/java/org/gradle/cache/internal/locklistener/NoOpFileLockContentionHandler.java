@@ -16,6 +16,10 @@
 
 package org.gradle.cache.internal.locklistener;
 
+/**
+ * A {@link FileLockContentionHandler} for locks that are never released on request. Does not reserve a port, so does not
+ * open a socket or look up the local network interfaces.
+ */
 public class NoOpFileLockContentionHandler implements FileLockContentionHandler {
 
     public void start(long lockId, Runnable whenContended) {}
@@ -38,6 +38,7 @@ import java.util.Map;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 
 public class BTreePersistentIndexedCacheTest {
     @Rule
@@ -387,6 +388,62 @@ public class BTreePersistentIndexedCacheTest {
         cache.close();
     }
 
+    @Test
+    public void canReadEntriesFromReadOnlyCache() {
+        createCache();
+        checkAdds(1, 2, 3, 4, 5);
+        cache.close();
+        long length = cacheFile.length();
+        cacheFile.setReadOnly();
+
+        BTreePersistentIndexedCache<String, Integer> readOnlyCache = BTreePersistentIndexedCache.openReadOnly(cacheFile, stringSerializer, integerSerializer);
+
+        assertThat(readOnlyCache.get("key_1"), equalTo(1));
+        assertThat(readOnlyCache.get("key_5"), equalTo(5));
+        assertNull(readOnlyCache.get("unknown"));
+        readOnlyCache.close();
+
+        assertThat(cacheFile.length(), equalTo(length));
+    }
+
+    @Test
+    public void cannotModifyReadOnlyCache() {
+        createCache();
+        checkAdds(1);
+        cache.close();
+
+        BTreePersistentIndexedCache<String, Integer> readOnlyCache = BTreePersistentIndexedCache.openReadOnly(cacheFile, stringSerializer, integerSerializer);
+        try {
+            readOnlyCache.put("key_2", 2);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            readOnlyCache.remove("key_1");
+            fail();
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        assertThat(readOnlyCache.get("key_1"), equalTo(1));
+        readOnlyCache.close();
+    }
+
+    @Test
+    public void doesNotDiscardBadlyFormedReadOnlyCacheFile() throws IOException {
+        cacheFile.createNewFile();
+        cacheFile.write("some junk");
+
+        try {
+            BTreePersistentIndexedCache.openReadOnly(cacheFile, stringSerializer, integerSerializer);
+            fail();
+        } catch (RuntimeException e) {
+            // expected
+        }
+
+        assertThat(cacheFile.getText(), equalTo("some junk"));
+    }
+
     private void checkAdds(Integer... values) {
         checkAdds(Arrays.asList(values));
     }
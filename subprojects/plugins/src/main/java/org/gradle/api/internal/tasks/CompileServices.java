@@ -16,13 +16,16 @@
 
 package org.gradle.api.internal.tasks;
 
+import org.gradle.StartParameter;
 import org.gradle.api.internal.changedetection.state.InMemoryCacheDecoratorFactory;
 import org.gradle.api.internal.jvm.JvmBinaryRenderer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisExecutor;
 import org.gradle.api.internal.tasks.compile.incremental.cache.DefaultGeneralCompileCaches;
 import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
 import org.gradle.api.invocation.Gradle;
 import org.gradle.cache.CacheRepository;
 import org.gradle.initialization.JdkToolsInitializer;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
 
@@ -44,5 +47,9 @@ public class CompileServices extends AbstractPluginServiceRegistry {
         GeneralCompileCaches createGeneralCompileCaches(CacheRepository cacheRepository, Gradle gradle, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
             return new DefaultGeneralCompileCaches(cacheRepository, gradle, inMemoryCacheDecoratorFactory);
         }
+
+        ClassAnalysisExecutor createClassAnalysisExecutor(ExecutorFactory executorFactory, StartParameter startParameter) {
+            return new ClassAnalysisExecutor(executorFactory, startParameter.getMaxWorkerCount());
+        }
     }
 }
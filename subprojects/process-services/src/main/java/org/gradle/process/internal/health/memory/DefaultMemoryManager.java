@@ -26,6 +26,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -46,6 +48,7 @@ public class DefaultMemoryManager implements MemoryManager, Stoppable {
     private final Object holdersLock = new Object();
     private final Object memoryLock = new Object();
     private final List<MemoryHolder> holders = new ArrayList<MemoryHolder>();
+    private final List<HeapMemoryHolder> heapHolders = new ArrayList<HeapMemoryHolder>();
     private OsMemoryStatus currentOsMemoryStatus;
     private final OsMemoryStatusListener osMemoryStatusListener;
 
@@ -134,6 +137,24 @@ public class DefaultMemoryManager implements MemoryManager, Stoppable {
         return freeMemory;
     }
 
+    @Override
+    public long requestFreeHeapMemory(long memoryAmountBytes) {
+        List<HeapMemoryHolder> memoryHolders;
+        synchronized (holdersLock) {
+            memoryHolders = new ArrayList<HeapMemoryHolder>(heapHolders);
+        }
+        long requested = memoryAmountBytes > 0 ? memoryAmountBytes : 0;
+        long released = 0;
+        for (HeapMemoryHolder heapHolder : memoryHolders) {
+            if (released >= requested) {
+                break;
+            }
+            released += heapHolder.holder.attemptToRelease(requested - released);
+        }
+        LOGGER.debug("{} heap memory requested, {} released", requested, released);
+        return released;
+    }
+
     private long getMemoryThresholdInBytes(long totalPhysicalMemory) {
         return Math.max(MIN_THRESHOLD_BYTES, (long) (totalPhysicalMemory * minFreeMemoryPercentage));
     }
@@ -186,6 +207,42 @@ public class DefaultMemoryManager implements MemoryManager, Stoppable {
         }
     }
 
+    @Override
+    public void addHeapMemoryHolder(MemoryHolder holder, int priority) {
+        synchronized (holdersLock) {
+            heapHolders.add(new HeapMemoryHolder(holder, priority));
+            // Stable, so holders with the same priority are asked in the order they were added
+            Collections.sort(heapHolders, new Comparator<HeapMemoryHolder>() {
+                @Override
+                public int compare(HeapMemoryHolder o1, HeapMemoryHolder o2) {
+                    return o1.priority < o2.priority ? -1 : o1.priority == o2.priority ? 0 : 1;
+                }
+            });
+        }
+    }
+
+    @Override
+    public void removeHeapMemoryHolder(MemoryHolder holder) {
+        synchronized (holdersLock) {
+            for (int i = 0; i < heapHolders.size(); i++) {
+                if (heapHolders.get(i).holder == holder) {
+                    heapHolders.remove(i);
+                    return;
+                }
+            }
+        }
+    }
+
+    private static class HeapMemoryHolder {
+        private final MemoryHolder holder;
+        private final int priority;
+
+        private HeapMemoryHolder(MemoryHolder holder, int priority) {
+            this.holder = holder;
+            this.priority = priority;
+        }
+    }
+
     @Override
     public void addListener(JvmMemoryStatusListener listener) {
         listenerManager.addListener(listener);
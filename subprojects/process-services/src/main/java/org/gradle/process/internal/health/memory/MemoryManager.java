@@ -49,4 +49,31 @@ public interface MemoryManager {
      * @param memoryAmountBytes The requested amount of memory in bytes. If negative, {@literal 0} is assumed.
      */
     void requestFreeMemory(long memoryAmountBytes);
+
+    /**
+     * Register a holder of memory on the heap of this process, such as an in-memory cache.
+     *
+     * Heap memory holders are asked to release memory in order of priority, lowest first, so that state that is cheap to recreate is released before state that is expensive to recreate.
+     *
+     * @param holder The heap memory holder to register
+     * @param priority The priority of the holder
+     */
+    void addHeapMemoryHolder(MemoryHolder holder, int priority);
+
+    /**
+     * Unregister a heap memory holder.
+     *
+     * @param holder The heap memory holder to unregister
+     */
+    void removeHeapMemoryHolder(MemoryHolder holder);
+
+    /**
+     * Request an amount of heap memory to be released.
+     *
+     * Asks the heap memory holders, in order of priority, to release memory until {@literal memoryAmountBytes} have been released or there are no holders left.
+     *
+     * @param memoryAmountBytes The requested amount of memory in bytes. If negative, {@literal 0} is assumed.
+     * @return The amount of heap memory released, as estimated by the holders.
+     */
+    long requestFreeHeapMemory(long memoryAmountBytes);
 }
@@ -134,6 +134,84 @@ class DefaultMemoryManagerTest extends ConcurrentSpec {
         memoryManager.stop()
     }
 
+    def "asks heap memory holders to release memory in order of priority"() {
+        given:
+        def memoryManager = newMemoryManager()
+
+        and:
+        def holder1 = Mock(MemoryHolder)
+        def holder2 = Mock(MemoryHolder)
+        def holder3 = Mock(MemoryHolder)
+        memoryManager.addHeapMemoryHolder(holder3, 10)
+        memoryManager.addHeapMemoryHolder(holder1, 0)
+        memoryManager.addHeapMemoryHolder(holder2, 0)
+
+        when:
+        def released = memoryManager.requestFreeHeapMemory(300)
+
+        then:
+        1 * holder1.attemptToRelease(300) >> 100
+
+        then:
+        1 * holder2.attemptToRelease(200) >> 50
+
+        then:
+        1 * holder3.attemptToRelease(150) >> 20
+        0 * _
+
+        and:
+        released == 170
+
+        cleanup:
+        memoryManager.stop()
+    }
+
+    def "stops asking heap memory holders once requested heap memory has been released"() {
+        given:
+        def memoryManager = newMemoryManager()
+
+        and:
+        def holder1 = Mock(MemoryHolder)
+        def holder2 = Mock(MemoryHolder)
+        memoryManager.addHeapMemoryHolder(holder1, 0)
+        memoryManager.addHeapMemoryHolder(holder2, 1)
+
+        when:
+        def released = memoryManager.requestFreeHeapMemory(100)
+
+        then:
+        1 * holder1.attemptToRelease(100) >> 120
+        0 * holder2.attemptToRelease(_)
+
+        and:
+        released == 120
+
+        cleanup:
+        memoryManager.stop()
+    }
+
+    def "does not ask removed heap memory holders to release memory"() {
+        given:
+        def memoryManager = newMemoryManager()
+
+        and:
+        def holder = Mock(MemoryHolder)
+        memoryManager.addHeapMemoryHolder(holder, 0)
+        memoryManager.removeHeapMemoryHolder(holder)
+
+        when:
+        def released = memoryManager.requestFreeHeapMemory(100)
+
+        then:
+        0 * holder.attemptToRelease(_)
+
+        and:
+        released == 0
+
+        cleanup:
+        memoryManager.stop()
+    }
+
     def "only one request for memory is performed for a given snapshot"() {
         given:
         osMemoryInfo.getFreePhysicalMemory() >> MemoryAmount.of(1).bytes
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.gradle.authentication.Authentication;
+import org.gradle.internal.IoActions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the throughput of small GET requests (POMs, checksums) issued concurrently against a local repository stand-in,
+ * for different connection pool sizes.
+ */
+@Fork(1)
+@Threads(16)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@State(Scope.Benchmark)
+public class HttpResourceAccessorBenchmark {
+    private static final byte[] SMALL_RESOURCE = new byte[2048];
+
+    @Param({"4", "20", "64"})
+    int maxConnectionsPerRoute;
+
+    HttpServer server;
+    ExecutorService serverExecutor;
+    HttpClientHelper http;
+    HttpResourceAccessor accessor;
+    URI baseUri;
+    AtomicInteger counter;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 128);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+                exchange.sendResponseHeaders(200, SMALL_RESOURCE.length);
+                OutputStream body = exchange.getResponseBody();
+                try {
+                    body.write(SMALL_RESOURCE);
+                } finally {
+                    body.close();
+                }
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(64);
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUri = URI.create("http://localhost:" + server.getAddress().getPort() + "/repo/");
+
+        System.setProperty(JavaSystemPropertiesHttpConnectionSettings.MAX_CONNECTIONS_SYSTEM_PROPERTY, String.valueOf(maxConnectionsPerRoute));
+        System.setProperty(JavaSystemPropertiesHttpConnectionSettings.MAX_CONNECTIONS_PER_ROUTE_SYSTEM_PROPERTY, String.valueOf(maxConnectionsPerRoute));
+        http = new HttpClientHelper(new DefaultHttpSettings(Collections.<Authentication>emptyList(), new DefaultSslContextFactory()));
+        accessor = new HttpResourceAccessor(http);
+        counter = new AtomicInteger();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws IOException {
+        http.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        System.clearProperty(JavaSystemPropertiesHttpConnectionSettings.MAX_CONNECTIONS_SYSTEM_PROPERTY);
+        System.clearProperty(JavaSystemPropertiesHttpConnectionSettings.MAX_CONNECTIONS_PER_ROUTE_SYSTEM_PROPERTY);
+    }
+
+    @Benchmark
+    public void getSmallResource(Blackhole blackhole) throws IOException {
+        URI uri = baseUri.resolve("module-" + counter.incrementAndGet() + ".pom.sha1");
+        HttpResponseResource resource = accessor.openResource(uri, false);
+        try {
+            InputStream stream = resource.openStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = stream.read(buffer)) >= 0) {
+                blackhole.consume(read);
+            }
+        } finally {
+            IoActions.closeQuietly(resource);
+        }
+    }
+}
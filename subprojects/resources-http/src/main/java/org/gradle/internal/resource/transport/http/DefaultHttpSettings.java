@@ -38,6 +38,7 @@ public class DefaultHttpSettings implements HttpSettings {
     private HttpProxySettings proxySettings;
     private HttpProxySettings secureProxySettings;
     private HttpTimeoutSettings timeoutSettings;
+    private HttpConnectionSettings connectionSettings;
 
     public static DefaultHttpSettings allowUntrustedSslConnections(Collection<Authentication> authenticationSettings) {
         return new DefaultHttpSettings(authenticationSettings, ALL_TRUSTING_SSL_CONTEXT_FACTORY, ALL_TRUSTING_HOSTNAME_VERIFIER);
@@ -81,6 +82,14 @@ public class DefaultHttpSettings implements HttpSettings {
         return timeoutSettings;
     }
 
+    @Override
+    public HttpConnectionSettings getConnectionSettings() {
+        if (connectionSettings == null) {
+            connectionSettings = new JavaSystemPropertiesHttpConnectionSettings();
+        }
+        return connectionSettings;
+    }
+
     @Override
     public Collection<Authentication> getAuthenticationSettings() {
         return authenticationSettings;
@@ -20,6 +20,7 @@ import org.apache.http.HttpException;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpRequest;
 import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.HttpResponse;
 import org.apache.http.auth.AuthScheme;
 import org.apache.http.auth.AuthSchemeProvider;
 import org.apache.http.auth.AuthScope;
@@ -36,6 +37,7 @@ import org.apache.http.client.methods.HttpPut;
 import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.client.utils.DateUtils;
 import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.util.PublicSuffixMatcher;
 import org.apache.http.conn.util.PublicSuffixMatcherLoader;
@@ -45,6 +47,7 @@ import org.apache.http.impl.auth.BasicSchemeFactory;
 import org.apache.http.impl.auth.DigestSchemeFactory;
 import org.apache.http.impl.auth.KerberosSchemeFactory;
 import org.apache.http.impl.auth.SPNegoSchemeFactory;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.SystemDefaultCredentialsProvider;
 import org.apache.http.impl.conn.SystemDefaultRoutePlanner;
@@ -77,7 +80,6 @@ import java.util.Collections;
 
 public class HttpClientConfigurer {
     private static final Logger LOGGER = LoggerFactory.getLogger(HttpClientConfigurer.class);
-    private static final int MAX_HTTP_CONNECTIONS = 20;
     private final HttpSettings httpSettings;
 
     public HttpClientConfigurer(HttpSettings httpSettings) {
@@ -93,9 +95,8 @@ public class HttpClientConfigurer {
         configureUserAgent(builder);
         configureCookieSpecRegistry(builder);
         configureRequestConfig(builder);
+        configureConnectionPool(builder);
         builder.setDefaultCredentialsProvider(credentialsProvider);
-        builder.setMaxConnTotal(MAX_HTTP_CONNECTIONS);
-        builder.setMaxConnPerRoute(MAX_HTTP_CONNECTIONS);
     }
 
     private void configureSslSocketConnectionFactory(HttpClientBuilder builder, SslContextFactory sslContextFactory, HostnameVerifier hostnameVerifier) {
@@ -205,6 +206,13 @@ public class HttpClientConfigurer {
         builder.setDefaultRequestConfig(config);
     }
 
+    private void configureConnectionPool(HttpClientBuilder builder) {
+        HttpConnectionSettings connectionSettings = httpSettings.getConnectionSettings();
+        builder.setMaxConnTotal(connectionSettings.getMaxConnections());
+        builder.setMaxConnPerRoute(connectionSettings.getMaxConnectionsPerRoute());
+        builder.setKeepAliveStrategy(new DefaultingKeepAliveStrategy(connectionSettings.getKeepAliveTimeout()));
+    }
+
     private PasswordCredentials getPasswordCredentials(Authentication authentication) {
         org.gradle.api.credentials.Credentials credentials = ((AuthenticationInternal) authentication).getCredentials();
         if (!(credentials instanceof PasswordCredentials)) {
@@ -226,6 +234,26 @@ public class HttpClientConfigurer {
         }
     }
 
+    /**
+     * Keeps idle connections for the duration requested by the server, or for a bounded time when the
+     * server does not send a {@code Keep-Alive} header. Without a duration, HttpClient would reuse an idle
+     * connection indefinitely, even though the server or a proxy in between may have closed it in the
+     * meantime, so that the next request on it fails.
+     */
+    static class DefaultingKeepAliveStrategy implements ConnectionKeepAliveStrategy {
+        private final long defaultKeepAliveTimeout;
+
+        DefaultingKeepAliveStrategy(long defaultKeepAliveTimeout) {
+            this.defaultKeepAliveTimeout = defaultKeepAliveTimeout;
+        }
+
+        @Override
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration > 0 ? duration : defaultKeepAliveTimeout;
+        }
+    }
+
     static class PreemptiveAuth implements HttpRequestInterceptor {
         private final AuthScheme authScheme;
         private final boolean alwaysSendAuth;
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+/**
+ * Controls how connections to a repository host are pooled and reused.
+ */
+public interface HttpConnectionSettings {
+
+    /**
+     * The maximum number of connections kept open by a single HTTP client, across all hosts.
+     */
+    int getMaxConnections();
+
+    /**
+     * The maximum number of connections kept open by a single HTTP client to one host.
+     */
+    int getMaxConnectionsPerRoute();
+
+    /**
+     * The time in milliseconds an idle connection is kept alive when the server does not say otherwise.
+     */
+    long getKeepAliveTimeout();
+}
@@ -148,6 +148,27 @@ public class HttpResponseResource implements ExternalResourceReadResponse {
             return new HashValue(hash);
         }
 
+        // Artifactory uses the plain sha1 of the content as etag, optionally quoted
+        // e.g "b8ad5573a5e9eba7d48ed77a48ad098e3ec2590b"
+        if (etag != null) {
+            String unquoted = etag.length() > 1 && etag.startsWith("\"") && etag.endsWith("\"") ? etag.substring(1, etag.length() - 1) : etag;
+            if (isSha1HexString(unquoted)) {
+                return new HashValue(unquoted);
+            }
+        }
+
         return null;
     }
+
+    private static boolean isSha1HexString(String value) {
+        if (value.length() != 40) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -28,6 +28,8 @@ public interface HttpSettings {
 
     HttpTimeoutSettings getTimeoutSettings();
 
+    HttpConnectionSettings getConnectionSettings();
+
     Collection<Authentication> getAuthenticationSettings();
 
     SslContextFactory getSslContextFactory();
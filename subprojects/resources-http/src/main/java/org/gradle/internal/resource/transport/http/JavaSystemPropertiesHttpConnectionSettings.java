@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http;
+
+import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class JavaSystemPropertiesHttpConnectionSettings implements HttpConnectionSettings {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaSystemPropertiesHttpConnectionSettings.class);
+    public static final String MAX_CONNECTIONS_SYSTEM_PROPERTY = "org.gradle.internal.http.maxConnections";
+    public static final String MAX_CONNECTIONS_PER_ROUTE_SYSTEM_PROPERTY = "org.gradle.internal.http.maxConnectionsPerRoute";
+    public static final String KEEP_ALIVE_TIMEOUT_SYSTEM_PROPERTY = "org.gradle.internal.http.keepAliveTimeout";
+    public static final int DEFAULT_MAX_CONNECTIONS = 20;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    public static final long DEFAULT_KEEP_ALIVE_TIMEOUT = 60000;
+    private final int maxConnections;
+    private final int maxConnectionsPerRoute;
+    private final long keepAliveTimeout;
+
+    public JavaSystemPropertiesHttpConnectionSettings() {
+        this.maxConnections = initPositiveValue(MAX_CONNECTIONS_SYSTEM_PROPERTY, DEFAULT_MAX_CONNECTIONS);
+        this.maxConnectionsPerRoute = Math.min(maxConnections, initPositiveValue(MAX_CONNECTIONS_PER_ROUTE_SYSTEM_PROPERTY, DEFAULT_MAX_CONNECTIONS_PER_ROUTE));
+        this.keepAliveTimeout = initPositiveValue(KEEP_ALIVE_TIMEOUT_SYSTEM_PROPERTY, DEFAULT_KEEP_ALIVE_TIMEOUT);
+    }
+
+    @Override
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    @Override
+    public int getMaxConnectionsPerRoute() {
+        return maxConnectionsPerRoute;
+    }
+
+    @Override
+    public long getKeepAliveTimeout() {
+        return keepAliveTimeout;
+    }
+
+    private static int initPositiveValue(String propertyName, int defaultValue) {
+        return (int) initPositiveValue(propertyName, (long) defaultValue);
+    }
+
+    private static long initPositiveValue(String propertyName, long defaultValue) {
+        String systemProperty = System.getProperty(propertyName);
+
+        if (!StringUtils.isBlank(systemProperty)) {
+            try {
+                long value = Long.parseLong(systemProperty);
+                if (value > 0 && value <= Integer.MAX_VALUE) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // Fall through
+            }
+            LOGGER.warn("Invalid value for java system property '{}': {}. Default value '{}' will be used.",
+                propertyName, systemProperty, defaultValue);
+        }
+
+        return defaultValue;
+    }
+}
@@ -15,8 +15,11 @@
  */
 package org.gradle.internal.resource.transport.http
 
+import org.apache.http.HttpVersion
 import org.apache.http.auth.AuthScope
 import org.apache.http.impl.client.HttpClientBuilder
+import org.apache.http.message.BasicHttpResponse
+import org.apache.http.protocol.BasicHttpContext
 import org.apache.http.ssl.SSLContexts
 import org.gradle.api.artifacts.repositories.PasswordCredentials
 import org.gradle.internal.authentication.AllSchemesAuthentication
@@ -32,10 +35,12 @@ public class HttpClientConfigurerTest extends Specification {
     HttpProxySettings proxySettings = Mock()
     HttpProxySettings secureProxySettings = Mock()
     HttpTimeoutSettings timeoutSettings = Mock()
+    HttpConnectionSettings connectionSettings = Mock()
     HttpSettings httpSettings = Mock() {
         getProxySettings() >> proxySettings
         getSecureProxySettings() >> secureProxySettings
         getTimeoutSettings() >> timeoutSettings
+        getConnectionSettings() >> connectionSettings
     }
     SslContextFactory sslContextFactory = Mock() {
         createSslContext() >> SSLContexts.createDefault()
@@ -126,4 +131,34 @@ public class HttpClientConfigurerTest extends Specification {
         httpClientBuilder.defaultRequestConfig.connectTimeout == 10000
         httpClientBuilder.defaultRequestConfig.socketTimeout == 30000
     }
+
+    def "configures http client connection pool"() {
+        httpSettings.authenticationSettings >> []
+        httpSettings.sslContextFactory >> sslContextFactory
+
+        when:
+        configurer.configure(httpClientBuilder)
+
+        then:
+        1 * connectionSettings.maxConnections >> 30
+        1 * connectionSettings.maxConnectionsPerRoute >> 10
+        1 * connectionSettings.keepAliveTimeout >> 5000
+        httpClientBuilder.maxConnTotal == 30
+        httpClientBuilder.maxConnPerRoute == 10
+        httpClientBuilder.keepAliveStrategy instanceof HttpClientConfigurer.DefaultingKeepAliveStrategy
+    }
+
+    def "uses default keep alive timeout when server does not provide one"() {
+        def strategy = new HttpClientConfigurer.DefaultingKeepAliveStrategy(5000)
+        def response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK")
+
+        expect:
+        strategy.getKeepAliveDuration(response, new BasicHttpContext()) == 5000
+
+        when:
+        response.addHeader("Keep-Alive", "timeout=2")
+
+        then:
+        strategy.getKeepAliveDuration(response, new BasicHttpContext()) == 2000
+    }
 }
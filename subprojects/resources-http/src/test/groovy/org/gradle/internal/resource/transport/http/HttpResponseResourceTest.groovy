@@ -21,6 +21,7 @@ import org.apache.http.HttpEntity
 import org.apache.http.HttpHeaders
 import org.apache.http.client.methods.CloseableHttpResponse
 import org.apache.http.message.BasicHeader
+import org.gradle.internal.hash.HashValue
 
 class HttpResponseResourceTest extends AbstractHttpClientTest {
 
@@ -41,6 +42,36 @@ class HttpResponseResourceTest extends AbstractHttpClientTest {
         resource().metaData.etag == null
     }
 
+    def "extracts sha1 from X-Checksum-Sha1 header"() {
+        given:
+        addHeader("X-Checksum-Sha1", "b8ad5573a5e9eba7d48ed77a48ad098e3ec2590b")
+
+        expect:
+        resource().metaData.sha1 == new HashValue("b8ad5573a5e9eba7d48ed77a48ad098e3ec2590b")
+    }
+
+    def "extracts sha1 from etag"() {
+        given:
+        addHeader(HttpHeaders.ETAG, etag)
+
+        expect:
+        resource().metaData.sha1 == new HashValue("b8ad5573a5e9eba7d48ed77a48ad098e3ec2590b")
+
+        where:
+        etag << ["{SHA1{b8ad5573a5e9eba7d48ed77a48ad098e3ec2590b}}", "b8ad5573a5e9eba7d48ed77a48ad098e3ec2590b", '"b8ad5573a5e9eba7d48ed77a48ad098e3ec2590b"']
+    }
+
+    def "does not use etag that is not a sha1 as checksum"() {
+        given:
+        addHeader(HttpHeaders.ETAG, etag)
+
+        expect:
+        resource().metaData.sha1 == null
+
+        where:
+        etag << ["abc", '"5d41402abc4b2a76b9719d911017c592"', "W/\"b8ad5573a5e9eba7d48ed77a48ad098e3ec2590b\"", "x8ad5573a5e9eba7d48ed77a48ad098e3ec2590b"]
+    }
+
     def "is not openable more than once"() {
         setup:
         1 * response.entity >> Mock(HttpEntity)
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.resource.transport.http
+
+import org.gradle.testing.internal.util.Specification
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
+
+import static org.gradle.internal.resource.transport.http.JavaSystemPropertiesHttpConnectionSettings.*
+
+class JavaSystemPropertiesHttpConnectionSettingsTest extends Specification {
+
+    @Rule SetSystemProperties setSystemProperties = new SetSystemProperties()
+
+    def "can retrieve default values"() {
+        JavaSystemPropertiesHttpConnectionSettings settings = new JavaSystemPropertiesHttpConnectionSettings()
+
+        expect:
+        settings.maxConnections == DEFAULT_MAX_CONNECTIONS
+        settings.maxConnectionsPerRoute == DEFAULT_MAX_CONNECTIONS_PER_ROUTE
+        settings.keepAliveTimeout == DEFAULT_KEEP_ALIVE_TIMEOUT
+    }
+
+    def "can parse custom value from system property"() {
+        System.setProperty(MAX_CONNECTIONS_SYSTEM_PROPERTY, "40")
+        System.setProperty(MAX_CONNECTIONS_PER_ROUTE_SYSTEM_PROPERTY, "8")
+        System.setProperty(KEEP_ALIVE_TIMEOUT_SYSTEM_PROPERTY, "1000")
+        JavaSystemPropertiesHttpConnectionSettings settings = new JavaSystemPropertiesHttpConnectionSettings()
+
+        expect:
+        settings.maxConnections == 40
+        settings.maxConnectionsPerRoute == 8
+        settings.keepAliveTimeout == 1000
+    }
+
+    def "connections per route are capped by the total number of connections"() {
+        System.setProperty(MAX_CONNECTIONS_SYSTEM_PROPERTY, "4")
+        System.setProperty(MAX_CONNECTIONS_PER_ROUTE_SYSTEM_PROPERTY, "8")
+        JavaSystemPropertiesHttpConnectionSettings settings = new JavaSystemPropertiesHttpConnectionSettings()
+
+        expect:
+        settings.maxConnections == 4
+        settings.maxConnectionsPerRoute == 4
+    }
+
+    def "uses default value if provided value is not valid"() {
+        System.setProperty(MAX_CONNECTIONS_SYSTEM_PROPERTY, value)
+        System.setProperty(KEEP_ALIVE_TIMEOUT_SYSTEM_PROPERTY, value)
+        JavaSystemPropertiesHttpConnectionSettings settings = new JavaSystemPropertiesHttpConnectionSettings()
+
+        expect:
+        settings.maxConnections == DEFAULT_MAX_CONNECTIONS
+        settings.keepAliveTimeout == DEFAULT_KEEP_ALIVE_TIMEOUT
+
+        where:
+        value << ["", "abc", "0", "-1"]
+    }
+}
@@ -16,6 +16,7 @@
 package org.gradle.internal.resource.local;
 
 import org.gradle.api.Action;
+import org.gradle.internal.hash.HashValue;
 
 import java.io.File;
 
@@ -30,6 +31,11 @@ public interface FileStore<K> {
      */
     LocallyAvailableResource move(K key, File source) throws FileStoreException;
 
+    /**
+     * Moves the given file into the store, using a SHA-1 of its content that has already been calculated by the caller.
+     */
+    LocallyAvailableResource move(K key, File source, HashValue sha1) throws FileStoreException;
+
     /**
      * Copies the given file into the store.
      */
@@ -21,12 +21,16 @@ import org.gradle.internal.hash.HashUtil;
 import org.gradle.internal.hash.HashValue;
 
 import java.io.File;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class LazyLocallyAvailableResourceCandidates implements LocallyAvailableResourceCandidates {
 
     private final Factory<List<File>> filesFactory;
     private List<File> files;
+    // Checksums of the candidates hashed so far, so that repeated lookups do not read the same unchanged file again
+    private final Map<File, CandidateHash> hashes = new HashMap<File, CandidateHash>();
 
     public LazyLocallyAvailableResourceCandidates(Factory<List<File>> filesFactory) {
         this.filesFactory = filesFactory;        
@@ -44,9 +48,8 @@ public class LazyLocallyAvailableResourceCandidates implements LocallyAvailableR
     }
 
     public LocallyAvailableResource findByHashValue(HashValue targetHash) {
-        HashValue thisHash;
         for (File file : getFiles()) {
-            thisHash = HashUtil.sha1(file);
+            HashValue thisHash = hashOf(file);
             if (thisHash.equals(targetHash)) {
                 return new DefaultLocallyAvailableResource(file, thisHash);
             }
@@ -55,4 +58,27 @@ public class LazyLocallyAvailableResourceCandidates implements LocallyAvailableR
         return null;
     }
 
+    private HashValue hashOf(File file) {
+        long length = file.length();
+        long lastModified = file.lastModified();
+        CandidateHash candidateHash = hashes.get(file);
+        if (candidateHash == null || candidateHash.length != length || candidateHash.lastModified != lastModified) {
+            candidateHash = new CandidateHash(length, lastModified, HashUtil.sha1(file));
+            hashes.put(file, candidateHash);
+        }
+        return candidateHash.hash;
+    }
+
+    private static class CandidateHash {
+        private final long length;
+        private final long lastModified;
+        private final HashValue hash;
+
+        CandidateHash(long length, long lastModified, HashValue hash) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+    }
+
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.scala.compile
+
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+
+class ScalaCompileAvoidanceIntegrationTest extends AbstractIntegrationSpec {
+    def setup() {
+        settingsFile << "include 'lib', 'app'"
+        buildFile << """
+            subprojects {
+                apply plugin: 'scala'
+
+                ${jcenterRepository()}
+
+                dependencies {
+                    zinc "com.typesafe.zinc:zinc:0.3.13"
+                    compile "org.scala-lang:scala-library:2.11.8"
+                }
+
+                sourceCompatibility = '1.7'
+                targetCompatibility = '1.7'
+            }
+            project(':app') {
+                dependencies {
+                    compile project(':lib')
+                }
+            }
+        """
+        file("lib/src/main/scala/Library.scala") << libraryWithGreeting("hello")
+        file("app/src/main/scala/App.scala") << """
+            class App {
+                def run(): String = new Library().greeting()
+            }
+        """
+    }
+
+    def "does not recompile when only the implementation of a dependency changes"() {
+        given:
+        succeeds ":app:compileScala"
+
+        when:
+        file("lib/src/main/scala/Library.scala").text = libraryWithGreeting("hi")
+        succeeds ":app:compileScala"
+
+        then:
+        executedAndNotSkipped ":lib:compileScala"
+        skipped ":app:compileScala"
+    }
+
+    def "recompiles when the implementation of a dependency changes and the inliner is enabled"() {
+        given:
+        buildFile << """
+            project(':app') {
+                compileScala.scalaCompileOptions.additionalParameters = ['-optimise']
+            }
+        """
+        succeeds ":app:compileScala"
+
+        when:
+        file("lib/src/main/scala/Library.scala").text = libraryWithGreeting("hi")
+        succeeds ":app:compileScala"
+
+        then:
+        executedAndNotSkipped ":lib:compileScala", ":app:compileScala"
+    }
+
+    private static String libraryWithGreeting(String greeting) {
+        """
+            class Library {
+                @inline final def greeting(): String = "${greeting}"
+            }
+        """
+    }
+}
@@ -27,16 +27,25 @@ import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.dispatch.DispatchException;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 /**
- * Manages a set of parallel TestClassProcessors. Uses a simple round-robin algorithm to assign test classes to
- * processors.
+ * Manages a set of parallel TestClassProcessors.
+ *
+ * <p>When there is a single processor or no durations are known for the test classes, uses a simple round-robin algorithm to assign test classes to
+ * processors as they are discovered. When the durations of a previous run are known, the test classes are collected
+ * until discovery is complete and then assigned longest first, each to the processor with the least estimated work,
+ * so that a few slow test classes do not all end up in the same processor.</p>
  */
 public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private final int maxProcessors;
     private final Factory<TestClassProcessor> factory;
     private final ActorFactory actorFactory;
+    private final Map<String, Long> estimatedDurations;
+    private final List<TestClassRunInfo> pending = new ArrayList<TestClassRunInfo>();
     private TestResultProcessor resultProcessor;
     private int pos;
     private List<TestClassProcessor> processors = new ArrayList<TestClassProcessor>();
@@ -44,9 +53,17 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
     private Actor resultProcessorActor;
 
     public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory) {
+        this(maxProcessors, factory, actorFactory, Collections.<String, Long>emptyMap());
+    }
+
+    /**
+     * @param estimatedDurations the duration in milliseconds of each test class, by class name, usually as measured by a previous run.
+     */
+    public MaxNParallelTestClassProcessor(int maxProcessors, Factory<TestClassProcessor> factory, ActorFactory actorFactory, Map<String, Long> estimatedDurations) {
         this.maxProcessors = maxProcessors;
         this.factory = factory;
         this.actorFactory = actorFactory;
+        this.estimatedDurations = estimatedDurations;
     }
 
     @Override
@@ -58,14 +75,13 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
 
     @Override
     public void processTestClass(TestClassRunInfo testClass) {
+        if (maxProcessors > 1 && !estimatedDurations.isEmpty()) {
+            pending.add(testClass);
+            return;
+        }
         TestClassProcessor processor;
         if (processors.size() < maxProcessors) {
-            processor = factory.create();
-            Actor actor = actorFactory.createActor(processor);
-            processor = actor.getProxy(TestClassProcessor.class);
-            actors.add(actor);
-            processors.add(processor);
-            processor.startProcessing(resultProcessor);
+            processor = startProcessor();
         } else {
             processor = processors.get(pos);
             pos = (pos + 1) % processors.size();
@@ -73,9 +89,66 @@ public class MaxNParallelTestClassProcessor implements TestClassProcessor {
         processor.processTestClass(testClass);
     }
 
+    private TestClassProcessor startProcessor() {
+        TestClassProcessor processor = factory.create();
+        Actor actor = actorFactory.createActor(processor);
+        processor = actor.getProxy(TestClassProcessor.class);
+        actors.add(actor);
+        processors.add(processor);
+        processor.startProcessing(resultProcessor);
+        return processor;
+    }
+
+    private void dispatchLongestFirst() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        final long defaultDuration = averageDuration();
+        Collections.sort(pending, new Comparator<TestClassRunInfo>() {
+            @Override
+            public int compare(TestClassRunInfo o1, TestClassRunInfo o2) {
+                long d1 = estimatedDuration(o1, defaultDuration);
+                long d2 = estimatedDuration(o2, defaultDuration);
+                return d1 < d2 ? 1 : d1 > d2 ? -1 : 0;
+            }
+        });
+        long[] assigned = new long[Math.min(maxProcessors, pending.size())];
+        for (TestClassRunInfo testClass : pending) {
+            int target = 0;
+            for (int i = 1; i < assigned.length; i++) {
+                if (assigned[i] < assigned[target]) {
+                    target = i;
+                }
+            }
+            if (target == processors.size()) {
+                startProcessor();
+            }
+            assigned[target] += estimatedDuration(testClass, defaultDuration);
+            processors.get(target).processTestClass(testClass);
+        }
+        pending.clear();
+    }
+
+    private long estimatedDuration(TestClassRunInfo testClass, long defaultDuration) {
+        Long duration = estimatedDurations.get(testClass.getTestClassName());
+        return duration == null ? defaultDuration : Math.max(1, duration);
+    }
+
+    /**
+     * Test classes without a known duration, such as new ones, are assumed to take as long as an average test class.
+     */
+    private long averageDuration() {
+        long total = 0;
+        for (Long duration : estimatedDurations.values()) {
+            total += duration;
+        }
+        return Math.max(1, total / estimatedDurations.size());
+    }
+
     @Override
     public void stop() {
         try {
+            dispatchLongestFirst();
             CompositeStoppable.stoppable(processors).add(actors).add(resultProcessorActor).stop();
         } catch (DispatchException e) {
             throw UncheckedException.throwAsUncheckedException(e.getCause());
@@ -94,6 +94,10 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     }
 
     List<URL> getTestWorkerImplementationClasspath() {
+        return getTestWorkerImplementationClasspath(moduleRegistry);
+    }
+
+    static List<URL> getTestWorkerImplementationClasspath(ModuleRegistry moduleRegistry) {
         return CollectionUtils.flattenCollections(URL.class,
             moduleRegistry.getModule("gradle-core-api").getImplementationClasspath().getAsURLs(),
             moduleRegistry.getModule("gradle-core").getImplementationClasspath().getAsURLs(),
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+
+import java.net.URL;
+import java.util.List;
+
+/**
+ * A test worker that can execute a sequence of sessions, each with its own test classpath.
+ *
+ * @see ReusableTestWorker
+ */
+public interface RemoteTestWorker {
+    /**
+     * Does not block.
+     */
+    void startSession(WorkerTestClassProcessorFactory processorFactory, List<URL> applicationClasspath, List<String> sharedPackages);
+
+    /**
+     * Does not block.
+     */
+    void processTestClass(TestClassRunInfo testClass);
+
+    /**
+     * Does not block. Notifies {@link TestWorkerSessionListener#sessionCompleted(boolean)} once all tests of the session have completed, even when the JVM could not be reset.
+     */
+    void endSession();
+
+    /**
+     * Does not block.
+     */
+    void stop();
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.classpath.ModuleRegistry;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.work.WorkerLeaseRegistry;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.worker.WorkerProcessBuilder;
+import org.gradle.process.internal.worker.WorkerProcessFactory;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Executes tests in a worker process taken from a {@link ReusableTestWorkerManager}, instead of forking a new process.
+ *
+ * <p>The worker process is started with only the test framework jars on its application classpath, which lets it serve any test execution that uses
+ * the same framework jars and JVM settings. The remainder of the test runtime classpath is loaded in a separate class loader for each execution.</p>
+ */
+public class ReusableForkingTestClassProcessor implements TestClassProcessor {
+    private static final String HAMCREST_PACKAGE = "org.hamcrest";
+    private final WorkerLeaseRegistry.WorkerLease currentWorkerLease;
+    private final WorkerProcessFactory workerFactory;
+    private final WorkerTestClassProcessorFactory processorFactory;
+    private final JavaForkOptions options;
+    private final Iterable<File> classPath;
+    private final Action<WorkerProcessBuilder> buildConfigAction;
+    private final ModuleRegistry moduleRegistry;
+    private final ReusableTestWorkerManager workerManager;
+    private final TestFrameworkJarDetector frameworkJarDetector;
+    private ReusableTestWorkerClient worker;
+    private TestResultProcessor resultProcessor;
+    private WorkerLeaseRegistry.WorkerLeaseCompletion completion;
+
+    public ReusableForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, ReusableTestWorkerManager workerManager, TestFrameworkJarDetector frameworkJarDetector) {
+        this.currentWorkerLease = parentWorkerLease;
+        this.workerFactory = workerFactory;
+        this.processorFactory = processorFactory;
+        this.options = options;
+        this.classPath = classPath;
+        this.buildConfigAction = buildConfigAction;
+        this.moduleRegistry = moduleRegistry;
+        this.workerManager = workerManager;
+        this.frameworkJarDetector = frameworkJarDetector;
+    }
+
+    @Override
+    public void startProcessing(TestResultProcessor resultProcessor) {
+        this.resultProcessor = resultProcessor;
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        if (worker == null) {
+            completion = currentWorkerLease.startChild();
+            worker = startSession();
+        }
+
+        worker.processTestClass(testClass);
+    }
+
+    private ReusableTestWorkerClient startSession() {
+        List<File> frameworkClasspath = new ArrayList<File>();
+        List<File> sessionClasspath = new ArrayList<File>();
+        for (File file : classPath) {
+            if (frameworkJarDetector.isTestFrameworkJar(file)) {
+                frameworkClasspath.add(file);
+            } else {
+                sessionClasspath.add(file);
+            }
+        }
+
+        WorkerProcessBuilder builder = workerFactory.create(new ReusableTestWorker());
+        builder.setBaseName("Gradle Test Executor");
+        builder.setImplementationClasspath(ForkingTestClassProcessor.getTestWorkerImplementationClasspath(moduleRegistry));
+        builder.applicationClasspath(frameworkClasspath);
+        options.copyTo(builder.getJavaCommand());
+        builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
+        buildConfigAction.execute(builder);
+        // The test classes are loaded below the worker implementation, so the matchers used by JUnit have to be shared as well
+        builder.sharedPackages(HAMCREST_PACKAGE);
+
+        ReusableTestWorkerClient worker = workerManager.acquire(builder);
+        List<URL> sessionUrls = new DefaultClassPath(sessionClasspath).getAsURLs();
+        worker.startSession(resultProcessor, processorFactory, sessionUrls, new ArrayList<String>(builder.getSharedPackages()));
+        return worker;
+    }
+
+    @Override
+    public void stop() {
+        if (worker != null) {
+            try {
+                worker.endSession();
+            } finally {
+                workerManager.release(worker);
+                completion.leaseFinish();
+            }
+        }
+    }
+}
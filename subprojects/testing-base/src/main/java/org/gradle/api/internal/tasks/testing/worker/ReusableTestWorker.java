@@ -0,0 +1,139 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.TestClassProcessor;
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.classloader.FilteringClassLoader;
+import org.gradle.internal.dispatch.ContextClassLoaderProxy;
+import org.gradle.internal.id.IdGenerator;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.service.DefaultServiceRegistry;
+import org.gradle.internal.time.TimeProvider;
+import org.gradle.process.internal.worker.WorkerProcessContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Serializable;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A test worker that stays alive between test executions. Each session loads the test classes in a fresh class loader, so that sessions of different test tasks do not see each other's classes.
+ */
+public class ReusableTestWorker implements Action<WorkerProcessContext>, RemoteTestWorker, Serializable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReusableTestWorker.class);
+    private CountDownLatch stopped;
+    private WorkerProcessContext workerProcessContext;
+    private TestWorkerSessionListener sessionListener;
+    private DefaultServiceRegistry sessionServices;
+    private URLClassLoader sessionClassLoader;
+    private Properties systemProperties;
+    private TestClassProcessor processor;
+
+    @Override
+    public void execute(WorkerProcessContext workerProcessContext) {
+        LOGGER.info("{} started.", workerProcessContext.getDisplayName());
+
+        this.workerProcessContext = workerProcessContext;
+        stopped = new CountDownLatch(1);
+
+        System.setProperty(TestWorker.WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
+
+        ObjectConnection serverConnection = workerProcessContext.getServerConnection();
+        serverConnection.useParameterSerializers(TestEventSerializer.create());
+        sessionListener = serverConnection.addOutgoing(TestWorkerSessionListener.class);
+        serverConnection.addIncoming(RemoteTestWorker.class, this);
+        serverConnection.connect();
+
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            throw new UncheckedException(e);
+        } finally {
+            LOGGER.info("{} stopped.", workerProcessContext.getDisplayName());
+        }
+    }
+
+    @Override
+    public void startSession(WorkerTestClassProcessorFactory processorFactory, List<URL> applicationClasspath, List<String> sharedPackages) {
+        Thread.currentThread().setName("Test worker");
+        systemProperties = (Properties) System.getProperties().clone();
+
+        FilteringClassLoader.Spec spec = new FilteringClassLoader.Spec();
+        for (String sharedPackage : sharedPackages) {
+            spec.allowPackage(sharedPackage);
+        }
+        sessionClassLoader = new URLClassLoader(applicationClasspath.toArray(new URL[0]), new FilteringClassLoader(getClass().getClassLoader(), spec));
+        sessionServices = new TestWorker.TestFrameworkServiceRegistry(workerProcessContext);
+
+        TestClassProcessor targetProcessor = processorFactory.create(sessionServices);
+        IdGenerator<Object> idGenerator = sessionServices.get(IdGenerator.class);
+        targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
+            workerProcessContext.getDisplayName(), sessionServices.get(TimeProvider.class));
+        processor = new ContextClassLoaderProxy<TestClassProcessor>(TestClassProcessor.class, targetProcessor, sessionClassLoader).getSource();
+        processor.startProcessing(sessionListener);
+    }
+
+    @Override
+    public void processTestClass(TestClassRunInfo testClass) {
+        Thread.currentThread().setName("Test worker");
+        try {
+            processor.processTestClass(testClass);
+        } finally {
+            // Clean the interrupted status
+            Thread.interrupted();
+        }
+    }
+
+    @Override
+    public void endSession() {
+        Thread.currentThread().setName("Test worker");
+        boolean reusable = false;
+        try {
+            try {
+                processor.stop();
+            } finally {
+                // Undo anything the tests might have changed in this JVM, so that the next session starts from the same state
+                System.setSecurityManager(null);
+                System.setProperties(systemProperties);
+                sessionServices.close();
+                ClassLoaderUtils.tryClose(sessionClassLoader);
+                processor = null;
+                sessionServices = null;
+                sessionClassLoader = null;
+                systemProperties = null;
+                reusable = true;
+            }
+        } finally {
+            // The build waits for the session to complete, so always notify it. A JVM that could not be reset must not run another session.
+            sessionListener.sessionCompleted(reusable);
+        }
+    }
+
+    @Override
+    public void stop() {
+        stopped.countDown();
+    }
+}
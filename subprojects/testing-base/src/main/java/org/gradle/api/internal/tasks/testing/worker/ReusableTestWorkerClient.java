@@ -0,0 +1,222 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo;
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.ExecException;
+import org.gradle.process.internal.worker.WorkerProcess;
+
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The build side handle to a running {@link ReusableTestWorker}. Runs one session at a time.
+ */
+class ReusableTestWorkerClient implements TestWorkerSessionListener, Stoppable {
+    // Receives the events of a worker between sessions, such as those sent after a session was abandoned because of a failure
+    private static final TestResultProcessor DISCARDING_RESULT_PROCESSOR = new TestResultProcessor() {
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+        }
+    };
+    private final Object key;
+    private final WorkerProcess workerProcess;
+    private final Lock lock = new ReentrantLock();
+    private final Condition stateChanged = lock.newCondition();
+    private RemoteTestWorker worker;
+    private volatile TestResultProcessor resultProcessor = DISCARDING_RESULT_PROCESSOR;
+    private boolean sessionRunning;
+    private boolean reusable = true;
+    private boolean exited;
+    private Throwable failure;
+
+    ReusableTestWorkerClient(Object key, WorkerProcess workerProcess) {
+        this.key = key;
+        this.workerProcess = workerProcess;
+    }
+
+    Object getKey() {
+        return key;
+    }
+
+    void start(Executor executor) {
+        workerProcess.start();
+
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addIncoming(TestWorkerSessionListener.class, this);
+        worker = connection.addOutgoing(RemoteTestWorker.class);
+        connection.connect();
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                waitForExit();
+            }
+        });
+    }
+
+    boolean isAlive() {
+        lock.lock();
+        try {
+            return !exited;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether the worker is still running and was reset after its last session, so that it can run another session.
+     */
+    boolean isReusable() {
+        lock.lock();
+        try {
+            return !exited && reusable;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void startSession(TestResultProcessor resultProcessor, WorkerTestClassProcessorFactory processorFactory, List<URL> applicationClasspath, List<String> sharedPackages) {
+        lock.lock();
+        try {
+            this.resultProcessor = resultProcessor;
+            sessionRunning = true;
+        } finally {
+            lock.unlock();
+        }
+        worker.startSession(processorFactory, applicationClasspath, sharedPackages);
+    }
+
+    void processTestClass(TestClassRunInfo testClass) {
+        worker.processTestClass(testClass);
+    }
+
+    /**
+     * Blocks until all results of the current session have been received.
+     */
+    void endSession() {
+        worker.endSession();
+        lock.lock();
+        try {
+            while (sessionRunning && !exited) {
+                stateChanged.awaitUninterruptibly();
+            }
+            if (sessionRunning) {
+                sessionRunning = false;
+                if (failure != null) {
+                    throw UncheckedException.throwAsUncheckedException(failure);
+                }
+                throw new ExecException("Test worker process exited while executing tests.");
+            }
+        } finally {
+            resultProcessor = DISCARDING_RESULT_PROCESSOR;
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void sessionCompleted(boolean reusable) {
+        lock.lock();
+        try {
+            sessionRunning = false;
+            if (!reusable) {
+                this.reusable = false;
+            }
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void started(TestDescriptorInternal test, TestStartEvent event) {
+        resultProcessor.started(test, event);
+    }
+
+    @Override
+    public void completed(Object testId, TestCompleteEvent event) {
+        resultProcessor.completed(testId, event);
+    }
+
+    @Override
+    public void output(Object testId, TestOutputEvent event) {
+        resultProcessor.output(testId, event);
+    }
+
+    @Override
+    public void failure(Object testId, Throwable result) {
+        resultProcessor.failure(testId, result);
+    }
+
+    @Override
+    public void stop() {
+        lock.lock();
+        try {
+            if (!exited) {
+                worker.stop();
+            }
+            while (!exited) {
+                stateChanged.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void waitForExit() {
+        Throwable exitFailure = null;
+        try {
+            workerProcess.waitForStop();
+        } catch (Throwable t) {
+            exitFailure = t;
+        }
+        lock.lock();
+        try {
+            exited = true;
+            failure = exitFailure;
+            stateChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
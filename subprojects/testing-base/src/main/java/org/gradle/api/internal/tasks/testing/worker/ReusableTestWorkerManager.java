@@ -0,0 +1,153 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.process.internal.JavaExecHandleBuilder;
+import org.gradle.process.internal.worker.WorkerProcessBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps test worker processes alive between test executions, so that later test tasks, in this build or a later one, can skip the JVM startup and warm up.
+ * Workers are only handed out to test executions that would have started an identical process.
+ */
+public class ReusableTestWorkerManager implements Stoppable {
+    public static final String REUSE_WORKERS_PROPERTY = "org.gradle.internal.testing.reuse.workers";
+    public static final String MAX_IDLE_WORKERS_PROPERTY = "org.gradle.internal.testing.reuse.max.idle.workers";
+    private static final Logger LOGGER = Logging.getLogger(ReusableTestWorkerManager.class);
+
+    private final Lock lock = new ReentrantLock();
+    private final List<ReusableTestWorkerClient> allClients = new ArrayList<ReusableTestWorkerClient>();
+    private final LinkedList<ReusableTestWorkerClient> idleClients = new LinkedList<ReusableTestWorkerClient>();
+    private final ManagedExecutor monitorExecutor;
+    private final int maxIdleWorkers;
+
+    public ReusableTestWorkerManager(ExecutorFactory executorFactory) {
+        this(executorFactory, Integer.getInteger(MAX_IDLE_WORKERS_PROPERTY, Runtime.getRuntime().availableProcessors()));
+    }
+
+    ReusableTestWorkerManager(ExecutorFactory executorFactory, int maxIdleWorkers) {
+        this.monitorExecutor = executorFactory.create("Test worker monitor");
+        this.maxIdleWorkers = maxIdleWorkers;
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(REUSE_WORKERS_PROPERTY);
+    }
+
+    /**
+     * Returns an idle worker that was started with the same settings as the given builder, or starts a new one.
+     */
+    ReusableTestWorkerClient acquire(WorkerProcessBuilder builder) {
+        List<Object> key = keyOf(builder);
+        lock.lock();
+        try {
+            Iterator<ReusableTestWorkerClient> iterator = idleClients.iterator();
+            while (iterator.hasNext()) {
+                ReusableTestWorkerClient client = iterator.next();
+                if (!client.isAlive()) {
+                    iterator.remove();
+                    allClients.remove(client);
+                } else if (client.getKey().equals(key)) {
+                    iterator.remove();
+                    LOGGER.debug("Reusing test worker process.");
+                    return client;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        ReusableTestWorkerClient client = new ReusableTestWorkerClient(key, builder.build());
+        client.start(monitorExecutor);
+        lock.lock();
+        try {
+            allClients.add(client);
+        } finally {
+            lock.unlock();
+        }
+        return client;
+    }
+
+    /**
+     * Makes the given worker available to later test executions. The least recently used workers are stopped when there are too many idle workers.
+     * A worker that could not be reset after its session is stopped instead.
+     */
+    void release(ReusableTestWorkerClient client) {
+        List<ReusableTestWorkerClient> evicted = new ArrayList<ReusableTestWorkerClient>();
+        lock.lock();
+        try {
+            if (!client.isAlive()) {
+                allClients.remove(client);
+                return;
+            }
+            if (!client.isReusable()) {
+                LOGGER.debug("Stopping test worker process that could not be reset after its session.");
+                allClients.remove(client);
+                evicted.add(client);
+            } else {
+                idleClients.addFirst(client);
+                while (idleClients.size() > maxIdleWorkers) {
+                    ReusableTestWorkerClient leastRecentlyUsed = idleClients.removeLast();
+                    allClients.remove(leastRecentlyUsed);
+                    evicted.add(leastRecentlyUsed);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        CompositeStoppable.stoppable(evicted).stop();
+    }
+
+    @Override
+    public void stop() {
+        List<ReusableTestWorkerClient> clients;
+        lock.lock();
+        try {
+            clients = new ArrayList<ReusableTestWorkerClient>(allClients);
+            allClients.clear();
+            idleClients.clear();
+        } finally {
+            lock.unlock();
+        }
+        CompositeStoppable.stoppable(clients).add(monitorExecutor).stop();
+    }
+
+    private static List<Object> keyOf(WorkerProcessBuilder builder) {
+        JavaExecHandleBuilder javaCommand = builder.getJavaCommand();
+        return Arrays.<Object>asList(
+            javaCommand.getExecutable(),
+            javaCommand.getAllJvmArgs(),
+            javaCommand.getWorkingDir(),
+            javaCommand.getEnvironment(),
+            builder.getApplicationClasspath(),
+            builder.getSharedPackages(),
+            builder.getLogLevel());
+    }
+}
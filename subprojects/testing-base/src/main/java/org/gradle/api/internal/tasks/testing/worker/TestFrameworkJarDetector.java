@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.cache.internal.FileContentCache;
+import org.gradle.cache.internal.FileContentCacheFactory;
+import org.gradle.internal.FileUtils;
+import org.gradle.internal.file.FileType;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.zip.ZipFile;
+
+/**
+ * Finds the jars of a test runtime classpath that contain the test framework, by looking for well known classes of JUnit and Hamcrest in them.
+ * The result is cached by the content of each jar.
+ */
+public class TestFrameworkJarDetector {
+    enum JarType {
+        JUNIT, HAMCREST, OTHER
+    }
+
+    private final FileContentCache<JarType> cache;
+
+    public TestFrameworkJarDetector(FileContentCacheFactory cacheFactory) {
+        this.cache = cacheFactory.newCache("testFrameworkJars", 20000, new JarTypeCalculator(), new BaseSerializerFactory().getSerializerFor(JarType.class));
+    }
+
+    /**
+     * Returns true when the given jar contains JUnit or the Hamcrest matchers that JUnit uses.
+     */
+    public boolean isTestFrameworkJar(File file) {
+        return cache.get(file) != JarType.OTHER;
+    }
+
+    /**
+     * Returns true when the given classpath contains a JUnit jar.
+     */
+    public boolean containsJUnit(Iterable<File> classPath) {
+        for (File file : classPath) {
+            if (cache.get(file) == JarType.JUNIT) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class JarTypeCalculator implements FileContentCacheFactory.Calculator<JarType> {
+        @Override
+        public JarType calculate(File file, FileType fileType) {
+            if (fileType != FileType.RegularFile || !FileUtils.hasExtensionIgnoresCase(file.getName(), ".jar")) {
+                return JarType.OTHER;
+            }
+            try {
+                ZipFile zipFile = new ZipFile(file);
+                try {
+                    if (zipFile.getEntry("org/junit/runner/JUnitCore.class") != null || zipFile.getEntry("junit/framework/TestCase.class") != null) {
+                        return JarType.JUNIT;
+                    }
+                    if (zipFile.getEntry("org/hamcrest/Matcher.class") != null) {
+                        return JarType.HAMCREST;
+                    }
+                    return JarType.OTHER;
+                } finally {
+                    zipFile.close();
+                }
+            } catch (IOException e) {
+                // Not a valid jar, leave it to the test class loader to report
+                return JarType.OTHER;
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+
+/**
+ * Receives the results of the sessions of a {@link RemoteTestWorker}. Completion is delivered on the same channel as the results, so it is received after the last result of the session.
+ */
+public interface TestWorkerSessionListener extends TestResultProcessor {
+    /**
+     * Notifies that the session has completed.
+     *
+     * @param reusable whether the worker could be reset to its initial state, so that it can run another session.
+     */
+    void sessionCompleted(boolean reusable);
+}
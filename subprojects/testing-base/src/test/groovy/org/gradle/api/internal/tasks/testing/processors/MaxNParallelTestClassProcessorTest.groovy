@@ -167,4 +167,70 @@ class MaxNParallelTestClassProcessorTest extends Specification {
         then:
         1 * asyncProcessor2.processTestClass(test)
     }
+
+    def assignsLongestTestClassesFirstToLeastLoadedProcessorWhenDurationsAreKnown() {
+        def durations = [Slow: 100L, Medium: 60L, Fast: 30L, Fastest: 10L]
+        def balancing = new MaxNParallelTestClassProcessor(2, factory, actorFactory, durations)
+        TestClassProcessor processor1 = Mock()
+        TestClassProcessor processor2 = Mock()
+        TestClassProcessor asyncProcessor1 = Mock()
+        TestClassProcessor asyncProcessor2 = Mock()
+        Actor actor1 = Mock()
+        Actor actor2 = Mock()
+        def fastest = testClass("Fastest")
+        def fast = testClass("Fast")
+        def medium = testClass("Medium")
+        def slow = testClass("Slow")
+        def unknown = testClass("Unknown")
+
+        1 * actorFactory.createActor(resultProcessor) >> resultProcessorActor
+        1 * resultProcessorActor.getProxy(TestResultProcessor) >> asyncResultProcessor
+        balancing.startProcessing(resultProcessor)
+
+        when:
+        balancing.processTestClass(fastest)
+        balancing.processTestClass(fast)
+        balancing.processTestClass(medium)
+        balancing.processTestClass(slow)
+        balancing.processTestClass(unknown)
+
+        then:
+        0 * factory.create()
+
+        when:
+        balancing.stop()
+
+        then:
+        1 * factory.create() >> processor1
+        1 * actorFactory.createActor(processor1) >> actor1
+        1 * actor1.getProxy(TestClassProcessor) >> asyncProcessor1
+        1 * asyncProcessor1.startProcessing(asyncResultProcessor)
+        1 * asyncProcessor1.processTestClass(slow)
+
+        then:
+        1 * factory.create() >> processor2
+        1 * actorFactory.createActor(processor2) >> actor2
+        1 * actor2.getProxy(TestClassProcessor) >> asyncProcessor2
+        1 * asyncProcessor2.startProcessing(asyncResultProcessor)
+        1 * asyncProcessor2.processTestClass(medium)
+
+        then:
+        1 * asyncProcessor2.processTestClass(unknown)
+
+        then:
+        1 * asyncProcessor1.processTestClass(fast)
+
+        then:
+        1 * asyncProcessor2.processTestClass(fastest)
+
+        then:
+        1 * asyncProcessor1.stop()
+        1 * asyncProcessor2.stop()
+    }
+
+    def testClass(String name) {
+        TestClassRunInfo testClass = Mock()
+        _ * testClass.getTestClassName() >> name
+        return testClass
+    }
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.processors
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
+import spock.lang.Specification
+
+class SkippingTestClassProcessorTest extends Specification {
+    def delegate = Mock(TestClassProcessor)
+    def processor = new SkippingTestClassProcessor(delegate, ["org.gradle.Skipped"] as Set)
+
+    def "passes on test classes that are not skipped"() {
+        def resultProcessor = Mock(TestResultProcessor)
+        def skipped = Stub(TestClassRunInfo) {
+            getTestClassName() >> "org.gradle.Skipped"
+        }
+        def other = Stub(TestClassRunInfo) {
+            getTestClassName() >> "org.gradle.Other"
+        }
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(skipped)
+        processor.processTestClass(other)
+        processor.stop()
+
+        then:
+        1 * delegate.startProcessing(resultProcessor)
+        1 * delegate.processTestClass(other)
+        1 * delegate.stop()
+        0 * delegate._
+    }
+}
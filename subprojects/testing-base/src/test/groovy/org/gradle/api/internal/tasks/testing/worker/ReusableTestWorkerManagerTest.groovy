@@ -0,0 +1,137 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.logging.LogLevel
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.remote.ObjectConnection
+import org.gradle.process.internal.JavaExecHandleBuilder
+import org.gradle.process.internal.worker.WorkerProcess
+import org.gradle.process.internal.worker.WorkerProcessBuilder
+import spock.lang.Specification
+
+import java.util.concurrent.CountDownLatch
+
+class ReusableTestWorkerManagerTest extends Specification {
+    def executorFactory = new DefaultExecutorFactory()
+    def manager = new ReusableTestWorkerManager(executorFactory, 1)
+
+    def cleanup() {
+        manager.stop()
+        executorFactory.stop()
+    }
+
+    def "reuses an idle worker that was started with the same settings"() {
+        when:
+        def first = manager.acquire(builder("-Xmx64m"))
+        manager.release(first)
+        def second = manager.acquire(builder("-Xmx64m"))
+
+        then:
+        second.is(first)
+        second.alive
+    }
+
+    def "starts a new worker when no idle worker was started with the same settings"() {
+        when:
+        def first = manager.acquire(builder("-Xmx64m"))
+        def busy = manager.acquire(builder("-Xmx64m"))
+        manager.release(first)
+        def other = manager.acquire(builder("-Xmx128m"))
+
+        then:
+        !busy.is(first)
+        !other.is(first)
+        !other.is(busy)
+    }
+
+    def "stops the least recently used worker when too many workers are idle"() {
+        when:
+        def first = manager.acquire(builder("-Xmx64m"))
+        def second = manager.acquire(builder("-Xmx64m"))
+        manager.release(first)
+        manager.release(second)
+
+        then:
+        !first.alive
+        second.alive
+        manager.acquire(builder("-Xmx64m")).is(second)
+    }
+
+    def "stops a worker that could not be reset after its session"() {
+        when:
+        def first = manager.acquire(builder("-Xmx64m"))
+        first.sessionCompleted(false)
+        manager.release(first)
+
+        then:
+        !first.alive
+
+        when:
+        def second = manager.acquire(builder("-Xmx64m"))
+
+        then:
+        !second.is(first)
+        second.alive
+    }
+
+    def "stops all workers when stopped"() {
+        def idle = manager.acquire(builder("-Xmx64m"))
+        def busy = manager.acquire(builder("-Xmx64m"))
+        manager.release(idle)
+
+        when:
+        manager.stop()
+
+        then:
+        !idle.alive
+        !busy.alive
+    }
+
+    private WorkerProcessBuilder builder(String... jvmArgs) {
+        def javaCommand = Stub(JavaExecHandleBuilder) {
+            getExecutable() >> "java"
+            getAllJvmArgs() >> (jvmArgs as List)
+            getWorkingDir() >> new File("work")
+            getEnvironment() >> [:]
+        }
+        return Stub(WorkerProcessBuilder) {
+            getJavaCommand() >> javaCommand
+            getApplicationClasspath() >> ([new File("junit-4.12.jar")] as Set)
+            getSharedPackages() >> (["org.junit"] as Set)
+            getLogLevel() >> LogLevel.LIFECYCLE
+            build() >> { workerProcess() }
+        }
+    }
+
+    private WorkerProcess workerProcess() {
+        def stopped = new CountDownLatch(1)
+        def worker = Stub(RemoteTestWorker) {
+            stop() >> { stopped.countDown() }
+        }
+        def connection = Stub(ObjectConnection) {
+            addOutgoing(RemoteTestWorker) >> worker
+        }
+        return Stub(WorkerProcess) {
+            getConnection() >> connection
+            waitForStop() >> {
+                stopped.await()
+                null
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.cache.internal.TestFileContentCacheFactory
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.gradle.util.JarUtils
+import org.junit.Rule
+import spock.lang.Specification
+
+class TestFrameworkJarDetectorTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def detector = new TestFrameworkJarDetector(new TestFileContentCacheFactory())
+
+    def "detects JUnit and Hamcrest jars by their contents"() {
+        def junit4 = jar("lib.jar", "org/junit/runner/JUnitCore.class")
+        def junit3 = jar("old-tests.jar", "junit/framework/TestCase.class")
+        def hamcrest = jar("matchers.jar", "org/hamcrest/Matcher.class")
+        def other = jar("junit-extensions.jar", "org/example/Extension.class")
+
+        expect:
+        detector.isTestFrameworkJar(junit4)
+        detector.isTestFrameworkJar(junit3)
+        detector.isTestFrameworkJar(hamcrest)
+        !detector.isTestFrameworkJar(other)
+    }
+
+    def "ignores directories and missing files"() {
+        def dir = tmpDir.createDir("classes")
+        dir.file("org/junit/runner/JUnitCore.class").createFile()
+
+        expect:
+        !detector.isTestFrameworkJar(dir)
+        !detector.isTestFrameworkJar(tmpDir.file("missing.jar"))
+    }
+
+    def "classpath contains JUnit only when one of its jars contains JUnit"() {
+        def junit = jar("lib.jar", "org/junit/runner/JUnitCore.class")
+        def hamcrest = jar("hamcrest-core.jar", "org/hamcrest/Matcher.class")
+
+        expect:
+        detector.containsJUnit([hamcrest, junit])
+        !detector.containsJUnit([hamcrest])
+        !detector.containsJUnit([])
+    }
+
+    private File jar(String name, String entry) {
+        def jar = tmpDir.file(name)
+        jar << JarUtils.jarWithContents((entry): "content")
+        return jar
+    }
+}
@@ -16,36 +16,34 @@
 
 package org.gradle.api.internal.tasks.testing.detection;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.GradleException;
 import org.gradle.api.internal.tasks.testing.DefaultTestClassRunInfo;
 import org.gradle.api.internal.tasks.testing.TestClassProcessor;
-import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import static org.gradle.internal.FileUtils.hasExtension;
 
-public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor> implements TestFrameworkDetector {
+public abstract class AbstractTestFrameworkDetector implements TestFrameworkDetector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractTestFrameworkDetector.class);
     protected static final String TEST_CASE = "junit/framework/TestCase";
     protected static final String GROOVY_TEST_CASE = "groovy/util/GroovyTestCase";
     protected static final String JAVA_LANG_OBJECT = "java/lang/Object";
 
     private List<File> testClassDirectories;
     private final ClassFileExtractionManager classFileExtractionManager;
-    private final Map<File, Boolean> superClasses;
+    private final Map<String, Boolean> superClasses;
     private TestClassProcessor testClassProcessor;
+    private TestClassIndex testClassIndex;
     private final List<String> knownTestCaseClassNames;
 
     private Set<File> testClassesDirectories;
@@ -54,39 +52,43 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
     protected AbstractTestFrameworkDetector(ClassFileExtractionManager classFileExtractionManager) {
         assert classFileExtractionManager != null;
         this.classFileExtractionManager = classFileExtractionManager;
-        this.superClasses = new HashMap<File, Boolean>();
+        this.superClasses = new HashMap<String, Boolean>();
         this.knownTestCaseClassNames = new ArrayList<String>();
         addKnownTestCaseClassNames(TEST_CASE, GROOVY_TEST_CASE);
     }
 
-    protected abstract T createClassVisitor();
-
-    protected File getSuperTestClassFile(String superClassName) {
+    private ClassFileSummary getSuperTestClass(String superClassName) {
         prepareClasspath();
         if (StringUtils.isEmpty(superClassName)) {
             throw new IllegalArgumentException("superClassName is empty!");
         }
 
-        final Iterator<File> testClassDirectoriesIt = testClassDirectories.iterator();
-
-        File superTestClassFile = null;
-        while (superTestClassFile == null && testClassDirectoriesIt.hasNext()) {
-            final File testClassDirectory = testClassDirectoriesIt.next();
+        for (File testClassDirectory : testClassDirectories) {
             final File superTestClassFileCandidate = new File(testClassDirectory, superClassName + ".class");
             if (superTestClassFileCandidate.exists()) {
-                superTestClassFile = superTestClassFileCandidate;
+                return summarize(superTestClassFileCandidate);
             }
         }
 
-        if (superTestClassFile != null) {
-            return superTestClassFile;
-        } else if (JAVA_LANG_OBJECT.equals(superClassName)) {
+        if (JAVA_LANG_OBJECT.equals(superClassName)) {
             // java.lang.Object found, which is not a test class
             return null;
-        } else {
-            // super test class file not in test class directories
-            return classFileExtractionManager.getLibraryClassFile(superClassName);
         }
+
+        // super test class file not in test class directories
+        byte[] superTestClassBytes = classFileExtractionManager.getLibraryClassBytes(superClassName);
+        if (superTestClassBytes == null) {
+            return null;
+        }
+        try {
+            return ClassFileSummary.read(superTestClassBytes);
+        } catch (Throwable e) {
+            throw new GradleException("failed to read class file for " + superClassName, e);
+        }
+    }
+
+    private ClassFileSummary summarize(File classFile) {
+        return testClassIndex != null ? testClassIndex.get(classFile) : TestClassIndex.summarize(classFile);
     }
 
     private void prepareClasspath() {
@@ -120,53 +122,43 @@ public abstract class AbstractTestFrameworkDetector<T extends TestClassVisitor>
         this.testClasspath = testClasspath;
     }
 
-    protected TestClassVisitor classVisitor(final File testClassFile) {
-        final TestClassVisitor classVisitor = createClassVisitor();
-
-        InputStream classStream = null;
-        try {
-            classStream = new BufferedInputStream(new FileInputStream(testClassFile));
-            final ClassReader classReader = new ClassReader(IOUtils.toByteArray(classStream));
-            classReader.accept(classVisitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
-        } catch (Throwable e) {
-            throw new GradleException("failed to read class file " + testClassFile.getAbsolutePath(), e);
-        } finally {
-            IOUtils.closeQuietly(classStream);
-        }
-
-        return classVisitor;
+    @Override
+    public void setTestClassIndex(TestClassIndex testClassIndex) {
+        this.testClassIndex = testClassIndex;
     }
 
     @Override
     public boolean processTestClass(File testClassFile) {
-        return processTestClass(testClassFile, false);
+        return processTestClass(summarize(testClassFile), false);
     }
 
-    protected abstract boolean processTestClass(File testClassFile, boolean superClass);
+    protected abstract boolean processTestClass(ClassFileSummary testClass, boolean superClass);
 
-    protected boolean processSuperClass(File testClassFile) {
-        boolean isTest = false;
-
-        Boolean isSuperTest = superClasses.get(testClassFile);
+    protected boolean processSuperClass(String superClassName) {
+        Boolean isSuperTest = superClasses.get(superClassName);
 
         if (isSuperTest == null) {
-            isTest = processTestClass(testClassFile, true);
+            final ClassFileSummary superClass = getSuperTestClass(superClassName);
+            if (superClass != null) {
+                isSuperTest = processTestClass(superClass, true);
+            } else {
+                LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file", superClassName);
+                isSuperTest = false;
+            }
 
-            superClasses.put(testClassFile, isTest);
-        } else {
-            isTest = isSuperTest;
+            superClasses.put(superClassName, isSuperTest);
         }
 
-        return isTest;
+        return isSuperTest;
     }
 
     /**
      * In none super class mode a test class is published when the class is a test and it is not abstract. In super class mode it must not publish the class otherwise it will get published multiple
      * times (for each extending class).
      */
-    protected void publishTestClass(boolean isTest, TestClassVisitor classVisitor, boolean superClass) {
-        if (isTest && !classVisitor.isAbstract() && !superClass) {
-            String className = Type.getObjectType(classVisitor.getClassName()).getClassName();
+    protected void publishTestClass(boolean isTest, boolean isAbstract, ClassFileSummary testClass, boolean superClass) {
+        if (isTest && !isAbstract && !superClass) {
+            String className = Type.getObjectType(testClass.getClassName()).getClassName();
             testClassProcessor.processTestClass(new DefaultTestClassRunInfo(className));
         }
     }
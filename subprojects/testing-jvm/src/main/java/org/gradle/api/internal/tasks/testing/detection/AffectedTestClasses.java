@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import com.google.common.hash.HashCode;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisExecutor;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFilesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassSetAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.deps.DependentsSet;
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
+import org.gradle.internal.hash.FileHasher;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Works out which test classes of a previous run cannot observe any of the changes made since, so that their results can be reused.
+ *
+ * <p>Changes to classes in classpath directories are followed to the classes that depend on them, using the same class analysis as incremental Java compilation.
+ * Any other change, to a jar, a resource or the test configuration, or a change to a class that other classes may depend on in ways the analysis cannot see
+ * (such as a constant that may have been inlined), makes every test class affected.</p>
+ */
+public class AffectedTestClasses {
+    private final DirectoryFileTreeFactory directoryFileTreeFactory;
+    private final FileHasher hasher;
+    private final ClassAnalysisExecutor executor;
+
+    public AffectedTestClasses(DirectoryFileTreeFactory directoryFileTreeFactory, FileHasher hasher, ClassAnalysisExecutor executor) {
+        this.directoryFileTreeFactory = directoryFileTreeFactory;
+        this.hasher = hasher;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the names of the test classes that passed in the previous run and are not affected by the changes between the given snapshots.
+     */
+    public Set<String> getUpToDateTestClasses(TestClassesSnapshot previous, TestClassesSnapshot current, Collection<TestClassResult> previousResults, Iterable<File> classpath) {
+        if (!previous.getConfiguration().equals(current.getConfiguration()) || !previous.getFiles().equals(current.getFiles())) {
+            return Collections.emptySet();
+        }
+        Set<String> changed = getChangedClasses(previous.getClasses(), current.getClasses());
+        Set<String> affected = new HashSet<String>();
+        if (!changed.isEmpty()) {
+            ClassSetAnalysis analysis = analyze(classpath);
+            for (String className : changed) {
+                DependentsSet dependents = analysis.getRelevantDependents(className, analysis.getData().getConstants(className));
+                if (dependents.isDependencyToAll()) {
+                    return Collections.emptySet();
+                }
+                affected.add(className);
+                affected.add(getTopLevelClassName(className));
+                affected.addAll(dependents.getDependentClasses());
+            }
+        }
+
+        Set<String> upToDate = new HashSet<String>();
+        for (TestClassResult result : previousResults) {
+            String className = result.getClassName();
+            if (result.getFailuresCount() == 0 && current.getClasses().containsKey(className)
+                && !affected.contains(className) && !affected.contains(getTopLevelClassName(className))) {
+                upToDate.add(className);
+            }
+        }
+        return upToDate;
+    }
+
+    private static Set<String> getChangedClasses(Map<String, HashCode> previous, Map<String, HashCode> current) {
+        Set<String> changed = new HashSet<String>();
+        for (Map.Entry<String, HashCode> entry : current.entrySet()) {
+            if (!entry.getValue().equals(previous.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String className : previous.keySet()) {
+            if (!current.containsKey(className)) {
+                changed.add(className);
+            }
+        }
+        return changed;
+    }
+
+    private static String getTopLevelClassName(String className) {
+        int index = className.indexOf('$');
+        return index < 0 ? className : className.substring(0, index);
+    }
+
+    private ClassSetAnalysis analyze(Iterable<File> classpath) {
+        ClassFilesAnalyzer analyzer = new ClassFilesAnalyzer(new DefaultClassDependenciesAnalyzer(), hasher, executor);
+        for (File file : classpath) {
+            if (file.isDirectory()) {
+                directoryFileTreeFactory.create(file).visit(analyzer);
+            }
+        }
+        return new ClassSetAnalysis(analyzer.getAnalysis());
+    }
+}
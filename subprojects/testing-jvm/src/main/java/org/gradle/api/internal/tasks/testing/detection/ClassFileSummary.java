@@ -0,0 +1,183 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import javax.annotation.Nullable;
+import java.util.Set;
+
+/**
+ * The details of a class file that test framework detection depends on. Calculated once per class file content and shared by all test frameworks.
+ */
+public class ClassFileSummary {
+    private final String className;
+    private final String superClassName;
+    private final boolean isAbstract;
+    private final boolean nonStaticInnerClass;
+    private final Set<String> classAnnotations;
+    private final Set<String> methodAnnotations;
+
+    public ClassFileSummary(String className, @Nullable String superClassName, boolean isAbstract, boolean nonStaticInnerClass, Set<String> classAnnotations, Set<String> methodAnnotations) {
+        this.className = className;
+        this.superClassName = superClassName;
+        this.isAbstract = isAbstract;
+        this.nonStaticInnerClass = nonStaticInnerClass;
+        this.classAnnotations = classAnnotations;
+        this.methodAnnotations = methodAnnotations;
+    }
+
+    public static ClassFileSummary read(byte[] classBytes) {
+        SummaryVisitor visitor = new SummaryVisitor();
+        new ClassReader(classBytes).accept(visitor, ClassReader.SKIP_DEBUG | ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES);
+        return visitor.toSummary();
+    }
+
+    /**
+     * The internal name of the class.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * The internal name of the superclass, or null for {@code java.lang.Object}.
+     */
+    @Nullable
+    public String getSuperClassName() {
+        return superClassName;
+    }
+
+    public boolean isAbstract() {
+        return isAbstract;
+    }
+
+    public boolean isNonStaticInnerClass() {
+        return nonStaticInnerClass;
+    }
+
+    public boolean hasClassAnnotation(String descriptor) {
+        return classAnnotations.contains(descriptor);
+    }
+
+    /**
+     * Returns true when at least one method of the class has one of the given annotations.
+     */
+    public boolean hasMethodAnnotation(Set<String> descriptors) {
+        for (String descriptor : descriptors) {
+            if (methodAnnotations.contains(descriptor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class SummaryVisitor extends ClassVisitor {
+        private String className;
+        private String superClassName;
+        private boolean isAbstract;
+        private boolean nonStaticInnerClass;
+        private final ImmutableSet.Builder<String> classAnnotations = ImmutableSet.builder();
+        private final ImmutableSet.Builder<String> methodAnnotations = ImmutableSet.builder();
+
+        SummaryVisitor() {
+            super(Opcodes.ASM6);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            isAbstract = (access & Opcodes.ACC_ABSTRACT) != 0;
+            className = name;
+            superClassName = superName;
+        }
+
+        @Override
+        public void visitInnerClass(String name, String outerName, String innerName, int access) {
+            if (name.equals(className) && (access & Opcodes.ACC_STATIC) == 0) {
+                nonStaticInnerClass = true;
+            }
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+            classAnnotations.add(desc);
+            return null;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String desc, String signature, String[] exceptions) {
+            return new MethodVisitor(Opcodes.ASM6) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                    methodAnnotations.add(desc);
+                    return null;
+                }
+            };
+        }
+
+        ClassFileSummary toSummary() {
+            return new ClassFileSummary(className, superClassName, isAbstract, nonStaticInnerClass, classAnnotations.build(), methodAnnotations.build());
+        }
+    }
+
+    public static class Serializer extends AbstractSerializer<ClassFileSummary> {
+        @Override
+        public ClassFileSummary read(Decoder decoder) throws Exception {
+            String className = decoder.readString();
+            String superClassName = decoder.readNullableString();
+            boolean isAbstract = decoder.readBoolean();
+            boolean nonStaticInnerClass = decoder.readBoolean();
+            Set<String> classAnnotations = readStrings(decoder);
+            Set<String> methodAnnotations = readStrings(decoder);
+            return new ClassFileSummary(className, superClassName, isAbstract, nonStaticInnerClass, classAnnotations, methodAnnotations);
+        }
+
+        @Override
+        public void write(Encoder encoder, ClassFileSummary value) throws Exception {
+            encoder.writeString(value.className);
+            encoder.writeNullableString(value.superClassName);
+            encoder.writeBoolean(value.isAbstract);
+            encoder.writeBoolean(value.nonStaticInnerClass);
+            writeStrings(encoder, value.classAnnotations);
+            writeStrings(encoder, value.methodAnnotations);
+        }
+
+        private static Set<String> readStrings(Decoder decoder) throws Exception {
+            int count = decoder.readSmallInt();
+            ImmutableSet.Builder<String> strings = ImmutableSet.builder();
+            for (int i = 0; i < count; i++) {
+                strings.add(decoder.readString());
+            }
+            return strings.build();
+        }
+
+        private static void writeStrings(Encoder encoder, Set<String> strings) throws Exception {
+            encoder.writeSmallInt(strings.size());
+            for (String string : strings) {
+                encoder.writeString(string);
+            }
+        }
+    }
+}
@@ -23,10 +23,15 @@ import org.gradle.api.internal.tasks.testing.TestClassProcessor;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
 import org.gradle.api.internal.tasks.testing.processors.MaxNParallelTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.RestartEveryNTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.processors.SkippingTestClassProcessor;
 import org.gradle.api.internal.tasks.testing.processors.TestMainAction;
 import org.gradle.api.internal.tasks.testing.worker.ForkingTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.ReusableForkingTestClassProcessor;
+import org.gradle.api.internal.tasks.testing.worker.ReusableTestWorkerManager;
+import org.gradle.api.internal.tasks.testing.worker.TestFrameworkJarDetector;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
 import org.gradle.api.tasks.testing.Test;
@@ -38,12 +43,17 @@ import org.gradle.internal.work.WorkerLeaseRegistry;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 
 import java.io.File;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * The default test class scanner factory.
  */
 public class DefaultTestExecuter implements TestExecuter {
+    /**
+     * When set, a test task starts no more forks than there are idle worker leases in the build, so that {@code maxParallelForks} acts as an upper bound shared with all other running work.
+     */
+    public static final String SHARED_FORK_BUDGET_PROPERTY = "org.gradle.internal.testing.shared.fork.budget";
 
     private static final Logger LOGGER = Logging.getLogger(DefaultTestExecuter.class);
 
@@ -54,10 +64,16 @@ public class DefaultTestExecuter implements TestExecuter {
     private final BuildOperationExecutor buildOperationExecutor;
     private final int maxWorkerCount;
     private final TimeProvider timeProvider;
+    private final Map<String, Long> previousClassDurations;
+    private final Set<String> upToDateTestClasses;
+    private final ReusableTestWorkerManager reusableTestWorkerManager;
+    private final TestClassIndex testClassIndex;
+    private final TestFrameworkJarDetector testFrameworkJarDetector;
 
     public DefaultTestExecuter(WorkerProcessFactory workerFactory, ActorFactory actorFactory, ModuleRegistry moduleRegistry,
                                WorkerLeaseRegistry workerLeaseRegistry, BuildOperationExecutor buildOperationExecutor, int maxWorkerCount,
-                               TimeProvider timeProvider) {
+                               TimeProvider timeProvider, Map<String, Long> previousClassDurations, Set<String> upToDateTestClasses,
+                               ReusableTestWorkerManager reusableTestWorkerManager, TestClassIndex testClassIndex, TestFrameworkJarDetector testFrameworkJarDetector) {
         this.workerFactory = workerFactory;
         this.actorFactory = actorFactory;
         this.moduleRegistry = moduleRegistry;
@@ -65,6 +81,11 @@ public class DefaultTestExecuter implements TestExecuter {
         this.buildOperationExecutor = buildOperationExecutor;
         this.maxWorkerCount = maxWorkerCount;
         this.timeProvider = timeProvider;
+        this.previousClassDurations = previousClassDurations;
+        this.upToDateTestClasses = upToDateTestClasses;
+        this.reusableTestWorkerManager = reusableTestWorkerManager;
+        this.testClassIndex = testClassIndex;
+        this.testFrameworkJarDetector = testFrameworkJarDetector;
     }
 
     @Override
@@ -73,8 +94,13 @@ public class DefaultTestExecuter implements TestExecuter {
         final WorkerTestClassProcessorFactory testInstanceFactory = testFramework.getProcessorFactory();
         final WorkerLeaseRegistry.WorkerLease currentWorkerLease = workerLeaseRegistry.getCurrentWorkerLease();
         final Set<File> classpath = ImmutableSet.copyOf(testTask.getClasspath());
+        final boolean reuseWorkers = canReuseWorkers(testTask, classpath);
         final Factory<TestClassProcessor> forkingProcessorFactory = new Factory<TestClassProcessor>() {
             public TestClassProcessor create() {
+                if (reuseWorkers) {
+                    return new ReusableForkingTestClassProcessor(currentWorkerLease, workerFactory, testInstanceFactory, testTask,
+                        classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry, reusableTestWorkerManager, testFrameworkJarDetector);
+                }
                 return new ForkingTestClassProcessor(currentWorkerLease, workerFactory, testInstanceFactory, testTask,
                     classpath, testFramework.getWorkerConfigurationAction(), moduleRegistry);
             }
@@ -84,7 +110,10 @@ public class DefaultTestExecuter implements TestExecuter {
                 return new RestartEveryNTestClassProcessor(forkingProcessorFactory, testTask.getForkEvery());
             }
         };
-        TestClassProcessor processor = new MaxNParallelTestClassProcessor(getMaxParallelForks(testTask), reforkingProcessorFactory, actorFactory);
+        TestClassProcessor processor = new MaxNParallelTestClassProcessor(getMaxParallelForks(testTask), reforkingProcessorFactory, actorFactory, previousClassDurations);
+        if (!upToDateTestClasses.isEmpty()) {
+            processor = new SkippingTestClassProcessor(processor, upToDateTestClasses);
+        }
 
         final FileTree testClassFiles = testTask.getCandidateClassFiles();
 
@@ -93,6 +122,7 @@ public class DefaultTestExecuter implements TestExecuter {
             TestFrameworkDetector testFrameworkDetector = testFramework.getDetector();
             testFrameworkDetector.setTestClasses(testTask.getTestClassesDirs().getFiles());
             testFrameworkDetector.setTestClasspath(classpath);
+            testFrameworkDetector.setTestClassIndex(testClassIndex);
             detector = new DefaultTestClassScanner(testClassFiles, testFrameworkDetector, processor);
         } else {
             detector = new DefaultTestClassScanner(testClassFiles, null, processor);
@@ -103,12 +133,32 @@ public class DefaultTestExecuter implements TestExecuter {
         new TestMainAction(detector, processor, testResultProcessor, timeProvider, testTaskOperationId, testTask.getPath(), "Gradle Test Run " + testTask.getIdentityPath()).run();
     }
 
+    private boolean canReuseWorkers(Test testTask, Set<File> classpath) {
+        if (!ReusableTestWorkerManager.isEnabled()) {
+            return false;
+        }
+        // Reusable workers run a single session per test class processor, and load the test classes in their own class loader, which only the JUnit integration supports
+        if (!(testTask.getTestFramework() instanceof JUnitTestFramework) || testTask.getForkEvery() != 0 || testTask.getDebug()) {
+            LOGGER.info("{} cannot reuse test worker processes, forking new ones.", testTask.getPath());
+            return false;
+        }
+        return testFrameworkJarDetector.containsJUnit(classpath);
+    }
+
     private int getMaxParallelForks(Test testTask) {
         int maxParallelForks = testTask.getMaxParallelForks();
         if (maxParallelForks > maxWorkerCount) {
             LOGGER.info("{}.maxParallelForks ({}) is larger than max-workers ({}), forcing it to {}", testTask.getName(), maxParallelForks, maxWorkerCount, maxWorkerCount);
             maxParallelForks = maxWorkerCount;
         }
+        if (maxParallelForks > 1 && Boolean.getBoolean(SHARED_FORK_BUDGET_PROPERTY)) {
+            // The first fork borrows the lease of the test task, every other fork needs a lease of its own
+            int availableForks = 1 + workerLeaseRegistry.getAvailableWorkerLeaseCount();
+            if (availableForks < maxParallelForks) {
+                LOGGER.info("{}.maxParallelForks ({}) is larger than the number of idle workers, using {} forks", testTask.getName(), maxParallelForks, availableForks);
+                maxParallelForks = availableForks;
+            }
+        }
         return maxParallelForks;
     }
 }
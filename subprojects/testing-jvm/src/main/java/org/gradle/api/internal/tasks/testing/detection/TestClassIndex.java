@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import com.google.common.io.Files;
+import org.gradle.api.GradleException;
+import org.gradle.cache.internal.FileContentCache;
+import org.gradle.cache.internal.FileContentCacheFactory;
+import org.gradle.internal.file.FileType;
+
+import java.io.File;
+
+/**
+ * Provides the {@link ClassFileSummary} of test class files, keyed by the hash of their content. Allows test detection to skip parsing class files that have not changed since a previous build.
+ */
+public class TestClassIndex {
+    private final FileContentCache<ClassFileSummary> cache;
+
+    public TestClassIndex(FileContentCacheFactory cacheFactory) {
+        this.cache = cacheFactory.newCache("testClassSummaries", 40000, new SummaryCalculator(), new ClassFileSummary.Serializer());
+    }
+
+    public ClassFileSummary get(File classFile) {
+        return cache.get(classFile);
+    }
+
+    static ClassFileSummary summarize(File classFile) {
+        try {
+            return ClassFileSummary.read(Files.toByteArray(classFile));
+        } catch (Throwable e) {
+            throw new GradleException("failed to read class file " + classFile.getAbsolutePath(), e);
+        }
+    }
+
+    private static class SummaryCalculator implements FileContentCacheFactory.Calculator<ClassFileSummary> {
+        @Override
+        public ClassFileSummary calculate(File file, FileType fileType) {
+            return summarize(file);
+        }
+    }
+}
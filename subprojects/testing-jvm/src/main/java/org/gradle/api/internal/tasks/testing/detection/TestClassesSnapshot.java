@@ -0,0 +1,167 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection;
+
+import com.google.common.hash.HashCode;
+import org.gradle.api.file.EmptyFileVisitor;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.FlushableEncoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The content hashes of the classes and other files that a test run could observe, used to work out which test classes are affected by a change.
+ *
+ * <p>Classes found in directories are tracked individually by class name. Resources and jars are tracked by path.</p>
+ */
+public class TestClassesSnapshot {
+    private static final int VERSION = 1;
+    private static final HashCodeSerializer HASH_SERIALIZER = new HashCodeSerializer();
+
+    private final String configuration;
+    private final Map<String, HashCode> classes;
+    private final Map<String, HashCode> files;
+
+    TestClassesSnapshot(String configuration, Map<String, HashCode> classes, Map<String, HashCode> files) {
+        this.configuration = configuration;
+        this.classes = classes;
+        this.files = files;
+    }
+
+    /**
+     * Describes the settings other than the classpath that affect all test classes, such as the test filters and JVM arguments.
+     */
+    public String getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * The hash of each class found in a classpath directory, by class name.
+     */
+    public Map<String, HashCode> getClasses() {
+        return classes;
+    }
+
+    /**
+     * The hash of each jar and resource on the classpath, by absolute path.
+     */
+    public Map<String, HashCode> getFiles() {
+        return files;
+    }
+
+    public static TestClassesSnapshot take(String configuration, Iterable<File> classpath, DirectoryFileTreeFactory directoryFileTreeFactory, final FileHasher hasher) {
+        final Map<String, HashCode> classes = new HashMap<String, HashCode>();
+        final Map<String, HashCode> files = new HashMap<String, HashCode>();
+        for (File file : classpath) {
+            if (file.isDirectory()) {
+                directoryFileTreeFactory.create(file).visit(new EmptyFileVisitor() {
+                    @Override
+                    public void visitFile(FileVisitDetails fileDetails) {
+                        String path = fileDetails.getRelativePath().getPathString();
+                        if (path.endsWith(".class")) {
+                            String className = path.substring(0, path.length() - ".class".length()).replace('/', '.');
+                            // The same class may be found in several directories, the first one is used
+                            if (!classes.containsKey(className)) {
+                                classes.put(className, hasher.hash(fileDetails));
+                            }
+                        } else {
+                            files.put(fileDetails.getFile().getAbsolutePath(), hasher.hash(fileDetails));
+                        }
+                    }
+                });
+            } else if (file.isFile()) {
+                files.put(file.getAbsolutePath(), hasher.hash(file));
+            }
+        }
+        return new TestClassesSnapshot(configuration, classes, files);
+    }
+
+    /**
+     * Reads a snapshot written by a previous run, or returns null when there is none.
+     */
+    public static TestClassesSnapshot read(File snapshotFile) {
+        if (!snapshotFile.isFile()) {
+            return null;
+        }
+        try {
+            InputStream inputStream = new FileInputStream(snapshotFile);
+            try {
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                if (decoder.readSmallInt() != VERSION) {
+                    return null;
+                }
+                String configuration = decoder.readString();
+                Map<String, HashCode> classes = readHashes(decoder);
+                Map<String, HashCode> files = readHashes(decoder);
+                return new TestClassesSnapshot(configuration, classes, files);
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    public void write(File snapshotFile) {
+        try {
+            OutputStream outputStream = new FileOutputStream(snapshotFile);
+            try {
+                FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
+                encoder.writeSmallInt(VERSION);
+                encoder.writeString(configuration);
+                writeHashes(classes, encoder);
+                writeHashes(files, encoder);
+                encoder.flush();
+            } finally {
+                outputStream.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    private static Map<String, HashCode> readHashes(Decoder decoder) throws Exception {
+        int count = decoder.readSmallInt();
+        Map<String, HashCode> hashes = new HashMap<String, HashCode>(count);
+        for (int i = 0; i < count; i++) {
+            hashes.put(decoder.readString(), HASH_SERIALIZER.read(decoder));
+        }
+        return hashes;
+    }
+
+    private static void writeHashes(Map<String, HashCode> hashes, Encoder encoder) throws Exception {
+        encoder.writeSmallInt(hashes.size());
+        for (Map.Entry<String, HashCode> entry : hashes.entrySet()) {
+            encoder.writeString(entry.getKey());
+            HASH_SERIALIZER.write(encoder, entry.getValue());
+        }
+    }
+}
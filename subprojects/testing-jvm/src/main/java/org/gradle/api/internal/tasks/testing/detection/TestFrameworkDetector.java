@@ -28,4 +28,6 @@ public interface TestFrameworkDetector {
     void setTestClasses(Set<File> testClasses);
 
     void setTestClasspath(Set<File> classpath);
+
+    void setTestClassIndex(TestClassIndex testClassIndex);
 }
@@ -15,50 +15,37 @@
  */
 package org.gradle.api.internal.tasks.testing.junit;
 
+import com.google.common.collect.ImmutableSet;
 import org.gradle.api.internal.tasks.testing.detection.AbstractTestFrameworkDetector;
 import org.gradle.api.internal.tasks.testing.detection.ClassFileExtractionManager;
-import org.gradle.api.internal.tasks.testing.detection.TestClassVisitor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.gradle.api.internal.tasks.testing.detection.ClassFileSummary;
 
-import java.io.File;
+import java.util.Set;
 
-public class JUnitDetector extends AbstractTestFrameworkDetector<JUnitTestClassDetecter> {
-    private static final Logger LOGGER = LoggerFactory.getLogger(JUnitDetector.class);
+public class JUnitDetector extends AbstractTestFrameworkDetector {
+    private static final String RUN_WITH = "Lorg/junit/runner/RunWith;";
+    private static final Set<String> TEST_METHOD_ANNOTATIONS = ImmutableSet.of("Lorg/junit/Test;");
 
     public JUnitDetector(ClassFileExtractionManager classFileExtractionManager) {
         super(classFileExtractionManager);
     }
 
     @Override
-    protected JUnitTestClassDetecter createClassVisitor() {
-        return new JUnitTestClassDetecter(this);
-    }
-
-    @Override
-    protected boolean processTestClass(final File testClassFile, boolean superClass) {
-        final TestClassVisitor classVisitor = classVisitor(testClassFile);
-
-        boolean isTest = classVisitor.isTest();
+    protected boolean processTestClass(ClassFileSummary testClass, boolean superClass) {
+        boolean isTest = testClass.hasClassAnnotation(RUN_WITH) || testClass.hasMethodAnnotation(TEST_METHOD_ANNOTATIONS);
 
         if (!isTest) { // scan parent class
-            final String superClassName = classVisitor.getSuperClassName();
+            final String superClassName = testClass.getSuperClassName();
 
             if (isKnownTestCaseClassName(superClassName)) {
                 isTest = true;
-            } else {
-                final File superClassFile = getSuperTestClassFile(superClassName);
-
-                if (superClassFile != null) {
-                    isTest = processSuperClass(superClassFile);
-                } else {
-                    LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
-                            superClassName);
-                }
+            } else if (superClassName != null) {
+                isTest = processSuperClass(superClassName);
             }
         }
 
-        publishTestClass(isTest, classVisitor, superClass);
+        // Non-static inner classes cannot be instantiated by JUnit
+        publishTestClass(isTest, testClass.isAbstract() || testClass.isNonStaticInnerClass(), testClass, superClass);
 
         return isTest;
     }
@@ -74,6 +74,13 @@ public class ClassTestResults extends CompositeTestResults {
         return results;
     }
 
+    /**
+     * Releases the results of the individual tests of this class, keeping only the totals and the failed and ignored tests.
+     */
+    public void discardTestResults() {
+        results.clear();
+    }
+
     public TestResult addTest(String testName, long duration) {
         TestResult test = new TestResult(testName, duration, this);
         results.add(test);
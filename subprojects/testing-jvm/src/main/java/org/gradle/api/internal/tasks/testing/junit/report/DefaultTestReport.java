@@ -62,24 +62,32 @@ public class DefaultTestReport implements TestReporter {
         final AllTestResults model = new AllTestResults();
         resultsProvider.visitClasses(new Action<TestClassResult>() {
             public void execute(TestClassResult classResult) {
-                model.addTestClass(classResult.getId(), classResult.getClassName());
-                List<TestMethodResult> collectedResults = classResult.getResults();
-                for (TestMethodResult collectedResult : collectedResults) {
-                    final TestResult testResult = model.addTest(classResult.getId(), classResult.getClassName(), collectedResult.getName(), collectedResult.getDuration());
-                    if (collectedResult.getResultType() == SKIPPED) {
-                        testResult.setIgnored();
-                    } else {
-                        List<TestFailure> failures = collectedResult.getFailures();
-                        for (TestFailure failure : failures) {
-                            testResult.addFailure(failure);
-                        }
-                    }
-                }
+                // Keep only the totals and the failed and ignored tests listed on the overview and package pages. Each class page reads the results of its class again
+                addClassResults(model, classResult, false).discardTestResults();
             }
         });
         return model;
     }
 
+    private static ClassTestResults addClassResults(AllTestResults model, TestClassResult classResult, boolean includeFailureDetails) {
+        ClassTestResults classResults = model.addTestClass(classResult.getId(), classResult.getClassName());
+        List<TestMethodResult> collectedResults = classResult.getResults();
+        for (TestMethodResult collectedResult : collectedResults) {
+            final TestResult testResult = model.addTest(classResult.getId(), classResult.getClassName(), collectedResult.getName(), collectedResult.getDuration());
+            if (collectedResult.getResultType() == SKIPPED) {
+                testResult.setIgnored();
+            } else if (includeFailureDetails) {
+                List<TestFailure> failures = collectedResult.getFailures();
+                for (TestFailure failure : failures) {
+                    testResult.addFailure(failure);
+                }
+            } else if (!collectedResult.getFailures().isEmpty()) {
+                testResult.setFailed();
+            }
+        }
+        return classResults;
+    }
+
     private void generateFiles(AllTestResults model, final TestResultsProvider resultsProvider, File reportDir) {
         try {
             HtmlReportRenderer htmlRenderer = new HtmlReportRenderer();
@@ -93,7 +101,7 @@ public class DefaultTestReport implements TestReporter {
                             for (PackageTestResults packageResults : model.getPackages()) {
                                 queue.add(generator(packageResults.getBaseUrl(), packageResults, new PackagePageRenderer(), output));
                                 for (ClassTestResults classResults : packageResults.getClasses()) {
-                                    queue.add(generator(classResults.getBaseUrl(), classResults, new ClassPageRenderer(resultsProvider), output));
+                                    queue.add(new ClassReportFileGenerator(classResults, resultsProvider, output));
                                 }
                             }
                         }
@@ -109,6 +117,37 @@ public class DefaultTestReport implements TestReporter {
         return new HtmlReportFileGenerator<T>(fileUrl, results, renderer, output);
     }
 
+    private static class ClassReportFileGenerator implements RunnableBuildOperation {
+        private final ClassTestResults classSummary;
+        private final TestResultsProvider resultsProvider;
+        private final HtmlReportBuilder output;
+
+        ClassReportFileGenerator(ClassTestResults classSummary, TestResultsProvider resultsProvider, HtmlReportBuilder output) {
+            this.classSummary = classSummary;
+            this.resultsProvider = resultsProvider;
+            this.output = output;
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Generate HTML test report for ".concat(classSummary.getTitle()));
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            // Build a model holding only this class, with the full results of each of its tests
+            final AllTestResults classModel = new AllTestResults();
+            ClassTestResults classResults = classModel.addTestClass(classSummary.getId(), classSummary.getName());
+            resultsProvider.visitClass(classSummary.getId(), new Action<TestClassResult>() {
+                @Override
+                public void execute(TestClassResult classResult) {
+                    addClassResults(classModel, classResult, true);
+                }
+            });
+            output.renderHtmlPage(classResults.getBaseUrl(), classResults, new ClassPageRenderer(resultsProvider));
+        }
+    }
+
     private static class HtmlReportFileGenerator<T extends CompositeTestResults> implements RunnableBuildOperation {
         private final String fileUrl;
         private final T results;
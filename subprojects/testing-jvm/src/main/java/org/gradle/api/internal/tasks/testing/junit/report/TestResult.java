@@ -27,6 +27,7 @@ public class TestResult extends TestResultModel implements Comparable<TestResult
     final ClassTestResults classResults;
     final List<TestFailure> failures = new ArrayList<TestFailure>();
     final String name;
+    boolean failed;
     boolean ignored;
 
     public TestResult(String name, long duration, ClassTestResults classResults) {
@@ -53,7 +54,7 @@ public class TestResult extends TestResultModel implements Comparable<TestResult
         if (ignored) {
             return ResultType.SKIPPED;
         }
-        return failures.isEmpty() ? ResultType.SUCCESS : ResultType.FAILURE;
+        return failed ? ResultType.FAILURE : ResultType.SUCCESS;
     }
 
     @Override
@@ -79,10 +80,18 @@ public class TestResult extends TestResultModel implements Comparable<TestResult
     }
 
     public void addFailure(TestFailure failure) {
-        classResults.failed(this);
+        setFailed();
         failures.add(failure);
     }
 
+    /**
+     * Marks this test as failed, without keeping the details of its failures.
+     */
+    public void setFailed() {
+        classResults.failed(this);
+        failed = true;
+    }
+
     public void setIgnored() {
         classResults.ignored(this);
         ignored = true;
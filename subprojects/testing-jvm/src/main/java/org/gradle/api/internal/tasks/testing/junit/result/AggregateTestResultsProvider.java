@@ -28,6 +28,7 @@ import org.gradle.internal.concurrent.CompositeStoppable;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
@@ -37,6 +38,7 @@ import static org.gradle.util.CollectionUtils.any;
 public class AggregateTestResultsProvider implements TestResultsProvider {
     private final Iterable<TestResultsProvider> providers;
     private Multimap<Long, DelegateProvider> classOutputProviders;
+    private Map<Long, TestClassResult> aggregatedResultsById;
 
     public AggregateTestResultsProvider(Iterable<TestResultsProvider> providers) {
         this.providers = providers;
@@ -62,7 +64,17 @@ public class AggregateTestResultsProvider implements TestResultsProvider {
                 }
             });
         }
+        aggregatedResultsById = new HashMap<Long, TestClassResult>();
         for (OverlayedIdProxyingTestClassResult classResult : aggregatedTestResults.values()) {
+            aggregatedResultsById.put(classResult.getId(), classResult);
+            visitor.execute(classResult);
+        }
+    }
+
+    @Override
+    public void visitClass(long id, Action<? super TestClassResult> visitor) {
+        TestClassResult classResult = aggregatedResultsById.get(id);
+        if (classResult != null) {
             visitor.execute(classResult);
         }
     }
@@ -56,8 +56,9 @@ public class Binary2JUnitXmlReportGenerator {
             public void execute(final BuildOperationQueue<JUnitXmlReportFileGenerator> queue) {
                 testResultsProvider.visitClasses(new Action<TestClassResult>() {
                     public void execute(final TestClassResult result) {
+                        // Only keep track of the class, its results are read again when the report file is written
                         final File reportFile = new File(testResultsDir, getReportFileName(result));
-                        queue.add(new JUnitXmlReportFileGenerator(result, reportFile, xmlWriter));
+                        queue.add(new JUnitXmlReportFileGenerator(result.getId(), result.getClassName(), reportFile, testResultsProvider, xmlWriter));
                     }
                 });
             }
@@ -71,30 +72,43 @@ public class Binary2JUnitXmlReportGenerator {
     }
 
     private static class JUnitXmlReportFileGenerator implements RunnableBuildOperation {
-        private final TestClassResult result;
+        private final long classId;
+        private final String className;
         private final File reportFile;
+        private final TestResultsProvider testResultsProvider;
         private final JUnitXmlResultWriter xmlWriter;
 
-        public JUnitXmlReportFileGenerator(TestClassResult result, File reportFile, JUnitXmlResultWriter xmlWriter) {
-            this.result = result;
+        public JUnitXmlReportFileGenerator(long classId, String className, File reportFile, TestResultsProvider testResultsProvider, JUnitXmlResultWriter xmlWriter) {
+            this.classId = classId;
+            this.className = className;
             this.reportFile = reportFile;
+            this.testResultsProvider = testResultsProvider;
             this.xmlWriter = xmlWriter;
         }
 
         @Override
         public BuildOperationDescriptor.Builder description() {
-            return BuildOperationDescriptor.displayName("Generate junit XML test report for ".concat(result.getClassName()));
+            return BuildOperationDescriptor.displayName("Generate junit XML test report for ".concat(className));
         }
 
         @Override
         public void run(BuildOperationContext context) {
+            testResultsProvider.visitClass(classId, new Action<TestClassResult>() {
+                @Override
+                public void execute(TestClassResult result) {
+                    write(result);
+                }
+            });
+        }
+
+        private void write(TestClassResult result) {
             FileOutputStream output = null;
             try {
                 output = new FileOutputStream(reportFile);
                 xmlWriter.write(result, output);
                 output.close();
             } catch (Exception e) {
-                throw new GradleException(String.format("Could not write XML test results for %s to file %s.", result.getClassName(), reportFile), e);
+                throw new GradleException(String.format("Could not write XML test results for %s to file %s.", className, reportFile), e);
             } finally {
                 IOUtils.closeQuietly(output);
             }
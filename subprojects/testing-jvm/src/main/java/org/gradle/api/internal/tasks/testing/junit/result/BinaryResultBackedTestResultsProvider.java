@@ -81,4 +81,9 @@ public class BinaryResultBackedTestResultsProvider extends TestOutputStoreBacked
     public void visitClasses(final Action<? super TestClassResult> visitor) {
         resultSerializer.read(visitor);
     }
+
+    @Override
+    public void visitClass(long id, Action<? super TestClassResult> visitor) {
+        resultSerializer.readClass(id, visitor);
+    }
 }
@@ -78,6 +78,15 @@ public class InMemoryTestResultsProvider extends TestOutputStoreBackedResultsPro
         }
     }
 
+    @Override
+    public void visitClass(long id, Action<? super TestClassResult> visitor) {
+        for (TestClassResult result : results) {
+            if (result.getId() == id) {
+                visitor.execute(result);
+            }
+        }
+    }
+
     @Override
     public boolean isHasResults() {
         return results.iterator().hasNext();
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.junit.result;
+
+import org.gradle.api.Action;
+import org.gradle.api.internal.tasks.testing.DefaultTestOutputEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.concurrent.CompositeStoppable;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The binary results of a previous test run, from which the results and output of test classes that do not need to run again can be copied.
+ */
+public class PreviousTestResults {
+    private final File resultsDir;
+    private final Map<String, TestClassResult> results = new HashMap<String, TestClassResult>();
+
+    public PreviousTestResults(File resultsDir) {
+        this.resultsDir = resultsDir;
+        new TestResultSerializer(resultsDir).read(new Action<TestClassResult>() {
+            @Override
+            public void execute(TestClassResult result) {
+                results.put(result.getClassName(), result);
+            }
+        });
+    }
+
+    public Map<String, TestClassResult> getResults() {
+        return results;
+    }
+
+    /**
+     * Copies the results and output of the given test classes into the results of the current run, unless the current run already has results for them.
+     * The copies are given ids above {@code maxId}, the highest id used by the current run.
+     */
+    public void copyTo(Set<String> classNames, long maxId, Map<String, TestClassResult> currentResults, TestOutputStore.Writer outputWriter) {
+        long nextId = maxId + 1;
+        TestOutputStore.Reader reader = new TestOutputStore(resultsDir).reader();
+        try {
+            for (TestClassResult previous : results.values()) {
+                if (!classNames.contains(previous.getClassName()) || currentResults.containsKey(previous.getClassName())) {
+                    continue;
+                }
+                TestClassResult copy = new TestClassResult(nextId++, previous.getClassName(), previous.getStartTime());
+                copyOutput(reader, previous.getId(), 0, copy.getId(), 0, outputWriter);
+                for (TestMethodResult method : previous.getResults()) {
+                    TestMethodResult methodCopy = new TestMethodResult(nextId++, method.getName(), method.getResultType(), method.getDuration(), method.getEndTime());
+                    copy.add(methodCopy);
+                    copyOutput(reader, previous.getId(), method.getId(), copy.getId(), methodCopy.getId(), outputWriter);
+                }
+                currentResults.put(copy.getClassName(), copy);
+            }
+        } finally {
+            CompositeStoppable.stoppable(reader).stop();
+        }
+    }
+
+    private static void copyOutput(TestOutputStore.Reader reader, long classId, long testId, long newClassId, long newTestId, TestOutputStore.Writer outputWriter) {
+        for (TestOutputEvent.Destination destination : TestOutputEvent.Destination.values()) {
+            StringWriter output = new StringWriter();
+            if (testId == 0) {
+                reader.writeNonTestOutput(classId, destination, output);
+            } else {
+                reader.writeTestOutput(classId, testId, destination, output);
+            }
+            if (output.getBuffer().length() == 0) {
+                continue;
+            }
+            DefaultTestOutputEvent event = new DefaultTestOutputEvent(destination, output.toString());
+            if (newTestId == 0) {
+                outputWriter.onOutput(newClassId, event);
+            } else {
+                outputWriter.onOutput(newClassId, newTestId, event);
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@ package org.gradle.api.internal.tasks.testing.junit.result;
 import org.gradle.api.tasks.testing.*;
 import org.gradle.internal.serialize.PlaceholderException;
 
+import javax.annotation.Nullable;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.HashMap;
@@ -26,17 +27,31 @@ import java.util.Map;
 
 /**
  * Collects the test results into memory and spools the test output to file during execution (to avoid holding it all in memory).
+ * When given a result writer, the results of each test class are also written out and dropped from memory as soon as the class completes.
  */
 public class TestReportDataCollector implements TestListener, TestOutputListener {
 
     private final Map<String, TestClassResult> results;
     private final TestOutputStore.Writer outputWriter;
+    private final TestResultSerializer.Writer resultWriter;
     private final Map<TestDescriptor, TestMethodResult> currentTestMethods = new HashMap<TestDescriptor, TestMethodResult>();
     private long internalIdCounter = 1;
 
     public TestReportDataCollector(Map<String, TestClassResult> results, TestOutputStore.Writer outputWriter) {
+        this(results, outputWriter, null);
+    }
+
+    public TestReportDataCollector(Map<String, TestClassResult> results, TestOutputStore.Writer outputWriter, @Nullable TestResultSerializer.Writer resultWriter) {
         this.results = results;
         this.outputWriter = outputWriter;
+        this.resultWriter = resultWriter;
+    }
+
+    /**
+     * Returns the highest id used by the results collected so far.
+     */
+    public long getMaxId() {
+        return internalIdCounter - 1;
     }
 
     @Override
@@ -57,6 +72,13 @@ public class TestReportDataCollector implements TestListener, TestOutputListener
             classResult.add(methodResult);
             results.put(suite.getName(), classResult);
         }
+        if (resultWriter != null && suite.getClassName() != null) {
+            // The test class has completed. Test frameworks that do not report classes as suites keep their results in memory until the end of the run
+            TestClassResult classResult = results.remove(suite.getClassName());
+            if (classResult != null) {
+                resultWriter.write(classResult);
+            }
+        }
     }
 
     @Override
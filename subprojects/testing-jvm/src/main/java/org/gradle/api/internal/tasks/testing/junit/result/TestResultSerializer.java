@@ -16,6 +16,7 @@
 
 package org.gradle.api.internal.tasks.testing.junit.result;
 
+import com.google.common.io.ByteStreams;
 import org.gradle.api.Action;
 import org.gradle.api.UncheckedIOException;
 import org.gradle.api.tasks.testing.TestResult;
@@ -28,39 +29,36 @@ import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
 
 import java.io.*;
 import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TestResultSerializer {
-    private static final int RESULT_VERSION = 3;
+    private static final int RESULT_VERSION = 4;
 
     private final File resultsFile;
+    // Position of each class in the results file, recorded by the last full read
+    private final Map<Long, Long> classOffsets = new ConcurrentHashMap<Long, Long>();
 
     public TestResultSerializer(File resultsDir) {
         this.resultsFile = new File(resultsDir, "results.bin");
     }
 
     public void write(Collection<TestClassResult> results) {
+        Writer writer = writer();
         try {
-            OutputStream outputStream = new FileOutputStream(resultsFile);
-            try {
-                if (!results.isEmpty()) { // only write if we have results, otherwise truncate
-                    FlushableEncoder encoder = new KryoBackedEncoder(outputStream);
-                    encoder.writeSmallInt(RESULT_VERSION);
-                    write(results, encoder);
-                    encoder.flush();
-                }
-            } finally {
-                outputStream.close();
+            for (TestClassResult result : results) {
+                writer.write(result);
             }
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
+        } finally {
+            writer.close();
         }
     }
 
-    private void write(Collection<TestClassResult> results, Encoder encoder) throws IOException {
-        encoder.writeSmallInt(results.size());
-        for (TestClassResult result : results) {
-            write(result, encoder);
-        }
+    /**
+     * Starts a new results file, to which the results can be written one class at a time. The file is left empty if no class is written.
+     */
+    public Writer writer() {
+        return new Writer();
     }
 
     private void write(TestClassResult classResult, Encoder encoder) throws IOException {
@@ -94,7 +92,7 @@ public class TestResultSerializer {
         try {
             InputStream inputStream = new FileInputStream(resultsFile);
             try {
-                Decoder decoder = new KryoBackedDecoder(inputStream);
+                KryoBackedDecoder decoder = new KryoBackedDecoder(inputStream);
                 int version = decoder.readSmallInt();
                 if (version != RESULT_VERSION) {
                     throw new IllegalArgumentException(String.format("Unexpected result file version %d found in %s.", version, resultsFile));
@@ -108,14 +106,38 @@ public class TestResultSerializer {
         }
     }
 
+    /**
+     * Reads the results of a single class, without reading the results of the other classes. The class must have been visited by a previous call to {@link #read(Action)}.
+     */
+    public void readClass(long id, Action<? super TestClassResult> visitor) {
+        Long offset = classOffsets.get(id);
+        if (offset == null) {
+            throw new IllegalArgumentException(String.format("No results for test class with id %d have been read from %s.", id, resultsFile));
+        }
+        try {
+            InputStream inputStream = new FileInputStream(resultsFile);
+            try {
+                ByteStreams.skipFully(inputStream, offset);
+                Decoder decoder = new KryoBackedDecoder(inputStream);
+                visitor.execute(readClassResult(decoder));
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
     public boolean isHasResults() {
         return resultsFile.exists() && resultsFile.length() > 0;
     }
 
-    private void readResults(Decoder decoder, Action<? super TestClassResult> visitor) throws ClassNotFoundException, IOException {
-        int classCount = decoder.readSmallInt();
-        for (int i = 0; i < classCount; i++) {
+    private void readResults(KryoBackedDecoder decoder, Action<? super TestClassResult> visitor) throws ClassNotFoundException, IOException {
+        classOffsets.clear();
+        while (decoder.readBoolean()) {
+            long offset = decoder.getReadPosition();
             TestClassResult classResult = readClassResult(decoder);
+            classOffsets.put(classResult.getId(), offset);
             visitor.execute(classResult);
         }
     }
@@ -149,4 +171,46 @@ public class TestResultSerializer {
         }
         return methodResult;
     }
+
+    public class Writer implements Closeable {
+        private final OutputStream outputStream;
+        private FlushableEncoder encoder;
+
+        Writer() {
+            try {
+                outputStream = new FileOutputStream(resultsFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public void write(TestClassResult classResult) {
+            try {
+                if (encoder == null) {
+                    encoder = new KryoBackedEncoder(outputStream);
+                    encoder.writeSmallInt(RESULT_VERSION);
+                }
+                encoder.writeBoolean(true);
+                TestResultSerializer.this.write(classResult, encoder);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                try {
+                    if (encoder != null) {
+                        encoder.writeBoolean(false);
+                        encoder.flush();
+                    }
+                } finally {
+                    outputStream.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
 }
@@ -44,6 +44,13 @@ public interface TestResultsProvider extends Closeable {
      */
     void visitClasses(Action<? super TestClassResult> visitor);
 
+    /**
+     * Visits the results of the given test class. This method must be called only after {@link #visitClasses(org.gradle.api.Action)}.
+     *
+     * Allows the results of a class to be loaded again when they are needed, so that consumers do not have to hold the results of every class in memory. May be called concurrently.
+     */
+    void visitClass(long id, Action<? super TestClassResult> visitor);
+
     boolean hasOutput(long id, TestOutputEvent.Destination destination);
 
     boolean isHasResults();
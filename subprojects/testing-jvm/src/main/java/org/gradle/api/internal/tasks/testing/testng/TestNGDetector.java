@@ -15,51 +15,45 @@
  */
 package org.gradle.api.internal.tasks.testing.testng;
 
+import com.google.common.collect.ImmutableSet;
 import org.gradle.api.internal.tasks.testing.detection.AbstractTestFrameworkDetector;
 import org.gradle.api.internal.tasks.testing.detection.ClassFileExtractionManager;
-import org.gradle.api.internal.tasks.testing.detection.TestClassVisitor;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.io.File;
-
-class TestNGDetector extends AbstractTestFrameworkDetector<TestNGTestClassDetecter> {
-    private static final Logger LOGGER = LoggerFactory.getLogger(TestNGDetector.class);
+import org.gradle.api.internal.tasks.testing.detection.ClassFileSummary;
+
+import java.util.Set;
+
+class TestNGDetector extends AbstractTestFrameworkDetector {
+    private static final String TEST = "Lorg/testng/annotations/Test;";
+    private static final Set<String> TEST_METHOD_ANNOTATIONS = ImmutableSet.of(
+        TEST,
+        "Lorg/testng/annotations/BeforeSuite;",
+        "Lorg/testng/annotations/AfterSuite;",
+        "Lorg/testng/annotations/BeforeTest;",
+        "Lorg/testng/annotations/AfterTest;",
+        "Lorg/testng/annotations/BeforeGroups;",
+        "Lorg/testng/annotations/AfterGroups;",
+        "Lorg/testng/annotations/Factory;"
+    );
 
     TestNGDetector(ClassFileExtractionManager classFileExtractionManager) {
         super(classFileExtractionManager);
     }
 
-    @Override
-    protected TestNGTestClassDetecter createClassVisitor() {
-        return new TestNGTestClassDetecter(this);
-    }
-
     /**
-     * Uses a TestClassVisitor to detect whether the class in the testClassFile is a test class. <p/> If the class is not a test, this function will go up the inheritance tree to check if a parent
+     * Uses the summary of the class file to detect whether the class is a test class. <p/> If the class is not a test, this function will go up the inheritance tree to check if a parent
      * class is a test class. First the package of the parent class is checked, if it is a java.lang or groovy.lang the class can't be a test class, otherwise the parent class is scanned. <p/> When a
      * parent class is a test class all the extending classes are marked as test classes.
      */
     @Override
-    protected boolean processTestClass(final File testClassFile, boolean superClass) {
-        final TestClassVisitor classVisitor = classVisitor(testClassFile);
-
-        boolean isTest = classVisitor.isTest();
-
-        if (!isTest) {
-            final String superClassName = classVisitor.getSuperClassName();
-
-            final File superClassFile = getSuperTestClassFile(superClassName);
+    protected boolean processTestClass(ClassFileSummary testClass, boolean superClass) {
+        boolean isTest = testClass.hasClassAnnotation(TEST)
+            || (!testClass.isAbstract() && testClass.hasMethodAnnotation(TEST_METHOD_ANNOTATIONS));
 
-            if (superClassFile != null) {
-                isTest = processSuperClass(superClassFile);
-            } else {
-                LOGGER.debug("test-class-scan : failed to scan parent class {}, could not find the class file",
-                        superClassName);
-            }
+        if (!isTest && testClass.getSuperClassName() != null) {
+            isTest = processSuperClass(testClass.getSuperClassName());
         }
 
-        publishTestClass(isTest, classVisitor, superClass);
+        publishTestClass(isTest, testClass.isAbstract(), testClass, superClass);
 
         return isTest;
     }
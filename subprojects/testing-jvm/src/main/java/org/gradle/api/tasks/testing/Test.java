@@ -29,20 +29,26 @@ import org.gradle.api.internal.ClosureBackedAction;
 import org.gradle.api.internal.ConventionTask;
 import org.gradle.api.internal.classpath.ModuleRegistry;
 import org.gradle.api.internal.file.FileResolver;
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisExecutor;
 import org.gradle.api.internal.tasks.options.Option;
 import org.gradle.api.internal.tasks.testing.DefaultTestTaskReports;
 import org.gradle.api.internal.tasks.testing.NoMatchingTestsReporter;
 import org.gradle.api.internal.tasks.testing.TestFramework;
 import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.detection.AffectedTestClasses;
 import org.gradle.api.internal.tasks.testing.detection.DefaultTestExecuter;
+import org.gradle.api.internal.tasks.testing.detection.TestClassIndex;
+import org.gradle.api.internal.tasks.testing.detection.TestClassesSnapshot;
 import org.gradle.api.internal.tasks.testing.detection.TestExecuter;
 import org.gradle.api.internal.tasks.testing.filter.DefaultTestFilter;
 import org.gradle.api.internal.tasks.testing.junit.JUnitTestFramework;
 import org.gradle.api.internal.tasks.testing.junit.report.DefaultTestReport;
 import org.gradle.api.internal.tasks.testing.junit.report.TestReporter;
 import org.gradle.api.internal.tasks.testing.junit.result.Binary2JUnitXmlReportGenerator;
-import org.gradle.api.internal.tasks.testing.junit.result.InMemoryTestResultsProvider;
+import org.gradle.api.internal.tasks.testing.junit.result.BinaryResultBackedTestResultsProvider;
+import org.gradle.api.internal.tasks.testing.junit.result.PreviousTestResults;
 import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult;
 import org.gradle.api.internal.tasks.testing.junit.result.TestOutputAssociation;
 import org.gradle.api.internal.tasks.testing.junit.result.TestOutputStore;
@@ -60,6 +66,8 @@ import org.gradle.api.internal.tasks.testing.results.StateTrackingTestResultProc
 import org.gradle.api.internal.tasks.testing.results.TestListenerAdapter;
 import org.gradle.api.internal.tasks.testing.results.TestListenerInternal;
 import org.gradle.api.internal.tasks.testing.testng.TestNGTestFramework;
+import org.gradle.api.internal.tasks.testing.worker.ReusableTestWorkerManager;
+import org.gradle.api.internal.tasks.testing.worker.TestFrameworkJarDetector;
 import org.gradle.api.logging.LogLevel;
 import org.gradle.api.reporting.DirectoryReport;
 import org.gradle.api.reporting.Reporting;
@@ -78,6 +86,7 @@ import org.gradle.api.tasks.VerificationTask;
 import org.gradle.api.tasks.testing.junit.JUnitOptions;
 import org.gradle.api.tasks.testing.logging.TestLogging;
 import org.gradle.api.tasks.testing.logging.TestLoggingContainer;
+import org.gradle.api.tasks.testing.testng.TestNGOptions;
 import org.gradle.api.tasks.util.PatternFilterable;
 import org.gradle.internal.Actions;
 import org.gradle.internal.Cast;
@@ -85,6 +94,7 @@ import org.gradle.internal.actor.ActorFactory;
 import org.gradle.internal.concurrent.CompositeStoppable;
 import org.gradle.internal.event.ListenerBroadcast;
 import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.jvm.UnsupportedJavaRuntimeException;
 import org.gradle.internal.jvm.inspection.JvmVersionDetector;
 import org.gradle.internal.logging.ConsoleRenderer;
@@ -103,14 +113,19 @@ import org.gradle.process.internal.DefaultJavaForkOptions;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.util.CollectionUtils;
 import org.gradle.util.ConfigureUtil;
+import org.gradle.util.GFileUtils;
 import org.gradle.util.SingleMessageLogger;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import static org.gradle.util.ConfigureUtil.configureUsing;
 
@@ -162,6 +177,7 @@ import static org.gradle.util.ConfigureUtil.configureUsing;
  */
 @CacheableTask
 public class Test extends ConventionTask implements JavaForkOptions, PatternFilterable, VerificationTask, Reporting<TestTaskReports> {
+    private static final String TEST_CLASSES_SNAPSHOT_FILE = "test-classes.bin";
 
     private final ListenerBroadcast<TestListener> testListenerBroadcaster;
     private final ListenerBroadcast<TestOutputListener> testOutputListenerBroadcaster;
@@ -178,6 +194,7 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
     private FileCollection classpath;
     private TestFramework testFramework;
     private boolean scanForTestClasses = true;
+    private boolean onlyAffectedTests;
     private long forkEvery;
     private int maxParallelForks = 1;
     private TestReporter testReporter;
@@ -632,6 +649,25 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         }
 
         File binaryResultsDir = getBinResultsDir();
+        File previousResultsDir = binaryResultsDir;
+        if (onlyAffectedTests) {
+            // Keep the results of the previous run until the results of the unaffected test classes have been copied from them
+            previousResultsDir = new File(getTemporaryDir(), "previous-results");
+            getProject().delete(previousResultsDir);
+            if (binaryResultsDir.isDirectory() && !binaryResultsDir.renameTo(previousResultsDir)) {
+                GFileUtils.copyDirectory(binaryResultsDir, previousResultsDir);
+            }
+        }
+        PreviousTestResults previousResults = readPreviousResults(previousResultsDir);
+        Map<String, Long> previousClassDurations = getTestClassDurations(previousResults);
+        TestClassesSnapshot testClassesSnapshot = null;
+        Set<String> upToDateTestClasses = Collections.emptySet();
+        if (onlyAffectedTests) {
+            testClassesSnapshot = TestClassesSnapshot.take(describeTestConfiguration(), getClasspathRoots(), getServices().get(DirectoryFileTreeFactory.class), getServices().get(FileHasher.class));
+            if (previousResults != null && previousResultsDir != binaryResultsDir) {
+                upToDateTestClasses = findUpToDateTestClasses(previousResultsDir, previousResults, testClassesSnapshot);
+            }
+        }
         getProject().delete(binaryResultsDir);
         getProject().mkdir(binaryResultsDir);
 
@@ -639,7 +675,9 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         TestOutputStore testOutputStore = new TestOutputStore(binaryResultsDir);
 
         TestOutputStore.Writer outputWriter = testOutputStore.writer();
-        TestReportDataCollector testReportDataCollector = new TestReportDataCollector(results, outputWriter);
+        // Write the results of each test class as soon as the class completes, rather than holding the results of the whole run in memory
+        TestResultSerializer.Writer resultWriter = new TestResultSerializer(binaryResultsDir).writer();
+        TestReportDataCollector testReportDataCollector = new TestReportDataCollector(results, outputWriter, resultWriter);
 
         addTestListener(testReportDataCollector);
         addTestOutputListener(testReportDataCollector);
@@ -662,7 +700,12 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
                 getServices().get(WorkerLeaseRegistry.class),
                 getServices().get(BuildOperationExecutor.class),
                 getServices().get(StartParameter.class).getMaxWorkerCount(),
-                getServices().get(TimeProvider.class));
+                getServices().get(TimeProvider.class),
+                previousClassDurations,
+                upToDateTestClasses,
+                getServices().get(ReusableTestWorkerManager.class),
+                getServices().get(TestClassIndex.class),
+                getServices().get(TestFrameworkJarDetector.class));
         }
 
         JavaVersion javaVersion = getJavaVersion();
@@ -672,6 +715,10 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
 
         try {
             testExecuter.execute(this, resultProcessor);
+            if (!upToDateTestClasses.isEmpty()) {
+                getLogger().info("Reusing the results of {} test classes not affected by changes since the previous run.", upToDateTestClasses.size());
+                previousResults.copyTo(upToDateTestClasses, testReportDataCollector.getMaxId(), results, outputWriter);
+            }
         } finally {
             parentProgressLogger.completed();
             testExecuter = null;
@@ -680,11 +727,25 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
             testOutputListenerBroadcaster.removeAll();
             testListenerInternalBroadcaster.removeAll();
             outputWriter.close();
+            try {
+                for (TestClassResult result : results.values()) {
+                    resultWriter.write(result);
+                }
+            } finally {
+                resultWriter.close();
+                results.clear();
+            }
         }
 
-        new TestResultSerializer(binaryResultsDir).write(results.values());
+        if (testClassesSnapshot != null) {
+            testClassesSnapshot.write(new File(binaryResultsDir, TEST_CLASSES_SNAPSHOT_FILE));
+            if (!previousResultsDir.equals(binaryResultsDir)) {
+                getProject().delete(previousResultsDir);
+            }
+        }
 
-        TestResultsProvider testResultsProvider = new InMemoryTestResultsProvider(results.values(), testOutputStore);
+        // Generate the reports from the binary results, so that the results of each class only need to be in memory while its report is written
+        TestResultsProvider testResultsProvider = new BinaryResultBackedTestResultsProvider(binaryResultsDir);
 
         try {
             if (testReporter == null) {
@@ -717,6 +778,79 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         }
     }
 
+    @Nullable
+    private PreviousTestResults readPreviousResults(File resultsDir) {
+        try {
+            return new PreviousTestResults(resultsDir);
+        } catch (Exception e) {
+            getLogger().debug("Could not read the results of the previous test run from {}.", resultsDir, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns the duration of each test class in the previous run, used to balance the test classes across forks.
+     */
+    private static Map<String, Long> getTestClassDurations(@Nullable PreviousTestResults previousResults) {
+        Map<String, Long> durations = new HashMap<String, Long>();
+        if (previousResults != null) {
+            for (TestClassResult result : previousResults.getResults().values()) {
+                durations.put(result.getClassName(), result.getDuration());
+            }
+        }
+        return durations;
+    }
+
+    private Set<String> findUpToDateTestClasses(File previousResultsDir, PreviousTestResults previousResults, TestClassesSnapshot currentSnapshot) {
+        TestClassesSnapshot previousSnapshot;
+        try {
+            previousSnapshot = TestClassesSnapshot.read(new File(previousResultsDir, TEST_CLASSES_SNAPSHOT_FILE));
+        } catch (Exception e) {
+            getLogger().debug("Could not read the test classes of the previous test run from {}.", previousResultsDir, e);
+            previousSnapshot = null;
+        }
+        if (previousSnapshot == null) {
+            return Collections.emptySet();
+        }
+        AffectedTestClasses affectedTestClasses = new AffectedTestClasses(getServices().get(DirectoryFileTreeFactory.class), getServices().get(FileHasher.class), getServices().get(ClassAnalysisExecutor.class));
+        return affectedTestClasses.getUpToDateTestClasses(previousSnapshot, currentSnapshot, previousResults.getResults().values(), getClasspathRoots());
+    }
+
+    private Set<File> getClasspathRoots() {
+        Set<File> roots = new LinkedHashSet<File>(getTestClassesDirs().getFiles());
+        roots.addAll(getClasspath().getFiles());
+        return roots;
+    }
+
+    /**
+     * Describes the inputs other than the classpath that can change the outcome of any test class.
+     */
+    private String describeTestConfiguration() {
+        return getTestFramework().getClass().getName() + ";" + describeTestFrameworkOptions()
+            + ";" + getIncludes() + ";" + getExcludes()
+            + ";" + filter.getIncludePatterns() + ";" + filter.getCommandLineIncludePatterns()
+            + ";" + getAllJvmArgs() + ";" + getWorkingDir()
+            + ";" + new TreeMap<String, Object>(getEnvironment());
+    }
+
+    private String describeTestFrameworkOptions() {
+        TestFrameworkOptions options = getTestFramework().getOptions();
+        if (options instanceof JUnitOptions) {
+            JUnitOptions junitOptions = (JUnitOptions) options;
+            return junitOptions.getIncludeCategories() + ";" + junitOptions.getExcludeCategories();
+        }
+        if (options instanceof TestNGOptions) {
+            TestNGOptions testNGOptions = (TestNGOptions) options;
+            return testNGOptions.getIncludeGroups() + ";" + testNGOptions.getExcludeGroups()
+                + ";" + testNGOptions.getListeners() + ";" + testNGOptions.isUseDefaultListeners()
+                + ";" + testNGOptions.getParallel() + ";" + testNGOptions.getThreadCount()
+                + ";" + testNGOptions.isPreserveOrder() + ";" + testNGOptions.isGroupByInstances()
+                + ";" + testNGOptions.getConfigFailurePolicy() + ";" + testNGOptions.getSuiteName() + ";" + testNGOptions.getTestName()
+                + ";" + testNGOptions.getSuiteXmlFiles() + ";" + testNGOptions.getSuiteXmlWriter();
+        }
+        return options.getClass().getName();
+    }
+
     private String createNoMatchingTestErrorMessage() {
         String msg = "No tests found for given includes: ";
         if (!getIncludes().isEmpty()) {
@@ -1228,6 +1362,31 @@ public class Test extends ConventionTask implements JavaForkOptions, PatternFilt
         this.scanForTestClasses = scanForTestClasses;
     }
 
+    /**
+     * Specifies whether only the test classes affected by changes since the previous run should be executed. When {@code true}, the test classes that passed in
+     * the previous run and cannot observe any change to the classes in the classpath directories are not executed again, and their previous results are reported
+     * instead. Any change to a jar or resource on the classpath, to the include and exclude patterns, the test filter, or the JVM arguments causes all test
+     * classes to be executed. Changes to the test framework options or the environment variables are not detected. The default value is {@code false}.
+     *
+     * @since 4.2
+     */
+    @Incubating
+    @Input
+    public boolean isOnlyAffectedTests() {
+        return onlyAffectedTests;
+    }
+
+    /**
+     * Sets whether only the test classes affected by changes since the previous run should be executed.
+     *
+     * @since 4.2
+     * @see #isOnlyAffectedTests()
+     */
+    @Incubating
+    public void setOnlyAffectedTests(boolean onlyAffectedTests) {
+        this.onlyAffectedTests = onlyAffectedTests;
+    }
+
     /**
      * Returns the maximum number of test classes to execute in a forked test process. The forked test process will be restarted when this limit is reached. The default value is 0 (no maximum).
      *
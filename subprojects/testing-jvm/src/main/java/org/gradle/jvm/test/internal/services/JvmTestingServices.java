@@ -16,6 +16,11 @@
 
 package org.gradle.jvm.test.internal.services;
 
+import org.gradle.api.internal.tasks.testing.detection.TestClassIndex;
+import org.gradle.api.internal.tasks.testing.worker.ReusableTestWorkerManager;
+import org.gradle.api.internal.tasks.testing.worker.TestFrameworkJarDetector;
+import org.gradle.cache.internal.FileContentCacheFactory;
+import org.gradle.internal.concurrent.ExecutorFactory;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
 import org.gradle.jvm.test.internal.JUnitTestSuiteBinaryRenderer;
@@ -25,4 +30,30 @@ public class JvmTestingServices extends AbstractPluginServiceRegistry {
     public void registerGlobalServices(ServiceRegistration registration) {
         registration.add(JUnitTestSuiteBinaryRenderer.class);
     }
+
+    @Override
+    public void registerGradleUserHomeServices(ServiceRegistration registration) {
+        registration.addProvider(new GradleUserHomeServices());
+    }
+
+    @Override
+    public void registerGradleServices(ServiceRegistration registration) {
+        registration.addProvider(new GradleScopeServices());
+    }
+
+    private static class GradleUserHomeServices {
+        ReusableTestWorkerManager createReusableTestWorkerManager(ExecutorFactory executorFactory) {
+            return new ReusableTestWorkerManager(executorFactory);
+        }
+    }
+
+    private static class GradleScopeServices {
+        TestClassIndex createTestClassIndex(FileContentCacheFactory cacheFactory) {
+            return new TestClassIndex(cacheFactory);
+        }
+
+        TestFrameworkJarDetector createTestFrameworkJarDetector(FileContentCacheFactory cacheFactory) {
+            return new TestFrameworkJarDetector(cacheFactory);
+        }
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import com.google.common.hash.HashCode
+import com.google.common.util.concurrent.MoreExecutors
+import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisExecutor
+import org.gradle.api.internal.tasks.testing.junit.result.TestClassResult
+import org.gradle.api.internal.tasks.testing.junit.result.TestMethodResult
+import org.gradle.api.tasks.testing.TestResult
+import org.gradle.internal.hash.FileHasher
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class AffectedTestClassesTest extends Specification {
+    @Rule
+    TestNameTestDirectoryProvider tmp = new TestNameTestDirectoryProvider()
+    def affectedTestClasses = new AffectedTestClasses(Mock(DirectoryFileTreeFactory), Mock(FileHasher), new ClassAnalysisExecutor(MoreExecutors.sameThreadExecutor(), 1))
+    def hash1 = HashCode.fromInt(1)
+    def hash2 = HashCode.fromInt(2)
+
+    def "reuses passed test classes when nothing has changed"() {
+        def snapshot = new TestClassesSnapshot("config", [Passed: hash1, Failed: hash1, NotRun: hash1], ["lib.jar": hash1])
+        def current = new TestClassesSnapshot("config", [Passed: hash1, Failed: hash1, NotRun: hash1], ["lib.jar": hash1])
+        def results = [result("Passed", TestResult.ResultType.SUCCESS), result("Failed", TestResult.ResultType.FAILURE), result("Removed", TestResult.ResultType.SUCCESS)]
+
+        expect:
+        affectedTestClasses.getUpToDateTestClasses(snapshot, current, results, []) == ["Passed"] as Set
+    }
+
+    def "runs all test classes when a jar or resource has changed"() {
+        def snapshot = new TestClassesSnapshot("config", [Passed: hash1], ["lib.jar": hash1])
+        def current = new TestClassesSnapshot("config", [Passed: hash1], ["lib.jar": hash2])
+
+        expect:
+        affectedTestClasses.getUpToDateTestClasses(snapshot, current, [result("Passed", TestResult.ResultType.SUCCESS)], []).empty
+    }
+
+    def "runs all test classes when the test configuration has changed"() {
+        def snapshot = new TestClassesSnapshot("config", [Passed: hash1], [:])
+        def current = new TestClassesSnapshot("other", [Passed: hash1], [:])
+
+        expect:
+        affectedTestClasses.getUpToDateTestClasses(snapshot, current, [result("Passed", TestResult.ResultType.SUCCESS)], []).empty
+    }
+
+    def "runs nested test classes when their top level class is affected"() {
+        def snapshot = new TestClassesSnapshot("config", [OuterTest: hash1, 'OuterTest$NestedTest': hash1, Other: hash1], [:])
+        def current = new TestClassesSnapshot("config", [OuterTest: hash2, 'OuterTest$NestedTest': hash1, Other: hash1], [:])
+        def results = [result("OuterTest", TestResult.ResultType.SUCCESS), result('OuterTest$NestedTest', TestResult.ResultType.SUCCESS), result("Other", TestResult.ResultType.SUCCESS)]
+
+        expect:
+        affectedTestClasses.getUpToDateTestClasses(snapshot, current, results, []) == ["Other"] as Set
+    }
+
+    def "can write and read snapshot"() {
+        def file = tmp.file("snapshot.bin")
+        def snapshot = new TestClassesSnapshot("config", [Passed: hash1], ["lib.jar": hash2])
+
+        when:
+        snapshot.write(file)
+        def read = TestClassesSnapshot.read(file)
+
+        then:
+        read.configuration == "config"
+        read.classes == [Passed: hash1]
+        read.files == ["lib.jar": hash2]
+        TestClassesSnapshot.read(tmp.file("missing.bin")) == null
+    }
+
+    private static TestClassResult result(String className, TestResult.ResultType resultType) {
+        def result = new TestClassResult(1, className, 0)
+        result.add(new TestMethodResult(1, "test", resultType, 10, 10))
+        return result
+    }
+}
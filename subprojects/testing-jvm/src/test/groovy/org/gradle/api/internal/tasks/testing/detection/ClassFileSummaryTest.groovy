@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.detection
+
+import org.gradle.internal.serialize.SerializerSpec
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+class ClassFileSummaryTest extends SerializerSpec {
+    def "summarizes class annotations and superclass"() {
+        when:
+        def summary = summarize(AnnotatedClass)
+
+        then:
+        summary.className == AnnotatedClass.name.replace('.', '/')
+        summary.superClassName == BaseClass.name.replace('.', '/')
+        summary.hasClassAnnotation("Lorg/junit/runner/RunWith;")
+        !summary.hasMethodAnnotation(["Lorg/junit/Test;"] as Set)
+        !summary.isAbstract()
+        !summary.nonStaticInnerClass
+    }
+
+    def "summarizes method annotations of abstract class"() {
+        when:
+        def summary = summarize(BaseClass)
+
+        then:
+        summary.superClassName == "java/lang/Object"
+        summary.hasMethodAnnotation(["Lorg/testng/annotations/Test;", "Lorg/junit/Test;"] as Set)
+        !summary.hasClassAnnotation("Lorg/junit/runner/RunWith;")
+        summary.isAbstract()
+    }
+
+    def "detects non-static inner classes"() {
+        expect:
+        summarize(InnerClass).nonStaticInnerClass
+        !summarize(AnnotatedClass).nonStaticInnerClass
+    }
+
+    def "can serialize summary"() {
+        def summary = summarize(BaseClass)
+
+        when:
+        def result = serialize(summary, new ClassFileSummary.Serializer())
+
+        then:
+        result.className == summary.className
+        result.superClassName == summary.superClassName
+        result.isAbstract()
+        !result.nonStaticInnerClass
+        result.hasMethodAnnotation(["Lorg/junit/Test;"] as Set)
+    }
+
+    ClassFileSummary summarize(Class<?> type) {
+        def resource = type.getResourceAsStream("/" + type.name.replace('.', '/') + ".class")
+        try {
+            return ClassFileSummary.read(resource.bytes)
+        } finally {
+            resource.close()
+        }
+    }
+
+    static abstract class BaseClass {
+        @Test
+        void ok() {
+        }
+    }
+
+    @RunWith(JUnit4)
+    static class AnnotatedClass extends BaseClass {
+    }
+
+    class InnerClass {
+    }
+}
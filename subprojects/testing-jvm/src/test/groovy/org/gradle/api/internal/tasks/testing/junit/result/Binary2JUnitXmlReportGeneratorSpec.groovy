@@ -69,6 +69,9 @@ class Binary2JUnitXmlReportGeneratorSpec extends Specification {
             action.execute(fooTest)
             action.execute(barTest)
         }
+        resultsProvider.visitClass(_, _) >> { long id, Action action ->
+            action.execute([fooTest, barTest].find { it.id == id })
+        }
 
         when:
         generator.generate()
@@ -91,6 +94,9 @@ class Binary2JUnitXmlReportGeneratorSpec extends Specification {
         resultsProvider.visitClasses(_) >> { Action action ->
             action.execute(fooTest)
         }
+        resultsProvider.visitClass(1, _) >> { long id, Action action ->
+            action.execute(fooTest)
+        }
         generator.xmlWriter.write(fooTest, _) >> { throw new IOException("Boo!") }
 
         when:
@@ -219,4 +219,35 @@ class TestReportDataCollectorSpec extends Specification {
         then:
         results.get("FooTest").startTime == 100
     }
+
+    def "writes the results of a class and drops them when the class completes"() {
+        def resultWriter = Mock(TestResultSerializer.Writer)
+        def collector = new TestReportDataCollector(results, writer, resultWriter)
+        def root = new DefaultTestSuiteDescriptor("1", "Suite")
+        def clazz = new DecoratingTestDescriptor(new DefaultTestClassDescriptor("1.1", "FooTest"), root)
+        def test = new DecoratingTestDescriptor(new DefaultTestDescriptor("1.1.1", "FooTest", "testMethod"), clazz)
+
+        when:
+        collector.beforeSuite(root)
+        collector.beforeSuite(clazz)
+        collector.beforeTest(test)
+        collector.afterTest(test, new DefaultTestResult(SUCCESS, 100, 200, 1, 1, 0, []))
+
+        then:
+        results.keySet() == ["FooTest"] as Set
+        0 * resultWriter._
+
+        when:
+        collector.afterSuite(clazz, new DefaultTestResult(SUCCESS, 100, 200, 1, 1, 0, []))
+
+        then:
+        1 * resultWriter.write({ it.className == "FooTest" && it.results*.name == ["testMethod"] })
+        results.isEmpty()
+
+        when:
+        collector.afterSuite(root, new DefaultTestResult(SUCCESS, 0, 500, 1, 1, 0, []))
+
+        then:
+        0 * resultWriter._
+    }
 }
@@ -67,6 +67,66 @@ class TestResultSerializerTest extends Specification {
         readClass2.results.empty
     }
 
+    def "can read the results of a single class after reading all results"() {
+        def class1 = new TestClassResult(1, 'Class1', 1234)
+        class1.add(new TestMethodResult(1, "method1", TestResult.ResultType.SUCCESS, 100, 2300))
+        def class2 = new TestClassResult(2, 'Class2', 5678)
+        class2.add(new TestMethodResult(2, "method2", TestResult.ResultType.FAILURE, 200, 2700).addFailure("message", "stack-trace", "ExceptionType"))
+        class2.add(new TestMethodResult(3, "method3", TestResult.ResultType.SKIPPED, 0, 2800))
+        def class3 = new TestClassResult(3, 'Class3', 9012)
+        def serializer = new TestResultSerializer(tmp.createDir("results"))
+        serializer.write([class1, class2, class3])
+        serializer.read({} as Action)
+
+        when:
+        def result = []
+        serializer.readClass(2, { result << it } as Action)
+
+        then:
+        result.size() == 1
+        result[0].className == 'Class2'
+        result[0].startTime == 5678
+        result[0].results*.name == ['method2', 'method3']
+        result[0].results[0].failures[0].stackTrace == "stack-trace"
+        result[0].results[1].resultType == TestResult.ResultType.SKIPPED
+    }
+
+    def "cannot read the results of a class that has not been read"() {
+        def serializer = new TestResultSerializer(tmp.createDir("results"))
+        serializer.write([new TestClassResult(1, 'Class1', 1234)])
+
+        when:
+        serializer.readClass(1, {} as Action)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "can write results one class at a time"() {
+        def serializer = new TestResultSerializer(tmp.createDir("results"))
+
+        when:
+        def writer = serializer.writer()
+        writer.write(new TestClassResult(1, 'Class1', 1234))
+        writer.write(new TestClassResult(2, 'Class2', 5678))
+        writer.close()
+        def result = []
+        serializer.read({ result << it } as Action)
+
+        then:
+        result*.className == ['Class1', 'Class2']
+    }
+
+    def "has no results when no class is written"() {
+        def serializer = new TestResultSerializer(tmp.createDir("results"))
+
+        when:
+        serializer.writer().close()
+
+        then:
+        !serializer.hasResults
+    }
+
     List<TestClassResult> serialize(Collection<TestClassResult> results) {
         def serializer = new TestResultSerializer(tmp.createDir("results"))
         serializer.write(results)
@@ -67,6 +67,10 @@ class BuildableTestResultsProvider implements TestResultsProvider {
         }
     }
 
+    void visitClass(long id, Action<? super TestClassResult> visitor) {
+        visitor.execute(testClasses[id])
+    }
+
     boolean isHasResults() {
         !testClasses.isEmpty()
     }
@@ -16,17 +16,25 @@
 
 package org.gradle.tooling.internal.provider.runner;
 
+import com.google.common.collect.ImmutableList;
 import org.gradle.api.BuildCancelledException;
 import org.gradle.api.initialization.IncludedBuild;
 import org.gradle.api.internal.GradleInternal;
 import org.gradle.api.internal.project.ProjectInternal;
 import org.gradle.composite.internal.IncludedBuildInternal;
 import org.gradle.initialization.BuildCancellationToken;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
+import org.gradle.internal.resources.ResourceLock;
+import org.gradle.internal.work.WorkerLeaseRegistry;
+import org.gradle.internal.work.WorkerLeaseService;
 import org.gradle.tooling.internal.gradle.GradleBuildIdentity;
 import org.gradle.tooling.internal.gradle.GradleProjectIdentity;
 import org.gradle.tooling.internal.protocol.BuildExceptionVersion1;
 import org.gradle.tooling.internal.protocol.BuildResult;
-import org.gradle.tooling.internal.protocol.InternalBuildController;
+import org.gradle.tooling.internal.protocol.InternalModelResultHandler;
+import org.gradle.tooling.internal.protocol.InternalParallelBuildController;
 import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException;
 import org.gradle.tooling.internal.protocol.ModelIdentifier;
 import org.gradle.tooling.internal.provider.connection.ProviderBuildResult;
@@ -34,7 +42,15 @@ import org.gradle.tooling.provider.model.ToolingModelBuilder;
 import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry;
 import org.gradle.tooling.provider.model.UnknownModelException;
 
-class DefaultBuildController implements InternalBuildController {
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class DefaultBuildController implements InternalParallelBuildController {
     private final GradleInternal gradle;
 
     public DefaultBuildController(GradleInternal gradle) {
@@ -47,15 +63,104 @@ class DefaultBuildController implements InternalBuildController {
 
     public BuildResult<?> getModel(Object target, ModelIdentifier modelIdentifier) throws BuildExceptionVersion1, InternalUnsupportedModelException {
         BuildCancellationToken cancellationToken = gradle.getServices().get(BuildCancellationToken.class);
-        if (cancellationToken.isCancellationRequested()) {
-            throw new BuildCancelledException(String.format("Could not build '%s' model. Build cancelled.", modelIdentifier.getName()));
-        }
+        checkNotCancelled(cancellationToken, modelIdentifier);
         ProjectInternal project = getTargetProject(target);
         ToolingModelBuilder builder = getToolingModelBuilder(project, modelIdentifier);
         Object model = builder.buildAll(modelIdentifier.getName(), project);
         return new ProviderBuildResult<Object>(model);
     }
 
+    public void getModels(List<?> targets, ModelIdentifier modelIdentifier, InternalModelResultHandler handler) throws BuildExceptionVersion1, InternalUnsupportedModelException {
+        BuildCancellationToken cancellationToken = gradle.getServices().get(BuildCancellationToken.class);
+        checkNotCancelled(cancellationToken, modelIdentifier);
+        List<ProjectInternal> projects = new ArrayList<ProjectInternal>(targets.size());
+        List<ToolingModelBuilder> builders = new ArrayList<ToolingModelBuilder>(targets.size());
+        for (Object target : targets) {
+            ProjectInternal project = getTargetProject(target);
+            projects.add(project);
+            builders.add(getToolingModelBuilder(project, modelIdentifier));
+        }
+
+        if (projects.size() > 1 && gradle.getStartParameter().isParallelProjectExecutionEnabled()) {
+            buildModelsInParallel(projects, builders, modelIdentifier, cancellationToken, handler);
+        } else {
+            for (int i = 0; i < projects.size(); i++) {
+                checkNotCancelled(cancellationToken, modelIdentifier);
+                Object model = builders.get(i).buildAll(modelIdentifier.getName(), projects.get(i));
+                handler.onModel(i, new ProviderBuildResult<Object>(model));
+            }
+        }
+    }
+
+    /**
+     * Runs the builders on a pool of threads, each holding a worker lease and the lock for its target project, in the same way that tasks are run in parallel.
+     * The results are passed to the handler on this thread as they complete. When a builder fails, the builders that have not started yet are skipped.
+     */
+    private void buildModelsInParallel(final List<ProjectInternal> projects, final List<ToolingModelBuilder> builders, final ModelIdentifier modelIdentifier,
+                                       final BuildCancellationToken cancellationToken, InternalModelResultHandler handler) {
+        final WorkerLeaseService workerLeaseService = gradle.getServices().get(WorkerLeaseService.class);
+        final WorkerLeaseRegistry.WorkerLease parentWorkerLease = workerLeaseService.getCurrentWorkerLease();
+        final AtomicBoolean failed = new AtomicBoolean();
+        ManagedExecutor executor = gradle.getServices().get(ExecutorFactory.class).create("Build model '" + modelIdentifier.getName() + "'", Math.min(projects.size(), workerLeaseService.getMaxWorkerCount()));
+        try {
+            CompletionService<BuiltModel> completionService = new ExecutorCompletionService<BuiltModel>(executor);
+            for (int i = 0; i < projects.size(); i++) {
+                final int targetIndex = i;
+                completionService.submit(new Callable<BuiltModel>() {
+                    @Override
+                    public BuiltModel call() {
+                        if (failed.get()) {
+                            return null;
+                        }
+                        final ProjectInternal project = projects.get(targetIndex);
+                        ResourceLock projectLock = workerLeaseService.getProjectLock(project.getGradle().getIdentityPath().toString(), project.getIdentityPath().toString());
+                        return workerLeaseService.withLocks(ImmutableList.of(parentWorkerLease.createChild(), projectLock), new Callable<BuiltModel>() {
+                            @Override
+                            public BuiltModel call() {
+                                checkNotCancelled(cancellationToken, modelIdentifier);
+                                return new BuiltModel(targetIndex, builders.get(targetIndex).buildAll(modelIdentifier.getName(), project));
+                            }
+                        });
+                    }
+                });
+            }
+
+            Throwable failure = null;
+            for (int i = 0; i < projects.size(); i++) {
+                try {
+                    BuiltModel builtModel = completionService.take().get();
+                    if (failure == null && builtModel != null) {
+                        handler.onModel(builtModel.targetIndex, new ProviderBuildResult<Object>(builtModel.model));
+                    }
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause();
+                    }
+                    failed.set(true);
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    }
+                    failed.set(true);
+                }
+            }
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+        } catch (InterruptedException e) {
+            failed.set(true);
+            throw UncheckedException.throwAsUncheckedException(e);
+        } finally {
+            executor.stop();
+        }
+    }
+
+    private static void checkNotCancelled(BuildCancellationToken cancellationToken, ModelIdentifier modelIdentifier) {
+        if (cancellationToken.isCancellationRequested()) {
+            throw new BuildCancelledException(String.format("Could not build '%s' model. Build cancelled.", modelIdentifier.getName()));
+        }
+    }
+
     private ProjectInternal getTargetProject(Object target) {
         ProjectInternal project;
         if (target == null) {
@@ -110,4 +215,14 @@ class DefaultBuildController implements InternalBuildController {
         }
         return builder;
     }
+
+    private static class BuiltModel {
+        final int targetIndex;
+        final Object model;
+
+        BuiltModel(int targetIndex, Object model) {
+            this.targetIndex = targetIndex;
+            this.model = model;
+        }
+    }
 }
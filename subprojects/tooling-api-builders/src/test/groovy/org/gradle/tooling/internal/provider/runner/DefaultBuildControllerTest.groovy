@@ -16,25 +16,42 @@
 
 package org.gradle.tooling.internal.provider.runner
 
+import org.gradle.StartParameter
 import org.gradle.api.BuildCancelledException
 import org.gradle.api.internal.GradleInternal
 import org.gradle.api.internal.project.ProjectInternal
 import org.gradle.initialization.BuildCancellationToken
+import org.gradle.internal.concurrent.DefaultExecutorFactory
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.resources.ResourceLock
 import org.gradle.internal.service.ServiceRegistry
+import org.gradle.internal.work.WorkerLeaseRegistry
+import org.gradle.internal.work.WorkerLeaseService
 import org.gradle.tooling.internal.gradle.GradleProjectIdentity
+import org.gradle.tooling.internal.protocol.BuildResult
+import org.gradle.tooling.internal.protocol.InternalModelResultHandler
 import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException
 import org.gradle.tooling.internal.protocol.ModelIdentifier
 import org.gradle.tooling.provider.model.ToolingModelBuilder
 import org.gradle.tooling.provider.model.ToolingModelBuilderRegistry
 import org.gradle.tooling.provider.model.UnknownModelException
+import org.gradle.util.Path
 import spock.lang.Specification
 
+import java.util.concurrent.Callable
+
 class DefaultBuildControllerTest extends Specification {
     def cancellationToken = Stub(BuildCancellationToken)
+    def startParameter = new StartParameter()
+    def workerLeaseService = Mock(WorkerLeaseService)
     def gradle = Stub(GradleInternal) {
         getServices() >> Stub(ServiceRegistry) {
             get(BuildCancellationToken) >> cancellationToken
+            get(WorkerLeaseService) >> workerLeaseService
+            get(ExecutorFactory) >> new DefaultExecutorFactory()
         }
+        getStartParameter() >> startParameter
+        getIdentityPath() >> Path.ROOT
     }
     def registry = Stub(ToolingModelBuilderRegistry)
     def project = Stub(ProjectInternal) {
@@ -46,6 +63,10 @@ class DefaultBuildControllerTest extends Specification {
         getName() >> 'some.model'
     }
     def modelBuilder = Stub(ToolingModelBuilder)
+    def buildRootDir = new File("root")
+    def buildRootProject = Stub(ProjectInternal) {
+        getProjectDir() >> buildRootDir
+    }
     def controller = new DefaultBuildController(gradle)
 
     def "adapts model not found exception to protocol exception"() {
@@ -111,4 +132,87 @@ class DefaultBuildControllerTest extends Specification {
         then:
         thrown(BuildCancelledException)
     }
+
+    def "builds model for each target one at a time when parallel execution is not enabled"() {
+        def target1 = projectTarget(":a")
+        def target2 = projectTarget(":b")
+        def handler = Mock(InternalModelResultHandler)
+
+        given:
+        _ * registry.getBuilder("some.model") >> modelBuilder
+        _ * modelBuilder.buildAll("some.model", _) >> { String name, ProjectInternal p -> p.path }
+
+        when:
+        controller.getModels([target1, target2], modelId, handler)
+
+        then:
+        1 * handler.onModel(0, { it.model == ":a" })
+
+        then:
+        1 * handler.onModel(1, { it.model == ":b" })
+        0 * workerLeaseService._
+    }
+
+    def "builds models in parallel holding the lock for each target project when parallel execution is enabled"() {
+        def target1 = projectTarget(":a")
+        def target2 = projectTarget(":b")
+        def results = [:]
+
+        given:
+        startParameter.parallelProjectExecutionEnabled = true
+        _ * registry.getBuilder("some.model") >> modelBuilder
+        _ * modelBuilder.buildAll("some.model", _) >> { String name, ProjectInternal p -> p.path }
+        _ * workerLeaseService.maxWorkerCount >> 2
+        _ * workerLeaseService.currentWorkerLease >> Stub(WorkerLeaseRegistry.WorkerLease)
+
+        when:
+        controller.getModels([target1, target2], modelId, { int index, BuildResult<?> result -> results[index] = result.model } as InternalModelResultHandler)
+
+        then:
+        1 * workerLeaseService.getProjectLock(":", ":a") >> Stub(ResourceLock)
+        1 * workerLeaseService.getProjectLock(":", ":b") >> Stub(ResourceLock)
+        2 * workerLeaseService.withLocks(_, _) >> { Iterable<ResourceLock> locks, Callable<?> action -> action.call() }
+        results == [0: ":a", 1: ":b"]
+    }
+
+    def "rethrows failure of model builder when building models in parallel"() {
+        def target1 = projectTarget(":a")
+        def target2 = projectTarget(":b")
+        def failure = new RuntimeException("broken")
+        def handler = Mock(InternalModelResultHandler)
+
+        given:
+        startParameter.parallelProjectExecutionEnabled = true
+        _ * registry.getBuilder("some.model") >> modelBuilder
+        _ * modelBuilder.buildAll("some.model", _) >> { throw failure }
+        _ * workerLeaseService.maxWorkerCount >> 2
+        _ * workerLeaseService.currentWorkerLease >> Stub(WorkerLeaseRegistry.WorkerLease)
+        _ * workerLeaseService.getProjectLock(_, _) >> Stub(ResourceLock)
+        _ * workerLeaseService.withLocks(_, _) >> { Iterable<ResourceLock> locks, Callable<?> action -> action.call() }
+
+        when:
+        controller.getModels([target1, target2], modelId, handler)
+
+        then:
+        RuntimeException e = thrown()
+        e == failure
+        0 * handler._
+    }
+
+    private GradleProjectIdentity projectTarget(String path) {
+        def targetProject = Stub(ProjectInternal) {
+            getPath() >> path
+            getIdentityPath() >> Path.path(path)
+            getGradle() >> gradle
+            getServices() >> Stub(ServiceRegistry) {
+                get(ToolingModelBuilderRegistry) >> registry
+            }
+        }
+        _ * gradle.rootProject >> buildRootProject
+        _ * buildRootProject.project(path) >> targetProject
+        return Stub(GradleProjectIdentity) {
+            getProjectPath() >> path
+            getRootDir() >> buildRootDir
+        }
+    }
 }
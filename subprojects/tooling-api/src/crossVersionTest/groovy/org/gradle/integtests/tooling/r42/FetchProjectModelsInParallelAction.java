@@ -0,0 +1,36 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.integtests.tooling.r42;
+
+import org.gradle.tooling.BuildAction;
+import org.gradle.tooling.BuildController;
+import org.gradle.tooling.model.GradleProject;
+import org.gradle.tooling.model.gradle.BasicGradleProject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FetchProjectModelsInParallelAction implements BuildAction<List<String>> {
+    public List<String> execute(BuildController controller) {
+        List<BasicGradleProject> projects = new ArrayList<BasicGradleProject>(controller.getBuildModel().getProjects());
+        List<String> paths = new ArrayList<String>();
+        for (GradleProject project : controller.getModels(projects, GradleProject.class)) {
+            paths.add(project.getPath());
+        }
+        return paths;
+    }
+}
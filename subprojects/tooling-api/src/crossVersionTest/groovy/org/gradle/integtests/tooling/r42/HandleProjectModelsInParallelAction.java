@@ -0,0 +1,39 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.integtests.tooling.r42;
+
+import org.gradle.tooling.BuildAction;
+import org.gradle.tooling.BuildController;
+import org.gradle.tooling.ModelHandler;
+import org.gradle.tooling.model.GradleProject;
+import org.gradle.tooling.model.Model;
+import org.gradle.tooling.model.gradle.BasicGradleProject;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class HandleProjectModelsInParallelAction implements BuildAction<Map<String, String>> {
+    public Map<String, String> execute(BuildController controller) {
+        final Map<String, String> paths = new HashMap<String, String>();
+        controller.getModels(controller.getBuildModel().getProjects(), GradleProject.class, new ModelHandler<GradleProject>() {
+            public void onModel(Model target, GradleProject model) {
+                paths.put(((BasicGradleProject) target).getPath(), model.getPath());
+            }
+        });
+        return paths;
+    }
+}
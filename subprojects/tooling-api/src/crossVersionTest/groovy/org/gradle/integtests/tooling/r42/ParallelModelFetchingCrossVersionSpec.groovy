@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.integtests.tooling.r42
+
+import org.gradle.integtests.tooling.fixture.TargetGradleVersion
+import org.gradle.integtests.tooling.fixture.ToolingApiSpecification
+import org.gradle.integtests.tooling.fixture.ToolingApiVersion
+import org.gradle.integtests.tooling.r213.FetchProjectModelsBuildAction
+import org.gradle.tooling.model.GradleProject
+
+class ParallelModelFetchingCrossVersionSpec extends ToolingApiSpecification {
+    def setup() {
+        settingsFile << """
+            rootProject.name = 'root'
+            include 'a', 'b', 'c'
+        """
+    }
+
+    @ToolingApiVersion(">=4.2")
+    @TargetGradleVersion(">=2.13")
+    def "can fetch models for several projects in one call"() {
+        when:
+        def paths = withConnection { connection ->
+            connection.action(new FetchProjectModelsInParallelAction()).withArguments(*arguments).run()
+        }
+
+        then:
+        paths == [':', ':a', ':b', ':c']
+
+        where:
+        arguments << [[], ['--parallel']]
+    }
+
+    @ToolingApiVersion(">=4.2")
+    @TargetGradleVersion(">=2.13")
+    def "can handle the models of several projects as they are built"() {
+        when:
+        def paths = withConnection { connection ->
+            connection.action(new HandleProjectModelsInParallelAction()).withArguments(*arguments).run()
+        }
+
+        then:
+        paths == [':': ':', ':a': ':a', ':b': ':b', ':c': ':c']
+
+        where:
+        arguments << [[], ['--parallel']]
+    }
+
+    @ToolingApiVersion(">=2.13 <4.2")
+    @TargetGradleVersion(">=4.2")
+    def "older consumer can fetch models one project at a time"() {
+        when:
+        List<GradleProject> models = withConnection { connection ->
+            connection.action(new FetchProjectModelsBuildAction(GradleProject)).withArguments('--parallel').run()
+        }
+
+        then:
+        models*.path == [':', ':a', ':b', ':c']
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.tooling.internal.adapter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the cost of traversing a model through adapted views with traversing the source objects directly,
+ * simulating an IDE iterating over all dependencies of all modules of a build.
+ */
+@State(Scope.Benchmark)
+public class ProtocolToModelAdapterBenchmark {
+
+    @Param({"10", "100"})
+    int moduleCount;
+
+    private final ProtocolToModelAdapter adapter = new ProtocolToModelAdapter();
+    private SourceBuild source;
+    private BuildView adaptedBuild;
+
+    @Setup(Level.Trial)
+    public void createModel() {
+        source = new SourceBuild();
+        for (int i = 0; i < moduleCount; i++) {
+            SourceModule module = new SourceModule("module" + i, new File("module" + i));
+            for (int j = 0; j < 50; j++) {
+                module.dependencies.add(new SourceDependency("org.test:lib" + j + ":1." + i, new File("lib" + j + ".jar"), j % 2 == 0));
+            }
+            source.modules.add(module);
+        }
+        adaptedBuild = adapter.adapt(BuildView.class, source);
+    }
+
+    @Benchmark
+    public void traverseSourceObjects(Blackhole bh) {
+        for (SourceModule module : source.getModules()) {
+            bh.consume(module.getName());
+            bh.consume(module.getProjectDir());
+            for (SourceDependency dependency : module.getDependencies()) {
+                bh.consume(dependency.getCoordinates());
+                bh.consume(dependency.getFile());
+                bh.consume(dependency.isExported());
+            }
+        }
+    }
+
+    @Benchmark
+    public void adaptAndTraverseViews(Blackhole bh) {
+        traverse(adapter.adapt(BuildView.class, source), bh);
+    }
+
+    @Benchmark
+    public void traverseAdaptedViews(Blackhole bh) {
+        traverse(adaptedBuild, bh);
+    }
+
+    private static void traverse(BuildView build, Blackhole bh) {
+        for (ModuleView module : build.getModules()) {
+            bh.consume(module.getName());
+            bh.consume(module.getProjectDir());
+            for (DependencyView dependency : module.getDependencies()) {
+                bh.consume(dependency.getCoordinates());
+                bh.consume(dependency.getFile());
+                bh.consume(dependency.isExported());
+            }
+        }
+    }
+
+    public interface BuildView {
+        List<? extends ModuleView> getModules();
+    }
+
+    public interface ModuleView {
+        String getName();
+
+        File getProjectDir();
+
+        List<? extends DependencyView> getDependencies();
+    }
+
+    public interface DependencyView {
+        String getCoordinates();
+
+        File getFile();
+
+        boolean isExported();
+    }
+
+    public static class SourceBuild {
+        private final List<SourceModule> modules = new ArrayList<SourceModule>();
+
+        public List<SourceModule> getModules() {
+            return modules;
+        }
+    }
+
+    public static class SourceModule {
+        private final String name;
+        private final File projectDir;
+        private final List<SourceDependency> dependencies = new ArrayList<SourceDependency>();
+
+        SourceModule(String name, File projectDir) {
+            this.name = name;
+            this.projectDir = projectDir;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public File getProjectDir() {
+            return projectDir;
+        }
+
+        public List<SourceDependency> getDependencies() {
+            return dependencies;
+        }
+    }
+
+    public static class SourceDependency {
+        private final String coordinates;
+        private final File file;
+        private final boolean exported;
+
+        SourceDependency(String coordinates, File file, boolean exported) {
+            this.coordinates = coordinates;
+            this.file = file;
+            this.exported = exported;
+        }
+
+        public String getCoordinates() {
+            return coordinates;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        public boolean isExported() {
+            return exported;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import org.gradle.tooling.model.Model;
 import org.gradle.tooling.model.gradle.GradleBuild;
 
 import javax.annotation.Nullable;
+import java.util.List;
 
 /**
  * Provides a {@link BuildAction} various ways to control a Gradle build and access information about the build.
@@ -112,4 +113,39 @@ public interface BuildController {
      */
     @Nullable
     <T> T findModel(Model target, Class<T> modelType);
+
+    /**
+     * Fetches a snapshot of the model of the given type for each of the given elements, usually Gradle projects.
+     *
+     * <p>When the target build is using Gradle 4.2 or later and parallel execution is enabled for the build, the models for different projects are built in parallel.
+     * Otherwise, the models are built one at a time.</p>
+     *
+     * <p>See {@link #getModel(Model, Class)} for more details.</p>
+     *
+     * @param targets The target elements, usually projects.
+     * @param modelType The model type.
+     * @param <T> The model type.
+     * @return The models, in the same order as the target elements.
+     * @throws UnknownModelException When a target project does not support the requested model.
+     * @since 4.2
+     */
+    @Incubating
+    <T> List<T> getModels(List<? extends Model> targets, Class<T> modelType) throws UnknownModelException;
+
+    /**
+     * Fetches a snapshot of the model of the given type for each of the given elements, usually Gradle projects, and passes each model to the given handler
+     * as soon as it is available. The handler is called from the thread that called this method, and this method returns once all the models have been passed
+     * to the handler.
+     *
+     * <p>See {@link #getModels(List, Class)} for more details.</p>
+     *
+     * @param targets The target elements, usually projects.
+     * @param modelType The model type.
+     * @param handler The handler to pass the models to.
+     * @param <T> The model type.
+     * @throws UnknownModelException When a target project does not support the requested model.
+     * @since 4.2
+     */
+    @Incubating
+    <T> void getModels(Iterable<? extends Model> targets, Class<T> modelType, ModelHandler<? super T> handler) throws UnknownModelException;
 }
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.tooling;
+
+import org.gradle.api.Incubating;
+import org.gradle.tooling.model.Model;
+
+/**
+ * A handler for the models fetched by {@link BuildController#getModels(Iterable, Class, ModelHandler)}.
+ *
+ * @param <T> The model type.
+ * @since 4.2
+ */
+@Incubating
+public interface ModelHandler<T> {
+    /**
+     * Handles the model for a target element.
+     *
+     * @param target the target element, usually a project
+     * @param model the model
+     * @since 4.2
+     */
+    void onModel(Model target, T model);
+}
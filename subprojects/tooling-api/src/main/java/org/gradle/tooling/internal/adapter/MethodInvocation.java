@@ -16,6 +16,10 @@
 
 package org.gradle.tooling.internal.adapter;
 
+import com.google.common.base.Optional;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 
 class MethodInvocation {
@@ -27,11 +31,16 @@ class MethodInvocation {
     private final Object view;
     private final Class<?> viewType;
     private final Object delegate;
+    private final Optional<Method> delegateMethod;
 
     private Object result;
     private boolean found;
 
     MethodInvocation(String name, Class returnType, Type genericReturnType, Class<?>[] parameterTypes, Object view, Class<?> viewType, Object delegate, Object[] parameters) {
+        this(name, returnType, genericReturnType, parameterTypes, view, viewType, delegate, parameters, null);
+    }
+
+    MethodInvocation(String name, Class returnType, Type genericReturnType, Class<?>[] parameterTypes, Object view, Class<?> viewType, Object delegate, Object[] parameters, @Nullable Optional<Method> delegateMethod) {
         this.name = name;
         this.returnType = returnType;
         this.genericReturnType = genericReturnType;
@@ -40,6 +49,7 @@ class MethodInvocation {
         this.viewType = viewType;
         this.delegate = delegate;
         this.parameters = parameters;
+        this.delegateMethod = delegateMethod;
     }
 
     public boolean isGetter() {
@@ -97,4 +107,13 @@ class MethodInvocation {
     public Object getDelegate() {
         return delegate;
     }
+
+    /**
+     * Returns the method of the delegate that handles this invocation, when it has already been resolved. Returns {@code null} when the method has not been resolved,
+     * and an absent value when the delegate has no such method.
+     */
+    @Nullable
+    public Optional<Method> getDelegateMethod() {
+        return delegateMethod;
+    }
 }
@@ -16,6 +16,9 @@
 package org.gradle.tooling.internal.adapter;
 
 import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.gradle.internal.UncheckedException;
 import org.gradle.internal.reflect.DirectInstantiator;
 import org.gradle.internal.time.CountdownTimer;
@@ -48,6 +51,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
@@ -61,6 +66,13 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
         }
     };
     private static final ReflectionMethodInvoker REFLECTION_METHOD_INVOKER = new ReflectionMethodInvoker();
+    // Soft values, as each table strongly references its source type through the methods it has resolved
+    private static final LoadingCache<Class<?>, ViewMethodTable> VIEW_METHOD_TABLES = CacheBuilder.newBuilder().weakKeys().softValues().build(new CacheLoader<Class<?>, ViewMethodTable>() {
+        @Override
+        public ViewMethodTable load(Class<?> sourceType) {
+            return new ViewMethodTable(sourceType);
+        }
+    });
     private static final TypeInspector TYPE_INSPECTOR = new TypeInspector();
     private static final CollectionMapper COLLECTION_MAPPER = new CollectionMapper();
     private static final Object[] EMPTY = new Object[0];
@@ -294,6 +306,7 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
         private Object proxy;
         // Recreate the invoker when deserialized, rather than serialize all its state
         private transient MethodInvoker invoker;
+        private transient ViewMethodTable methodTable;
 
         InvocationHandlerImpl(Class<?> targetType, Object sourceObject, ViewDecoration decoration, ViewGraphDetails graphDetails) {
             this.targetType = targetType;
@@ -321,6 +334,7 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
                     new PropertyCachingMethodInvoker(
                         new AdaptingMethodInvoker(decoration, graphDetails,
                             mixInMethodInvoker))));
+            methodTable = VIEW_METHOD_TABLES.getUnchecked(sourceObject.getClass());
         }
 
         @Override
@@ -353,11 +367,11 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
                 return hashCode();
             }
 
-            MethodInvocation invocation = new MethodInvocation(method.getName(), method.getReturnType(), method.getGenericReturnType(), method.getParameterTypes(), target, targetType, sourceObject, params);
+            ViewMethod viewMethod = methodTable.get(method);
+            MethodInvocation invocation = new MethodInvocation(viewMethod.name, viewMethod.returnType, viewMethod.genericReturnType, viewMethod.parameterTypes, target, targetType, sourceObject, params, viewMethod.sourceMethod);
             invoker.invoke(invocation);
             if (!invocation.found()) {
-                String methodName = method.getDeclaringClass().getSimpleName() + "." + method.getName() + "()";
-                throw Exceptions.unsupportedMethod(methodName);
+                throw Exceptions.unsupportedMethod(viewMethod.displayName);
             }
             return invocation.getResult();
         }
@@ -368,6 +382,49 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
         }
     }
 
+    /**
+     * The view methods invoked on views of a given source type, with the details of each view method and the source method that implements it resolved once,
+     * rather than on each invocation.
+     */
+    private static class ViewMethodTable {
+        private final Class<?> sourceType;
+        private final ConcurrentMap<Method, ViewMethod> methods = new ConcurrentHashMap<Method, ViewMethod>();
+
+        ViewMethodTable(Class<?> sourceType) {
+            this.sourceType = sourceType;
+        }
+
+        ViewMethod get(Method method) {
+            ViewMethod viewMethod = methods.get(method);
+            if (viewMethod == null) {
+                viewMethod = new ViewMethod(method, sourceType);
+                ViewMethod existing = methods.putIfAbsent(method, viewMethod);
+                if (existing != null) {
+                    viewMethod = existing;
+                }
+            }
+            return viewMethod;
+        }
+    }
+
+    private static class ViewMethod {
+        private final String name;
+        private final Class<?> returnType;
+        private final Type genericReturnType;
+        private final Class<?>[] parameterTypes;
+        private final String displayName;
+        private final Optional<Method> sourceMethod;
+
+        ViewMethod(Method method, Class<?> sourceType) {
+            this.name = method.getName();
+            this.returnType = method.getReturnType();
+            this.genericReturnType = method.getGenericReturnType();
+            this.parameterTypes = method.getParameterTypes();
+            this.displayName = method.getDeclaringClass().getSimpleName() + "." + method.getName() + "()";
+            this.sourceMethod = MethodInvocationCache.lookup(sourceType, name, parameterTypes);
+        }
+    }
+
     private static class ChainedMethodInvoker implements MethodInvoker {
         private final MethodInvoker[] invokers;
 
@@ -599,6 +656,10 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
         }
 
         private Method locateMethod(MethodInvocation invocation) {
+            Optional<Method> delegateMethod = invocation.getDelegateMethod();
+            if (delegateMethod != null) {
+                return delegateMethod.orNull();
+            }
             return lookupCache.get(invocation);
         }
     }
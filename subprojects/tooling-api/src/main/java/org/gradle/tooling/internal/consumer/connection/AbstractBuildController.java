@@ -17,10 +17,15 @@
 package org.gradle.tooling.internal.consumer.connection;
 
 import org.gradle.tooling.BuildController;
+import org.gradle.tooling.ModelHandler;
 import org.gradle.tooling.UnknownModelException;
 import org.gradle.tooling.model.Model;
 import org.gradle.tooling.model.gradle.GradleBuild;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 abstract class AbstractBuildController extends HasCompatibilityMapping implements BuildController {
     public <T> T getModel(Class<T> modelType) throws UnknownModelException {
         return getModel(null, modelType);
@@ -42,4 +47,42 @@ abstract class AbstractBuildController extends HasCompatibilityMapping implement
             return null;
         }
     }
+
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getModels(List<? extends Model> targets, Class<T> modelType) throws UnknownModelException {
+        final Object[] models = new Object[targets.size()];
+        buildModels(targets, modelType, new IndexedModelHandler<T>() {
+            @Override
+            public void onModel(int targetIndex, T model) {
+                models[targetIndex] = model;
+            }
+        });
+        return new ArrayList<T>((List<T>) Arrays.asList(models));
+    }
+
+    public <T> void getModels(Iterable<? extends Model> targets, Class<T> modelType, final ModelHandler<? super T> handler) throws UnknownModelException {
+        final List<Model> targetList = new ArrayList<Model>();
+        for (Model target : targets) {
+            targetList.add(target);
+        }
+        buildModels(targetList, modelType, new IndexedModelHandler<T>() {
+            @Override
+            public void onModel(int targetIndex, T model) {
+                handler.onModel(targetList.get(targetIndex), model);
+            }
+        });
+    }
+
+    /**
+     * Fetches the model for each of the given targets, one at a time. Subclasses may override this to build the models in parallel.
+     */
+    protected <T> void buildModels(List<? extends Model> targets, Class<T> modelType, IndexedModelHandler<T> handler) throws UnknownModelException {
+        for (int i = 0; i < targets.size(); i++) {
+            handler.onModel(i, getModel(targets.get(i), modelType));
+        }
+    }
+
+    protected interface IndexedModelHandler<T> {
+        void onModel(int targetIndex, T model);
+    }
 }
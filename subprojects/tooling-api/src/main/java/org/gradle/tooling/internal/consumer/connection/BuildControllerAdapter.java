@@ -25,6 +25,8 @@ import org.gradle.tooling.internal.consumer.versioning.ModelMapping;
 import org.gradle.tooling.internal.gradle.DefaultProjectIdentifier;
 import org.gradle.tooling.internal.protocol.BuildResult;
 import org.gradle.tooling.internal.protocol.InternalBuildController;
+import org.gradle.tooling.internal.protocol.InternalModelResultHandler;
+import org.gradle.tooling.internal.protocol.InternalParallelBuildController;
 import org.gradle.tooling.internal.protocol.InternalUnsupportedModelException;
 import org.gradle.tooling.internal.protocol.ModelIdentifier;
 import org.gradle.tooling.model.Model;
@@ -32,6 +34,8 @@ import org.gradle.tooling.model.ProjectModel;
 import org.gradle.tooling.model.internal.Exceptions;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 class BuildControllerAdapter extends AbstractBuildController implements BuildController {
     private final InternalBuildController buildController;
@@ -60,6 +64,35 @@ class BuildControllerAdapter extends AbstractBuildController implements BuildCon
             throw Exceptions.unknownModel(modelType, e);
         }
 
+        return adaptModel(target, modelType, result);
+    }
+
+    @Override
+    protected <T> void buildModels(final List<? extends Model> targets, final Class<T> modelType, final IndexedModelHandler<T> handler) throws UnknownModelException {
+        if (!(buildController instanceof InternalParallelBuildController)) {
+            super.buildModels(targets, modelType, handler);
+            return;
+        }
+
+        ModelIdentifier modelIdentifier = modelMapping.getModelIdentifierFromModelType(modelType);
+        List<Object> originalTargets = new ArrayList<Object>(targets.size());
+        for (Model target : targets) {
+            originalTargets.add(target == null ? null : adapter.unpack(target));
+        }
+
+        try {
+            ((InternalParallelBuildController) buildController).getModels(originalTargets, modelIdentifier, new InternalModelResultHandler() {
+                @Override
+                public void onModel(int targetIndex, BuildResult<?> result) {
+                    handler.onModel(targetIndex, adaptModel(targets.get(targetIndex), modelType, result));
+                }
+            });
+        } catch (InternalUnsupportedModelException e) {
+            throw Exceptions.unknownModel(modelType, e);
+        }
+    }
+
+    private <T> T adaptModel(Model target, Class<T> modelType, BuildResult<?> result) {
         ViewBuilder<T> viewBuilder = resultAdapter.builder(modelType);
         applyCompatibilityMapping(viewBuilder, new DefaultProjectIdentifier(rootDir, getProjectPath(target)));
         return viewBuilder.build(result.getModel());
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.tooling.internal.protocol;
+
+/**
+ * Receives the models built by {@link InternalParallelBuildController#getModels}.
+ *
+ * <p>DO NOT CHANGE THIS INTERFACE - it is part of the cross-version protocol.
+ *
+ * <p>Consumer compatibility: This interface is implemented by all consumer versions from 4.2.</p>
+ * <p>Provider compatibility: This interface is used by all provider versions from 4.2.</p>
+ *
+ * @since 4.2
+ */
+public interface InternalModelResultHandler {
+    /**
+     * Called when the model for a target has been built.
+     *
+     * @param targetIndex The index of the target in the list of targets passed to {@link InternalParallelBuildController#getModels}.
+     * @param result The model.
+     * @since 4.2
+     */
+    void onModel(int targetIndex, BuildResult<?> result);
+}
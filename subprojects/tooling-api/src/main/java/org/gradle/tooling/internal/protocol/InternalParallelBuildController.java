@@ -0,0 +1,47 @@
+/*
+ * Copyright 2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.gradle.tooling.internal.protocol;
+
+import java.util.List;
+
+/**
+ * Mixed into a provider's {@link InternalBuildController}, to allow a client-provided action to request a model for several targets at once.
+ *
+ * <p>DO NOT CHANGE THIS INTERFACE - it is part of the cross-version protocol.
+ *
+ * <p>Consumer compatibility: This interface is used by all consumer versions from 4.2.</p>
+ * <p>Provider compatibility: This interface is implemented by all provider versions from 4.2.</p>
+ *
+ * @since 4.2
+ */
+public interface InternalParallelBuildController extends InternalBuildController {
+    /**
+     * Builds the requested model for each of the given targets, possibly in parallel, and passes each model to the given handler as soon as it has been built.
+     * The handler is called from the thread that called this method, and this method returns once the handler has received all the models.
+     *
+     * <p>Consumer compatibility: This method is used by all consumer versions from 4.2.</p>
+     * <p>Provider compatibility: This method is implemented by all provider versions from 4.2.</p>
+     *
+     * @param targets The target objects. An element may be null, in which case a default target is used.
+     * @param modelIdentifier The identifier of the model to build.
+     * @param handler The handler to pass the models to.
+     * @throws BuildExceptionVersion1 On build failure.
+     * @throws InternalUnsupportedModelException When the requested model is not supported.
+     * @since 4.2
+     */
+    void getModels(List<?> targets, ModelIdentifier modelIdentifier, InternalModelResultHandler handler) throws BuildExceptionVersion1,
+            InternalUnsupportedModelException;
+}